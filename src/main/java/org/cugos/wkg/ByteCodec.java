@@ -0,0 +1,272 @@
+package org.cugos.wkg;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Table driven hex and Base64 encoding and decoding of WKB, EWKB and GeoPackage blobs.
+ * <p>
+ * Decoding reads straight from a CharSequence into the decoded byte array and encoding appends
+ * straight to an Appendable.  Hex is written in upper case and read in either case.  Base64 is written
+ * with the standard alphabet and padding, and read with the standard or URL safe alphabet, with or
+ * without padding, ignoring line breaks and other white space.  Invalid input throws an
+ * IllegalArgumentException.
+ * </p>
+ * @author Jared Erickson
+ */
+public final class ByteCodec {
+
+    /**
+     * The value of an invalid character in the decode tables
+     */
+    private static final byte INVALID = -1;
+
+    /**
+     * The value of a white space character in the Base64 decode table
+     */
+    private static final byte WHITESPACE = -2;
+
+    /**
+     * The two upper case hex characters of every byte
+     */
+    private static final char[] HEX_PAIRS = new char[512];
+
+    /**
+     * The value of every ASCII hex character
+     */
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    /**
+     * The Base64 alphabet
+     */
+    private static final char[] BASE64_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    /**
+     * The value of every ASCII Base64 character in the standard and URL safe alphabets
+     */
+    private static final byte[] BASE64_VALUES = new byte[128];
+
+    /**
+     * The number of characters that are encoded before they are appended
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    static {
+        char[] hexCharacters = "0123456789ABCDEF".toCharArray();
+        for (int i = 0; i < 256; i++) {
+            HEX_PAIRS[i * 2] = hexCharacters[i >>> 4];
+            HEX_PAIRS[i * 2 + 1] = hexCharacters[i & 0x0F];
+        }
+        Arrays.fill(HEX_VALUES, INVALID);
+        for (int i = 0; i < 16; i++) {
+            HEX_VALUES[hexCharacters[i]] = (byte) i;
+            HEX_VALUES[Character.toLowerCase(hexCharacters[i])] = (byte) i;
+        }
+        Arrays.fill(BASE64_VALUES, INVALID);
+        for (int i = 0; i < BASE64_CHARACTERS.length; i++) {
+            BASE64_VALUES[BASE64_CHARACTERS[i]] = (byte) i;
+        }
+        BASE64_VALUES['-'] = 62;
+        BASE64_VALUES['_'] = 63;
+        BASE64_VALUES[' '] = WHITESPACE;
+        BASE64_VALUES['\t'] = WHITESPACE;
+        BASE64_VALUES['\r'] = WHITESPACE;
+        BASE64_VALUES['\n'] = WHITESPACE;
+    }
+
+    private ByteCodec() {
+    }
+
+    /**
+     * Decode a hex CharSequence into an array of bytes
+     * @param hex The hex CharSequence
+     * @return An array of bytes
+     */
+    public static byte[] decodeHex(CharSequence hex) {
+        int length = hex.length();
+        if ((length & 1) != 0) {
+            throw new IllegalArgumentException("Hex must have an even number of characters! " + length);
+        }
+        byte[] bytes = new byte[length / 2];
+        for (int i = 0, j = 0; i < length; i += 2, j++) {
+            int high = hexValue(hex, i);
+            int low = hexValue(hex, i + 1);
+            bytes[j] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+
+    /**
+     * Encode an array of bytes as an upper case hex String
+     * @param bytes The array of bytes
+     * @return A hex String
+     */
+    public static String encodeHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        try {
+            encodeHex(bytes, 0, bytes.length, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Append a range of an array of bytes as upper case hex
+     * @param bytes The array of bytes
+     * @param offset The offset of the first byte
+     * @param length The number of bytes
+     * @param appendable The Appendable
+     * @throws IOException if there is an error appending
+     */
+    public static void encodeHex(byte[] bytes, int offset, int length, Appendable appendable) throws IOException {
+        char[] chunk = new char[Math.min(CHUNK_SIZE, length * 2)];
+        int numberOfCharacters = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if (numberOfCharacters == chunk.length) {
+                append(appendable, chunk, numberOfCharacters);
+                numberOfCharacters = 0;
+            }
+            int pair = (bytes[i] & 0xFF) << 1;
+            chunk[numberOfCharacters++] = HEX_PAIRS[pair];
+            chunk[numberOfCharacters++] = HEX_PAIRS[pair + 1];
+        }
+        append(appendable, chunk, numberOfCharacters);
+    }
+
+    /**
+     * Decode a Base64 CharSequence into an array of bytes
+     * @param base64 The Base64 CharSequence
+     * @return An array of bytes
+     */
+    public static byte[] decodeBase64(CharSequence base64) {
+        int length = base64.length();
+        int numberOfValues = 0;
+        int padding = 0;
+        for (int i = 0; i < length; i++) {
+            char c = base64.charAt(i);
+            if (c == '=') {
+                padding++;
+            } else {
+                int value = c < 128 ? BASE64_VALUES[c] : INVALID;
+                if (value == INVALID || (value >= 0 && padding > 0)) {
+                    throw new IllegalArgumentException("Invalid Base64 character '" + c + "' at " + i);
+                } else if (value >= 0) {
+                    numberOfValues++;
+                }
+            }
+        }
+        if (numberOfValues % 4 == 1 || padding > 2 || (padding > 0 && (numberOfValues + padding) % 4 != 0)) {
+            throw new IllegalArgumentException("Invalid Base64 length! " + numberOfValues);
+        }
+        byte[] bytes = new byte[numberOfValues / 4 * 3 + Math.max(0, numberOfValues % 4 - 1)];
+        int bits = 0;
+        int numberOfBits = 0;
+        int j = 0;
+        for (int i = 0; i < length && j < bytes.length; i++) {
+            char c = base64.charAt(i);
+            int value = c == '=' ? WHITESPACE : BASE64_VALUES[c];
+            if (value >= 0) {
+                bits = (bits << 6) | value;
+                numberOfBits += 6;
+                if (numberOfBits >= 8) {
+                    numberOfBits -= 8;
+                    bytes[j++] = (byte) (bits >> numberOfBits);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Encode an array of bytes as a padded Base64 String
+     * @param bytes The array of bytes
+     * @return A Base64 String
+     */
+    public static String encodeBase64(byte[] bytes) {
+        StringBuilder builder = new StringBuilder((bytes.length + 2) / 3 * 4);
+        try {
+            encodeBase64(bytes, 0, bytes.length, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Append a range of an array of bytes as padded Base64
+     * @param bytes The array of bytes
+     * @param offset The offset of the first byte
+     * @param length The number of bytes
+     * @param appendable The Appendable
+     * @throws IOException if there is an error appending
+     */
+    public static void encodeBase64(byte[] bytes, int offset, int length, Appendable appendable) throws IOException {
+        char[] chunk = new char[Math.min(CHUNK_SIZE, (length + 2) / 3 * 4)];
+        int numberOfCharacters = 0;
+        int end = offset + length;
+        int i = offset;
+        for (; i + 2 < end; i += 3) {
+            if (numberOfCharacters == chunk.length) {
+                append(appendable, chunk, numberOfCharacters);
+                numberOfCharacters = 0;
+            }
+            int bits = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF);
+            chunk[numberOfCharacters++] = BASE64_CHARACTERS[bits >>> 18];
+            chunk[numberOfCharacters++] = BASE64_CHARACTERS[(bits >>> 12) & 0x3F];
+            chunk[numberOfCharacters++] = BASE64_CHARACTERS[(bits >>> 6) & 0x3F];
+            chunk[numberOfCharacters++] = BASE64_CHARACTERS[bits & 0x3F];
+        }
+        if (i < end) {
+            if (numberOfCharacters == chunk.length) {
+                append(appendable, chunk, numberOfCharacters);
+                numberOfCharacters = 0;
+            }
+            int bits = (bytes[i] & 0xFF) << 16 | (i + 1 < end ? (bytes[i + 1] & 0xFF) << 8 : 0);
+            chunk[numberOfCharacters++] = BASE64_CHARACTERS[bits >>> 18];
+            chunk[numberOfCharacters++] = BASE64_CHARACTERS[(bits >>> 12) & 0x3F];
+            chunk[numberOfCharacters++] = i + 1 < end ? BASE64_CHARACTERS[(bits >>> 6) & 0x3F] : '=';
+            chunk[numberOfCharacters++] = '=';
+        }
+        append(appendable, chunk, numberOfCharacters);
+    }
+
+    /**
+     * Get the value of a hex character
+     * @param hex The hex CharSequence
+     * @param index The index of the character
+     * @return The value
+     */
+    private static int hexValue(CharSequence hex, int index) {
+        char c = hex.charAt(index);
+        int value = c < 128 ? HEX_VALUES[c] : INVALID;
+        if (value == INVALID) {
+            throw new IllegalArgumentException("Invalid hex character '" + c + "' at " + index);
+        }
+        return value;
+    }
+
+    /**
+     * Append characters to an Appendable, avoiding a copy for StringBuilders and Writers
+     * @param appendable The Appendable
+     * @param characters The characters
+     * @param length The number of characters
+     * @throws IOException if there is an error appending
+     */
+    private static void append(Appendable appendable, char[] characters, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        if (appendable instanceof StringBuilder) {
+            ((StringBuilder) appendable).append(characters, 0, length);
+        } else if (appendable instanceof Writer) {
+            ((Writer) appendable).write(characters, 0, length);
+        } else {
+            appendable.append(CharBuffer.wrap(characters, 0, length));
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package org.cugos.wkg;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A Writer that remembers what another Writer wrote for each Geometry and returns it again
+ * instead of encoding the Geometry again.
+ * <p>
+ * Geometries are cached by identity and only weakly referenced, so a cached encoding goes away with its Geometry.
+ * An encoding is written again after the Geometry's SRID is set.  Other changes, such as modifying the
+ * List of a collection or a part of a collection, are not noticed and need a call to {@link #invalidate(Geometry)}.
+ * Use one CachingWriter per Writer configuration.  A CachingWriter can be shared between threads.
+ * </p>
+ * <p>
+ * Byte arrays are copied before they are returned so callers can not change the cached bytes.
+ * </p>
+ * @param <T> The output type
+ * @author Jared Erickson
+ */
+public class CachingWriter<T> implements Writer<T> {
+
+    /**
+     * The Writer
+     */
+    private final Writer<T> writer;
+
+    /**
+     * The cached encodings
+     */
+    private final Map<Geometry, Entry<T>> cache = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Create a new CachingWriter
+     * @param writer The Writer that encodes the Geometries
+     */
+    public CachingWriter(Writer<T> writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Write a Geometry or return the cached encoding
+     * @param g The Geometry
+     * @return The output type
+     */
+    @Override
+    public T write(Geometry g) {
+        int modifications = g.modifications;
+        Entry<T> entry = cache.get(g);
+        T value;
+        if (entry != null && entry.modifications == modifications) {
+            value = entry.value;
+        } else {
+            value = writer.write(g);
+            cache.put(g, new Entry<>(modifications, value));
+        }
+        return copy(value);
+    }
+
+    @Override
+    public String getName() {
+        return writer.getName();
+    }
+
+    /**
+     * Get the Writer that encodes the Geometries
+     * @return The Writer
+     */
+    public Writer<T> getWriter() {
+        return writer;
+    }
+
+    /**
+     * Remove the cached encoding of a Geometry
+     * @param g The Geometry
+     */
+    public void invalidate(Geometry g) {
+        cache.remove(g);
+    }
+
+    /**
+     * Remove all cached encodings
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Get the number of cached encodings
+     * @return The number of cached encodings
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Copy a byte array so the cached bytes can not be changed.  Other values are returned as they are.
+     * @param value The value
+     * @return The value or a copy of it
+     */
+    @SuppressWarnings("unchecked")
+    private T copy(T value) {
+        if (value instanceof byte[]) {
+            return (T) ((byte[]) value).clone();
+        }
+        return value;
+    }
+
+    /**
+     * A cached encoding
+     */
+    private static final class Entry<T> {
+
+        /**
+         * The number of modifications of the Geometry when it was encoded
+         */
+        private final int modifications;
+
+        /**
+         * The encoding
+         */
+        private final T value;
+
+        Entry(int modifications, T value) {
+            this.modifications = modifications;
+            this.value = value;
+        }
+    }
+
+}
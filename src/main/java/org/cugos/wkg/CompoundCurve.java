@@ -66,6 +66,11 @@ public class CompoundCurve extends Curve {
         return Collections.unmodifiableList(coordinates);
     }
 
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
     /**
      * Create an empty CompoundCurve
      * @return An empty CompoundCurve
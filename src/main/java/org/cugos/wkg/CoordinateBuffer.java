@@ -0,0 +1,326 @@
+package org.cugos.wkg;
+
+import org.cugos.wkg.WKB.GeometryType;
+
+import java.util.Arrays;
+
+/**
+ * A reusable, caller owned buffer that WKBReader decodes the coordinates and structure of a Geometry into.
+ * <p>
+ * Coordinates are stored interleaved in a double array with {@link #getStride()} ordinates per Coordinate.
+ * The Geometry is flattened into parts and rings.  A part is a Point, LineString, CircularString, Polygon or
+ * Triangle and nested collections are flattened into their parts.  Each part has one or more rings and each
+ * ring is a run of Coordinates.  A Point or a LineString has a single ring, an empty Point has a ring without
+ * Coordinates, and a Polygon has one ring per LinearRing.  The part offsets index into the rings and the
+ * ring offsets index into the Coordinates, and both have one more entry than there are parts or rings.
+ * </p>
+ * <p>
+ * The arrays only grow when a Geometry does not fit, so decoding many Geometries into the same
+ * CoordinateBuffer does not create garbage once the arrays are large enough.  A CoordinateBuffer
+ * is not thread safe.
+ * </p>
+ * @author Jared Erickson
+ */
+public final class CoordinateBuffer {
+
+    /**
+     * The interleaved ordinates
+     */
+    private double[] coordinates;
+
+    /**
+     * The index of the first Coordinate of each ring
+     */
+    private int[] ringOffsets;
+
+    /**
+     * The index of the first ring of each part
+     */
+    private int[] partOffsets;
+
+    /**
+     * The WKB.GeometryType value of each part
+     */
+    private int[] partTypes;
+
+    /**
+     * The number of Coordinates
+     */
+    private int numberOfCoordinates;
+
+    /**
+     * The number of rings
+     */
+    private int numberOfRings;
+
+    /**
+     * The number of parts
+     */
+    private int numberOfParts;
+
+    /**
+     * The WKB.GeometryType of the Geometry
+     */
+    private GeometryType geometryType;
+
+    /**
+     * The Dimension of the Geometry
+     */
+    private Dimension dimension = Dimension.Two;
+
+    /**
+     * The number of ordinates per Coordinate
+     */
+    private int stride = 2;
+
+    /**
+     * Whether the Geometry has an SRID
+     */
+    private boolean hasSrid;
+
+    /**
+     * The SRID
+     */
+    private int srid;
+
+    /**
+     * The reusable input for arrays of bytes
+     */
+    final WKBInput.ArrayInput arrayInput = new WKBInput.ArrayInput(null, 0, 0);
+
+    /**
+     * The reusable input for direct and read only ByteBuffers
+     */
+    final WKBInput.BufferInput bufferInput = new WKBInput.BufferInput(null);
+
+    /**
+     * Create a new CoordinateBuffer with room for 256 Coordinates
+     */
+    public CoordinateBuffer() {
+        this(256);
+    }
+
+    /**
+     * Create a new CoordinateBuffer
+     * @param initialNumberOfCoordinates The number of Coordinates there is room for before the buffer grows
+     */
+    public CoordinateBuffer(int initialNumberOfCoordinates) {
+        this.coordinates = new double[Math.max(1, initialNumberOfCoordinates) * 2];
+        this.ringOffsets = new int[16];
+        this.partOffsets = new int[16];
+        this.partTypes = new int[16];
+    }
+
+    /**
+     * Get the WKB.GeometryType of the decoded Geometry
+     * @return The WKB.GeometryType
+     */
+    public GeometryType getGeometryType() {
+        return geometryType;
+    }
+
+    /**
+     * Get the Dimension of the decoded Geometry
+     * @return The Dimension
+     */
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Get the number of ordinates per Coordinate (2, 3, or 4)
+     * @return The number of ordinates per Coordinate
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * Whether the decoded Geometry has an SRID
+     * @return Whether the decoded Geometry has an SRID
+     */
+    public boolean hasSrid() {
+        return hasSrid;
+    }
+
+    /**
+     * Get the SRID of the decoded Geometry
+     * @return The SRID or 0 if there is no SRID
+     */
+    public int getSrid() {
+        return srid;
+    }
+
+    /**
+     * Get the number of Coordinates
+     * @return The number of Coordinates
+     */
+    public int getNumberOfCoordinates() {
+        return numberOfCoordinates;
+    }
+
+    /**
+     * Get the interleaved ordinates.  Only the first {@link #getNumberOfCoordinates()} times
+     * {@link #getStride()} values are valid.
+     * @return The backing double array
+     */
+    public double[] getCoordinates() {
+        return coordinates;
+    }
+
+    /**
+     * Get the X of a Coordinate
+     * @param index The index of the Coordinate
+     * @return The X
+     */
+    public double getX(int index) {
+        return coordinates[index * stride];
+    }
+
+    /**
+     * Get the Y of a Coordinate
+     * @param index The index of the Coordinate
+     * @return The Y
+     */
+    public double getY(int index) {
+        return coordinates[index * stride + 1];
+    }
+
+    /**
+     * Get the Z of a Coordinate
+     * @param index The index of the Coordinate
+     * @return The Z or NaN if the Geometry doesn't have Z values
+     */
+    public double getZ(int index) {
+        return dimension == Dimension.Three || dimension == Dimension.ThreeMeasured ? coordinates[index * stride + 2] : Double.NaN;
+    }
+
+    /**
+     * Get the M of a Coordinate
+     * @param index The index of the Coordinate
+     * @return The M or NaN if the Geometry doesn't have M values
+     */
+    public double getM(int index) {
+        return dimension == Dimension.TwoMeasured || dimension == Dimension.ThreeMeasured ? coordinates[index * stride + stride - 1] : Double.NaN;
+    }
+
+    /**
+     * Get the number of rings
+     * @return The number of rings
+     */
+    public int getNumberOfRings() {
+        return numberOfRings;
+    }
+
+    /**
+     * Get the ring offsets.  Ring i has the Coordinates from offset i up to offset i + 1.
+     * Only the first {@link #getNumberOfRings()} + 1 values are valid.
+     * @return The backing int array
+     */
+    public int[] getRingOffsets() {
+        return ringOffsets;
+    }
+
+    /**
+     * Get the number of parts
+     * @return The number of parts
+     */
+    public int getNumberOfParts() {
+        return numberOfParts;
+    }
+
+    /**
+     * Get the part offsets.  Part i has the rings from offset i up to offset i + 1.
+     * Only the first {@link #getNumberOfParts()} + 1 values are valid.
+     * @return The backing int array
+     */
+    public int[] getPartOffsets() {
+        return partOffsets;
+    }
+
+    /**
+     * Get the WKB.GeometryType of a part
+     * @param index The index of the part
+     * @return The WKB.GeometryType
+     */
+    public GeometryType getPartType(int index) {
+        if (index < 0 || index >= numberOfParts) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + numberOfParts);
+        }
+        return GeometryType.get(partTypes[index]);
+    }
+
+    /**
+     * Remove the decoded Geometry but keep the arrays
+     * @return This CoordinateBuffer
+     */
+    public CoordinateBuffer clear() {
+        numberOfCoordinates = 0;
+        numberOfRings = 0;
+        numberOfParts = 0;
+        ringOffsets[0] = 0;
+        partOffsets[0] = 0;
+        geometryType = null;
+        dimension = Dimension.Two;
+        stride = 2;
+        hasSrid = false;
+        srid = 0;
+        return this;
+    }
+
+    /**
+     * Start decoding a new Geometry
+     * @param geometryType The WKB.GeometryType
+     * @param dimension The Dimension
+     * @param hasSrid Whether there is an SRID
+     * @param srid The SRID
+     */
+    void start(GeometryType geometryType, Dimension dimension, boolean hasSrid, int srid) {
+        clear();
+        this.geometryType = geometryType;
+        this.dimension = dimension;
+        this.stride = dimension == Dimension.Two ? 2 : dimension == Dimension.ThreeMeasured ? 4 : 3;
+        this.hasSrid = hasSrid;
+        this.srid = hasSrid ? srid : 0;
+    }
+
+    /**
+     * Start a new part
+     * @param geometryType The WKB.GeometryType of the part
+     */
+    void startPart(GeometryType geometryType) {
+        if (numberOfParts + 1 >= partOffsets.length) {
+            partOffsets = Arrays.copyOf(partOffsets, partOffsets.length * 2);
+            partTypes = Arrays.copyOf(partTypes, partTypes.length * 2);
+        }
+        partOffsets[numberOfParts] = numberOfRings;
+        partTypes[numberOfParts] = geometryType.getValue();
+        numberOfParts++;
+        partOffsets[numberOfParts] = numberOfRings;
+    }
+
+    /**
+     * Start a new ring and make room for its Coordinates
+     * @param numberOfRingCoordinates The number of Coordinates of the ring
+     * @return The index in the Coordinates array to write the first ordinate to
+     */
+    int startRing(int numberOfRingCoordinates) {
+        if (numberOfRings + 1 >= ringOffsets.length) {
+            ringOffsets = Arrays.copyOf(ringOffsets, ringOffsets.length * 2);
+        }
+        long length = (long) (numberOfCoordinates + numberOfRingCoordinates) * stride;
+        if (length > coordinates.length) {
+            if (length > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Too many Coordinates! " + (numberOfCoordinates + numberOfRingCoordinates));
+            }
+            coordinates = Arrays.copyOf(coordinates, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(length, coordinates.length * 2L)));
+        }
+        ringOffsets[numberOfRings] = numberOfCoordinates;
+        numberOfRings++;
+        numberOfCoordinates += numberOfRingCoordinates;
+        ringOffsets[numberOfRings] = numberOfCoordinates;
+        partOffsets[numberOfParts] = numberOfRings;
+        return ringOffsets[numberOfRings - 1] * stride;
+    }
+
+}
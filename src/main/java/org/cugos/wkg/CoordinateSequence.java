@@ -0,0 +1,295 @@
+package org.cugos.wkg;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable sequence of Coordinates packed into a single double array.
+ * <p>
+ * Each Coordinate takes {@link #getStride()} doubles: X and Y, followed by Z and then M when the
+ * sequence has them.  A Coordinate without a Z or M value in a sequence that has them stores NaN,
+ * which is also what the Coordinate returns, so values round trip exactly.  Coordinate objects are only
+ * created when they are asked for, one at a time, through {@link #getCoordinate(int)} or the
+ * {@link #asList()} view.
+ * </p>
+ * @author Jared Erickson
+ */
+public final class CoordinateSequence {
+
+    /**
+     * An empty CoordinateSequence
+     */
+    private static final CoordinateSequence EMPTY = new CoordinateSequence(new double[0], false, false);
+
+    /**
+     * The packed ordinates
+     */
+    private final double[] ordinates;
+
+    /**
+     * Whether each Coordinate has a Z value
+     */
+    private final boolean hasZ;
+
+    /**
+     * Whether each Coordinate has an M value
+     */
+    private final boolean hasM;
+
+    /**
+     * The number of ordinates per Coordinate
+     */
+    private final int stride;
+
+    /**
+     * Create a new CoordinateSequence from packed ordinates.  The array is copied.
+     * @param ordinates The packed ordinates
+     * @param dimension The Dimension which determines the number of ordinates per Coordinate
+     */
+    public CoordinateSequence(double[] ordinates, Dimension dimension) {
+        this(ordinates.clone(), hasZ(dimension), hasM(dimension));
+        if (ordinates.length % stride != 0) {
+            throw new IllegalArgumentException("The number of ordinates " + ordinates.length + " is not a multiple of " + stride);
+        }
+    }
+
+    /**
+     * Create a new CoordinateSequence that takes ownership of the packed ordinates
+     * @param ordinates The packed ordinates
+     * @param hasZ Whether each Coordinate has a Z value
+     * @param hasM Whether each Coordinate has an M value
+     */
+    private CoordinateSequence(double[] ordinates, boolean hasZ, boolean hasM) {
+        this.ordinates = ordinates;
+        this.hasZ = hasZ;
+        this.hasM = hasM;
+        this.stride = 2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0);
+    }
+
+    /**
+     * Create a new CoordinateSequence from a List of Coordinates.  Z or M values are only stored
+     * when at least one Coordinate has them.
+     * @param coordinates The List of Coordinates
+     * @return A CoordinateSequence
+     */
+    public static CoordinateSequence create(List<Coordinate> coordinates) {
+        if (coordinates instanceof CoordinateList) {
+            return ((CoordinateList) coordinates).getCoordinateSequence();
+        }
+        int size = coordinates.size();
+        if (size == 0) {
+            return EMPTY;
+        }
+        boolean hasZ = false;
+        boolean hasM = false;
+        for (Coordinate coordinate : coordinates) {
+            hasZ |= !Double.isNaN(coordinate.getZ());
+            hasM |= !Double.isNaN(coordinate.getM());
+        }
+        CoordinateSequence sequence = new CoordinateSequence(new double[size * (2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0))], hasZ, hasM);
+        double[] ordinates = sequence.ordinates;
+        int index = 0;
+        for (Coordinate coordinate : coordinates) {
+            ordinates[index++] = coordinate.getX();
+            ordinates[index++] = coordinate.getY();
+            if (hasZ) {
+                ordinates[index++] = coordinate.getZ();
+            }
+            if (hasM) {
+                ordinates[index++] = coordinate.getM();
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Create a new CoordinateSequence that takes ownership of the packed ordinates without copying them
+     * @param ordinates The packed ordinates
+     * @param dimension The Dimension which determines the number of ordinates per Coordinate
+     * @return A CoordinateSequence
+     */
+    static CoordinateSequence wrap(double[] ordinates, Dimension dimension) {
+        return new CoordinateSequence(ordinates, hasZ(dimension), hasM(dimension));
+    }
+
+    /**
+     * Get the number of ordinates per Coordinate for a Dimension
+     * @param dimension The Dimension
+     * @return The number of ordinates per Coordinate
+     */
+    static int getStride(Dimension dimension) {
+        return 2 + (hasZ(dimension) ? 1 : 0) + (hasM(dimension) ? 1 : 0);
+    }
+
+    /**
+     * Get the number of Coordinates
+     * @return The number of Coordinates
+     */
+    public int size() {
+        return ordinates.length / stride;
+    }
+
+    /**
+     * Whether there are no Coordinates
+     * @return Whether there are no Coordinates
+     */
+    public boolean isEmpty() {
+        return ordinates.length == 0;
+    }
+
+    /**
+     * Get the number of ordinates per Coordinate
+     * @return The number of ordinates per Coordinate
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * Get the Dimension of the packed ordinates
+     * @return The Dimension
+     */
+    public Dimension getDimension() {
+        if (hasZ && hasM) {
+            return Dimension.ThreeMeasured;
+        } else if (hasZ) {
+            return Dimension.Three;
+        } else if (hasM) {
+            return Dimension.TwoMeasured;
+        } else {
+            return Dimension.Two;
+        }
+    }
+
+    /**
+     * Get the X value of a Coordinate
+     * @param index The index of the Coordinate
+     * @return The X value
+     */
+    public double getX(int index) {
+        return ordinates[index * stride];
+    }
+
+    /**
+     * Get the Y value of a Coordinate
+     * @param index The index of the Coordinate
+     * @return The Y value
+     */
+    public double getY(int index) {
+        return ordinates[index * stride + 1];
+    }
+
+    /**
+     * Get the Z value of a Coordinate
+     * @param index The index of the Coordinate
+     * @return The Z value or NaN
+     */
+    public double getZ(int index) {
+        return hasZ ? ordinates[index * stride + 2] : Double.NaN;
+    }
+
+    /**
+     * Get the M value of a Coordinate
+     * @param index The index of the Coordinate
+     * @return The M value or NaN
+     */
+    public double getM(int index) {
+        return hasM ? ordinates[index * stride + stride - 1] : Double.NaN;
+    }
+
+    /**
+     * Create a Coordinate
+     * @param index The index of the Coordinate
+     * @return A new Coordinate
+     */
+    public Coordinate getCoordinate(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return new Coordinate(getX(index), getY(index), getZ(index), getM(index));
+    }
+
+    /**
+     * Copy the packed ordinates
+     * @return A copy of the packed ordinates
+     */
+    public double[] toArray() {
+        return ordinates.clone();
+    }
+
+    /**
+     * Get an unmodifiable List view of the Coordinates.  Each Coordinate is created when it is read.
+     * @return A List of Coordinates
+     */
+    public List<Coordinate> asList() {
+        return new CoordinateList(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CoordinateSequence that = (CoordinateSequence) o;
+        return hasZ == that.hasZ && hasM == that.hasM && Arrays.equals(ordinates, that.ordinates);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * getDimension().hashCode() + Arrays.hashCode(ordinates);
+    }
+
+    @Override
+    public String toString() {
+        return asList().toString();
+    }
+
+    /**
+     * Whether a Dimension has a Z value
+     * @param dimension The Dimension
+     * @return Whether the Dimension has a Z value
+     */
+    private static boolean hasZ(Dimension dimension) {
+        return dimension == Dimension.Three || dimension == Dimension.ThreeMeasured;
+    }
+
+    /**
+     * Whether a Dimension has an M value
+     * @param dimension The Dimension
+     * @return Whether the Dimension has an M value
+     */
+    private static boolean hasM(Dimension dimension) {
+        return dimension == Dimension.TwoMeasured || dimension == Dimension.ThreeMeasured;
+    }
+
+    /**
+     * An unmodifiable List view of a CoordinateSequence
+     */
+    private static final class CoordinateList extends AbstractList<Coordinate> implements RandomAccess {
+
+        /**
+         * The CoordinateSequence
+         */
+        private final CoordinateSequence sequence;
+
+        CoordinateList(CoordinateSequence sequence) {
+            this.sequence = sequence;
+        }
+
+        CoordinateSequence getCoordinateSequence() {
+            return sequence;
+        }
+
+        @Override
+        public Coordinate get(int index) {
+            return sequence.getCoordinate(index);
+        }
+
+        @Override
+        public int size() {
+            return sequence.size();
+        }
+    }
+
+}
@@ -83,6 +83,11 @@ public class CurvePolygon extends Surface {
         return Collections.unmodifiableList(coordinates);
     }
 
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
     /**
      * Create an empty CurvePolygon
      * @return An empty CurvePolygon
@@ -0,0 +1,413 @@
+package org.cugos.wkg;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+
+/**
+ * Format doubles as plain decimal text for the WKTWriter and the GeoJSONWriter.
+ * <p>
+ * The default formatter writes the shortest decimal that parses back to the same double, like Double.toString,
+ * but never in scientific notation: 1.0E-5 is written as 0.00001 and 1.0E7 as 10000000.0.  Whole numbers keep
+ * their .0 suffix.  The digits are found with Raffaello Giulietti's Schubfach algorithm, which needs a few 128 bit
+ * multiplications and no allocation, instead of the big number arithmetic of Double.toString.
+ * </p>
+ * <p>
+ * The formatters with a number of decimals round the shortest decimal half up to that many decimals, and
+ * either drop or keep the trailing zeros.  The formatters write straight into a StringBuilder or an Appendable
+ * and can be shared between threads.
+ * </p>
+ * @author Jared Erickson
+ */
+public final class DoubleFormatter {
+
+    /**
+     * The largest number of decimals
+     */
+    public static final int MAXIMUM_DECIMALS = 22;
+
+    /**
+     * The formatter for the shortest decimal
+     */
+    private static final DoubleFormatter SHORTEST = new DoubleFormatter(-1, false);
+
+    /**
+     * Powers of ten that fit in a long
+     */
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L, 10000000000L,
+        100000000000L, 1000000000000L, 10000000000000L, 100000000000000L, 1000000000000000L,
+        10000000000000000L, 100000000000000000L, 1000000000000000000L
+    };
+
+    /**
+     * The smallest binary exponent of a double
+     */
+    private static final int Q_MIN = -1074;
+
+    /**
+     * The smallest normal significand, 2^52
+     */
+    private static final long C_MIN = 1L << 52;
+
+    /**
+     * The significands below this are scaled by ten so that the decimal is precise enough
+     */
+    private static final long C_TINY = 3;
+
+    /**
+     * The smallest and largest decimal exponents of the table
+     */
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+
+    private static final long MASK_63 = (1L << 63) - 1;
+
+    /**
+     * For each decimal exponent k, 10^-k = beta 2^r with 2^125 &lt;= beta &lt; 2^126 and g = floor(beta) + 1.
+     * The table holds the higher and the lower 63 bits of each g.
+     */
+    private static final long[] G = createTable();
+
+    /**
+     * The number of decimals or -1 for the shortest decimal
+     */
+    private final int decimals;
+
+    /**
+     * Whether to keep the trailing zeros of the decimals
+     */
+    private final boolean fixed;
+
+    /**
+     * Create a new DoubleFormatter
+     * @param decimals The number of decimals or -1 for the shortest decimal
+     * @param fixed Whether to keep the trailing zeros
+     */
+    private DoubleFormatter(int decimals, boolean fixed) {
+        this.decimals = decimals;
+        this.fixed = fixed;
+    }
+
+    /**
+     * Get the formatter that writes the shortest decimal that parses back to the same double
+     * @return The DoubleFormatter
+     */
+    public static DoubleFormatter shortest() {
+        return SHORTEST;
+    }
+
+    /**
+     * Get a formatter that rounds to at most a number of decimals and drops the trailing zeros, so
+     * 1.5 with 3 decimals is 1.5 and 2 is 2.0
+     * @param decimals The number of decimals, from 0 to 22
+     * @return The DoubleFormatter
+     */
+    public static DoubleFormatter maximumDecimals(int decimals) {
+        return new DoubleFormatter(checkDecimals(decimals), false);
+    }
+
+    /**
+     * Get a formatter that rounds to a number of decimals and keeps the trailing zeros, so 1.5 with
+     * 3 decimals is 1.500 and with 0 decimals is 2
+     * @param decimals The number of decimals, from 0 to 22
+     * @return The DoubleFormatter
+     */
+    public static DoubleFormatter fixedDecimals(int decimals) {
+        return new DoubleFormatter(checkDecimals(decimals), true);
+    }
+
+    private static int checkDecimals(int decimals) {
+        if (decimals < 0 || decimals > MAXIMUM_DECIMALS) {
+            throw new IllegalArgumentException("The number of decimals must be between 0 and " + MAXIMUM_DECIMALS + "! " + decimals);
+        }
+        return decimals;
+    }
+
+    /**
+     * Format a double as a String
+     * @param value The double
+     * @return The text
+     */
+    public String format(double value) {
+        StringBuilder builder = new StringBuilder(24);
+        format(value, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Append a double to a StringBuilder
+     * @param value The double
+     * @param builder The StringBuilder
+     */
+    public void format(double value, StringBuilder builder) {
+        try {
+            format(value, (Appendable) builder);
+        } catch (IOException e) {
+            // A StringBuilder does not throw IOExceptions
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Append a double to an Appendable.  NaN and infinite values are written like Double.toString does.
+     * @param value The double
+     * @param appendable The Appendable
+     * @throws IOException if there is an error appending
+     */
+    public void format(double value, Appendable appendable) throws IOException {
+        long bits = Double.doubleToRawLongBits(value);
+        boolean negative = bits < 0;
+        long t = bits & (C_MIN - 1);
+        int bq = (int) (bits >>> 52) & 0x7ff;
+        if (bq == 0x7ff) {
+            appendable.append(Double.toString(value));
+        } else if (bq != 0) {
+            int mq = -Q_MIN + 1 - bq;
+            long c = C_MIN | t;
+            if (0 < mq && mq < 53 && (c >> mq) << mq == c) {
+                // A whole number below 2^53
+                appendDecimal(negative, c >> mq, 0, appendable);
+            } else {
+                toDecimal(negative, -mq, c, 0, appendable);
+            }
+        } else if (t != 0) {
+            if (t < C_TINY) {
+                toDecimal(negative, Q_MIN, 10 * t, -1, appendable);
+            } else {
+                toDecimal(negative, Q_MIN, t, 0, appendable);
+            }
+        } else {
+            appendDecimal(negative, 0, 0, appendable);
+        }
+    }
+
+    /**
+     * Find the shortest decimal in the rounding interval of c 2^q, the closest one if there are several, and
+     * append it
+     * @param negative Whether the value is negative
+     * @param q The binary exponent
+     * @param c The significand
+     * @param dk The correction of the decimal exponent
+     * @param appendable The Appendable
+     * @throws IOException if there is an error appending
+     */
+    private void toDecimal(boolean negative, int q, long c, int dk, Appendable appendable) throws IOException {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != C_MIN | q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+        long g1 = G[(k - K_MIN) << 1];
+        long g0 = G[(k - K_MIN) << 1 | 1];
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+        long s = vb >> 2;
+        if (s >= 100) {
+            // Try one digit less
+            long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                appendDecimal(negative, upin ? sp10 : tp10, k, appendable);
+                return;
+            }
+        }
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            appendDecimal(negative, uin ? s : t, k + dk, appendable);
+            return;
+        }
+        long cmp = vb - (s + t << 1);
+        appendDecimal(negative, cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, appendable);
+    }
+
+    /**
+     * Round the product of a 126 bit g and a 64 bit cp to odd
+     */
+    private static long rop(long g1, long g0, long cp) {
+        long x1 = Math.multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = Math.multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    /**
+     * floor(e log10(2))
+     */
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    /**
+     * floor(e log10(2) + log10(3/4))
+     */
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    /**
+     * floor(e log2(10))
+     */
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+
+    /**
+     * Compute the table of g values
+     * @return The higher and lower 63 bits of g for each decimal exponent
+     */
+    private static long[] createTable() {
+        long[] table = new long[(K_MAX - K_MIN + 1) * 2];
+        BigInteger mask = BigInteger.ONE.shiftLeft(63).subtract(BigInteger.ONE);
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            int r = flog2pow10(-k) - 125;
+            BigInteger beta;
+            if (k <= 0) {
+                BigInteger power = BigInteger.TEN.pow(-k);
+                beta = r >= 0 ? power.shiftRight(r) : power.shiftLeft(-r);
+            } else {
+                beta = BigInteger.ONE.shiftLeft(-r).divide(BigInteger.TEN.pow(k));
+            }
+            BigInteger g = beta.add(BigInteger.ONE);
+            table[(k - K_MIN) << 1] = g.shiftRight(63).longValue();
+            table[(k - K_MIN) << 1 | 1] = g.and(mask).longValue();
+        }
+        return table;
+    }
+
+    /**
+     * Round and append the decimal f 10^e
+     * @param negative Whether the value is negative
+     * @param f The digits
+     * @param e The decimal exponent
+     * @param appendable The Appendable
+     * @throws IOException if there is an error appending
+     */
+    private void appendDecimal(boolean negative, long f, int e, Appendable appendable) throws IOException {
+        if (f == 0) {
+            e = 0;
+        }
+        while (f != 0 && f % 10 == 0) {
+            f /= 10;
+            e++;
+        }
+        if (decimals >= 0 && -e > decimals) {
+            int drop = -e - decimals;
+            if (drop > numberOfDigits(f)) {
+                f = 0;
+            } else {
+                long power = POWERS_OF_TEN[drop];
+                long remainder = f % power;
+                f = f / power + (remainder * 2 >= power ? 1 : 0);
+            }
+            e = f == 0 ? 0 : -decimals;
+            while (!fixed && f != 0 && f % 10 == 0) {
+                f /= 10;
+                e++;
+            }
+        }
+        // Like Double.toString, the shortest decimal keeps the sign of -0.0, but a value rounded to zero has no sign
+        if (negative && (f != 0 || decimals < 0)) {
+            appendable.append('-');
+        }
+        int length = numberOfDigits(f);
+        int numberOfDecimals = e < 0 ? -e : 0;
+        if (e >= 0) {
+            appendDigits(f, length, appendable);
+            appendZeros(e, appendable);
+        } else if (length + e > 0) {
+            appendDigits(f / POWERS_OF_TEN[-e], length + e, appendable);
+        } else {
+            appendable.append('0');
+        }
+        if (numberOfDecimals > 0) {
+            appendable.append('.');
+            appendDigits(numberOfDecimals < POWERS_OF_TEN.length ? f % POWERS_OF_TEN[numberOfDecimals] : f, numberOfDecimals, appendable);
+        }
+        if (!fixed) {
+            if (numberOfDecimals == 0) {
+                appendable.append(".0");
+            }
+        } else if (numberOfDecimals < decimals) {
+            if (numberOfDecimals == 0) {
+                appendable.append('.');
+            }
+            appendZeros(decimals - numberOfDecimals, appendable);
+        }
+    }
+
+    /**
+     * Count the digits of a number that is not negative
+     * @param value The number
+     * @return The number of digits
+     */
+    private static int numberOfDigits(long value) {
+        if (value == 0) {
+            return 1;
+        }
+        int digits = flog10pow2(Long.SIZE - Long.numberOfLeadingZeros(value));
+        return value >= POWERS_OF_TEN[digits] ? digits + 1 : digits;
+    }
+
+    /**
+     * Append a number that is not negative as a number of digits with leading zeros
+     * @param value The number
+     * @param digits The number of digits
+     * @param appendable The Appendable
+     * @throws IOException if there is an error appending
+     */
+    private static void appendDigits(long value, int digits, Appendable appendable) throws IOException {
+        if (digits > 18) {
+            appendZeros(digits - 18, appendable);
+            digits = 18;
+        }
+        if (digits > 9) {
+            appendDigits((int) (value / 1_000_000_000L), digits - 9, appendable);
+            appendDigits((int) (value % 1_000_000_000L), 9, appendable);
+        } else {
+            appendDigits((int) value, digits, appendable);
+        }
+    }
+
+    /**
+     * Append at most 9 digits.  They are collected from the last one in four bits each, so that only
+     * divisions by the constant ten are needed.
+     * @param value The number
+     * @param digits The number of digits
+     * @param appendable The Appendable
+     * @throws IOException if there is an error appending
+     */
+    private static void appendDigits(int value, int digits, Appendable appendable) throws IOException {
+        long packed = 0;
+        for (int i = 0; i < digits; i++) {
+            packed = packed << 4 | value % 10;
+            value /= 10;
+        }
+        for (int i = 0; i < digits; i++) {
+            appendable.append((char) ('0' + (packed & 0xf)));
+            packed >>>= 4;
+        }
+    }
+
+    private static void appendZeros(int count, Appendable appendable) throws IOException {
+        for (int i = 0; i < count; i++) {
+            appendable.append('0');
+        }
+    }
+
+}
@@ -0,0 +1,304 @@
+package org.cugos.wkg;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parse decimal numbers straight from a char or byte buffer for the WKT and GeoJSON readers.
+ * <p>
+ * The digits are collected into a long and a decimal exponent, without a String.  Up to 2^53 with at most
+ * 22 powers of ten, one double multiplication or division is exact.  Other numbers use the Eisel-Lemire
+ * algorithm, which rounds correctly with one or two 128 bit multiplications.  The rare numbers that it cannot
+ * decide, like exact halfway cases, subnormals, and more than 19 digits that round differently, fall back to
+ * Double.parseDouble.
+ * </p>
+ * @author Jared Erickson
+ */
+final class DoubleParser {
+
+    /**
+     * Powers of ten that are exact doubles
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * The smallest and largest decimal exponents of the table
+     */
+    private static final int Q_MIN = -342;
+    private static final int Q_MAX = 308;
+
+    /**
+     * For each decimal exponent q, the 128 bits of 10^q with the highest bit set, rounded down.  The table holds
+     * the higher and the lower 64 bits.
+     */
+    private static final long[] POWERS = createTable();
+
+    private DoubleParser() {
+    }
+
+    /**
+     * Parse a number: ('+' | '-')? Digits ('.' Digits?)? (('e' | 'E') ('+' | '-')? Digits)?
+     * @param chars The characters
+     * @param start The index of the first character
+     * @param end The index after the last character
+     * @return The closest double
+     * @throws NumberFormatException if the characters are not a number
+     */
+    static double parse(char[] chars, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        // The first 19 significant digits fit in an unsigned long
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        int begin = i;
+        for (; i < end && chars[i] >= '0' && chars[i] <= '9'; i++) {
+            int digit = chars[i] - '0';
+            if (digits < 19) {
+                significand = significand * 10 + digit;
+                if (significand != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+                truncated |= digit != 0;
+            }
+        }
+        boolean hasDigits = i > begin;
+        if (i < end && chars[i] == '.') {
+            begin = ++i;
+            for (; i < end && chars[i] >= '0' && chars[i] <= '9'; i++) {
+                int digit = chars[i] - '0';
+                if (digits < 19) {
+                    significand = significand * 10 + digit;
+                    exponent--;
+                    if (significand != 0) {
+                        digits++;
+                    }
+                } else {
+                    truncated |= digit != 0;
+                }
+            }
+            hasDigits |= i > begin;
+        }
+        if (hasDigits && i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+                negativeExponent = chars[i] == '-';
+                i++;
+            }
+            begin = i;
+            int value = 0;
+            for (; i < end && chars[i] >= '0' && chars[i] <= '9'; i++) {
+                // Larger exponents are zero or infinite anyway
+                if (value < 100_000) {
+                    value = value * 10 + chars[i] - '0';
+                }
+            }
+            hasDigits = i > begin;
+            exponent += negativeExponent ? -value : value;
+        }
+        if (!hasDigits || i != end) {
+            throw new NumberFormatException("For input string: \"" + new String(chars, start, end - start) + "\"");
+        }
+        double value = toDouble(negative, significand, exponent, truncated);
+        return Double.isNaN(value) ? Double.parseDouble(new String(chars, start, end - start)) : value;
+    }
+
+    /**
+     * Parse a number from ASCII or UTF-8 bytes
+     * @param bytes The bytes
+     * @param start The index of the first byte
+     * @param end The index after the last byte
+     * @return The closest double
+     * @throws NumberFormatException if the bytes are not a number
+     */
+    static double parse(byte[] bytes, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        // The first 19 significant digits fit in an unsigned long
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        int begin = i;
+        for (; i < end && bytes[i] >= '0' && bytes[i] <= '9'; i++) {
+            int digit = bytes[i] - '0';
+            if (digits < 19) {
+                significand = significand * 10 + digit;
+                if (significand != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+                truncated |= digit != 0;
+            }
+        }
+        boolean hasDigits = i > begin;
+        if (i < end && bytes[i] == '.') {
+            begin = ++i;
+            for (; i < end && bytes[i] >= '0' && bytes[i] <= '9'; i++) {
+                int digit = bytes[i] - '0';
+                if (digits < 19) {
+                    significand = significand * 10 + digit;
+                    exponent--;
+                    if (significand != 0) {
+                        digits++;
+                    }
+                } else {
+                    truncated |= digit != 0;
+                }
+            }
+            hasDigits |= i > begin;
+        }
+        if (hasDigits && i < end && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+                negativeExponent = bytes[i] == '-';
+                i++;
+            }
+            begin = i;
+            int value = 0;
+            for (; i < end && bytes[i] >= '0' && bytes[i] <= '9'; i++) {
+                // Larger exponents are zero or infinite anyway
+                if (value < 100_000) {
+                    value = value * 10 + bytes[i] - '0';
+                }
+            }
+            hasDigits = i > begin;
+            exponent += negativeExponent ? -value : value;
+        }
+        if (!hasDigits || i != end) {
+            throw new NumberFormatException("For input string: \"" + new String(bytes, start, end - start, StandardCharsets.ISO_8859_1) + "\"");
+        }
+        double value = toDouble(negative, significand, exponent, truncated);
+        return Double.isNaN(value) ? Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.ISO_8859_1)) : value;
+    }
+
+    /**
+     * Convert significand 10^exponent to the closest double
+     * @param negative Whether the number is negative
+     * @param significand The unsigned significand
+     * @param exponent The decimal exponent
+     * @param truncated Whether there were more digits that are not zero
+     * @return The double or NaN if it needs the slow path
+     */
+    private static double toDouble(boolean negative, long significand, int exponent, boolean truncated) {
+        if (!truncated && significand >= 0 && significand <= 1L << 53 && exponent >= -22 && exponent <= 22) {
+            double value = significand;
+            value = exponent < 0 ? value / POWERS_OF_TEN[-exponent] : value * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+        double value = eiselLemire(negative, significand, exponent);
+        // The digits are between significand and significand + 1, which must round to the same double
+        if (truncated && value != eiselLemire(negative, significand + 1, exponent)) {
+            return Double.NaN;
+        }
+        return value;
+    }
+
+    /**
+     * The Eisel-Lemire algorithm
+     * @param negative Whether the number is negative
+     * @param significand The unsigned significand
+     * @param exponent The decimal exponent
+     * @return The double or NaN if the result is ambiguous, subnormal, or out of range
+     */
+    private static double eiselLemire(boolean negative, long significand, int exponent) {
+        if (significand == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (exponent < Q_MIN || exponent > Q_MAX) {
+            return Double.NaN;
+        }
+        int zeros = Long.numberOfLeadingZeros(significand);
+        long w = significand << zeros;
+        long binaryExponent = ((217706L * exponent) >> 16) + 64 + 1023 - zeros;
+        int index = (exponent - Q_MIN) << 1;
+        long high = POWERS[index];
+        long low = POWERS[index + 1];
+        long xHigh = unsignedMultiplyHigh(w, high);
+        long xLow = w * high;
+        if ((xHigh & 0x1FF) == 0x1FF && Long.compareUnsigned(xLow + w, w) < 0) {
+            // The lower bits of the power of ten can carry into the bits that are kept
+            long yHigh = unsignedMultiplyHigh(w, low);
+            long yLow = w * low;
+            long mergedHigh = xHigh;
+            long mergedLow = xLow + yHigh;
+            if (Long.compareUnsigned(mergedLow, xLow) < 0) {
+                mergedHigh++;
+            }
+            if ((mergedHigh & 0x1FF) == 0x1FF && mergedLow + 1 == 0 && Long.compareUnsigned(yLow + w, w) < 0) {
+                return Double.NaN;
+            }
+            xHigh = mergedHigh;
+            xLow = mergedLow;
+        }
+        long msb = xHigh >>> 63;
+        long mantissa = xHigh >>> (msb + 9);
+        binaryExponent -= 1 ^ msb;
+        if (xLow == 0 && (xHigh & 0x1FF) == 0 && (mantissa & 3) == 1) {
+            // Exactly halfway between two doubles
+            return Double.NaN;
+        }
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >>> 53 > 0) {
+            mantissa >>>= 1;
+            binaryExponent++;
+        }
+        if (binaryExponent <= 0 || binaryExponent >= 0x7FF) {
+            return Double.NaN;
+        }
+        long bits = binaryExponent << 52 | mantissa & ((1L << 52) - 1);
+        return Double.longBitsToDouble(negative ? bits | Long.MIN_VALUE : bits);
+    }
+
+    /**
+     * The higher 64 bits of the unsigned 128 bit product
+     */
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    /**
+     * Compute the table of powers of ten
+     * @return The higher and lower 64 bits for each decimal exponent
+     */
+    private static long[] createTable() {
+        long[] table = new long[(Q_MAX - Q_MIN + 1) * 2];
+        BigInteger power = BigInteger.ONE;
+        for (int q = 0; q <= -Q_MIN; q++) {
+            int length = power.bitLength();
+            if (q <= Q_MAX) {
+                BigInteger bits = length > 128 ? power.shiftRight(length - 128) : power.shiftLeft(128 - length);
+                setBits(table, q, bits);
+            }
+            if (q > 0) {
+                setBits(table, -q, BigInteger.ONE.shiftLeft(length + 127).divide(power));
+            }
+            power = power.multiply(BigInteger.TEN);
+        }
+        return table;
+    }
+
+    private static void setBits(long[] table, int q, BigInteger bits) {
+        table[(q - Q_MIN) << 1] = bits.shiftRight(64).longValue();
+        table[(q - Q_MIN) << 1 | 1] = bits.longValue();
+    }
+
+}
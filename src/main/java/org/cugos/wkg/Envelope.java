@@ -177,6 +177,20 @@ public class Envelope {
         return min.isEmpty() && max.isEmpty();
     }
 
+    /**
+     * Determine if this Envelope intersects another Envelope in X and Y.  An empty Envelope does not
+     * intersect anything.
+     * @param envelope The other Envelope
+     * @return Whether the Envelopes intersect
+     */
+    public boolean intersects(Envelope envelope) {
+        if (isEmpty() || envelope.isEmpty()) {
+            return false;
+        }
+        return min.getX() <= envelope.max.getX() && max.getX() >= envelope.min.getX()
+                && min.getY() <= envelope.max.getY() && max.getY() >= envelope.min.getY();
+    }
+
     /**
      * Convert the Envelope into a Geometry
      * @return A Geometry
@@ -0,0 +1,1102 @@
+package org.cugos.wkg;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A pull parser that reads Geometries from GeoJSON in UTF-8 bytes, either from an array of bytes or pulled
+ * from an InputStream through a buffer that is refilled as the GeoJSON is read.
+ * <p>
+ * The member names and type names that GeoJSON needs are matched against the bytes without creating Strings,
+ * arrays of positions are parsed with the DoubleParser straight into the packed doubles of a CoordinateSequence,
+ * and other members are skipped without being built.  Properties are read into Maps, Lists, Strings, Integers,
+ * Doubles, Booleans and nulls.
+ * </p>
+ * <p>
+ * {@link #read()} reads the whole document, and a FeatureCollection is read as a GeometryCollection.
+ * {@link #next()} reads the Features of a FeatureCollection one at a time, so only the current Feature is held
+ * in memory.  Features without a Geometry are skipped.  Every Geometry gets the SRID 4326.  Errors are thrown as
+ * an IllegalStateException.
+ * </p>
+ * <p>
+ * With a {@link #setFilter(Envelope) filter}, Features, and a document that is a single Feature or Geometry, are
+ * dropped unless they intersect the filter.  A bbox member that comes before the Geometry is checked first, and
+ * the rest of a Feature that does not intersect is skipped without parsing its coordinates or properties.
+ * Otherwise the extent of the positions is computed while they are parsed, and the Feature is dropped before
+ * its Geometry is built.
+ * </p>
+ * @author Jared Erickson
+ */
+final class GeoJSONScanner {
+
+    /**
+     * The SRID of GeoJSON
+     */
+    private static final String SRID = "4326";
+
+    /**
+     * The member names, indexed by their name constants
+     */
+    private static final String[] NAMES = {"type", "coordinates", "geometries", "geometry", "properties", "features", "bbox"};
+
+    private static final int TYPE = 0;
+    private static final int COORDINATES = 1;
+    private static final int GEOMETRIES = 2;
+    private static final int GEOMETRY = 3;
+    private static final int PROPERTIES = 4;
+    private static final int FEATURES = 5;
+    private static final int BBOX = 6;
+
+    /**
+     * The type names, indexed by their type constants.  They are matched ignoring case, like the GeoJSONReader did.
+     */
+    private static final String[] TYPES = {
+        "Point", "LineString", "Polygon", "MultiPoint", "MultiLineString", "MultiPolygon", "GeometryCollection",
+        "Feature", "FeatureCollection"
+    };
+
+    private static final int POINT = 0;
+    private static final int LINESTRING = 1;
+    private static final int POLYGON = 2;
+    private static final int MULTIPOINT = 3;
+    private static final int MULTILINESTRING = 4;
+    private static final int MULTIPOLYGON = 5;
+    private static final int GEOMETRYCOLLECTION = 6;
+    private static final int FEATURE = 7;
+    private static final int FEATURECOLLECTION = 8;
+
+    /**
+     * The states of reading a document
+     */
+    private static final int BEFORE_DOCUMENT = 0;
+    private static final int IN_FEATURES = 1;
+    private static final int AFTER_DOCUMENT = 2;
+
+    /**
+     * The InputStream
+     */
+    private final InputStream input;
+
+    /**
+     * The size of the buffer
+     */
+    private final int bufferSize;
+
+    /**
+     * The buffer.  Unread bytes are between the position and the limit.
+     */
+    private byte[] buffer;
+
+    /**
+     * The index of the next unread byte
+     */
+    private int position;
+
+    /**
+     * The index after the last byte that has been read
+     */
+    private int limit;
+
+    /**
+     * The number of bytes of the input before the start of the buffer
+     */
+    private long offset;
+
+    /**
+     * Whether the end of the InputStream has been reached
+     */
+    private boolean endOfInput;
+
+    /**
+     * Whether the last String that was scanned has escapes
+     */
+    private boolean escaped;
+
+    /**
+     * The state of reading the document
+     */
+    private int state = BEFORE_DOCUMENT;
+
+    /**
+     * The members of the top level object while its Features are read
+     */
+    private Members document;
+
+    /**
+     * Whether the next Feature is the first one
+     */
+    private boolean firstFeature;
+
+    /**
+     * The X, Y and Z values of the positions of the current array of positions
+     */
+    private double[] ordinates = new double[3 * 64];
+
+    /**
+     * The number of positions in the ordinates
+     */
+    private int numberOfPositions;
+
+    /**
+     * Whether a position of the current array of positions has a Z value
+     */
+    private boolean hasZ;
+
+    /**
+     * The filter or null
+     */
+    private Envelope filter;
+
+    /**
+     * The extent of the positions that have been read since the start of the current Feature
+     */
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+
+    /**
+     * Create a new GeoJSONScanner
+     * @param input The InputStream of UTF-8 bytes
+     * @param bufferSize The size of the buffer
+     */
+    GeoJSONScanner(InputStream input, int bufferSize) {
+        this.input = input;
+        this.bufferSize = bufferSize;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Create a new GeoJSONScanner that reads from an array of bytes without copying them
+     * @param bytes The UTF-8 bytes
+     * @param start The index of the first byte
+     * @param end The index after the last byte
+     */
+    GeoJSONScanner(byte[] bytes, int start, int end) {
+        this.input = null;
+        this.bufferSize = bytes.length;
+        this.buffer = bytes;
+        this.position = start;
+        this.limit = end;
+        this.offset = -start;
+        this.endOfInput = true;
+    }
+
+    /**
+     * Only read Features that intersect an Envelope
+     * @param filter The Envelope or null to read every Feature
+     */
+    void setFilter(Envelope filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Read the Geometry of a whole document
+     * @return The Geometry or null if the document is not a Geometry or a Feature with a Geometry
+     * @throws IOException if there is an error reading
+     */
+    Geometry read() throws IOException {
+        skipByteOrderMark();
+        if (peek() != '{') {
+            throw error("'{'");
+        }
+        Geometry geometry = readGeometry(true);
+        endDocument();
+        return geometry;
+    }
+
+    /**
+     * Read the next Feature of a FeatureCollection, or the Geometry of a single Feature or Geometry
+     * @return The Geometry or null at the end of the document
+     * @throws IOException if there is an error reading
+     */
+    Geometry next() throws IOException {
+        while (state != AFTER_DOCUMENT) {
+            if (state == BEFORE_DOCUMENT) {
+                skipByteOrderMark();
+                document = new Members();
+                expect('{');
+                startFeature(document, true);
+                if (!readMembers(document, true)) {
+                    Geometry geometry = document.type == FEATURECOLLECTION || isDropped(document) ? null : build(document);
+                    endDocument();
+                    return geometry;
+                }
+                state = IN_FEATURES;
+                firstFeature = true;
+            } else if (peek() == ']') {
+                position++;
+                while (comma()) {
+                    readMember(document, false);
+                }
+                expect('}');
+                endDocument();
+            } else {
+                if (!firstFeature) {
+                    expect(',');
+                }
+                firstFeature = false;
+                Geometry geometry = readGeometry(true);
+                if (geometry != null) {
+                    return geometry;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void endDocument() throws IOException {
+        state = AFTER_DOCUMENT;
+        document = null;
+        if (peek() != -1) {
+            throw error("end of input");
+        }
+    }
+
+    /**
+     * The members of a GeoJSON object that are needed to build its Geometry
+     */
+    private static final class Members {
+
+        private int type = -1;
+
+        private Object coordinates;
+
+        /**
+         * The members of the geometries, which are built with the object
+         */
+        private List<Members> geometries;
+
+        /**
+         * The members of the geometry, which is built with the object
+         */
+        private Members geometry;
+
+        private Map<String, Object> properties;
+
+        private List<Geometry> features;
+
+        private double[] bbox;
+
+        /**
+         * Whether the object is a Feature, or a document, that is checked against the filter
+         */
+        private boolean filtered;
+
+        /**
+         * Whether the bbox does not intersect the filter, so the rest of the object is skipped
+         */
+        private boolean rejected;
+    }
+
+    /**
+     * Read the members of an object after its '{' and the closing '}'
+     * @param members The Members
+     * @param streamFeatures Whether to stop at the start of the features array
+     * @return Whether it stopped in the features array
+     * @throws IOException if there is an error reading
+     */
+    private boolean readMembers(Members members, boolean streamFeatures) throws IOException {
+        if (peek() != '}') {
+            do {
+                if (readMember(members, streamFeatures)) {
+                    return true;
+                }
+            } while (comma());
+        }
+        expect('}');
+        return false;
+    }
+
+    /**
+     * Read a member of an object
+     * @param members The Members
+     * @param streamFeatures Whether to stop at the start of the features array
+     * @return Whether it stopped in the features array
+     * @throws IOException if there is an error reading
+     */
+    @SuppressWarnings("unchecked")
+    private boolean readMember(Members members, boolean streamFeatures) throws IOException {
+        int name = readName(NAMES, false);
+        expect(':');
+        int c = peek();
+        if (name == TYPE && c == '"') {
+            members.type = readName(TYPES, true);
+        } else if (members.rejected) {
+            skipValue();
+        } else if (name == BBOX && c == '[') {
+            members.bbox = readBbox();
+            members.rejected = members.filtered && members.bbox != null && !intersects(members.bbox);
+        } else if (name == COORDINATES && c == '[') {
+            members.coordinates = readCoordinates();
+        } else if (name == GEOMETRIES && c == '[') {
+            members.geometries = readObjects();
+        } else if (name == GEOMETRY) {
+            members.geometry = readObject(false);
+        } else if (name == PROPERTIES && c == '{') {
+            members.properties = (Map<String, Object>) readValue();
+        } else if (name == FEATURES && c == '[') {
+            if (streamFeatures && (members.type == -1 || members.type == FEATURECOLLECTION)) {
+                position++;
+                return true;
+            }
+            members.features = readFeatures();
+        } else {
+            skipValue();
+        }
+        return false;
+    }
+
+    /**
+     * Read a Geometry or a Feature object, or null
+     * @param feature Whether the object is a Feature, or a document, that is checked against the filter
+     * @return The Geometry or null
+     * @throws IOException if there is an error reading
+     */
+    private Geometry readGeometry(boolean feature) throws IOException {
+        Members members = readObject(feature);
+        return members == null || isDropped(members) ? null : build(members);
+    }
+
+    /**
+     * Read the members of a Geometry or a Feature object without building it, so the nested Geometries of a
+     * Feature are only built once the Feature has been checked against the filter
+     * @param feature Whether the object is a Feature, or a document, that is checked against the filter
+     * @return The Members or null
+     * @throws IOException if there is an error reading
+     */
+    private Members readObject(boolean feature) throws IOException {
+        if (peek() == 'n') {
+            literal("null");
+            return null;
+        }
+        expect('{');
+        Members members = new Members();
+        startFeature(members, feature);
+        readMembers(members, false);
+        return members;
+    }
+
+    /**
+     * Start checking an object against the filter
+     * @param members The Members of the object
+     * @param feature Whether the object is a Feature, or a document, that is checked against the filter
+     */
+    private void startFeature(Members members, boolean feature) {
+        if (feature && filter != null) {
+            members.filtered = true;
+            minX = Double.POSITIVE_INFINITY;
+            minY = Double.POSITIVE_INFINITY;
+            maxX = Double.NEGATIVE_INFINITY;
+            maxY = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Whether an object that was checked against the filter is dropped.  The Features of a FeatureCollection
+     * are checked one by one.
+     * @param members The Members of the object
+     * @return Whether the object is dropped
+     */
+    private boolean isDropped(Members members) {
+        if (!members.filtered || members.type == FEATURECOLLECTION) {
+            return false;
+        } else if (members.rejected) {
+            return true;
+        } else if (members.bbox != null) {
+            return false;
+        }
+        return !(minX <= filter.getMaxX() && maxX >= filter.getMinX() && minY <= filter.getMaxY() && maxY >= filter.getMinY());
+    }
+
+    /**
+     * Read a bbox
+     * @return The numbers of the bbox or null if it does not have 2 * n numbers for n of at least 2
+     * @throws IOException if there is an error reading
+     */
+    private double[] readBbox() throws IOException {
+        expect('[');
+        double[] bbox = new double[6];
+        int count = 0;
+        if (peek() != ']') {
+            do {
+                if (count == bbox.length) {
+                    bbox = Arrays.copyOf(bbox, count * 2);
+                }
+                bbox[count++] = readNumber();
+            } while (comma());
+        }
+        expect(']');
+        return count >= 4 && count % 2 == 0 ? Arrays.copyOf(bbox, count) : null;
+    }
+
+    /**
+     * Whether a bbox intersects the filter.  A bbox whose west is greater than its east crosses the antimeridian.
+     * @param bbox The numbers of the bbox
+     * @return Whether the bbox intersects the filter
+     */
+    private boolean intersects(double[] bbox) {
+        int n = bbox.length / 2;
+        double west = bbox[0];
+        double south = bbox[1];
+        double east = bbox[n];
+        double north = bbox[n + 1];
+        boolean x = west <= east
+                ? west <= filter.getMaxX() && east >= filter.getMinX()
+                : west <= filter.getMaxX() || east >= filter.getMinX();
+        return x && south <= filter.getMaxY() && north >= filter.getMinY();
+    }
+
+    /**
+     * Read an array of Feature objects that are checked against the filter.  Nulls and dropped Features are left out.
+     * @return The List of Geometries
+     * @throws IOException if there is an error reading
+     */
+    private List<Geometry> readFeatures() throws IOException {
+        expect('[');
+        List<Geometry> geometries = new ArrayList<>();
+        if (peek() != ']') {
+            do {
+                Geometry geometry = readGeometry(true);
+                if (geometry != null) {
+                    geometries.add(geometry);
+                }
+            } while (comma());
+        }
+        expect(']');
+        return geometries;
+    }
+
+    /**
+     * Read an array of Geometry objects without building them.  Nulls are left out.
+     * @return The List of Members
+     * @throws IOException if there is an error reading
+     */
+    private List<Members> readObjects() throws IOException {
+        expect('[');
+        List<Members> objects = new ArrayList<>();
+        if (peek() != ']') {
+            do {
+                Members members = readObject(false);
+                if (members != null) {
+                    objects.add(members);
+                }
+            } while (comma());
+        }
+        expect(']');
+        return objects;
+    }
+
+    /**
+     * Read a position into a Coordinate, an array of positions into a CoordinateSequence, or nested arrays
+     * into Lists.  An empty array is an empty List.
+     * @return A Coordinate, a CoordinateSequence or a List
+     * @throws IOException if there is an error reading
+     */
+    private Object readCoordinates() throws IOException {
+        expect('[');
+        return readCoordinatesAfterBracket();
+    }
+
+    /**
+     * Read the rest of the coordinates after their '['
+     * @return A Coordinate, a CoordinateSequence or a List
+     * @throws IOException if there is an error reading
+     */
+    private Object readCoordinatesAfterBracket() throws IOException {
+        int c = peek();
+        if (c == ']') {
+            position++;
+            return new ArrayList<>(0);
+        }
+        if (c != '[') {
+            numberOfPositions = 0;
+            hasZ = false;
+            readPosition();
+            return Coordinate.create3D(ordinates[0], ordinates[1], ordinates[2]);
+        }
+        position++;
+        c = peek();
+        if (c == '[' || c == ']') {
+            List<Object> values = new ArrayList<>();
+            values.add(readCoordinatesAfterBracket());
+            while (comma()) {
+                if (peek() != '[') {
+                    throw error("'['");
+                }
+                values.add(readCoordinates());
+            }
+            expect(']');
+            return values;
+        }
+        numberOfPositions = 0;
+        hasZ = false;
+        readPosition();
+        while (comma()) {
+            expect('[');
+            readPosition();
+        }
+        expect(']');
+        Dimension dimension = hasZ ? Dimension.Three : Dimension.Two;
+        double[] packed = new double[numberOfPositions * CoordinateSequence.getStride(dimension)];
+        if (hasZ) {
+            System.arraycopy(ordinates, 0, packed, 0, packed.length);
+        } else {
+            for (int i = 0; i < numberOfPositions; i++) {
+                packed[i * 2] = ordinates[i * 3];
+                packed[i * 2 + 1] = ordinates[i * 3 + 1];
+            }
+        }
+        return CoordinateSequence.wrap(packed, dimension);
+    }
+
+    /**
+     * Read the numbers of a position after its '[' into the ordinates.  Ordinates after the Z value are ignored
+     * and a position with less than two numbers is empty.
+     * @throws IOException if there is an error reading
+     */
+    private void readPosition() throws IOException {
+        if (numberOfPositions * 3 == ordinates.length) {
+            ordinates = Arrays.copyOf(ordinates, ordinates.length * 2);
+        }
+        int index = numberOfPositions++ * 3;
+        ordinates[index] = Double.NaN;
+        ordinates[index + 1] = Double.NaN;
+        ordinates[index + 2] = Double.NaN;
+        int count = 0;
+        if (peek() != ']') {
+            do {
+                double value = readNumber();
+                if (count < 3) {
+                    ordinates[index + count] = value;
+                }
+                count++;
+            } while (comma());
+        }
+        expect(']');
+        if (count < 2) {
+            ordinates[index] = Double.NaN;
+            ordinates[index + 1] = Double.NaN;
+        } else {
+            double x = ordinates[index];
+            double y = ordinates[index + 1];
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        hasZ |= count > 2;
+    }
+
+    /**
+     * Build the Geometry of an object
+     * @param members The Members
+     * @return The Geometry or null if the object is not a Geometry or a Feature with a Geometry
+     */
+    private Geometry build(Members members) {
+        switch (members.type) {
+            case POINT: {
+                Coordinate coordinate = coordinate(members.coordinates);
+                return new Point(coordinate, coordinate.getDimension(), SRID);
+            }
+            case LINESTRING: {
+                CoordinateSequence coordinates = sequence(members.coordinates);
+                return new LineString(coordinates, dimension(coordinates), SRID);
+            }
+            case POLYGON:
+                return polygon(members.coordinates);
+            case MULTIPOINT: {
+                CoordinateSequence coordinates = sequence(members.coordinates);
+                List<Point> points = new ArrayList<>(coordinates.size());
+                for (int i = 0; i < coordinates.size(); i++) {
+                    Coordinate coordinate = coordinates.getCoordinate(i);
+                    points.add(new Point(coordinate, coordinate.getDimension()));
+                }
+                return new MultiPoint(points, points.isEmpty() ? Dimension.Two : points.get(0).getDimension(), SRID);
+            }
+            case MULTILINESTRING: {
+                List<LineString> lineStrings = new ArrayList<>();
+                for (Object value : list(members.coordinates)) {
+                    CoordinateSequence coordinates = sequence(value);
+                    lineStrings.add(new LineString(coordinates, dimension(coordinates), SRID));
+                }
+                return new MultiLineString(lineStrings, lineStrings.isEmpty() ? Dimension.Two : lineStrings.get(0).getDimension(), SRID);
+            }
+            case MULTIPOLYGON: {
+                List<Polygon> polygons = new ArrayList<>();
+                for (Object value : list(members.coordinates)) {
+                    polygons.add(polygon(value));
+                }
+                return new MultiPolygon(polygons, polygons.isEmpty() ? Dimension.Two : polygons.get(0).getDimension(), SRID);
+            }
+            case GEOMETRYCOLLECTION: {
+                List<Geometry> geometries = new ArrayList<>();
+                if (members.geometries != null) {
+                    for (Members child : members.geometries) {
+                        Geometry geometry = build(child);
+                        if (geometry != null) {
+                            geometries.add(geometry);
+                        }
+                    }
+                }
+                return collection(geometries);
+            }
+            case FEATURE: {
+                Geometry geometry = members.geometry == null ? null : build(members.geometry);
+                if (geometry != null && members.properties != null) {
+                    geometry.setData(members.properties);
+                }
+                return geometry;
+            }
+            case FEATURECOLLECTION:
+                return collection(members.features);
+            default:
+                return null;
+        }
+    }
+
+    private Polygon polygon(Object value) {
+        List<Object> rings = list(value);
+        if (rings.isEmpty()) {
+            return Polygon.createEmpty();
+        }
+        LinearRing exteriorRing = linearRing(rings.get(0));
+        List<LinearRing> interiorRings = new ArrayList<>();
+        for (Object ring : rings.subList(1, rings.size())) {
+            interiorRings.add(linearRing(ring));
+        }
+        return new Polygon(exteriorRing, interiorRings, exteriorRing.getDimension(), SRID);
+    }
+
+    private LinearRing linearRing(Object value) {
+        CoordinateSequence coordinates = sequence(value);
+        return new LinearRing(coordinates, dimension(coordinates), SRID);
+    }
+
+    private GeometryCollection collection(List<Geometry> geometries) {
+        if (geometries == null) {
+            geometries = new ArrayList<>();
+        }
+        return new GeometryCollection(geometries, geometries.isEmpty() ? Dimension.Two : geometries.get(0).getDimension(), SRID);
+    }
+
+    /**
+     * The Dimension of the first position
+     */
+    private static Dimension dimension(CoordinateSequence coordinates) {
+        return coordinates.isEmpty() || Double.isNaN(coordinates.getZ(0)) ? Dimension.Two : Dimension.Three;
+    }
+
+    private static Coordinate coordinate(Object value) {
+        if (value instanceof Coordinate) {
+            return (Coordinate) value;
+        } else if (value == null || (value instanceof List && ((List<?>) value).isEmpty())) {
+            return Coordinate.createEmpty();
+        }
+        throw new IllegalStateException("Unable to parse GeoJSON! Expecting a position");
+    }
+
+    /**
+     * Get the CoordinateSequence of an array of positions.  An array that starts with an empty array was read
+     * as a List of positions.
+     */
+    private static CoordinateSequence sequence(Object value) {
+        if (value instanceof CoordinateSequence) {
+            return (CoordinateSequence) value;
+        }
+        List<Coordinate> coordinates = new ArrayList<>();
+        for (Object coordinate : list(value)) {
+            coordinates.add(coordinate(coordinate));
+        }
+        return CoordinateSequence.create(coordinates);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> list(Object value) {
+        if (value == null) {
+            return new ArrayList<>();
+        } else if (value instanceof List) {
+            return (List<Object>) value;
+        }
+        throw new IllegalStateException("Unable to parse GeoJSON! Expecting an array");
+    }
+
+    /**
+     * Read any JSON value
+     * @return A Map, a List, a String, an Integer, a Double, a Boolean or null
+     * @throws IOException if there is an error reading
+     */
+    private Object readValue() throws IOException {
+        int c = peek();
+        if (c == '{') {
+            position++;
+            Map<String, Object> values = new LinkedHashMap<>();
+            if (peek() != '}') {
+                do {
+                    String name = readString();
+                    expect(':');
+                    values.put(name, readValue());
+                } while (comma());
+            }
+            expect('}');
+            return values;
+        } else if (c == '[') {
+            position++;
+            List<Object> values = new ArrayList<>();
+            if (peek() != ']') {
+                do {
+                    values.add(readValue());
+                } while (comma());
+            }
+            expect(']');
+            return values;
+        } else if (c == '"') {
+            return readString();
+        } else if (c == 't') {
+            literal("true");
+            return Boolean.TRUE;
+        } else if (c == 'f') {
+            literal("false");
+            return Boolean.FALSE;
+        } else if (c == 'n') {
+            literal("null");
+            return null;
+        } else if (c == '-' || (c >= '0' && c <= '9')) {
+            int start = scanNumber();
+            double value = parseNumber(start);
+            for (int i = start; i < position; i++) {
+                if (buffer[i] == '.' || buffer[i] == 'e' || buffer[i] == 'E') {
+                    return value;
+                }
+            }
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                return (int) value;
+            }
+            return value;
+        }
+        throw error("a value");
+    }
+
+    /**
+     * Skip any JSON value without building it
+     * @throws IOException if there is an error reading
+     */
+    private void skipValue() throws IOException {
+        int c = peek();
+        if (c == '{') {
+            position++;
+            if (peek() != '}') {
+                do {
+                    scanString();
+                    expect(':');
+                    skipValue();
+                } while (comma());
+            }
+            expect('}');
+        } else if (c == '[') {
+            position++;
+            if (peek() != ']') {
+                do {
+                    skipValue();
+                } while (comma());
+            }
+            expect(']');
+        } else if (c == '"') {
+            scanString();
+        } else if (c == 't') {
+            literal("true");
+        } else if (c == 'f') {
+            literal("false");
+        } else if (c == 'n') {
+            literal("null");
+        } else if (c == '-' || (c >= '0' && c <= '9')) {
+            parseNumber(scanNumber());
+        } else {
+            throw error("a value");
+        }
+    }
+
+    /**
+     * Read a String and find it in a list of ASCII names
+     * @param names The names
+     * @param ignoreCase Whether to ignore the case of the names
+     * @return The index of the name or -1
+     * @throws IOException if there is an error reading
+     */
+    private int readName(String[] names, boolean ignoreCase) throws IOException {
+        int start = scanString();
+        int end = position - 1;
+        if (escaped) {
+            String value = decode(start, end);
+            for (int i = 0; i < names.length; i++) {
+                if (ignoreCase ? names[i].equalsIgnoreCase(value) : names[i].equals(value)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            if (name.length() == end - start && matches(name, start, ignoreCase)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(String name, int start, boolean ignoreCase) {
+        for (int i = 0; i < name.length(); i++) {
+            int b = buffer[start + i];
+            int c = name.charAt(i);
+            if (b != c && !(ignoreCase && (b | 0x20) == (c | 0x20) && (c | 0x20) >= 'a' && (c | 0x20) <= 'z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readString() throws IOException {
+        int start = scanString();
+        return decode(start, position - 1);
+    }
+
+    /**
+     * Scan a String up to its closing quote
+     * @return The index of the first byte inside the quotes.  The closing quote is before the position.
+     * @throws IOException if there is an error reading
+     */
+    private int scanString() throws IOException {
+        if (peek() != '"') {
+            throw error("a String");
+        }
+        int start = ++position;
+        int i = start;
+        escaped = false;
+        while (true) {
+            if (i >= limit) {
+                int shift = fill(start);
+                start -= shift;
+                i -= shift;
+                if (i >= limit) {
+                    position = limit;
+                    throw error("'\"'");
+                }
+                continue;
+            }
+            byte b = buffer[i];
+            if (b == '"') {
+                break;
+            } else if (b == '\\') {
+                escaped = true;
+                i += 2;
+            } else if (b >= 0 && b < 0x20) {
+                position = i;
+                throw error("'\"'");
+            } else {
+                i++;
+            }
+        }
+        position = i + 1;
+        return start;
+    }
+
+    /**
+     * Decode the UTF-8 bytes of a String and its escapes
+     * @param start The index of the first byte
+     * @param end The index of the closing quote
+     * @return The String
+     */
+    private String decode(int start, int end) {
+        if (!escaped) {
+            return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+        }
+        StringBuilder builder = new StringBuilder(end - start);
+        int segment = start;
+        for (int i = start; i < end; i++) {
+            if (buffer[i] != '\\') {
+                continue;
+            }
+            builder.append(new String(buffer, segment, i - segment, StandardCharsets.UTF_8));
+            byte c = buffer[++i];
+            if (c == 'u') {
+                int code = 0;
+                for (int j = 1; j <= 4; j++) {
+                    int digit = i + j < end ? Character.digit(buffer[i + j], 16) : -1;
+                    if (digit < 0) {
+                        position = i;
+                        throw error("4 hex digits");
+                    }
+                    code = code * 16 + digit;
+                }
+                builder.append((char) code);
+                i += 4;
+            } else {
+                int index = "\"\\/bfnrt".indexOf(c);
+                if (index < 0) {
+                    position = i;
+                    throw error("an escape");
+                }
+                builder.append("\"\\/\b\f\n\r\t".charAt(index));
+            }
+            segment = i + 1;
+        }
+        builder.append(new String(buffer, segment, end - segment, StandardCharsets.UTF_8));
+        return builder.toString();
+    }
+
+    private double readNumber() throws IOException {
+        if (peek() != '-' && (peek() < '0' || peek() > '9')) {
+            throw error("a Number");
+        }
+        return parseNumber(scanNumber());
+    }
+
+    /**
+     * Scan the bytes of a Number
+     * @return The index of its first byte.  The Number ends at the position.
+     * @throws IOException if there is an error reading
+     */
+    private int scanNumber() throws IOException {
+        peek();
+        int start = position;
+        int i = start;
+        while (true) {
+            if (i >= limit) {
+                int shift = fill(start);
+                start -= shift;
+                i -= shift;
+                if (i >= limit) {
+                    break;
+                }
+                continue;
+            }
+            byte b = buffer[i];
+            if ((b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        position = i;
+        return start;
+    }
+
+    private double parseNumber(int start) {
+        try {
+            return DoubleParser.parse(buffer, start, position);
+        } catch (NumberFormatException e) {
+            position = start;
+            throw error("a Number");
+        }
+    }
+
+    private void literal(String word) throws IOException {
+        peek();
+        for (int i = 0; i < word.length(); i++) {
+            if (position >= limit) {
+                fill(position);
+            }
+            if (position >= limit || buffer[position] != word.charAt(i)) {
+                throw error("'" + word + "'");
+            }
+            position++;
+        }
+    }
+
+    private boolean comma() throws IOException {
+        if (peek() == ',') {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) throws IOException {
+        if (peek() != c) {
+            throw error("'" + c + "'");
+        }
+        position++;
+    }
+
+    /**
+     * Skip white space
+     * @return The next byte or -1 at the end of the input
+     * @throws IOException if there is an error reading
+     */
+    private int peek() throws IOException {
+        while (true) {
+            if (position >= limit) {
+                fill(position);
+                if (position >= limit) {
+                    return -1;
+                }
+            }
+            byte b = buffer[position];
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                position++;
+            } else {
+                return b & 0xFF;
+            }
+        }
+    }
+
+    private void skipByteOrderMark() throws IOException {
+        while (limit - position < 3 && !endOfInput) {
+            fill(position);
+        }
+        if (limit - position >= 3 && buffer[position] == (byte) 0xEF && buffer[position + 1] == (byte) 0xBB
+                && buffer[position + 2] == (byte) 0xBF) {
+            position += 3;
+        }
+    }
+
+    private IllegalStateException error(String expecting) {
+        return new IllegalStateException("Unable to parse GeoJSON at byte " + (offset + position) + "! Expecting " + expecting);
+    }
+
+    /**
+     * Move the bytes from an index on to the start of the buffer and read more bytes.  The buffer grows when it
+     * is full of bytes that are kept, and an oversized buffer is replaced by a buffer of the original size once
+     * the kept bytes fit in half of it.
+     * @param keep The index of the first byte to keep
+     * @return The number of bytes that the kept bytes moved towards the start
+     * @throws IOException if there is an error reading
+     */
+    private int fill(int keep) throws IOException {
+        if (endOfInput) {
+            return 0;
+        }
+        int remaining = limit - keep;
+        if (keep == 0 && limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        } else if (buffer.length > bufferSize && remaining <= bufferSize / 2) {
+            byte[] smaller = new byte[bufferSize];
+            System.arraycopy(buffer, keep, smaller, 0, remaining);
+            buffer = smaller;
+        } else {
+            System.arraycopy(buffer, keep, buffer, 0, remaining);
+        }
+        offset += keep;
+        position -= keep;
+        limit = remaining;
+        while (limit < buffer.length) {
+            int numberOfBytes = input.read(buffer, limit, buffer.length - limit);
+            if (numberOfBytes == -1) {
+                endOfInput = true;
+                break;
+            }
+            limit += numberOfBytes;
+            if (numberOfBytes > 0) {
+                break;
+            }
+        }
+        return keep;
+    }
+
+}
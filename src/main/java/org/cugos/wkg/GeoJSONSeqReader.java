@@ -0,0 +1,568 @@
+package org.cugos.wkg;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read Geometries from a sequence of GeoJSON texts in UTF-8, either GeoJSON Text Sequences (RFC 8142), where
+ * each text starts with a record separator (0x1E), or newline delimited GeoJSON (NDJSON), where each text is one line.
+ * The format is detected from the first byte.
+ * <p>
+ * Each text is a Feature, which is read as its Geometry with the properties as its data, or a Geometry.
+ * Blank texts and Features without a Geometry are skipped, and so are the texts that do not intersect the
+ * {@link Builder#filter(Envelope) filter}.  A text that can not be read throws an IllegalStateException unless
+ * the reader was built to skip malformed texts.  The error is thrown when the reader reaches the malformed text,
+ * and reading can go on with the texts after it.
+ * </p>
+ * <p>
+ * Texts are split at their boundaries and copied into batches.  By default batches are decoded in the calling
+ * thread.  With an {@link Builder#executor(Executor) Executor} several batches are decoded at the same time while
+ * the Geometries are still returned in the order of the input.  The number of batches that are read ahead is
+ * bounded, so memory use does not depend on the size of the input.
+ * </p>
+ * @author Jared Erickson
+ */
+public class GeoJSONSeqReader implements Iterator<Geometry>, Closeable {
+
+    /**
+     * The default buffer size
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The default number of texts in a batch
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /**
+     * The record separator of GeoJSON Text Sequences
+     */
+    private static final byte RECORD_SEPARATOR = 0x1E;
+
+    /**
+     * The InputStream
+     */
+    private final InputStream inputStream;
+
+    /**
+     * The number of texts in a batch
+     */
+    private final int batchSize;
+
+    /**
+     * The Executor that decodes batches
+     */
+    private final Executor executor;
+
+    /**
+     * The maximum number of batches that are read ahead
+     */
+    private final int maximumPendingBatches;
+
+    /**
+     * Whether malformed texts are skipped
+     */
+    private final boolean skipMalformed;
+
+    /**
+     * The filter or null
+     */
+    private final Envelope filter;
+
+    /**
+     * The buffer.  Unread bytes are between the position and the limit.
+     */
+    private final byte[] buffer;
+
+    /**
+     * The index of the next unread byte
+     */
+    private int position;
+
+    /**
+     * The index after the last byte that has been read
+     */
+    private int limit;
+
+    /**
+     * Whether the end of the InputStream has been reached
+     */
+    private boolean endOfInput;
+
+    /**
+     * The byte that ends a text, or -1 before the format is known
+     */
+    private int delimiter = -1;
+
+    /**
+     * The number of texts that have been split
+     */
+    private long numberOfRecords;
+
+    /**
+     * The number of malformed texts that have been skipped
+     */
+    private long numberOfSkippedRecords;
+
+    /**
+     * The batches that are being decoded, in the order of the input
+     */
+    private final ArrayDeque<CompletableFuture<Batch>> pending = new ArrayDeque<>();
+
+    /**
+     * The current decoded batch or null
+     */
+    private Batch current;
+
+    /**
+     * The index of the next Geometry of the current batch
+     */
+    private int index;
+
+    /**
+     * Create a new GeoJSONSeqReader that decodes in the calling thread
+     * @param inputStream The UTF-8 InputStream
+     */
+    public GeoJSONSeqReader(InputStream inputStream) {
+        this(new Builder(), inputStream);
+    }
+
+    /**
+     * Create a new GeoJSONSeqReader from a Builder
+     * @param builder The Builder
+     * @param inputStream The UTF-8 InputStream
+     */
+    private GeoJSONSeqReader(Builder builder, InputStream inputStream) {
+        this.inputStream = inputStream;
+        this.buffer = new byte[builder.bufferSize];
+        this.batchSize = builder.batchSize;
+        this.skipMalformed = builder.skipMalformed;
+        this.filter = builder.filter;
+        if (builder.executor != null) {
+            this.executor = builder.executor;
+            this.maximumPendingBatches = builder.maximumPendingBatches;
+        } else {
+            this.executor = Runnable::run;
+            this.maximumPendingBatches = 1;
+        }
+    }
+
+    /**
+     * Create a new Builder
+     * @return A Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Whether there is another Geometry
+     * @return Whether there is another Geometry
+     */
+    @Override
+    public boolean hasNext() {
+        while (true) {
+            if (current != null && index < current.geometries.size()) {
+                if (current.geometries.get(index) != null) {
+                    return true;
+                }
+                // A malformed text throws when it is reached, and the texts after it are read by the next call
+                index++;
+                throw current.errors.poll();
+            }
+            current = null;
+            try {
+                submit();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (pending.isEmpty()) {
+                return false;
+            }
+            current = join(pending.poll());
+            index = 0;
+            numberOfSkippedRecords += current.numberOfSkippedRecords;
+        }
+    }
+
+    /**
+     * Read the next Geometry
+     * @return The next Geometry
+     */
+    @Override
+    public Geometry next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.geometries.get(index++);
+    }
+
+    /**
+     * Get a Stream of the remaining Geometries.  Closing the Stream closes this GeoJSONSeqReader.
+     * @return A Stream of Geometries
+     */
+    public Stream<Geometry> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Get the number of malformed texts that have been skipped in the batches that have been returned
+     * @return The number of skipped texts
+     */
+    public long getNumberOfSkippedRecords() {
+        return numberOfSkippedRecords;
+    }
+
+    /**
+     * Stop decoding the pending batches and close the InputStream
+     * @throws IOException if there is an error closing
+     */
+    @Override
+    public void close() throws IOException {
+        for (CompletableFuture<Batch> future : pending) {
+            future.cancel(false);
+        }
+        pending.clear();
+        current = null;
+        inputStream.close();
+    }
+
+    /**
+     * Split batches and hand them to the Executor until enough batches are pending
+     * @throws IOException if there is an error reading
+     */
+    private void submit() throws IOException {
+        while (pending.size() < maximumPendingBatches) {
+            Batch batch = readBatch();
+            if (batch.numberOfTexts == 0) {
+                break;
+            }
+            pending.add(CompletableFuture.supplyAsync(() -> decode(batch), executor));
+        }
+    }
+
+    private static Batch join(CompletableFuture<Batch> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Copy the next texts into a batch
+     * @return The batch, which is empty at the end of the input
+     * @throws IOException if there is an error reading
+     */
+    private Batch readBatch() throws IOException {
+        Batch batch = new Batch(numberOfRecords);
+        if (delimiter == -1) {
+            if (!fill()) {
+                return batch;
+            }
+            if (buffer[position] == RECORD_SEPARATOR) {
+                delimiter = RECORD_SEPARATOR;
+                position++;
+            } else {
+                delimiter = '\n';
+            }
+        }
+        boolean open = false;
+        while (batch.numberOfTexts < batchSize) {
+            if (position == limit && !fill()) {
+                if (open) {
+                    batch.endText();
+                }
+                break;
+            }
+            int end = position;
+            while (end < limit && buffer[end] != delimiter) {
+                end++;
+            }
+            batch.append(buffer, position, end);
+            open = true;
+            if (end < limit) {
+                batch.endText();
+                open = false;
+                position = end + 1;
+            } else {
+                position = end;
+            }
+        }
+        numberOfRecords += batch.numberOfTexts;
+        return batch;
+    }
+
+    /**
+     * Read more bytes into the buffer once all bytes have been copied
+     * @return Whether there are unread bytes
+     * @throws IOException if there is an error reading
+     */
+    private boolean fill() throws IOException {
+        position = 0;
+        limit = 0;
+        while (!endOfInput && limit == 0) {
+            int numberOfBytes = inputStream.read(buffer, 0, buffer.length);
+            if (numberOfBytes == -1) {
+                endOfInput = true;
+            } else {
+                limit = numberOfBytes;
+            }
+        }
+        return limit > 0;
+    }
+
+    /**
+     * Decode the texts of a batch.  This runs on the Executor.
+     * @param batch The batch
+     * @return The batch with its Geometries
+     */
+    private Batch decode(Batch batch) {
+        byte[] bytes = batch.bytes;
+        List<Geometry> geometries = new ArrayList<>(batch.numberOfTexts);
+        int start = 0;
+        for (int i = 0; i < batch.numberOfTexts; i++) {
+            int end = batch.ends[i];
+            if (!isBlank(bytes, start, end)) {
+                try {
+                    GeoJSONScanner scanner = new GeoJSONScanner(bytes, start, end);
+                    scanner.setFilter(filter);
+                    Geometry geometry = scanner.read();
+                    if (geometry != null) {
+                        geometries.add(geometry);
+                    }
+                } catch (IllegalStateException e) {
+                    if (skipMalformed) {
+                        batch.numberOfSkippedRecords++;
+                    } else {
+                        geometries.add(null);
+                        batch.errors.add(new IllegalStateException("Unable to read record " + (batch.firstRecord + i + 1) + "! " + e.getMessage(), e));
+                    }
+                } catch (IOException e) {
+                    // An array of bytes does not throw IOExceptions
+                    throw new UncheckedIOException(e);
+                }
+            }
+            start = end;
+        }
+        batch.bytes = null;
+        batch.geometries = geometries;
+        return batch;
+    }
+
+    private static boolean isBlank(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = bytes[i];
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The bytes of a batch of texts and, once it is decoded, its Geometries
+     */
+    private static final class Batch {
+
+        /**
+         * The number of texts before the batch
+         */
+        private final long firstRecord;
+
+        /**
+         * The bytes of the texts, one after another
+         */
+        private byte[] bytes = new byte[1024];
+
+        /**
+         * The number of bytes
+         */
+        private int length;
+
+        /**
+         * The index after the last byte of each text
+         */
+        private int[] ends = new int[16];
+
+        /**
+         * The number of texts
+         */
+        private int numberOfTexts;
+
+        /**
+         * The number of malformed texts that were skipped
+         */
+        private int numberOfSkippedRecords;
+
+        /**
+         * The Geometries, with null in place of each malformed text
+         */
+        private List<Geometry> geometries;
+
+        /**
+         * The errors of the malformed texts, in order
+         */
+        private final ArrayDeque<IllegalStateException> errors = new ArrayDeque<>();
+
+        private Batch(long firstRecord) {
+            this.firstRecord = firstRecord;
+        }
+
+        private void append(byte[] source, int start, int end) {
+            int count = end - start;
+            if (length + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length + count, bytes.length * 2));
+            }
+            System.arraycopy(source, start, bytes, length, count);
+            length += count;
+        }
+
+        private void endText() {
+            if (numberOfTexts == ends.length) {
+                ends = Arrays.copyOf(ends, ends.length * 2);
+            }
+            ends[numberOfTexts++] = length;
+        }
+    }
+
+    /**
+     * A Builder for GeoJSONSeqReaders.  By default batches are decoded in the calling thread and malformed
+     * texts throw an IllegalStateException.
+     */
+    public static class Builder {
+
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+        private int batchSize = DEFAULT_BATCH_SIZE;
+
+        private Executor executor;
+
+        private int maximumPendingBatches;
+
+        private boolean skipMalformed;
+
+        private Envelope filter;
+
+        /**
+         * Decode batches on an Executor, for example a fixed thread pool, with up to twice as many batches read
+         * ahead as there are processors.  The Executor is not shut down by the GeoJSONSeqReader.
+         * @param executor The Executor
+         * @return This Builder
+         */
+        public Builder executor(Executor executor) {
+            return executor(executor, 2 * Runtime.getRuntime().availableProcessors());
+        }
+
+        /**
+         * Decode batches on an Executor.  The Executor is not shut down by the GeoJSONSeqReader.
+         * @param executor The Executor
+         * @param maximumPendingBatches The maximum number of batches that are read ahead and decoded at the same time
+         * @return This Builder
+         */
+        public Builder executor(Executor executor, int maximumPendingBatches) {
+            if (maximumPendingBatches < 1) {
+                throw new IllegalArgumentException("The maximum number of pending batches must be greater than 0! " + maximumPendingBatches);
+            }
+            this.executor = executor;
+            this.maximumPendingBatches = maximumPendingBatches;
+            return this;
+        }
+
+        /**
+         * Set the number of texts in a batch
+         * @param batchSize The number of texts
+         * @return This Builder
+         */
+        public Builder batchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("The batch size must be greater than 0! " + batchSize);
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Only read the texts that intersect an Envelope.  A Feature's bbox is used when it has one, otherwise
+         * the extent of its positions.
+         * @param filter The Envelope or null to read every text
+         * @return This Builder
+         */
+        public Builder filter(Envelope filter) {
+            this.filter = filter;
+            return this;
+        }
+
+        /**
+         * Skip malformed texts instead of throwing an IllegalStateException
+         * @return This Builder
+         */
+        public Builder skipMalformed() {
+            this.skipMalformed = true;
+            return this;
+        }
+
+        /**
+         * Set the buffer size
+         * @param bufferSize The buffer size
+         * @return This Builder
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize < 1) {
+                throw new IllegalArgumentException("The buffer size must be greater than 0! " + bufferSize);
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Build a GeoJSONSeqReader that reads from an InputStream
+         * @param inputStream The UTF-8 InputStream
+         * @return A GeoJSONSeqReader
+         */
+        public GeoJSONSeqReader build(InputStream inputStream) {
+            return new GeoJSONSeqReader(this, inputStream);
+        }
+
+        /**
+         * Build a GeoJSONSeqReader that reads from a file
+         * @param path The Path of the file
+         * @return A GeoJSONSeqReader
+         * @throws IOException if the file can not be opened
+         */
+        public GeoJSONSeqReader build(Path path) throws IOException {
+            return new GeoJSONSeqReader(this, Files.newInputStream(path));
+        }
+    }
+
+}
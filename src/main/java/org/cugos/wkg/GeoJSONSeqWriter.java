@@ -0,0 +1,193 @@
+package org.cugos.wkg;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Write Geometries as a sequence of GeoJSON texts in UTF-8 to an OutputStream, either as newline delimited
+ * GeoJSON (NDJSON), one text per line, or as GeoJSON Text Sequences (RFC 8142), where each text starts with a
+ * record separator (0x1E) and ends with a line feed.
+ * <p>
+ * Each Geometry is written by a GeoJSONWriter as a Feature with its data as the properties, or as a bare Geometry.
+ * The texts are buffered and written as the buffer fills up, so nothing is kept after it has been written.
+ * </p>
+ * @author Jared Erickson
+ */
+public class GeoJSONSeqWriter implements Closeable, Flushable {
+
+    /**
+     * The format of the sequence
+     */
+    public enum Format {
+        /**
+         * One text per line
+         */
+        NDJSON,
+        /**
+         * A record separator before and a line feed after each text (RFC 8142)
+         */
+        GeoJSONSeq
+    }
+
+    /**
+     * The record separator of GeoJSON Text Sequences
+     */
+    private static final char RECORD_SEPARATOR = '\u001E';
+
+    /**
+     * The java.io.Writer of the OutputStream
+     */
+    private final java.io.Writer writer;
+
+    /**
+     * The GeoJSONWriter
+     */
+    private final GeoJSONWriter geoJSONWriter;
+
+    /**
+     * The Format
+     */
+    private final Format format;
+
+    /**
+     * Whether the Geometries are written as Features
+     */
+    private final boolean features;
+
+    /**
+     * Create a new GeoJSONSeqWriter that writes Features as NDJSON
+     * @param outputStream The OutputStream
+     */
+    public GeoJSONSeqWriter(OutputStream outputStream) {
+        this(new Builder(), outputStream);
+    }
+
+    /**
+     * Create a new GeoJSONSeqWriter from a Builder
+     * @param builder The Builder
+     * @param outputStream The OutputStream
+     */
+    private GeoJSONSeqWriter(Builder builder, OutputStream outputStream) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), builder.bufferSize);
+        this.geoJSONWriter = builder.geoJSONWriter;
+        this.format = builder.format;
+        this.features = builder.features;
+    }
+
+    /**
+     * Create a new Builder
+     * @return A Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Write a Geometry as the next text
+     * @param geometry The Geometry
+     * @throws IOException if there is an error writing
+     */
+    public void write(Geometry geometry) throws IOException {
+        if (format == Format.GeoJSONSeq) {
+            writer.write(RECORD_SEPARATOR);
+        }
+        writer.write(features ? geoJSONWriter.writeFeature(geometry) : geoJSONWriter.write(geometry));
+        writer.write('\n');
+    }
+
+    /**
+     * Write each Geometry as the next text
+     * @param geometries The Geometries
+     * @throws IOException if there is an error writing
+     */
+    public void write(Iterable<? extends Geometry> geometries) throws IOException {
+        for (Geometry geometry : geometries) {
+            write(geometry);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Flush the buffered texts and close the OutputStream
+     * @throws IOException if there is an error writing
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * A Builder for GeoJSONSeqWriters.  By default Features are written as NDJSON.
+     */
+    public static class Builder {
+
+        private Format format = Format.NDJSON;
+
+        private boolean features = true;
+
+        private GeoJSONWriter geoJSONWriter = new GeoJSONWriter();
+
+        private int bufferSize = 64 * 1024;
+
+        /**
+         * Set the Format
+         * @param format The Format
+         * @return This Builder
+         */
+        public Builder format(Format format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * Write bare Geometries instead of Features
+         * @return This Builder
+         */
+        public Builder geometries() {
+            this.features = false;
+            return this;
+        }
+
+        /**
+         * Set the GeoJSONWriter, for example to format the coordinates with a DoubleFormatter
+         * @param geoJSONWriter The GeoJSONWriter
+         * @return This Builder
+         */
+        public Builder geoJSONWriter(GeoJSONWriter geoJSONWriter) {
+            this.geoJSONWriter = geoJSONWriter;
+            return this;
+        }
+
+        /**
+         * Set the buffer size in characters
+         * @param bufferSize The buffer size
+         * @return This Builder
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize < 1) {
+                throw new IllegalArgumentException("The buffer size must be greater than 0! " + bufferSize);
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Build a GeoJSONSeqWriter that writes to an OutputStream
+         * @param outputStream The OutputStream
+         * @return A GeoJSONSeqWriter
+         */
+        public GeoJSONSeqWriter build(OutputStream outputStream) {
+            return new GeoJSONSeqWriter(this, outputStream);
+        }
+    }
+
+}
@@ -0,0 +1,239 @@
+package org.cugos.wkg;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read the Features of a GeoJSON FeatureCollection one after another from an InputStream or a java.io.Reader.
+ * <p>
+ * Bytes are pulled through a fixed size buffer that is refilled as Features are read, and only the current Feature
+ * is built, so memory use does not depend on the size of the FeatureCollection.  A single Feature that is larger
+ * than the buffer is read into a temporary larger buffer and the reader goes back to the fixed size buffer afterwards.
+ * </p>
+ * <p>
+ * Each Feature is read as its Geometry with the properties of the Feature as its data.  Features without a
+ * Geometry are skipped.  A GeoJSON document that is a single Feature or Geometry is read as one Geometry.
+ * An InputStream must be UTF-8, the encoding of GeoJSON.  Invalid GeoJSON throws an IllegalStateException.
+ * </p>
+ * <p>
+ * With a filter Envelope only the Features that intersect it are read.  A Feature's bbox is used when it has one,
+ * otherwise the extent of its positions, and a Feature that does not intersect is dropped before its Geometry is built.
+ * </p>
+ * @author Jared Erickson
+ */
+public class GeoJSONStreamReader implements Iterator<Geometry>, Closeable {
+
+    /**
+     * The default buffer size
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The InputStream
+     */
+    private final InputStream inputStream;
+
+    /**
+     * The GeoJSONScanner
+     */
+    private final GeoJSONScanner scanner;
+
+    /**
+     * The next Geometry or null
+     */
+    private Geometry nextGeometry;
+
+    /**
+     * Create a new GeoJSONStreamReader
+     * @param inputStream The UTF-8 InputStream
+     */
+    public GeoJSONStreamReader(InputStream inputStream) {
+        this(inputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a new GeoJSONStreamReader
+     * @param inputStream The UTF-8 InputStream
+     * @param bufferSize The buffer size
+     */
+    public GeoJSONStreamReader(InputStream inputStream, int bufferSize) {
+        this(inputStream, bufferSize, null);
+    }
+
+    /**
+     * Create a new GeoJSONStreamReader that only reads the Features that intersect an Envelope
+     * @param inputStream The UTF-8 InputStream
+     * @param bufferSize The buffer size
+     * @param filter The Envelope or null to read every Feature
+     */
+    public GeoJSONStreamReader(InputStream inputStream, int bufferSize, Envelope filter) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The buffer size must be greater than 0! " + bufferSize);
+        }
+        this.inputStream = inputStream;
+        this.scanner = new GeoJSONScanner(inputStream, bufferSize);
+        this.scanner.setFilter(filter);
+    }
+
+    /**
+     * Create a new GeoJSONStreamReader
+     * @param reader The java.io.Reader
+     */
+    public GeoJSONStreamReader(java.io.Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a new GeoJSONStreamReader
+     * @param reader The java.io.Reader
+     * @param bufferSize The buffer size
+     */
+    public GeoJSONStreamReader(java.io.Reader reader, int bufferSize) {
+        this(reader, bufferSize, null);
+    }
+
+    /**
+     * Create a new GeoJSONStreamReader that only reads the Features that intersect an Envelope
+     * @param reader The java.io.Reader
+     * @param bufferSize The buffer size
+     * @param filter The Envelope or null to read every Feature
+     */
+    public GeoJSONStreamReader(java.io.Reader reader, int bufferSize, Envelope filter) {
+        this(new ReaderInputStream(reader), bufferSize, filter);
+    }
+
+    /**
+     * Whether there is another Geometry
+     * @return Whether there is another Geometry
+     */
+    @Override
+    public boolean hasNext() {
+        if (nextGeometry == null) {
+            try {
+                nextGeometry = scanner.next();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return nextGeometry != null;
+    }
+
+    /**
+     * Read the next Geometry
+     * @return The next Geometry
+     */
+    @Override
+    public Geometry next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Geometry geometry = nextGeometry;
+        nextGeometry = null;
+        return geometry;
+    }
+
+    /**
+     * Get a Stream of the remaining Geometries.  Closing the Stream closes this GeoJSONStreamReader.
+     * @return A Stream of Geometries
+     */
+    public Stream<Geometry> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+
+    /**
+     * An InputStream of the UTF-8 bytes of a java.io.Reader
+     */
+    private static final class ReaderInputStream extends InputStream {
+
+        private final java.io.Reader reader;
+
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        private final CharBuffer chars = CharBuffer.allocate(8 * 1024);
+
+        private final ByteBuffer bytes = ByteBuffer.allocate(8 * 1024);
+
+        /**
+         * Whether the encoder needs more characters
+         */
+        private boolean underflow = true;
+
+        private boolean endOfInput;
+
+        private boolean flushed;
+
+        private ReaderInputStream(java.io.Reader reader) {
+            this.reader = reader;
+            this.chars.flip();
+            this.bytes.flip();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (!bytes.hasRemaining()) {
+                if (flushed) {
+                    return -1;
+                }
+                bytes.clear();
+                if (underflow && !endOfInput) {
+                    chars.compact();
+                    endOfInput = reader.read(chars) == -1;
+                    chars.flip();
+                }
+                CoderResult result = encoder.encode(chars, bytes, endOfInput);
+                underflow = result.isUnderflow();
+                if (endOfInput && underflow) {
+                    encoder.flush(bytes);
+                    flushed = true;
+                }
+                bytes.flip();
+            }
+            int length = Math.min(len, bytes.remaining());
+            bytes.get(b, off, length);
+            return length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+}
@@ -0,0 +1,188 @@
+package org.cugos.wkg;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Write Geometries one after another as the Features of a GeoJSON FeatureCollection to an OutputStream or a
+ * java.io.Writer.
+ * <p>
+ * Each Geometry is written by a GeoJSONWriter as a Feature with its data as the properties.  The Features are
+ * buffered and written as the buffer fills up, so memory use does not depend on the number of Features and the
+ * first bytes are written before the last Feature is known.  The FeatureCollection is ended when the
+ * GeoJSONStreamWriter is closed.  An OutputStream is written in UTF-8, the encoding of GeoJSON.
+ * </p>
+ * @author Jared Erickson
+ */
+public class GeoJSONStreamWriter implements Closeable, Flushable {
+
+    /**
+     * The default buffer size in characters
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The buffered java.io.Writer
+     */
+    private final java.io.Writer writer;
+
+    /**
+     * The GeoJSONWriter
+     */
+    private final GeoJSONWriter geoJSONWriter;
+
+    /**
+     * The StringBuilder that each Feature is written to
+     */
+    private final StringBuilder feature = new StringBuilder();
+
+    /**
+     * The number of Features written
+     */
+    private long count;
+
+    /**
+     * Whether the FeatureCollection has been started
+     */
+    private boolean started;
+
+    /**
+     * Whether the GeoJSONStreamWriter has been closed
+     */
+    private boolean closed;
+
+    /**
+     * Create a new GeoJSONStreamWriter
+     * @param outputStream The OutputStream
+     */
+    public GeoJSONStreamWriter(OutputStream outputStream) {
+        this(outputStream, new GeoJSONWriter());
+    }
+
+    /**
+     * Create a new GeoJSONStreamWriter
+     * @param outputStream The OutputStream
+     * @param geoJSONWriter The GeoJSONWriter, for example to format the coordinates with a DoubleFormatter
+     */
+    public GeoJSONStreamWriter(OutputStream outputStream, GeoJSONWriter geoJSONWriter) {
+        this(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), geoJSONWriter, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a new GeoJSONStreamWriter
+     * @param writer The java.io.Writer
+     */
+    public GeoJSONStreamWriter(java.io.Writer writer) {
+        this(writer, new GeoJSONWriter(), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a new GeoJSONStreamWriter
+     * @param writer The java.io.Writer
+     * @param geoJSONWriter The GeoJSONWriter, for example to format the coordinates with a DoubleFormatter
+     * @param bufferSize The buffer size in characters
+     */
+    public GeoJSONStreamWriter(java.io.Writer writer, GeoJSONWriter geoJSONWriter, int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The buffer size must be greater than 0! " + bufferSize);
+        }
+        this.writer = new BufferedWriter(writer, bufferSize);
+        this.geoJSONWriter = geoJSONWriter;
+    }
+
+    /**
+     * Write a Geometry as the next Feature
+     * @param geometry The Geometry
+     * @throws IOException if there is an error writing
+     */
+    public void write(Geometry geometry) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The GeoJSONStreamWriter is closed!");
+        }
+        start();
+        if (count > 0) {
+            writer.write(",\n");
+        }
+        feature.setLength(0);
+        geoJSONWriter.writeFeature(feature, geometry);
+        writer.append(feature);
+        count++;
+    }
+
+    /**
+     * Write each Geometry as the next Feature
+     * @param geometries The Geometries
+     * @throws IOException if there is an error writing
+     */
+    public void write(Iterable<? extends Geometry> geometries) throws IOException {
+        write(geometries.iterator());
+    }
+
+    /**
+     * Write each Geometry of a Stream as the next Feature.  The Stream is consumed but not closed.
+     * @param geometries The Stream of Geometries
+     * @throws IOException if there is an error writing
+     */
+    public void write(Stream<? extends Geometry> geometries) throws IOException {
+        write(geometries.iterator());
+    }
+
+    private void write(Iterator<? extends Geometry> geometries) throws IOException {
+        while (geometries.hasNext()) {
+            write(geometries.next());
+        }
+    }
+
+    /**
+     * Get the number of Features written
+     * @return The number of Features written
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Write the buffered Features to the OutputStream or java.io.Writer
+     * @throws IOException if there is an error writing
+     */
+    @Override
+    public void flush() throws IOException {
+        if (!closed) {
+            start();
+            writer.flush();
+        }
+    }
+
+    /**
+     * End the FeatureCollection, flush the buffered Features and close the OutputStream or java.io.Writer
+     * @throws IOException if there is an error writing
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            start();
+            writer.write("\n]}");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void start() throws IOException {
+        if (!started) {
+            writer.write("{\"type\": \"FeatureCollection\", \"features\": [\n");
+            started = true;
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package org.cugos.wkg;
 
-import java.util.List;
+import java.lang.reflect.Array;
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -9,6 +10,48 @@ import java.util.Map;
  */
 public class GeoJSONWriter implements Writer<String> {
 
+  /**
+   * The GeometryVisitor that writes a Geometry to a GeoJSON String
+   */
+  private final GeometryVisitor<String> visitor = new WriteVisitor();
+
+  /**
+   * The DoubleFormatter for the coordinates
+   */
+  private final DoubleFormatter formatter;
+
+  /**
+   * Whether a bbox member is written
+   */
+  private final boolean bbox;
+
+  /**
+   * Create a new GeoJSONWriter that writes the shortest decimal that reads back to the same double
+   */
+  public GeoJSONWriter() {
+    this(DoubleFormatter.shortest());
+  }
+
+  /**
+   * Create a new GeoJSONWriter
+   * @param formatter The DoubleFormatter for the coordinates, for example DoubleFormatter.maximumDecimals(6)
+   */
+  public GeoJSONWriter(DoubleFormatter formatter) {
+    this(formatter, false);
+  }
+
+  /**
+   * Create a new GeoJSONWriter
+   * @param formatter The DoubleFormatter for the coordinates, for example DoubleFormatter.maximumDecimals(6)
+   * @param bbox Whether to write a bbox member on every Feature and Geometry that is not empty, so a reader can
+   * filter Features without reading their coordinates.  The bbox is rounded like the coordinates, so it is the
+   * bbox of the coordinates as they are written.
+   */
+  public GeoJSONWriter(DoubleFormatter formatter, boolean bbox) {
+    this.formatter = formatter;
+    this.bbox = bbox;
+  }
+
   /**
    * Write a Geometry to a GeoJSON String
    * @param geometry The Geometry
@@ -16,22 +59,7 @@ public class GeoJSONWriter implements Writer<String> {
    */
   @Override
   public String write(Geometry geometry) {
-    if (geometry instanceof Point) {
-      return writePoint((Point) geometry);
-    } else if (geometry instanceof LineString) {
-      return writeLineString((LineString) geometry);
-    } else if (geometry instanceof Polygon) {
-      return writePolygon((Polygon) geometry);
-    } else if (geometry instanceof MultiPoint) {
-      return writeMultiPoint((MultiPoint) geometry);
-    } else if (geometry instanceof MultiLineString) {
-      return writeMultiLineString((MultiLineString) geometry);
-    } else if (geometry instanceof MultiPolygon) {
-      return writeMultiPolygon((MultiPolygon) geometry);
-    } else if (geometry instanceof GeometryCollection) {
-      return writeGeometryCollection((GeometryCollection) geometry);
-    }
-    return "";
+    return geometry.accept(visitor);
   }
 
   @Override
@@ -46,23 +74,23 @@ public class GeoJSONWriter implements Writer<String> {
    */
   public String writeFeature(Geometry geometry) {
     StringBuilder str = new StringBuilder();
-    str.append("{\"type\": \"Feature\", \"properties\": {");
-    if (geometry.getData() instanceof Map) {
-      Map<String,Object> data = (Map<String,Object>) geometry.getData();
-      boolean first = true;
-      for (Map.Entry<String,Object> entry : data.entrySet()) {
-        if (!first) {
-          str.append(", ");
-        }
-        str.append("\"").append(entry.getKey()).append("\": ");
-        str.append("\"").append(entry.getValue()).append("\"");
-        first = false;
-      }
-    }
-    str.append("}, \"geometry\": ");
+    writeFeature(str, geometry);
+    return str.toString();
+  }
+
+  /**
+   * Write the Geometry as a GeoJSON Feature to a StringBuilder
+   * @param str The StringBuilder
+   * @param geometry The Geometry
+   */
+  public void writeFeature(StringBuilder str, Geometry geometry) {
+    str.append("{\"type\": \"Feature\", ");
+    writeBbox(str, geometry);
+    str.append("\"properties\": ");
+    writeProperties(str, geometry.getData());
+    str.append(", \"geometry\": ");
     str.append(write(geometry));
     str.append("}");
-    return str.toString();
   }
 
   /**
@@ -81,6 +109,7 @@ public class GeoJSONWriter implements Writer<String> {
   protected String writePoint(Point point) {
     StringBuilder str = new StringBuilder();
     str.append("{\"type\": \"Point\"").append(", ");
+    writeBbox(str, point);
     str.append("\"coordinates\": ");
     writeCoordinate(str, point.getCoordinate());
     str.append("}");
@@ -90,8 +119,9 @@ public class GeoJSONWriter implements Writer<String> {
   protected String writeLineString(LineString lineString) {
     StringBuilder str = new StringBuilder();
     str.append("{\"type\": \"LineString\"").append(", ");
+    writeBbox(str, lineString);
     str.append("\"coordinates\": [");
-    writeCoordinates(str, lineString.getCoordinates());
+    writeCoordinates(str, lineString.getCoordinateSequence());
     str.append("]");
     str.append("}");
     return str.toString();
@@ -100,9 +130,10 @@ public class GeoJSONWriter implements Writer<String> {
   protected String writePolygon(Polygon polygon) {
     StringBuilder str = new StringBuilder();
     str.append("{\"type\": \"Polygon\"").append(", ");
+    writeBbox(str, polygon);
     str.append("\"coordinates\": [");
     str.append("[");
-    writeCoordinates(str, polygon.getOuterLinearRing().getCoordinates());
+    writeCoordinates(str, polygon.getOuterLinearRing().getCoordinateSequence());
     str.append("]");
     if (polygon.getInnerLinearRings().size() > 0) {
       str.append(", [");
@@ -111,7 +142,7 @@ public class GeoJSONWriter implements Writer<String> {
         if (i > 0) {
           str.append(", ");
         }
-        writeCoordinates(str, interiorLinearRing.getCoordinates());
+        writeCoordinates(str, interiorLinearRing.getCoordinateSequence());
         i++;
       }
       str.append("]");
@@ -124,8 +155,16 @@ public class GeoJSONWriter implements Writer<String> {
   protected String writeMultiPoint(MultiPoint multiPoint) {
     StringBuilder str = new StringBuilder();
     str.append("{\"type\": \"MultiPoint\"").append(", ");
+    writeBbox(str, multiPoint);
     str.append("\"coordinates\": [");
-    writeCoordinates(str, multiPoint.getCoordinates());
+    boolean first = true;
+    for (Point point : multiPoint.getPoints()) {
+      if (!first) {
+        str.append(", ");
+      }
+      writeCoordinate(str, point.getCoordinate());
+      first = false;
+    }
     str.append("]");
     str.append("}");
     return str.toString();
@@ -134,6 +173,7 @@ public class GeoJSONWriter implements Writer<String> {
   protected String writeMultiLineString(MultiLineString multiLineString) {
     StringBuilder str = new StringBuilder();
     str.append("{\"type\": \"MultiLineString\"").append(", ");
+    writeBbox(str, multiLineString);
     str.append("\"coordinates\": [");
     int i = 0;
     for (LineString lineString : multiLineString.getLineStrings()) {
@@ -141,7 +181,7 @@ public class GeoJSONWriter implements Writer<String> {
         str.append(", ");
       }
       str.append("[");
-      writeCoordinates(str, lineString.getCoordinates());
+      writeCoordinates(str, lineString.getCoordinateSequence());
       str.append("]");
       i++;
     }
@@ -153,6 +193,7 @@ public class GeoJSONWriter implements Writer<String> {
   protected String writeMultiPolygon(MultiPolygon multiPolygon) {
     StringBuilder str = new StringBuilder();
     str.append("{\"type\": \"MultiPolygon\"").append(", ");
+    writeBbox(str, multiPolygon);
     str.append("\"coordinates\": [");
     int i = 0;
     for (Polygon polygon : multiPolygon.getPolygons()) {
@@ -162,7 +203,7 @@ public class GeoJSONWriter implements Writer<String> {
       str.append("[");
 
       str.append("[");
-      writeCoordinates(str, polygon.getOuterLinearRing().getCoordinates());
+      writeCoordinates(str, polygon.getOuterLinearRing().getCoordinateSequence());
       str.append("]");
       if (polygon.getInnerLinearRings().size() > 0) {
         str.append(", [");
@@ -171,7 +212,7 @@ public class GeoJSONWriter implements Writer<String> {
           if (j > 0) {
             str.append(", ");
           }
-          writeCoordinates(str, interiorLinearRing.getCoordinates());
+          writeCoordinates(str, interiorLinearRing.getCoordinateSequence());
           j++;
         }
         str.append("]");
@@ -187,6 +228,7 @@ public class GeoJSONWriter implements Writer<String> {
   protected String writeGeometryCollection(GeometryCollection geometryCollection) {
     StringBuilder str = new StringBuilder();
     str.append("{\"type\": \"GeometryCollection\"").append(", ");
+    writeBbox(str, geometryCollection);
     str.append("\"geometries\": [");
     int i = 0;
     for (Geometry geometry : geometryCollection.getGeometries()) {
@@ -201,29 +243,268 @@ public class GeoJSONWriter implements Writer<String> {
     return str.toString();
   }
 
+  /**
+   * Write the bbox member and a comma if bboxes are written and the Geometry is not empty
+   * @param str The StringBuilder
+   * @param geometry The Geometry
+   */
+  protected void writeBbox(StringBuilder str, Geometry geometry) {
+    if (!bbox || geometry.isEmpty()) {
+      return;
+    }
+    Envelope envelope = geometry.getEnvelope();
+    if (Double.isNaN(envelope.getMinX()) || Double.isNaN(envelope.getMinY())) {
+      return;
+    }
+    boolean hasZ = !Double.isNaN(envelope.getMinZ());
+    // Rounding never changes the order of two values, so the rounded minimum and maximum are the
+    // minimum and maximum of the rounded coordinates that are written
+    str.append("\"bbox\": [");
+    formatter.format(envelope.getMinX(), str);
+    str.append(", ");
+    formatter.format(envelope.getMinY(), str);
+    if (hasZ) {
+      str.append(", ");
+      formatter.format(envelope.getMinZ(), str);
+    }
+    str.append(", ");
+    formatter.format(envelope.getMaxX(), str);
+    str.append(", ");
+    formatter.format(envelope.getMaxY(), str);
+    if (hasZ) {
+      str.append(", ");
+      formatter.format(envelope.getMaxZ(), str);
+    }
+    str.append("], ");
+  }
+
+  /**
+   * Write the data of a Geometry as the properties of a Feature.  Data that is not a Map is written as an
+   * empty object.
+   * @param str The StringBuilder
+   * @param data The data of the Geometry
+   */
+  protected void writeProperties(StringBuilder str, Object data) {
+    writeValue(str, data instanceof Map ? data : Collections.emptyMap());
+  }
+
+  /**
+   * Write a property value as its JSON type.  Maps are written as objects, Iterables and arrays as arrays,
+   * Numbers as numbers, Booleans as true or false and null as null.  Doubles and Floats that are NaN or infinite
+   * have no JSON number and are written as null.  Any other value is written as a String.
+   * @param str The StringBuilder
+   * @param value The value
+   */
+  protected void writeValue(StringBuilder str, Object value) {
+    if (value == null) {
+      str.append("null");
+    } else if (value instanceof Boolean) {
+      str.append(value);
+    } else if (value instanceof Double || value instanceof Float) {
+      double number = ((Number) value).doubleValue();
+      if (Double.isNaN(number) || Double.isInfinite(number)) {
+        str.append("null");
+      } else if (value instanceof Float) {
+        str.append(value);
+      } else {
+        DoubleFormatter.shortest().format(number, str);
+      }
+    } else if (value instanceof Number) {
+      str.append(value);
+    } else if (value instanceof Map) {
+      str.append("{");
+      boolean first = true;
+      for (Map.Entry<?,?> entry : ((Map<?,?>) value).entrySet()) {
+        if (!first) {
+          str.append(", ");
+        }
+        writeString(str, String.valueOf(entry.getKey()));
+        str.append(": ");
+        writeValue(str, entry.getValue());
+        first = false;
+      }
+      str.append("}");
+    } else if (value instanceof Iterable) {
+      str.append("[");
+      boolean first = true;
+      for (Object item : (Iterable<?>) value) {
+        if (!first) {
+          str.append(", ");
+        }
+        writeValue(str, item);
+        first = false;
+      }
+      str.append("]");
+    } else if (value.getClass().isArray()) {
+      str.append("[");
+      for (int i = 0; i < Array.getLength(value); i++) {
+        if (i > 0) {
+          str.append(", ");
+        }
+        writeValue(str, Array.get(value, i));
+      }
+      str.append("]");
+    } else {
+      writeString(str, value.toString());
+    }
+  }
+
+  /**
+   * Write a quoted JSON String, escaping quotes, backslashes and control characters
+   * @param str The StringBuilder
+   * @param value The String
+   */
+  protected void writeString(StringBuilder str, String value) {
+    str.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          str.append("\\\"");
+          break;
+        case '\\':
+          str.append("\\\\");
+          break;
+        case '\n':
+          str.append("\\n");
+          break;
+        case '\r':
+          str.append("\\r");
+          break;
+        case '\t':
+          str.append("\\t");
+          break;
+        case '\b':
+          str.append("\\b");
+          break;
+        case '\f':
+          str.append("\\f");
+          break;
+        default:
+          if (c < 0x20) {
+            str.append(String.format("\\u%04x", (int) c));
+          } else {
+            str.append(c);
+          }
+      }
+    }
+    str.append('"');
+  }
+
   protected void writeCoordinate(StringBuilder str, Coordinate coordinate) {
     str.append("[");
     if (!coordinate.isEmpty()) {
-      str.append(coordinate.getX());
+      formatter.format(coordinate.getX(), str);
       str.append(", ");
-      str.append(coordinate.getY());
+      formatter.format(coordinate.getY(), str);
       if (!Double.isNaN(coordinate.getZ())) {
         str.append(", ");
-        str.append(coordinate.getZ());
+        formatter.format(coordinate.getZ(), str);
       }
     }
     str.append("]");
   }
 
-  protected void writeCoordinates(StringBuilder str, List<Coordinate> coordinates) {
-    boolean first = true;
-    for (Coordinate coordinate : coordinates) {
-      if (!first) {
+  /**
+   * Write the packed ordinates of a CoordinateSequence without creating Coordinates.  It writes the
+   * Coordinates of LineStrings and Polygon rings, while writeCoordinate writes the Coordinates of Points
+   * and MultiPoints.
+   * @param str The StringBuilder
+   * @param coordinates The CoordinateSequence
+   */
+  protected void writeCoordinates(StringBuilder str, CoordinateSequence coordinates) {
+    for (int i = 0; i < coordinates.size(); i++) {
+      if (i > 0) {
         str.append(", ");
       }
-      writeCoordinate(str, coordinate);
-      first = false;
+      str.append("[");
+      formatter.format(coordinates.getX(i), str);
+      str.append(", ");
+      formatter.format(coordinates.getY(i), str);
+      double z = coordinates.getZ(i);
+      if (!Double.isNaN(z)) {
+        str.append(", ");
+        formatter.format(z, str);
+      }
+      str.append("]");
+    }
+  }
+
+  /**
+   * A GeometryVisitor that writes a Geometry to a GeoJSON String.  Geometries that GeoJSON
+   * does not support are written as an empty String.
+   */
+  private final class WriteVisitor implements GeometryVisitor<String> {
+
+    @Override
+    public String visit(Point point) {
+      return writePoint(point);
+    }
+
+    @Override
+    public String visit(LineString lineString) {
+      return writeLineString(lineString);
+    }
+
+    @Override
+    public String visit(Polygon polygon) {
+      return writePolygon(polygon);
+    }
+
+    @Override
+    public String visit(MultiPoint multiPoint) {
+      return writeMultiPoint(multiPoint);
+    }
+
+    @Override
+    public String visit(MultiLineString multiLineString) {
+      return writeMultiLineString(multiLineString);
+    }
+
+    @Override
+    public String visit(MultiPolygon multiPolygon) {
+      return writeMultiPolygon(multiPolygon);
+    }
+
+    @Override
+    public String visit(GeometryCollection geometryCollection) {
+      return writeGeometryCollection(geometryCollection);
+    }
+
+    @Override
+    public String visit(CircularString circularString) {
+      return "";
+    }
+
+    @Override
+    public String visit(CompoundCurve compoundCurve) {
+      return "";
+    }
+
+    @Override
+    public String visit(CurvePolygon curvePolygon) {
+      return "";
+    }
+
+    @Override
+    public String visit(MultiCurve multiCurve) {
+      return "";
+    }
+
+    @Override
+    public String visit(MultiSurface multiSurface) {
+      return "";
+    }
+
+    @Override
+    public String visit(PolyHedralSurface polyHedralSurface) {
+      return "";
+    }
+
+    @Override
+    public String visit(Tin tin) {
+      return "";
     }
   }
 
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package org.cugos.wkg;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * Read GeoPackage encoded Geometry
@@ -35,7 +36,44 @@ public class GeoPackageReader implements Reader<byte[]> {
      * @return A Geometry or null
      */
     public Geometry read(String hex) {
-        return read(toBytes(hex));
+        return read(ByteCodec.decodeHex(hex));
+    }
+
+    /**
+     * Read a Geometry from a Base64 CharSequence
+     * @param base64 The Base64 CharSequence
+     * @return A Geometry or null
+     */
+    public Geometry readBase64(CharSequence base64) {
+        return read(ByteCodec.decodeBase64(base64));
+    }
+
+    /**
+     * Remove the GeoPackage header and get the WKB without decoding it into a Geometry
+     * @param bytes The GeoPackage encoded Geometry
+     * @return The WKB bytes
+     */
+    public byte[] readWKB(byte[] bytes) {
+        if (bytes.length < 8 || bytes[0] != 'G' || bytes[1] != 'P') {
+            throw new IllegalArgumentException("Not a GeoPackage Geometry!");
+        }
+        int envelopeTypeFlag = (bytes[3] & GeoPackage.Flag.EnvelopeIndicator.getValue()) >> 1;
+        GeoPackage.EnvelopeType envelopeType = GeoPackage.EnvelopeType.get(envelopeTypeFlag);
+        if (envelopeType == null) {
+            throw new IllegalArgumentException("Not a GeoPackage Geometry! Invalid envelope indicator " + envelopeTypeFlag);
+        }
+        int headerLength = 8;
+        if (envelopeType == GeoPackage.EnvelopeType.Envelope) {
+            headerLength += 8 * 4;
+        } else if (envelopeType == GeoPackage.EnvelopeType.EnvelopeZ || envelopeType == GeoPackage.EnvelopeType.EnvelopeM) {
+            headerLength += 8 * 6;
+        } else if (envelopeType == GeoPackage.EnvelopeType.EnvelopeZM) {
+            headerLength += 8 * 8;
+        }
+        if (bytes.length < headerLength) {
+            throw new IllegalArgumentException("Not a GeoPackage Geometry! The header needs " + headerLength + " bytes");
+        }
+        return Arrays.copyOfRange(bytes, headerLength, bytes.length);
     }
 
     /**
@@ -111,21 +149,6 @@ public class GeoPackageReader implements Reader<byte[]> {
         return geoPackageGeometry;
     }
 
-    /**
-     * Convert a hex String into a byte Array
-     * @param hexString The hex String
-     * @return An array of bytes
-     */
-    private static byte[] toBytes(String hexString) {
-        int len = hexString.length();
-        byte[] data = new byte[len / 2];
-        for (int i = 0; i < len; i += 2) {
-            data[i / 2] = (byte) ((Character.digit(hexString.charAt(i), 16) << 4)
-                + Character.digit(hexString.charAt(i+1), 16));
-        }
-        return data;
-    }
-
     /**
      * A GeoPackageGeometry holds the GeoPackage header information plus a Geometry
      */
@@ -1,5 +1,6 @@
 package org.cugos.wkg;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 
 /**
@@ -33,6 +34,16 @@ public class GeoPackageWriter implements Writer<byte[]> {
      */
     private WKBWriter wkbWriter;
 
+    /**
+     * The WKBReader used to calculate the envelope of WKB
+     */
+    private final WKBReader wkbReader = new WKBReader();
+
+    /**
+     * The WKBTranscoder used to change the byte order of WKB
+     */
+    private WKBTranscoder transcoder;
+
     /**
      * Create a new GeoPackageWriter that uses Big Endian and encodes the Envelope without MZ values
      */
@@ -49,6 +60,7 @@ public class GeoPackageWriter implements Writer<byte[]> {
         this.endian = endian;
         this.envelopType = envelopeType;
         this.wkbWriter = new WKBWriter(WKB.Type.EWKB, endian);
+        this.transcoder = WKBTranscoder.builder().endian(endian).build();
     }
 
     /**
@@ -57,7 +69,38 @@ public class GeoPackageWriter implements Writer<byte[]> {
      * @return A WKB hex String
      */
     public String writeToHex(Geometry geometry) {
-        return toHex(write(geometry));
+        return ByteCodec.encodeHex(write(geometry));
+    }
+
+    /**
+     * Write the Geometry as hex to an Appendable
+     * @param geometry The Geometry
+     * @param appendable The Appendable
+     * @throws IOException if there is an error appending
+     */
+    public void writeToHex(Geometry geometry, Appendable appendable) throws IOException {
+        byte[] bytes = write(geometry);
+        ByteCodec.encodeHex(bytes, 0, bytes.length, appendable);
+    }
+
+    /**
+     * Write the Geometry to a Base64 String
+     * @param geometry The Geometry
+     * @return A Base64 String
+     */
+    public String writeToBase64(Geometry geometry) {
+        return ByteCodec.encodeBase64(write(geometry));
+    }
+
+    /**
+     * Write the Geometry as Base64 to an Appendable
+     * @param geometry The Geometry
+     * @param appendable The Appendable
+     * @throws IOException if there is an error appending
+     */
+    public void writeToBase64(Geometry geometry, Appendable appendable) throws IOException {
+        byte[] bytes = write(geometry);
+        ByteCodec.encodeBase64(bytes, 0, bytes.length, appendable);
     }
 
     /**
@@ -67,8 +110,45 @@ public class GeoPackageWriter implements Writer<byte[]> {
      */
     @Override
     public byte[] write(Geometry g) {
-        //System.out.println(calculateNumberOfBytes(g));
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(g));
+        putHeader(buffer, g.getSrid() != null ? Integer.parseInt(g.getSrid()) : -1, g.isEmpty(),
+            envelopType != GeoPackage.EnvelopeType.NoEnvelope ? g.getEnvelope() : null);
+        // WKBGeometry
+        wkbWriter.putGeometry(buffer, g);
+        return buffer.array();
+    }
+
+    /**
+     * Wrap WKB or EWKB bytes in a GeoPackage header without decoding them into a Geometry.  The envelope is
+     * calculated from the coordinate bytes and the WKB is copied as it is unless its byte order is not the
+     * byte order of this GeoPackageWriter.  The Geometry is empty when it has no Coordinates.
+     * @param wkb The WKB or EWKB bytes
+     * @param srsId The SRS ID
+     * @return An array of bytes
+     */
+    public byte[] write(byte[] wkb, int srsId) {
+        int length = WKBScanner.length(wkb);
+        ByteBuffer wkbBuffer = ByteBuffer.wrap(wkb, 0, length);
+        boolean isEmpty = WKBScanner.getNumberOfCoordinates(wkbBuffer, 0) == 0;
+        Envelope envelope = envelopType != GeoPackage.EnvelopeType.NoEnvelope ? wkbReader.readEnvelope(wkbBuffer) : null;
+        ByteBuffer buffer = ByteBuffer.allocate(2 + 1 + 1 + 4 + calculateNumberOfBytes(envelopType) + length);
+        putHeader(buffer, srsId, isEmpty, envelope);
+        if (wkb[0] == endian.getValue()) {
+            buffer.put(wkb, 0, length);
+        } else {
+            transcoder.transcode(wkbBuffer, buffer);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Write the GeoPackage header into the ByteBuffer
+     * @param buffer The ByteBuffer
+     * @param srsId The SRS ID
+     * @param isEmpty Whether the Geometry is empty
+     * @param envelope The Envelope or null if there is no envelope
+     */
+    private void putHeader(ByteBuffer buffer, int srsId, boolean isEmpty, Envelope envelope) {
         // Magic (2)
         buffer.put((byte)'G');
         buffer.put((byte)'P');
@@ -78,14 +158,13 @@ public class GeoPackageWriter implements Writer<byte[]> {
         byte flag = 0;
         flag |= ((((byte) envelopType.getValue() << 1) & GeoPackage.Flag.EnvelopeIndicator.getValue()));
         flag |= ((byte) binaryType.getValue()) & GeoPackage.Flag.BinaryType.getValue();
-        flag |= ((byte) (g.isEmpty() ? GeoPackage.GeometryEmptyType.Empty.getValue() : GeoPackage.GeometryEmptyType.NotEmpty.getValue())) & GeoPackage.Flag.GeometryEmpty.getValue();
+        flag |= ((byte) (isEmpty ? GeoPackage.GeometryEmptyType.Empty.getValue() : GeoPackage.GeometryEmptyType.NotEmpty.getValue())) & GeoPackage.Flag.GeometryEmpty.getValue();
         flag |= ((byte) endian.getValue()) & GeoPackage.Flag.Endianess.getValue();
         buffer.put(flag);
         // SRS ID (4)
-        buffer.putInt(g.getSrid() != null ? Integer.parseInt(g.getSrid()) : -1);
+        buffer.putInt(srsId);
         // Envelope (8 * 4)
         if (envelopType != GeoPackage.EnvelopeType.NoEnvelope) {
-            Envelope envelope = g.getEnvelope();
             buffer.putDouble(envelope.getMinX());
             buffer.putDouble(envelope.getMaxX());
             buffer.putDouble(envelope.getMinY());
@@ -99,9 +178,6 @@ public class GeoPackageWriter implements Writer<byte[]> {
                 buffer.putDouble(envelope.getMaxM());
             }
         }
-        // WKBGeometry
-        wkbWriter.putGeometry(buffer, g);
-        return buffer.array();
     }
 
     @Override
@@ -133,25 +209,4 @@ public class GeoPackageWriter implements Writer<byte[]> {
             return 0;
         }
     }
-
-    /**
-     * The hex array
-     */
-    private final static char[] hexArray = "0123456789ABCDEF".toCharArray();
-
-    /**
-     * Convert an array of bytes to a hex String.
-     * @param bytes The array of bytes
-     * @return The hex String
-     */
-    private static String toHex(byte[] bytes) {
-        char[] hexChars = new char[bytes.length * 2];
-        for (int j = 0; j < bytes.length; j++) {
-            int v = bytes[j] & 0xFF;
-            hexChars[j * 2] = hexArray[v >>> 4];
-            hexChars[j * 2 + 1] = hexArray[v & 0x0F];
-        }
-        return new String(hexChars);
-    }
-
 }
@@ -1,6 +1,7 @@
 package org.cugos.wkg;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * The Abstract base class for all Geometries
@@ -8,6 +9,17 @@ import java.util.List;
  */
 public abstract class Geometry {
 
+    /**
+     * The WKTWriter used by toString
+     */
+    private static final WKTWriter WKT_WRITER = new WKTWriter();
+
+    /**
+     * Increments the modifications atomically without an AtomicInteger for each Geometry
+     */
+    private static final AtomicIntegerFieldUpdater<Geometry> MODIFICATIONS =
+            AtomicIntegerFieldUpdater.newUpdater(Geometry.class, "modifications");
+
     /**
      * The SRID
      */
@@ -23,6 +35,13 @@ public abstract class Geometry {
      */
     protected Object data;
 
+    /**
+     * The number of times this Geometry has been modified, which lets CachingWriter know when
+     * a cached encoding is stale.  It is only incremented through MODIFICATIONS, so concurrent
+     * modifications are all counted.
+     */
+    volatile int modifications;
+
     /**
      * Create a new Geometry with Dimension and SRID
      * @param dimension The Dimension
@@ -51,6 +70,14 @@ public abstract class Geometry {
      */ 
     public abstract List<Coordinate> getCoordinates();
 
+    /**
+     * Dispatch to the GeometryVisitor's visit method for the type of this Geometry
+     * @param visitor The GeometryVisitor
+     * @param <R> The type of the result
+     * @return The result of the GeometryVisitor
+     */
+    public abstract <R> R accept(GeometryVisitor<R> visitor);
+
     /**
      * Get the bounding Envelope
      * @return The bounding Envelope
@@ -127,6 +154,7 @@ public abstract class Geometry {
      */ 
     public Geometry setSrid(String srid) {
         this.srid = srid;
+        MODIFICATIONS.incrementAndGet(this);
         return this;
     }
 
@@ -162,7 +190,7 @@ public abstract class Geometry {
      */
     @Override
     public String toString() {
-        return new WKTWriter().write(this);
+        return WKT_WRITER.write(this);
     }
 
 
@@ -37,6 +37,11 @@ public class GeometryCollection extends AbstractGeometryCollection<Geometry> {
         return geometries;
     }
 
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
     /**
      * Create an empty GeometryCollection
      * @return An empty GeometryCollection
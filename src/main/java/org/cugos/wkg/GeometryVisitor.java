@@ -0,0 +1,130 @@
+package org.cugos.wkg;
+
+/**
+ * Visit a Geometry by its concrete type.  Call {@link Geometry#accept(GeometryVisitor)} to dispatch
+ * to the visit method for the Geometry's type with a single virtual call.
+ * <p>
+ * A LinearRing is visited as a LineString and a Triangle as a Polygon unless those methods are overridden.
+ * </p>
+ * @param <R> The type of the result
+ * @author Jared Erickson
+ */
+public interface GeometryVisitor<R> {
+
+    /**
+     * Visit a Point
+     * @param point The Point
+     * @return The result
+     */
+    R visit(Point point);
+
+    /**
+     * Visit a LineString
+     * @param lineString The LineString
+     * @return The result
+     */
+    R visit(LineString lineString);
+
+    /**
+     * Visit a LinearRing.  By default the LinearRing is visited as a LineString.
+     * @param linearRing The LinearRing
+     * @return The result
+     */
+    default R visit(LinearRing linearRing) {
+        return visit((LineString) linearRing);
+    }
+
+    /**
+     * Visit a Polygon
+     * @param polygon The Polygon
+     * @return The result
+     */
+    R visit(Polygon polygon);
+
+    /**
+     * Visit a Triangle.  By default the Triangle is visited as a Polygon.
+     * @param triangle The Triangle
+     * @return The result
+     */
+    default R visit(Triangle triangle) {
+        return visit((Polygon) triangle);
+    }
+
+    /**
+     * Visit a MultiPoint
+     * @param multiPoint The MultiPoint
+     * @return The result
+     */
+    R visit(MultiPoint multiPoint);
+
+    /**
+     * Visit a MultiLineString
+     * @param multiLineString The MultiLineString
+     * @return The result
+     */
+    R visit(MultiLineString multiLineString);
+
+    /**
+     * Visit a MultiPolygon
+     * @param multiPolygon The MultiPolygon
+     * @return The result
+     */
+    R visit(MultiPolygon multiPolygon);
+
+    /**
+     * Visit a GeometryCollection
+     * @param geometryCollection The GeometryCollection
+     * @return The result
+     */
+    R visit(GeometryCollection geometryCollection);
+
+    /**
+     * Visit a CircularString
+     * @param circularString The CircularString
+     * @return The result
+     */
+    R visit(CircularString circularString);
+
+    /**
+     * Visit a CompoundCurve
+     * @param compoundCurve The CompoundCurve
+     * @return The result
+     */
+    R visit(CompoundCurve compoundCurve);
+
+    /**
+     * Visit a CurvePolygon
+     * @param curvePolygon The CurvePolygon
+     * @return The result
+     */
+    R visit(CurvePolygon curvePolygon);
+
+    /**
+     * Visit a MultiCurve
+     * @param multiCurve The MultiCurve
+     * @return The result
+     */
+    R visit(MultiCurve multiCurve);
+
+    /**
+     * Visit a MultiSurface
+     * @param multiSurface The MultiSurface
+     * @return The result
+     */
+    R visit(MultiSurface multiSurface);
+
+    /**
+     * Visit a PolyHedralSurface
+     * @param polyHedralSurface The PolyHedralSurface
+     * @return The result
+     */
+    R visit(PolyHedralSurface polyHedralSurface);
+
+    /**
+     * Visit a Tin
+     * @param tin The Tin
+     * @return The result
+     */
+    R visit(Tin tin);
+
+}
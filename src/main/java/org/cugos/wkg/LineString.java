@@ -1,7 +1,6 @@
 package org.cugos.wkg;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -11,9 +10,9 @@ import java.util.List;
 public class LineString extends Curve {
 
     /**
-     * The List of Coordinates
+     * The packed Coordinates
      */
-    private final List<Coordinate> coordinates;
+    private final CoordinateSequence coordinates;
 
     /**
      * Create a new LineString
@@ -31,8 +30,27 @@ public class LineString extends Curve {
      * @param srid The SRID
      */
     public LineString(List<Coordinate> coordinates, Dimension dimension, String srid) {
+        this(CoordinateSequence.create(coordinates), dimension, srid);
+    }
+
+    /**
+     * Create a new LineString
+     * @param coordinates The CoordinateSequence
+     * @param dimension The Dimension
+     */
+    public LineString(CoordinateSequence coordinates, Dimension dimension) {
+        this(coordinates, dimension, null);
+    }
+
+    /**
+     * Create a new LineString
+     * @param coordinates The CoordinateSequence
+     * @param dimension The Dimension
+     * @param srid The SRID
+     */
+    public LineString(CoordinateSequence coordinates, Dimension dimension, String srid) {
         super(dimension, srid);
-        this.coordinates = Collections.unmodifiableList(coordinates);
+        this.coordinates = coordinates;
     }
 
     /**
@@ -41,6 +59,14 @@ public class LineString extends Curve {
      */
     @Override
     public List<Coordinate> getCoordinates() {
+        return coordinates.asList();
+    }
+
+    /**
+     * Get the packed CoordinateSequence
+     * @return The CoordinateSequence
+     */
+    public CoordinateSequence getCoordinateSequence() {
         return coordinates;
     }
 
@@ -51,7 +77,12 @@ public class LineString extends Curve {
 
     @Override
     public int getNumberOfCoordinates() {
-        return this.getCoordinates().size();
+        return coordinates.size();
+    }
+
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
     }
 
     /**
@@ -28,9 +28,33 @@ public class LinearRing extends LineString {
         super(coordinates, dimension, srid);
     }
 
+    /**
+     * Create a new LinearRing
+     * @param coordinates The CoordinateSequence
+     * @param dimension The Dimension
+     */
+    public LinearRing(CoordinateSequence coordinates, Dimension dimension) {
+        this(coordinates, dimension, null);
+    }
+
+    /**
+     * Create a new LinearRing
+     * @param coordinates The CoordinateSequence
+     * @param dimension The Dimension
+     * @param srid The SRID
+     */
+    public LinearRing(CoordinateSequence coordinates, Dimension dimension, String srid) {
+        super(coordinates, dimension, srid);
+    }
+
     @Override
     public int getNumberOfCoordinates() {
-        return this.getCoordinates().size();
+        return getCoordinateSequence().size();
+    }
+
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
     }
 
     /**
@@ -35,6 +35,11 @@ public class MultiCurve extends AbstractGeometryCollection<Curve> {
         return this.geometries;
     }
 
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
     /**
      * Create an empty MultiCurve
      * @return An empty MultiCurve
@@ -36,6 +36,11 @@ public class MultiLineString extends AbstractGeometryCollection<LineString> {
         return this.geometries;
     }
 
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
     /**
      * Create an empty MultiLineString
      * @return An empty MultiLineString
@@ -36,6 +36,11 @@ public class MultiPoint extends AbstractGeometryCollection<Point> {
         return this.geometries;
     }
 
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
     /**
      * Create an empty MultiPoint
      * @return An empty MultiPoint
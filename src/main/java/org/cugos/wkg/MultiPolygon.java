@@ -36,6 +36,11 @@ public class MultiPolygon extends AbstractGeometryCollection<Polygon> {
         return geometries;
     }
 
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
     /**
      * Create an empty MultiPolygon
      * @return An empty MultiPolygon
@@ -36,6 +36,11 @@ public class MultiSurface extends AbstractGeometryCollection<Surface> {
         return this.geometries;
     }
 
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
     /**
      * Create an empty MultiSurface
      * @return An empty MultiSurface
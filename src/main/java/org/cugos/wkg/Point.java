@@ -57,6 +57,11 @@ public class Point extends Geometry {
         return Arrays.asList(coordinate);
     }
 
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
     /**
      * Create an empty Point.
      * @return An empty Point
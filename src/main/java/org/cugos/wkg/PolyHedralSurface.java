@@ -57,6 +57,11 @@ public class PolyHedralSurface extends Surface {
         return Collections.unmodifiableList(coordinates);
     }
 
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
     /**
      * Create an empty PolyHedralSurface
      * @return An empty PolyHedralSurface
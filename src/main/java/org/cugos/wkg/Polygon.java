@@ -102,6 +102,11 @@ public class Polygon extends Surface {
         return Collections.unmodifiableList(coordinates);
     }
 
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
     /**
      * Create an empty Polygon
      * @return An empty Polygon
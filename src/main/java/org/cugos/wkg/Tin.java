@@ -66,6 +66,11 @@ public class Tin extends Surface {
         return Collections.unmodifiableList(coordinates);
     }
 
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
     /**
      * Create an empty Tin
      * @return An empty Tin
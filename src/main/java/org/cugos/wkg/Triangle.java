@@ -30,6 +30,11 @@ public class Triangle extends Polygon {
         super(outerLinearRing, innerLinearRings, dimension, srid);
     }
 
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
     /**
      * Create an empty Triangle
      * @return An empty Triangle
@@ -31,12 +31,14 @@ public interface WKB {
         }
 
         public static Endian get(int value) {
-            for(Endian endian : values()) {
-                if (endian.getValue() == value) {
-                    return endian;
-                }
+            switch (value) {
+                case 0:
+                    return Big;
+                case 1:
+                    return Little;
+                default:
+                    return null;
             }
-            return null;
         }
     }
 
@@ -62,6 +64,19 @@ public interface WKB {
         Tin(16),
         Triangle(17);
 
+        /**
+         * The GeometryTypes indexed by value
+         */
+        private static final GeometryType[] TYPES;
+
+        static {
+            GeometryType[] geometryTypes = values();
+            TYPES = new GeometryType[geometryTypes.length + 1];
+            for (GeometryType gt : geometryTypes) {
+                TYPES[gt.getValue()] = gt;
+            }
+        }
+
         private final int value;
 
         GeometryType(int value) {
@@ -73,12 +88,7 @@ public interface WKB {
         }
 
         public static GeometryType get(int value) {
-            for(GeometryType gt : values()) {
-                if (gt.getValue() == value) {
-                    return gt;
-                }
-            }
-            return null;
+            return value > 0 && value < TYPES.length ? TYPES[value] : null;
         }
 
     }
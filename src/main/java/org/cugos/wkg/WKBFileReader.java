@@ -0,0 +1,283 @@
+package org.cugos.wkg;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Random access to the Geometries of a file of concatenated WKB or EWKB records.
+ * <p>
+ * The file is memory mapped with FileChannel.map.  Files larger than 2 GB are split into several
+ * mappings whose boundaries always fall on record starts, so every record lies within a single mapping.
+ * An index of record offsets is built when the file is opened, or loaded from an index file written by
+ * {@link #writeIndex(Path)}.  Reading the Nth Geometry decodes straight from the mapped memory without
+ * system calls or copying.  A WKBFileReader can be shared between threads.
+ * </p>
+ * @author Jared Erickson
+ */
+public class WKBFileReader implements Closeable {
+
+    /**
+     * The magic number at the start of an index file
+     */
+    private static final int INDEX_MAGIC = 0x574B4249;
+
+    /**
+     * The FileChannel
+     */
+    private final FileChannel channel;
+
+    /**
+     * The maximum number of bytes in a single mapping
+     */
+    private final int maxSegmentSize;
+
+    /**
+     * The offset of each record followed by the size of the file
+     */
+    private final long[] offsets;
+
+    /**
+     * The file offset of the first byte of each mapping
+     */
+    private final long[] segmentOffsets;
+
+    /**
+     * The mappings
+     */
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * The WKBReader
+     */
+    private final WKBReader wkbReader = new WKBReader();
+
+    /**
+     * Create a new WKBFileReader and build the index of record offsets by scanning the file
+     * @param file The WKB file
+     * @throws IOException if there is an error reading the file
+     */
+    public WKBFileReader(Path file) throws IOException {
+        this(file, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a new WKBFileReader with an index of record offsets written by {@link #writeIndex(Path)}
+     * @param file The WKB file
+     * @param index The index file
+     * @throws IOException if there is an error reading the file or the index
+     */
+    public WKBFileReader(Path file, Path index) throws IOException {
+        this(file, index, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a new WKBFileReader
+     * @param file The WKB file
+     * @param index The index file or null to scan the file
+     * @param maxSegmentSize The maximum number of bytes in a single mapping
+     * @throws IOException if there is an error reading the file or the index
+     */
+    WKBFileReader(Path file, Path index, int maxSegmentSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.maxSegmentSize = maxSegmentSize;
+        try {
+            long size = channel.size();
+            this.offsets = index == null ? scan(size) : readIndex(index, size);
+            int numberOfSegments = 0;
+            long[] starts = new long[4];
+            for (int i = 0; i < offsets.length - 1; i++) {
+                if (numberOfSegments == 0 || offsets[i + 1] - starts[numberOfSegments - 1] > maxSegmentSize) {
+                    if (numberOfSegments == starts.length) {
+                        starts = Arrays.copyOf(starts, numberOfSegments * 2);
+                    }
+                    starts[numberOfSegments++] = offsets[i];
+                }
+            }
+            this.segmentOffsets = Arrays.copyOf(starts, numberOfSegments);
+            this.segments = new MappedByteBuffer[numberOfSegments];
+            for (int i = 0; i < numberOfSegments; i++) {
+                long end = Math.min(size, segmentOffsets[i] + maxSegmentSize);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, segmentOffsets[i], end - segmentOffsets[i]);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the number of Geometries in the file
+     * @return The number of Geometries
+     */
+    public int getNumberOfGeometries() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Decode the Geometry at the given index
+     * @param index The index of the Geometry
+     * @return The Geometry
+     */
+    public Geometry read(int index) {
+        return wkbReader.read(getBuffer(index));
+    }
+
+    /**
+     * Get a lazy WKBGeometry view of the Geometry at the given index.  The view reads directly
+     * from the mapped file.
+     * @param index The index of the Geometry
+     * @return A WKBGeometry
+     */
+    public WKBGeometry readLazy(int index) {
+        return wkbReader.readLazy(getBuffer(index));
+    }
+
+    /**
+     * Get the file offset of the Geometry at the given index
+     * @param index The index of the Geometry
+     * @return The file offset
+     */
+    public long getOffset(int index) {
+        checkIndex(index);
+        return offsets[index];
+    }
+
+    /**
+     * Write the index of record offsets so that it can be loaded by {@link #WKBFileReader(Path, Path)}
+     * instead of scanning the file again
+     * @param index The index file
+     * @throws IOException if there is an error writing the index
+     */
+    public void writeIndex(Path index) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(index)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(offsets.length);
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+        }
+    }
+
+    /**
+     * Close the file.  The mappings are released when they are garbage collected.
+     * @throws IOException if there is an error closing the file
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Get a ByteBuffer positioned at the start of the Geometry and limited to its end
+     * @param index The index of the Geometry
+     * @return A ByteBuffer that shares the mapped memory
+     */
+    private ByteBuffer getBuffer(int index) {
+        checkIndex(index);
+        int segment = Arrays.binarySearch(segmentOffsets, offsets[index]);
+        if (segment < 0) {
+            segment = -segment - 2;
+        }
+        long segmentOffset = segmentOffsets[segment];
+        ByteBuffer buffer = segments[segment].duplicate();
+        buffer.limit((int) (offsets[index + 1] - segmentOffset));
+        buffer.position((int) (offsets[index] - segmentOffset));
+        return buffer;
+    }
+
+    /**
+     * Make sure the index is a valid Geometry index
+     * @param index The index of the Geometry
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= getNumberOfGeometries()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getNumberOfGeometries());
+        }
+    }
+
+    /**
+     * Find the record offsets by walking the file one mapping at a time
+     * @param size The size of the file
+     * @return The record offsets followed by the size of the file
+     * @throws IOException if there is an error mapping the file
+     */
+    private long[] scan(long size) throws IOException {
+        long[] recordOffsets = new long[1024];
+        int numberOfRecords = 0;
+        long start = 0;
+        while (start < size) {
+            int length = (int) Math.min(size - start, maxSegmentSize);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            int position = 0;
+            while (position < length) {
+                int end;
+                try {
+                    end = WKBScanner.skip(buffer, position);
+                } catch (BufferUnderflowException e) {
+                    end = -1;
+                }
+                if (end <= position || end > length) {
+                    if (start + length == size) {
+                        throw new IllegalStateException("Unexpected end of WKB file at offset " + (start + position));
+                    } else if (position == 0) {
+                        throw new IllegalStateException("The Geometry at offset " + start + " is larger than "
+                                + maxSegmentSize + " bytes");
+                    }
+                    break;
+                }
+                if (numberOfRecords == recordOffsets.length - 1) {
+                    recordOffsets = Arrays.copyOf(recordOffsets, recordOffsets.length * 2);
+                }
+                recordOffsets[numberOfRecords++] = start + position;
+                position = end;
+            }
+            start += position;
+        }
+        recordOffsets[numberOfRecords] = size;
+        return Arrays.copyOf(recordOffsets, numberOfRecords + 1);
+    }
+
+    /**
+     * Read the record offsets from an index file
+     * @param index The index file
+     * @param size The size of the WKB file
+     * @return The record offsets followed by the size of the file
+     * @throws IOException if there is an error reading the index
+     */
+    private static long[] readIndex(Path index, long size) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+            if (in.readInt() != INDEX_MAGIC) {
+                throw new IllegalArgumentException("Not a WKB index file! " + index);
+            }
+            int count = in.readInt();
+            // Every record has at least one byte, so there are at most size offsets before the size of the file
+            if (count < 1 || count - 1 > size) {
+                throw new IllegalArgumentException("The index does not match the WKB file! " + index);
+            }
+            long[] recordOffsets = new long[count];
+            for (int i = 0; i < recordOffsets.length; i++) {
+                recordOffsets[i] = in.readLong();
+                if (recordOffsets[i] < 0 || recordOffsets[i] > size || (i > 0 && recordOffsets[i] <= recordOffsets[i - 1])) {
+                    throw new IllegalArgumentException("The index does not match the WKB file! " + index);
+                }
+            }
+            if (recordOffsets[recordOffsets.length - 1] != size) {
+                throw new IllegalArgumentException("The index does not match the WKB file! " + index);
+            }
+            return recordOffsets;
+        }
+    }
+
+}
@@ -0,0 +1,360 @@
+package org.cugos.wkg;
+
+import org.cugos.wkg.WKB.GeometryType;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A lazy Geometry view over WKB or EWKB bytes in a ByteBuffer.
+ * <p>
+ * Only the header (byte order, geometry type, dimension, and SRID) is read when the view
+ * is created.  The number of coordinates and whether the Geometry is empty are answered from the
+ * header and count bytes.  Sub geometries, rings, and coordinates are only decoded when they are
+ * first accessed.  The view keeps a reference to the original bytes, so they must not be modified
+ * while the view is in use.
+ * </p>
+ * @author Jared Erickson
+ */
+public class WKBGeometry extends Geometry {
+
+    /**
+     * The ByteBuffer that contains the WKB
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The absolute offset of the Geometry in the ByteBuffer
+     */
+    private final int offset;
+
+    /**
+     * Whether the Geometry is big endian
+     */
+    private final boolean bigEndian;
+
+    /**
+     * The geometry type int including the Z, M, and SRID flags
+     */
+    private final int typeInt;
+
+    /**
+     * The WKB.GeometryType
+     */
+    private final GeometryType geometryType;
+
+    /**
+     * The number of Coordinates or -1 if they haven't been counted yet
+     */
+    private int numberOfCoordinates = -1;
+
+    /**
+     * The absolute offset of the first byte after the Geometry or -1 if it hasn't been found yet
+     */
+    private int end = -1;
+
+    /**
+     * The decoded Geometry
+     */
+    private Geometry geometry;
+
+    /**
+     * Create a new WKBGeometry from the header of the Geometry at the given offset
+     * @param buffer The ByteBuffer
+     * @param offset The absolute offset of the Geometry
+     * @param bigEndian Whether the Geometry is big endian
+     * @param typeInt The geometry type int
+     */
+    private WKBGeometry(ByteBuffer buffer, int offset, boolean bigEndian, int typeInt) {
+        super(WKBScanner.getDimension(typeInt), WKBScanner.hasSrid(typeInt)
+                ? String.valueOf(WKBScanner.getInt(buffer, offset + 5, bigEndian)) : null);
+        this.buffer = buffer;
+        this.offset = offset;
+        this.bigEndian = bigEndian;
+        this.typeInt = typeInt;
+        this.geometryType = WKBScanner.getGeometryType(typeInt);
+    }
+
+    /**
+     * Create a new WKBGeometry for the Geometry that starts at the ByteBuffer's position.
+     * The position of the ByteBuffer is not changed.
+     * @param buffer The ByteBuffer
+     * @return A WKBGeometry
+     */
+    static WKBGeometry create(ByteBuffer buffer) {
+        return create(buffer.duplicate(), buffer.position());
+    }
+
+    /**
+     * Create a new WKBGeometry for the Geometry that starts at the given offset
+     * @param buffer The ByteBuffer
+     * @param offset The absolute offset of the Geometry
+     * @return A WKBGeometry
+     */
+    private static WKBGeometry create(ByteBuffer buffer, int offset) {
+        boolean bigEndian = WKBScanner.isBigEndian(buffer, offset);
+        int typeInt = WKBScanner.getInt(buffer, offset + 1, bigEndian);
+        return new WKBGeometry(buffer, offset, bigEndian, typeInt);
+    }
+
+    /**
+     * Get the WKB.GeometryType
+     * @return The WKB.GeometryType
+     */
+    public GeometryType getGeometryType() {
+        return geometryType;
+    }
+
+    /**
+     * Get the WKB.Endian byte order of the Geometry
+     * @return The WKB.Endian
+     */
+    public WKB.Endian getEndian() {
+        return bigEndian ? WKB.Endian.Big : WKB.Endian.Little;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        int position = getBodyOffset();
+        switch (geometryType) {
+            case Point:
+                return WKBScanner.isEmptyPoint(buffer, position, bigEndian);
+            case Polygon:
+            case Triangle:
+                return getCount() == 0 || WKBScanner.getInt(buffer, position + 4, bigEndian) == 0;
+            case CurvePolygon:
+                return getCount() == 0 || create(buffer, position + 4).isEmpty();
+            default:
+                return getCount() == 0;
+        }
+    }
+
+    @Override
+    public int getNumberOfCoordinates() {
+        if (numberOfCoordinates == -1) {
+            numberOfCoordinates = WKBScanner.getNumberOfCoordinates(buffer, offset);
+        }
+        return numberOfCoordinates;
+    }
+
+    @Override
+    public List<Coordinate> getCoordinates() {
+        return toGeometry().getCoordinates();
+    }
+
+    @Override
+    public Envelope getEnvelope() {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        return new WKBReader().readEnvelope(duplicate);
+    }
+
+    @Override
+    public Geometry setSrid(String srid) {
+        super.setSrid(srid);
+        if (geometry != null) {
+            geometry.setSrid(srid);
+        }
+        return this;
+    }
+
+    /**
+     * Get the number of sub Geometries of a collection (MultiPoint, MultiLineString, MultiPolygon,
+     * GeometryCollection, CompoundCurve, CurvePolygon, MultiCurve, MultiSurface, PolyHedralSurface, or Tin).
+     * @return The number of sub Geometries or 0 if the Geometry is not a collection
+     */
+    public int getNumberOfGeometries() {
+        return isCollection() ? getCount() : 0;
+    }
+
+    /**
+     * Get a lazy view of a sub Geometry of a collection.  Only the sub Geometries before
+     * the requested sub Geometry are walked and none of them are decoded.
+     * @param index The index of the sub Geometry
+     * @return A WKBGeometry
+     */
+    public WKBGeometry getGeometry(int index) {
+        if (index < 0 || index >= getNumberOfGeometries()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getNumberOfGeometries());
+        }
+        int position = getBodyOffset() + 4;
+        for (int i = 0; i < index; i++) {
+            position = WKBScanner.skip(buffer, position);
+        }
+        return create(buffer, position);
+    }
+
+    /**
+     * Get lazy views of all of the sub Geometries of a collection
+     * @return A List of WKBGeometries
+     */
+    public List<WKBGeometry> getGeometries() {
+        int numberOfGeometries = getNumberOfGeometries();
+        List<WKBGeometry> geometries = new ArrayList<WKBGeometry>(numberOfGeometries);
+        int position = getBodyOffset() + 4;
+        for (int i = 0; i < numberOfGeometries; i++) {
+            geometries.add(create(buffer, position));
+            position = WKBScanner.skip(buffer, position);
+        }
+        return geometries;
+    }
+
+    /**
+     * Get the number of LinearRings of a Polygon or Triangle
+     * @return The number of LinearRings or 0 if the Geometry is not a Polygon or Triangle
+     */
+    public int getNumberOfLinearRings() {
+        return isPolygonal() ? getCount() : 0;
+    }
+
+    /**
+     * Decode a single LinearRing of a Polygon or Triangle.  The first LinearRing is the outer LinearRing.
+     * Only the count bytes of the LinearRings before the requested LinearRing are read.
+     * @param index The index of the LinearRing
+     * @return A LinearRing
+     */
+    public LinearRing getLinearRing(int index) {
+        if (index < 0 || index >= getNumberOfLinearRings()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getNumberOfLinearRings());
+        }
+        int coordinateLength = WKBScanner.getCoordinateLength(typeInt);
+        int position = getBodyOffset() + 4;
+        for (int i = 0; i < index; i++) {
+            position += 4 + WKBScanner.getInt(buffer, position, bigEndian) * coordinateLength;
+        }
+        int numberOfRingCoordinates = WKBScanner.getInt(buffer, position, bigEndian);
+        position += 4;
+        List<Coordinate> coordinates = new ArrayList<Coordinate>(numberOfRingCoordinates);
+        for (int i = 0; i < numberOfRingCoordinates; i++) {
+            coordinates.add(getCoordinate(position));
+            position += coordinateLength;
+        }
+        return new LinearRing(coordinates, dimension, srid);
+    }
+
+    /**
+     * Decode the Coordinate of a Point
+     * @return The Coordinate
+     */
+    public Coordinate getCoordinate() {
+        if (geometryType != GeometryType.Point) {
+            throw new IllegalStateException("Only Points have a single Coordinate! " + geometryType);
+        }
+        return isEmpty() ? Coordinate.createEmpty() : getCoordinate(getBodyOffset());
+    }
+
+    /**
+     * Get a read only ByteBuffer that contains exactly the bytes of this Geometry.
+     * This can be used to forward the Geometry without decoding or copying it.
+     * @return A read only ByteBuffer
+     */
+    public ByteBuffer getBuffer() {
+        if (end == -1) {
+            end = WKBScanner.skip(buffer, offset);
+        }
+        ByteBuffer slice = buffer.asReadOnlyBuffer();
+        slice.limit(end);
+        slice.position(offset);
+        return slice.slice();
+    }
+
+    /**
+     * Get a copy of the bytes of this Geometry
+     * @return An array of bytes
+     */
+    public byte[] getBytes() {
+        ByteBuffer slice = getBuffer();
+        byte[] bytes = new byte[slice.remaining()];
+        slice.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Decode the whole Geometry.  The decoded Geometry is cached.
+     * @return The decoded Geometry
+     */
+    public Geometry toGeometry() {
+        if (geometry == null) {
+            ByteBuffer duplicate = buffer.duplicate();
+            duplicate.position(offset);
+            Geometry decoded = new WKBReader().read(duplicate);
+            decoded.setSrid(srid);
+            geometry = decoded;
+        }
+        return geometry;
+    }
+
+    @Override
+    public <R> R accept(GeometryVisitor<R> visitor) {
+        return toGeometry().accept(visitor);
+    }
+
+    @Override
+    public String toString() {
+        return toGeometry().toString();
+    }
+
+    /**
+     * Get the absolute offset of the first byte after the header
+     * @return The absolute offset of the body
+     */
+    private int getBodyOffset() {
+        return offset + WKBScanner.getHeaderLength(typeInt);
+    }
+
+    /**
+     * Get the count (number of coordinates, rings or sub geometries) that follows the header
+     * @return The count
+     */
+    private int getCount() {
+        return WKBScanner.getInt(buffer, getBodyOffset(), bigEndian);
+    }
+
+    /**
+     * Decode a single Coordinate
+     * @param position The absolute offset of the Coordinate
+     * @return The Coordinate
+     */
+    private Coordinate getCoordinate(int position) {
+        double x = WKBScanner.getDouble(buffer, position, bigEndian);
+        double y = WKBScanner.getDouble(buffer, position + 8, bigEndian);
+        double z = Double.NaN;
+        double m = Double.NaN;
+        position += 16;
+        if (dimension == Dimension.Three || dimension == Dimension.ThreeMeasured) {
+            z = WKBScanner.getDouble(buffer, position, bigEndian);
+            position += 8;
+        }
+        if (dimension == Dimension.TwoMeasured || dimension == Dimension.ThreeMeasured) {
+            m = WKBScanner.getDouble(buffer, position, bigEndian);
+        }
+        return new Coordinate(x, y, z, m);
+    }
+
+    /**
+     * Whether the Geometry is a Polygon or Triangle
+     * @return Whether the Geometry is a Polygon or Triangle
+     */
+    private boolean isPolygonal() {
+        return geometryType == GeometryType.Polygon || geometryType == GeometryType.Triangle;
+    }
+
+    /**
+     * Whether the Geometry is made up of other Geometries
+     * @return Whether the Geometry is made up of other Geometries
+     */
+    private boolean isCollection() {
+        switch (geometryType) {
+            case Point:
+            case LineString:
+            case CircularString:
+            case Polygon:
+            case Triangle:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+}
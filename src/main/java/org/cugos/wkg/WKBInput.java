@@ -0,0 +1,201 @@
+package org.cugos.wkg;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The bytes that a WKB Geometry is read from.  Values are read at absolute positions and
+ * the position is moved forward by the reader.
+ * @author Jared Erickson
+ */
+abstract class WKBInput {
+
+    /**
+     * The position of the next byte
+     */
+    int position;
+
+    /**
+     * The position after the last byte
+     */
+    int limit;
+
+    /**
+     * Whether the last header read was big endian
+     */
+    boolean bigEndian;
+
+    /**
+     * Create a new WKBInput
+     * @param position The position of the first byte
+     * @param limit The position after the last byte
+     */
+    WKBInput(int position, int limit) {
+        this.position = position;
+        this.limit = limit;
+    }
+
+    /**
+     * Create a WKBInput that reads from the ByteBuffer's position to its limit
+     * @param buffer The ByteBuffer
+     * @return A WKBInput
+     */
+    static WKBInput of(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return new ArrayInput(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.arrayOffset() + buffer.limit());
+        } else {
+            return new BufferInput(buffer);
+        }
+    }
+
+    /**
+     * Make sure that there are enough bytes left
+     * @param numberOfBytes The number of bytes that are about to be read
+     */
+    final void require(long numberOfBytes) {
+        if (position + numberOfBytes > limit) {
+            throw new BufferUnderflowException();
+        }
+    }
+
+    /**
+     * Read a byte
+     * @param position The position
+     * @return The byte
+     */
+    abstract byte getByte(int position);
+
+    /**
+     * Read an int
+     * @param position The position
+     * @param bigEndian Whether the int is big endian
+     * @return The int
+     */
+    abstract int getInt(int position, boolean bigEndian);
+
+    /**
+     * Read a double
+     * @param position The position
+     * @param bigEndian Whether the double is big endian
+     * @return The double
+     */
+    abstract double getDouble(int position, boolean bigEndian);
+
+    /**
+     * A WKBInput that reads from a byte array through VarHandle views.  It can be reset to read
+     * from another array so that it can be reused.
+     */
+    static final class ArrayInput extends WKBInput {
+
+        private static final VarHandle BIG_ENDIAN_INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+        private static final VarHandle LITTLE_ENDIAN_INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+        private static final VarHandle BIG_ENDIAN_DOUBLE = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.BIG_ENDIAN);
+
+        private static final VarHandle LITTLE_ENDIAN_DOUBLE = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.LITTLE_ENDIAN);
+
+        /**
+         * The array of bytes
+         */
+        private byte[] bytes;
+
+        ArrayInput(byte[] bytes, int position, int limit) {
+            super(position, limit);
+            this.bytes = bytes;
+        }
+
+        /**
+         * Read from another range of bytes
+         * @param bytes The array of bytes
+         * @param position The position of the first byte
+         * @param limit The position after the last byte
+         * @return This ArrayInput
+         */
+        ArrayInput reset(byte[] bytes, int position, int limit) {
+            this.bytes = bytes;
+            this.position = position;
+            this.limit = limit;
+            return this;
+        }
+
+        @Override
+        byte getByte(int position) {
+            return bytes[position];
+        }
+
+        @Override
+        int getInt(int position, boolean bigEndian) {
+            return bigEndian ? (int) BIG_ENDIAN_INT.get(bytes, position) : (int) LITTLE_ENDIAN_INT.get(bytes, position);
+        }
+
+        @Override
+        double getDouble(int position, boolean bigEndian) {
+            return bigEndian ? (double) BIG_ENDIAN_DOUBLE.get(bytes, position) : (double) LITTLE_ENDIAN_DOUBLE.get(bytes, position);
+        }
+    }
+
+    /**
+     * A WKBInput that reads from a direct or read only ByteBuffer with its absolute getters.  Values in
+     * the other byte order are reversed, so the ByteBuffer is neither duplicated nor changed.  It can be
+     * reset to read from another ByteBuffer so that it can be reused.
+     */
+    static final class BufferInput extends WKBInput {
+
+        /**
+         * The ByteBuffer
+         */
+        private ByteBuffer buffer;
+
+        /**
+         * Whether the ByteBuffer was big endian when it was set
+         */
+        private boolean bufferBigEndian;
+
+        BufferInput(ByteBuffer buffer) {
+            super(0, 0);
+            if (buffer != null) {
+                reset(buffer);
+            }
+        }
+
+        /**
+         * Read from the position to the limit of another ByteBuffer
+         * @param buffer The ByteBuffer or null to release the last one
+         * @return This BufferInput
+         */
+        BufferInput reset(ByteBuffer buffer) {
+            this.buffer = buffer;
+            if (buffer == null) {
+                this.position = 0;
+                this.limit = 0;
+            } else {
+                this.position = buffer.position();
+                this.limit = buffer.limit();
+                this.bufferBigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+            }
+            return this;
+        }
+
+        @Override
+        byte getByte(int position) {
+            return buffer.get(position);
+        }
+
+        @Override
+        int getInt(int position, boolean bigEndian) {
+            int value = buffer.getInt(position);
+            return bigEndian == bufferBigEndian ? value : Integer.reverseBytes(value);
+        }
+
+        @Override
+        double getDouble(int position, boolean bigEndian) {
+            long value = buffer.getLong(position);
+            return Double.longBitsToDouble(bigEndian == bufferBigEndian ? value : Long.reverseBytes(value));
+        }
+    }
+
+}
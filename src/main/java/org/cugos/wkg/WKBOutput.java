@@ -0,0 +1,173 @@
+package org.cugos.wkg;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The bytes that a WKB Geometry is written to.  Values are put into a ByteBuffer and, when the
+ * ByteBuffer is a staging buffer for a stream or a channel, the ByteBuffer is drained whenever it
+ * does not have room for the next value.
+ * @author Jared Erickson
+ */
+abstract class WKBOutput {
+
+    /**
+     * The ByteBuffer
+     */
+    final ByteBuffer buffer;
+
+    /**
+     * The GeometryVisitor that writes Geometries into this WKBOutput.  It is created by the WKBWriter
+     * the first time a Geometry is dispatched.
+     */
+    GeometryVisitor<Void> visitor;
+
+    /**
+     * Create a new WKBOutput
+     * @param buffer The ByteBuffer
+     */
+    WKBOutput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Create a WKBOutput that writes into the ByteBuffer and fails when it is full
+     * @param buffer The ByteBuffer
+     * @return A WKBOutput
+     */
+    static WKBOutput of(ByteBuffer buffer) {
+        return new BufferOutput(buffer);
+    }
+
+    /**
+     * Set the byte order of the values that follow
+     * @param order The ByteOrder
+     */
+    final void order(ByteOrder order) {
+        buffer.order(order);
+    }
+
+    /**
+     * Write a byte
+     * @param value The byte
+     */
+    final void putByte(byte value) {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put(value);
+    }
+
+    /**
+     * Write an int
+     * @param value The int
+     */
+    final void putInt(int value) {
+        if (buffer.remaining() < 4) {
+            drain();
+        }
+        buffer.putInt(value);
+    }
+
+    /**
+     * Write a double
+     * @param value The double
+     */
+    final void putDouble(double value) {
+        if (buffer.remaining() < 8) {
+            drain();
+        }
+        buffer.putDouble(value);
+    }
+
+    /**
+     * Make room in the ByteBuffer
+     */
+    abstract void drain();
+
+    /**
+     * A WKBOutput that writes into a caller's ByteBuffer
+     */
+    static final class BufferOutput extends WKBOutput {
+
+        BufferOutput(ByteBuffer buffer) {
+            super(buffer);
+        }
+
+        @Override
+        void drain() {
+            throw new BufferOverflowException();
+        }
+    }
+
+    /**
+     * A WKBOutput that stages bytes in a ByteBuffer and writes them to an OutputStream
+     */
+    static final class StreamOutput extends WKBOutput {
+
+        /**
+         * The OutputStream
+         */
+        private final OutputStream outputStream;
+
+        /**
+         * Create a new StreamOutput
+         * @param buffer The staging ByteBuffer which must have an accessible array
+         * @param outputStream The OutputStream
+         */
+        StreamOutput(ByteBuffer buffer, OutputStream outputStream) {
+            super(buffer);
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        void drain() {
+            try {
+                outputStream.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * A WKBOutput that stages bytes in a ByteBuffer and writes them to a WritableByteChannel
+     */
+    static final class ChannelOutput extends WKBOutput {
+
+        /**
+         * The WritableByteChannel
+         */
+        private final WritableByteChannel channel;
+
+        /**
+         * Create a new ChannelOutput
+         * @param buffer The staging ByteBuffer
+         * @param channel The WritableByteChannel
+         */
+        ChannelOutput(ByteBuffer buffer, WritableByteChannel channel) {
+            super(buffer);
+            this.channel = channel;
+        }
+
+        @Override
+        void drain() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+    }
+
+}
@@ -15,6 +15,11 @@ import java.util.List;
  */
 public class WKBReader implements Reader<byte[]> {
 
+    /**
+     * The mask that removes the Z, M, and SRID flags from a geometry type
+     */
+    private static final int TYPE_MASK = ~(GeometryTypeFlag.Z.getValue() | GeometryTypeFlag.M.getValue() | GeometryTypeFlag.SRID.getValue());
+
     /**
      * Read a Geometry from an array of bytes.
      * @param bytes The array of bytes
@@ -37,222 +42,469 @@ public class WKBReader implements Reader<byte[]> {
      * @return A Geometry or null
      */
     public Geometry read(String hex) {
-        return read(toBytes(hex));
+        return read(ByteCodec.decodeHex(hex));
     }
 
     /**
-     * Read a Geometry from a ByteBuffer
-     * @param buffer The ByteBuffer
+     * Read a Geometry from a Base64 CharSequence
+     * @param base64 The Base64 CharSequence
      * @return A Geometry or null
      */
-    protected Geometry read(ByteBuffer buffer) {
+    public Geometry readBase64(CharSequence base64) {
+        return read(ByteCodec.decodeBase64(base64));
+    }
 
-        // Determine byte order
-        Endian endian = Endian.get(buffer.get());
-        if (endian == Endian.Big) {
-            buffer.order(ByteOrder.BIG_ENDIAN);
-        } else {
-            buffer.order(ByteOrder.LITTLE_ENDIAN);
-        }
+    /**
+     * Read a lazy WKBGeometry view from an array of bytes.  Only the header is read, the rest
+     * of the Geometry is decoded when it is accessed.
+     * @param bytes The array of bytes
+     * @return A WKBGeometry
+     */
+    public WKBGeometry readLazy(byte[] bytes) {
+        return WKBGeometry.create(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Read a lazy WKBGeometry view of the Geometry that starts at the ByteBuffer's position.
+     * The position of the ByteBuffer is not changed and the view keeps a reference to the ByteBuffer's content.
+     * @param buffer The ByteBuffer
+     * @return A WKBGeometry
+     */
+    public WKBGeometry readLazy(ByteBuffer buffer) {
+        return WKBGeometry.create(buffer);
+    }
+
+    /**
+     * Read the Envelope of a Geometry from an array of bytes without decoding the Geometry
+     * @param bytes The array of bytes
+     * @return The Envelope
+     */
+    public Envelope readEnvelope(byte[] bytes) {
+        return readEnvelope(ByteBuffer.wrap(bytes));
+    }
 
-        // Determine geometry type
-        int geometryTypeInt = buffer.getInt();
-        int gt = geometryTypeInt;
+    /**
+     * Read the Envelope of a Geometry from a hex String without decoding the Geometry
+     * @param hex The hex String
+     * @return The Envelope
+     */
+    public Envelope readEnvelope(String hex) {
+        return readEnvelope(ByteCodec.decodeHex(hex));
+    }
 
-        // Determine dimension
-        boolean hasM = false;
-        boolean hasZ = false;
-        boolean hasSRID = false;
-        if ((geometryTypeInt & GeometryTypeFlag.M.getValue()) == GeometryTypeFlag.M.getValue()) {
-            hasM = true;
-            gt = gt - GeometryTypeFlag.M.getValue();
+    /**
+     * Read the Envelope of the Geometry that starts at the ByteBuffer's position without decoding the Geometry.
+     * The Envelope is the same as the Envelope of the decoded Geometry but no Coordinates are created.
+     * The position of the ByteBuffer is not changed.
+     * @param buffer The ByteBuffer
+     * @return The Envelope
+     */
+    public Envelope readEnvelope(ByteBuffer buffer) {
+        double[] bounds = {Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+        WKBScanner.expandBounds(buffer, buffer.position(), bounds);
+        return Envelope.create3DM(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5], bounds[6], bounds[7]);
+    }
+
+    /**
+     * Decode the coordinates and structure of a Geometry from an array of bytes into a CoordinateBuffer
+     * without creating a Geometry.  Nothing is allocated unless the CoordinateBuffer has to grow.
+     * @param bytes The array of bytes
+     * @param coordinateBuffer The CoordinateBuffer
+     * @return The CoordinateBuffer
+     */
+    public CoordinateBuffer readInto(byte[] bytes, CoordinateBuffer coordinateBuffer) {
+        try {
+            readInto(coordinateBuffer.arrayInput.reset(bytes, 0, bytes.length), coordinateBuffer, true);
+        } finally {
+            coordinateBuffer.arrayInput.reset(null, 0, 0);
         }
-        if ((geometryTypeInt & GeometryTypeFlag.Z.getValue()) == GeometryTypeFlag.Z.getValue()) {
-            hasZ = true;
-            gt = gt - GeometryTypeFlag.Z.getValue();
+        return coordinateBuffer;
+    }
+
+    /**
+     * Decode the coordinates and structure of the Geometry that starts at the ByteBuffer's position into a
+     * CoordinateBuffer without creating a Geometry.  The position of the ByteBuffer is moved past the Geometry.
+     * Nothing is allocated unless the CoordinateBuffer has to grow, also for direct and memory mapped ByteBuffers.
+     * @param buffer The ByteBuffer
+     * @param coordinateBuffer The CoordinateBuffer
+     * @return The CoordinateBuffer
+     */
+    public CoordinateBuffer readInto(ByteBuffer buffer, CoordinateBuffer coordinateBuffer) {
+        WKBInput input;
+        if (buffer.hasArray()) {
+            input = coordinateBuffer.arrayInput.reset(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.arrayOffset() + buffer.limit());
+        } else {
+            input = coordinateBuffer.bufferInput.reset(buffer);
         }
-        if ((geometryTypeInt & GeometryTypeFlag.SRID.getValue()) == GeometryTypeFlag.SRID.getValue()) {
-            hasSRID = true;
-            gt = gt - GeometryTypeFlag.SRID.getValue();
+        try {
+            int start = input.position;
+            readInto(input, coordinateBuffer, true);
+            buffer.position(buffer.position() + input.position - start);
+        } finally {
+            coordinateBuffer.arrayInput.reset(null, 0, 0);
+            coordinateBuffer.bufferInput.reset(null);
         }
+        return coordinateBuffer;
+    }
 
-        GeometryType geometryType = GeometryType.get(gt);
+    /**
+     * Read a Geometry from a ByteBuffer.  The position of the ByteBuffer is moved past the Geometry.
+     * @param buffer The ByteBuffer
+     * @return A Geometry or null
+     */
+    protected Geometry read(ByteBuffer buffer) {
+        WKBInput input = WKBInput.of(buffer);
+        int start = input.position;
+        Geometry geometry = read(input);
+        buffer.position(buffer.position() + input.position - start);
+        buffer.order(input.bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        return geometry;
+    }
 
-        Dimension dimension;
-        if (hasZ && hasM) {
-            dimension = Dimension.ThreeMeasured;
-        } else if (hasZ) {
-            dimension = Dimension.Three;
-        } else if (hasM) {
-            dimension = Dimension.TwoMeasured;
-        } else {
-            dimension = Dimension.Two;
-        }
+    /**
+     * Read a Geometry from a WKBInput
+     * @param input The WKBInput
+     * @return A Geometry or null
+     */
+    private Geometry read(WKBInput input) {
+
+        // Determine byte order
+        input.require(5);
+        boolean bigEndian = Endian.get(input.getByte(input.position)) == Endian.Big;
+        input.bigEndian = bigEndian;
+
+        // Determine geometry type and dimension
+        int geometryTypeInt = input.getInt(input.position + 1, bigEndian);
+        input.position += 5;
+        GeometryType geometryType = GeometryType.get(geometryTypeInt & TYPE_MASK);
+        Dimension dimension = WKBScanner.getDimension(geometryTypeInt);
 
         // Extract SRID if present
         String srid = null;
-        if (hasSRID) {
-            srid = String.valueOf(buffer.getInt());
+        if (WKBScanner.hasSrid(geometryTypeInt)) {
+            input.require(4);
+            srid = String.valueOf(input.getInt(input.position, bigEndian));
+            input.position += 4;
         }
 
         // Extract Geometry
-        if (geometryType == GeometryType.Point) {
-            Coordinate coordinate = getCoordinate(buffer, dimension);
-            return new Point(coordinate, dimension, srid);
-        } else if (geometryType == GeometryType.LineString) {
-            int numberOfCoordinates = buffer.getInt();
-            List<Coordinate> coordinates = new ArrayList<Coordinate>(numberOfCoordinates);
-            for(int i = 0; i<numberOfCoordinates; i++) {
-                coordinates.add(getCoordinate(buffer, dimension));
-            }
-            return new LineString(coordinates, dimension, srid);
-        } else if (geometryType == GeometryType.Polygon) {
-            int numberOfRings = buffer.getInt();
-            List<LinearRing> rings = new ArrayList<LinearRing>(numberOfRings);
-            for (int i = 0; i < numberOfRings; i++) {
-                int numberOfCoordinates = buffer.getInt();
-                List<Coordinate> coordinates = new ArrayList<Coordinate>(numberOfCoordinates);
-                for (int j = 0; j < numberOfCoordinates; j++) {
-                    coordinates.add(getCoordinate(buffer, dimension));
+        if (geometryType == null) {
+            return null;
+        }
+        switch (geometryType) {
+            case Point:
+                return new Point(readCoordinate(input, dimension, bigEndian), dimension, srid);
+            case LineString:
+                return new LineString(readCoordinates(input, dimension, bigEndian), dimension, srid);
+            case CircularString:
+                return new CircularString(readCoordinates(input, dimension, bigEndian), dimension, srid);
+            case Polygon: {
+                List<LinearRing> rings = readLinearRings(input, dimension, srid, bigEndian);
+                if (rings.isEmpty()) {
+                    return new Polygon(LinearRing.createEmpty(), new ArrayList<LinearRing>(), dimension, srid);
                 }
-                rings.add(new LinearRing(coordinates, dimension, srid));
-            }
-            return new Polygon(rings.get(0), rings.subList(1, rings.size()), dimension, srid);
-        } else if (geometryType == GeometryType.MultiPoint) {
-            int numberOfPoints = buffer.getInt();
-            List<Point> points = new ArrayList<Point>(numberOfPoints);
-            for (int i = 0; i < numberOfPoints; i++) {
-                Point point = (Point) read(buffer);
-                points.add(point);
+                return new Polygon(rings.get(0), rings.subList(1, rings.size()), dimension, srid);
             }
-            return new MultiPoint(points, dimension, srid);
-        } else if (geometryType == GeometryType.MultiLineString) {
-            int numberOfLines = buffer.getInt();
-            List<LineString> lines = new ArrayList<LineString>(numberOfLines);
-            for (int i = 0; i < numberOfLines; i++) {
-                LineString line = (LineString) read(buffer);
-                lines.add(line);
+            case Triangle: {
+                List<LinearRing> rings = readLinearRings(input, dimension, srid, bigEndian);
+                if (rings.isEmpty()) {
+                    return new Triangle(LinearRing.createEmpty(), new ArrayList<LinearRing>(), dimension, srid);
+                }
+                return new Triangle(rings.get(0), rings.subList(1, rings.size()), dimension, srid);
             }
-            return new MultiLineString(lines, dimension, srid);
-        } else if (geometryType == GeometryType.MultiPolygon) {
-            int numberOfPolygons = buffer.getInt();
-            List<Polygon> polygons = new ArrayList<Polygon>(numberOfPolygons);
-            for (int i = 0; i < numberOfPolygons; i++) {
-                Polygon polygon = (Polygon) read(buffer);
-                polygons.add(polygon);
+            case MultiPoint: {
+                int numberOfPoints = readCount(input, bigEndian);
+                List<Point> points = new ArrayList<Point>(numberOfPoints);
+                for (int i = 0; i < numberOfPoints; i++) {
+                    points.add((Point) read(input));
+                }
+                return new MultiPoint(points, dimension, srid);
             }
-            return new MultiPolygon(polygons, dimension, srid);
-        } else if (geometryType == GeometryType.GeometryCollection) {
-            int numberOfGeometries = buffer.getInt();
-            List<Geometry> geometries = new ArrayList<Geometry>(numberOfGeometries);
-            for (int i = 0; i < numberOfGeometries; i++) {
-                Geometry geometry = read(buffer);
-                geometries.add(geometry);
+            case MultiLineString: {
+                int numberOfLines = readCount(input, bigEndian);
+                List<LineString> lines = new ArrayList<LineString>(numberOfLines);
+                for (int i = 0; i < numberOfLines; i++) {
+                    lines.add((LineString) read(input));
+                }
+                return new MultiLineString(lines, dimension, srid);
             }
-            return new GeometryCollection(geometries, dimension, srid);
-        } else if (geometryType == GeometryType.CircularString) {
-            int numberOfCoordinates = buffer.getInt();
-            List<Coordinate> coordinates = new ArrayList<Coordinate>(numberOfCoordinates);
-            for(int i = 0; i<numberOfCoordinates; i++) {
-                coordinates.add(getCoordinate(buffer, dimension));
+            case MultiPolygon: {
+                int numberOfPolygons = readCount(input, bigEndian);
+                List<Polygon> polygons = new ArrayList<Polygon>(numberOfPolygons);
+                for (int i = 0; i < numberOfPolygons; i++) {
+                    polygons.add((Polygon) read(input));
+                }
+                return new MultiPolygon(polygons, dimension, srid);
             }
-            return new CircularString(coordinates, dimension, srid);
-        } else if (geometryType == GeometryType.Triangle) {
-            int numberOfRings = buffer.getInt();
-            List<LinearRing> rings = new ArrayList<LinearRing>(numberOfRings);
-            for (int i = 0; i < numberOfRings; i++) {
-                int numberOfCoordinates = buffer.getInt();
-                List<Coordinate> coordinates = new ArrayList<Coordinate>(numberOfCoordinates);
-                for (int j = 0; j < numberOfCoordinates; j++) {
-                    coordinates.add(getCoordinate(buffer, dimension));
+            case GeometryCollection: {
+                int numberOfGeometries = readCount(input, bigEndian);
+                List<Geometry> geometries = new ArrayList<Geometry>(numberOfGeometries);
+                for (int i = 0; i < numberOfGeometries; i++) {
+                    geometries.add(read(input));
                 }
-                rings.add(new LinearRing(coordinates, dimension, srid));
+                return new GeometryCollection(geometries, dimension, srid);
             }
-            return new Triangle(rings.get(0), rings.subList(1, rings.size()), dimension, srid);
-        } else if (geometryType == GeometryType.Tin) {
-            int numberOfTriangles = buffer.getInt();
-            List<Triangle> triangles = new ArrayList<Triangle>(numberOfTriangles);
-            for (int i = 0; i < numberOfTriangles; i++) {
-                Triangle triangle = (Triangle) read(buffer);
-                triangles.add(triangle);
+            case Tin: {
+                int numberOfTriangles = readCount(input, bigEndian);
+                List<Triangle> triangles = new ArrayList<Triangle>(numberOfTriangles);
+                for (int i = 0; i < numberOfTriangles; i++) {
+                    triangles.add((Triangle) read(input));
+                }
+                return new Tin(triangles, dimension, srid);
             }
-            return new Tin(triangles, dimension, srid);
-        } else if (geometryType == GeometryType.CompoundCurve) {
-            int numberOfCurves = buffer.getInt();
-            List<Curve> curves = new ArrayList<Curve>(numberOfCurves);
-            for (int i = 0; i < numberOfCurves; i++) {
-                Curve curve = (Curve) read(buffer);
-                curves.add(curve);
+            case CompoundCurve:
+                return new CompoundCurve(readCurves(input, bigEndian), dimension, srid);
+            case MultiCurve:
+                return new MultiCurve(readCurves(input, bigEndian), dimension, srid);
+            case CurvePolygon: {
+                List<Curve> curves = readCurves(input, bigEndian);
+                if (curves.isEmpty()) {
+                    return new CurvePolygon(CircularString.createEmpty(), new ArrayList<Curve>(), dimension, srid);
+                }
+                return new CurvePolygon(curves.get(0), curves.subList(1, curves.size()), dimension, srid);
             }
-            return new CompoundCurve(curves, dimension, srid);
-        } else if (geometryType == GeometryType.MultiCurve) {
-            int numberOfCurves = buffer.getInt();
-            List<Curve> curves = new ArrayList<Curve>(numberOfCurves);
-            for (int i = 0; i < numberOfCurves; i++) {
-                Curve curve = (Curve) read(buffer);
-                curves.add(curve);
+            case MultiSurface: {
+                int numberOfSurfaces = readCount(input, bigEndian);
+                List<Surface> surfaces = new ArrayList<Surface>(numberOfSurfaces);
+                for (int i = 0; i < numberOfSurfaces; i++) {
+                    surfaces.add((Surface) read(input));
+                }
+                return new MultiSurface(surfaces, dimension, srid);
             }
-            return new MultiCurve(curves, dimension, srid);
-        } else if (geometryType == GeometryType.CurvePolygon) {
-            int numberOfCurves = buffer.getInt();
-            List<Curve> curves = new ArrayList<Curve>(numberOfCurves);
-            for (int i = 0; i < numberOfCurves; i++) {
-                Curve curve = (Curve) read(buffer);
-                curves.add(curve);
+            case PolyHedralSurface: {
+                int numberOfPolygons = readCount(input, bigEndian);
+                List<Polygon> polygons = new ArrayList<Polygon>(numberOfPolygons);
+                for (int i = 0; i < numberOfPolygons; i++) {
+                    polygons.add((Polygon) read(input));
+                }
+                return new PolyHedralSurface(polygons, dimension, srid);
             }
-            return new CurvePolygon(curves.get(0), curves.subList(1, curves.size()), dimension, srid);
-        } else if (geometryType == GeometryType.MultiSurface) {
-            int numberOfSurfaces = buffer.getInt();
-            List<Surface> surfaces = new ArrayList<Surface>(numberOfSurfaces);
-            for (int i = 0; i < numberOfSurfaces; i++) {
-                Surface surface = (Surface) read(buffer);
-                surfaces.add(surface);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Decode a Geometry from a WKBInput into a CoordinateBuffer
+     * @param input The WKBInput
+     * @param coordinateBuffer The CoordinateBuffer
+     * @param isRoot Whether the Geometry is the top level Geometry
+     */
+    private static void readInto(WKBInput input, CoordinateBuffer coordinateBuffer, boolean isRoot) {
+
+        // Header
+        input.require(5);
+        boolean bigEndian = Endian.get(input.getByte(input.position)) == Endian.Big;
+        int geometryTypeInt = input.getInt(input.position + 1, bigEndian);
+        input.position += 5;
+        GeometryType geometryType = GeometryType.get(geometryTypeInt & TYPE_MASK);
+        boolean hasSrid = WKBScanner.hasSrid(geometryTypeInt);
+        int srid = 0;
+        if (hasSrid) {
+            input.require(4);
+            srid = input.getInt(input.position, bigEndian);
+            input.position += 4;
+        }
+        if (geometryType == null || geometryType == GeometryType.Curve || geometryType == GeometryType.Surface) {
+            throw new IllegalArgumentException("Unsupported Geometry Type! " + (geometryTypeInt & TYPE_MASK));
+        }
+        if (isRoot) {
+            coordinateBuffer.start(geometryType, WKBScanner.getDimension(geometryTypeInt), hasSrid, srid);
+        }
+
+        // Parts and rings
+        switch (geometryType) {
+            case Point:
+                coordinateBuffer.startPart(geometryType);
+                int coordinateLength = WKBScanner.getCoordinateLength(geometryTypeInt);
+                input.require(coordinateLength);
+                if (Double.isNaN(input.getDouble(input.position, bigEndian)) && Double.isNaN(input.getDouble(input.position + 8, bigEndian))) {
+                    coordinateBuffer.startRing(0);
+                    input.position += coordinateLength;
+                } else {
+                    readRing(input, coordinateBuffer, 1, geometryTypeInt, bigEndian);
+                }
+                break;
+            case LineString:
+            case CircularString:
+                coordinateBuffer.startPart(geometryType);
+                readRing(input, coordinateBuffer, readCount(input, bigEndian), geometryTypeInt, bigEndian);
+                break;
+            case Polygon:
+            case Triangle:
+                coordinateBuffer.startPart(geometryType);
+                int numberOfRings = readCount(input, bigEndian);
+                for (int i = 0; i < numberOfRings; i++) {
+                    readRing(input, coordinateBuffer, readCount(input, bigEndian), geometryTypeInt, bigEndian);
+                }
+                break;
+            default:
+                int numberOfGeometries = readCount(input, bigEndian);
+                for (int i = 0; i < numberOfGeometries; i++) {
+                    readInto(input, coordinateBuffer, false);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Decode a run of Coordinates into a new ring of a CoordinateBuffer.  When the Coordinates have the same
+     * ordinates as the CoordinateBuffer they are copied in a single loop, otherwise Z and M are matched up
+     * and missing values are NaN.
+     * @param input The WKBInput
+     * @param coordinateBuffer The CoordinateBuffer
+     * @param numberOfCoordinates The number of Coordinates
+     * @param geometryTypeInt The geometry type int of the Coordinates
+     * @param bigEndian Whether the Coordinates are big endian
+     */
+    private static void readRing(WKBInput input, CoordinateBuffer coordinateBuffer, int numberOfCoordinates, int geometryTypeInt, boolean bigEndian) {
+        boolean hasZ = (geometryTypeInt & GeometryTypeFlag.Z.getValue()) != 0;
+        boolean hasM = (geometryTypeInt & GeometryTypeFlag.M.getValue()) != 0;
+        int numberOfOrdinates = 2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0);
+        input.require((long) numberOfCoordinates * numberOfOrdinates * 8);
+        int index = coordinateBuffer.startRing(numberOfCoordinates);
+        double[] coordinates = coordinateBuffer.getCoordinates();
+        int stride = coordinateBuffer.getStride();
+        Dimension dimension = coordinateBuffer.getDimension();
+        boolean bufferHasZ = dimension == Dimension.Three || dimension == Dimension.ThreeMeasured;
+        boolean bufferHasM = dimension == Dimension.TwoMeasured || dimension == Dimension.ThreeMeasured;
+        int position = input.position;
+        if (hasZ == bufferHasZ && hasM == bufferHasM) {
+            for (int i = 0, end = numberOfCoordinates * stride; i < end; i++, position += 8) {
+                coordinates[index + i] = input.getDouble(position, bigEndian);
             }
-            return new MultiSurface(surfaces, dimension, srid);
-        } else if (geometryType == GeometryType.PolyHedralSurface) {
-            int numberOfPolygons = buffer.getInt();
-            List<Polygon> polygons = new ArrayList<Polygon>(numberOfPolygons);
-            for (int i = 0; i < numberOfPolygons; i++) {
-                Polygon polygon = (Polygon) read(buffer);
-                polygons.add(polygon);
+        } else {
+            for (int i = 0; i < numberOfCoordinates; i++, index += stride) {
+                coordinates[index] = input.getDouble(position, bigEndian);
+                coordinates[index + 1] = input.getDouble(position + 8, bigEndian);
+                position += 16;
+                double z = Double.NaN;
+                double m = Double.NaN;
+                if (hasZ) {
+                    z = input.getDouble(position, bigEndian);
+                    position += 8;
+                }
+                if (hasM) {
+                    m = input.getDouble(position, bigEndian);
+                    position += 8;
+                }
+                if (bufferHasZ) {
+                    coordinates[index + 2] = z;
+                }
+                if (bufferHasM) {
+                    coordinates[index + stride - 1] = m;
+                }
             }
-            return new PolyHedralSurface(polygons, dimension, srid);
         }
-        return null;
+        input.position = position;
     }
 
     /**
-     * Get Coordinate of the given Dimension from the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Read a count of coordinates, rings or sub geometries
+     * @param input The WKBInput
+     * @param bigEndian Whether the count is big endian
+     * @return The count
+     */
+    private static int readCount(WKBInput input, boolean bigEndian) {
+        input.require(4);
+        int count = input.getInt(input.position, bigEndian);
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid count! " + count);
+        }
+        input.position += 4;
+        return count;
+    }
+
+    /**
+     * Read the Curves of a CompoundCurve, MultiCurve or CurvePolygon
+     * @param input The WKBInput
+     * @param bigEndian Whether the count is big endian
+     * @return A List of Curves
+     */
+    private List<Curve> readCurves(WKBInput input, boolean bigEndian) {
+        int numberOfCurves = readCount(input, bigEndian);
+        List<Curve> curves = new ArrayList<Curve>(numberOfCurves);
+        for (int i = 0; i < numberOfCurves; i++) {
+            curves.add((Curve) read(input));
+        }
+        return curves;
+    }
+
+    /**
+     * Read the LinearRings of a Polygon or Triangle
+     * @param input The WKBInput
      * @param dimension The Dimension
-     * @return A Coordinate
+     * @param srid The SRID
+     * @param bigEndian Whether the LinearRings are big endian
+     * @return A List of LinearRings
      */
-    private Coordinate getCoordinate(ByteBuffer buffer, Dimension dimension) {
-        double x = buffer.getDouble();
-        double y = buffer.getDouble();
-        double z = Double.NaN;
-        double m = Double.NaN;
-        if (dimension == Dimension.Three || dimension == Dimension.ThreeMeasured) {
-            z = buffer.getDouble();
+    private static List<LinearRing> readLinearRings(WKBInput input, Dimension dimension, String srid, boolean bigEndian) {
+        int numberOfRings = readCount(input, bigEndian);
+        List<LinearRing> rings = new ArrayList<LinearRing>(numberOfRings);
+        for (int i = 0; i < numberOfRings; i++) {
+            rings.add(new LinearRing(readCoordinates(input, dimension, bigEndian), dimension, srid));
         }
-        if (dimension == Dimension.ThreeMeasured || dimension == Dimension.TwoMeasured) {
-            m = buffer.getDouble();
+        return rings;
+    }
+
+    /**
+     * Read a single Coordinate of the given Dimension
+     * @param input The WKBInput
+     * @param dimension The Dimension
+     * @param bigEndian Whether the Coordinate is big endian
+     * @return A Coordinate
+     */
+    private static Coordinate readCoordinate(WKBInput input, Dimension dimension, boolean bigEndian) {
+        int position = input.position;
+        Coordinate coordinate;
+        switch (dimension) {
+            case Three:
+                input.require(24);
+                coordinate = new Coordinate(input.getDouble(position, bigEndian), input.getDouble(position + 8, bigEndian),
+                        input.getDouble(position + 16, bigEndian), Double.NaN);
+                input.position += 24;
+                break;
+            case TwoMeasured:
+                input.require(24);
+                coordinate = new Coordinate(input.getDouble(position, bigEndian), input.getDouble(position + 8, bigEndian),
+                        Double.NaN, input.getDouble(position + 16, bigEndian));
+                input.position += 24;
+                break;
+            case ThreeMeasured:
+                input.require(32);
+                coordinate = new Coordinate(input.getDouble(position, bigEndian), input.getDouble(position + 8, bigEndian),
+                        input.getDouble(position + 16, bigEndian), input.getDouble(position + 24, bigEndian));
+                input.position += 32;
+                break;
+            default:
+                input.require(16);
+                coordinate = new Coordinate(input.getDouble(position, bigEndian), input.getDouble(position + 8, bigEndian),
+                        Double.NaN, Double.NaN);
+                input.position += 16;
+                break;
         }
-        return new Coordinate(x,y,z,m);
+        return coordinate;
     }
 
     /**
-     * Convert a hex String into a byte Array
-     * @param hexString The hex String
-     * @return An array of bytes
+     * Read a count followed by that many Coordinates of the given Dimension straight into a packed
+     * CoordinateSequence
+     * @param input The WKBInput
+     * @param dimension The Dimension
+     * @param bigEndian Whether the Coordinates are big endian
+     * @return A CoordinateSequence
      */
-    private static byte[] toBytes(String hexString) {
-        int len = hexString.length();
-        byte[] data = new byte[len / 2];
-        for (int i = 0; i < len; i += 2) {
-            data[i / 2] = (byte) ((Character.digit(hexString.charAt(i), 16) << 4)
-                    + Character.digit(hexString.charAt(i+1), 16));
+    private static CoordinateSequence readCoordinates(WKBInput input, Dimension dimension, boolean bigEndian) {
+        int numberOfCoordinates = readCount(input, bigEndian);
+        int stride = CoordinateSequence.getStride(dimension);
+        input.require(8L * stride * numberOfCoordinates);
+        double[] ordinates = new double[numberOfCoordinates * stride];
+        int position = input.position;
+        for (int i = 0; i < ordinates.length; i++, position += 8) {
+            ordinates[i] = input.getDouble(position, bigEndian);
         }
-        return data;
+        input.position = position;
+        return CoordinateSequence.wrap(ordinates, dimension);
     }
-}
\ No newline at end of file
+
+}
@@ -0,0 +1,449 @@
+package org.cugos.wkg;
+
+import org.cugos.wkg.WKB.GeometryType;
+import org.cugos.wkg.WKB.GeometryTypeFlag;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Walks the structure of WKB and EWKB encoded Geometries without decoding them.
+ * Only byte orders, geometry types and counts are read.  Except for {@link #skip(ByteBuffer)},
+ * the position, limit and byte order of the ByteBuffer are never changed.
+ * <p>
+ * The length and skip methods validate the structure as they walk it.  An invalid byte order,
+ * an unknown or unsupported geometry type, a sub Geometry of the wrong type, or a negative count
+ * throws an IllegalArgumentException.  A Geometry that continues past the end of the bytes throws a
+ * BufferUnderflowException, the same as WKBReader.
+ * </p>
+ * @author Jared Erickson
+ */
+public final class WKBScanner {
+
+    /**
+     * The mask that removes the Z, M, and SRID flags from a geometry type
+     */
+    private static final int TYPE_MASK = ~(GeometryTypeFlag.Z.getValue() | GeometryTypeFlag.M.getValue() | GeometryTypeFlag.SRID.getValue());
+
+    private WKBScanner() {
+    }
+
+    /**
+     * Get the number of bytes of the Geometry at the start of an array of bytes
+     * @param bytes The array of bytes
+     * @return The number of bytes of the Geometry
+     */
+    public static int length(byte[] bytes) {
+        return length(bytes, 0);
+    }
+
+    /**
+     * Get the number of bytes of the Geometry that starts at the given offset of an array of bytes
+     * @param bytes The array of bytes
+     * @param offset The offset of the Geometry
+     * @return The number of bytes of the Geometry
+     */
+    public static int length(byte[] bytes, int offset) {
+        return skip(ByteBuffer.wrap(bytes), offset) - offset;
+    }
+
+    /**
+     * Get the number of bytes of the Geometry that starts at the ByteBuffer's position.
+     * The position of the ByteBuffer is not changed.
+     * @param buffer The ByteBuffer
+     * @return The number of bytes of the Geometry
+     */
+    public static int length(ByteBuffer buffer) {
+        return skip(buffer, buffer.position()) - buffer.position();
+    }
+
+    /**
+     * Move the ByteBuffer's position past the Geometry that starts at the position
+     * @param buffer The ByteBuffer
+     * @return The number of bytes that were skipped
+     */
+    public static int skip(ByteBuffer buffer) {
+        int length = length(buffer);
+        buffer.position(buffer.position() + length);
+        return length;
+    }
+
+    /**
+     * Find the offset of the first byte after the Geometry that starts at the given offset
+     * @param buffer The ByteBuffer
+     * @param offset The offset of the Geometry
+     * @return The offset of the first byte after the Geometry
+     */
+    static int skip(ByteBuffer buffer, int offset) {
+        return skip(buffer, offset, null);
+    }
+
+    /**
+     * Find the offset of the first byte after the Geometry that starts at the given offset,
+     * validating the structure of the Geometry
+     * @param buffer The ByteBuffer
+     * @param offset The offset of the Geometry
+     * @param parentType The WKB.GeometryType of the enclosing Geometry or null
+     * @return The offset of the first byte after the Geometry
+     */
+    private static int skip(ByteBuffer buffer, int offset, GeometryType parentType) {
+        require(buffer, offset, 5);
+        byte byteOrder = buffer.get(offset);
+        if (byteOrder != WKB.Endian.Big.getValue() && byteOrder != WKB.Endian.Little.getValue()) {
+            throw new IllegalArgumentException("Invalid byte order " + byteOrder + " at " + offset);
+        }
+        boolean bigEndian = byteOrder == WKB.Endian.Big.getValue();
+        int typeInt = getInt(buffer, offset + 1, bigEndian);
+        GeometryType geometryType = getGeometryType(typeInt);
+        if (parentType != null && !isMember(parentType, geometryType)) {
+            throw new IllegalArgumentException(parentType + " can not contain a " + geometryType + " at " + offset);
+        }
+        int position = offset + getHeaderLength(typeInt);
+        int coordinateLength = getCoordinateLength(typeInt);
+        switch (geometryType) {
+            case Point:
+                return require(buffer, position, coordinateLength);
+            case LineString:
+            case CircularString:
+                return require(buffer, position + 4, (long) getCount(buffer, position, bigEndian) * coordinateLength);
+            case Polygon:
+            case Triangle:
+                int numberOfRings = getCount(buffer, position, bigEndian);
+                position += 4;
+                for (int i = 0; i < numberOfRings; i++) {
+                    position = require(buffer, position + 4, (long) getCount(buffer, position, bigEndian) * coordinateLength);
+                }
+                return position;
+            case Curve:
+            case Surface:
+                throw new IllegalArgumentException("Unsupported Geometry Type! " + geometryType);
+            default:
+                int numberOfGeometries = getCount(buffer, position, bigEndian);
+                position += 4;
+                for (int i = 0; i < numberOfGeometries; i++) {
+                    position = skip(buffer, position, geometryType);
+                }
+                return position;
+        }
+    }
+
+    /**
+     * Make sure that a number of bytes starting at a position are within the limit of the ByteBuffer
+     * @param buffer The ByteBuffer
+     * @param position The position
+     * @param numberOfBytes The number of bytes
+     * @return The position after the bytes
+     */
+    private static int require(ByteBuffer buffer, int position, long numberOfBytes) {
+        long end = position + numberOfBytes;
+        if (end > buffer.limit()) {
+            throw new BufferUnderflowException();
+        }
+        return (int) end;
+    }
+
+    /**
+     * Read a count of coordinates, rings or sub geometries
+     * @param buffer The ByteBuffer
+     * @param position The position of the count
+     * @param bigEndian Whether the count is big endian
+     * @return The count
+     */
+    private static int getCount(ByteBuffer buffer, int position, boolean bigEndian) {
+        require(buffer, position, 4);
+        int count = getInt(buffer, position, bigEndian);
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid count " + count + " at " + position);
+        }
+        return count;
+    }
+
+    /**
+     * Determine whether a Geometry of one type may be a part of a Geometry of another type
+     * @param parentType The WKB.GeometryType of the enclosing Geometry
+     * @param geometryType The WKB.GeometryType of the part
+     * @return Whether the part is allowed
+     */
+    private static boolean isMember(GeometryType parentType, GeometryType geometryType) {
+        switch (parentType) {
+            case MultiPoint:
+                return geometryType == GeometryType.Point;
+            case MultiLineString:
+                return geometryType == GeometryType.LineString;
+            case MultiPolygon:
+            case PolyHedralSurface:
+                return geometryType == GeometryType.Polygon || geometryType == GeometryType.Triangle;
+            case Tin:
+                return geometryType == GeometryType.Triangle;
+            case CompoundCurve:
+            case MultiCurve:
+            case CurvePolygon:
+                return geometryType == GeometryType.LineString || geometryType == GeometryType.CircularString
+                        || geometryType == GeometryType.CompoundCurve;
+            case MultiSurface:
+                return geometryType == GeometryType.Polygon || geometryType == GeometryType.Triangle
+                        || geometryType == GeometryType.CurvePolygon || geometryType == GeometryType.PolyHedralSurface
+                        || geometryType == GeometryType.Tin;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Count the Coordinates of the Geometry that starts at the given offset
+     * @param buffer The ByteBuffer
+     * @param offset The offset of the Geometry
+     * @return The number of Coordinates
+     */
+    static int getNumberOfCoordinates(ByteBuffer buffer, int offset) {
+        boolean bigEndian = isBigEndian(buffer, offset);
+        int typeInt = getInt(buffer, offset + 1, bigEndian);
+        int position = offset + getHeaderLength(typeInt);
+        int coordinateLength = getCoordinateLength(typeInt);
+        GeometryType geometryType = getGeometryType(typeInt);
+        switch (geometryType) {
+            case Point:
+                return isEmptyPoint(buffer, position, bigEndian) ? 0 : 1;
+            case LineString:
+            case CircularString:
+                return getInt(buffer, position, bigEndian);
+            case Polygon:
+            case Triangle:
+                int numberOfRings = getInt(buffer, position, bigEndian);
+                position += 4;
+                int numberOfCoordinates = 0;
+                for (int i = 0; i < numberOfRings; i++) {
+                    int numberOfRingCoordinates = getInt(buffer, position, bigEndian);
+                    numberOfCoordinates += numberOfRingCoordinates;
+                    position += 4 + numberOfRingCoordinates * coordinateLength;
+                }
+                return numberOfCoordinates;
+            case Curve:
+            case Surface:
+                throw new IllegalArgumentException("Unsupported Geometry Type! " + geometryType);
+            default:
+                int numberOfGeometries = getInt(buffer, position, bigEndian);
+                position += 4;
+                int count = 0;
+                for (int i = 0; i < numberOfGeometries; i++) {
+                    count += getNumberOfCoordinates(buffer, position);
+                    position = skip(buffer, position);
+                }
+                return count;
+        }
+    }
+
+    /**
+     * Expand the bounds with every Coordinate of the Geometry that starts at the given offset.
+     * Each sub Geometry is read with the Dimension of its own header and nothing is allocated per Coordinate.
+     * The bounds are min x, min y, min z, min m, max x, max y, max z, max m and start out as NaN.
+     * @param buffer The ByteBuffer
+     * @param offset The offset of the Geometry
+     * @param bounds The bounds
+     * @return The offset of the first byte after the Geometry
+     */
+    static int expandBounds(ByteBuffer buffer, int offset, double[] bounds) {
+        boolean bigEndian = isBigEndian(buffer, offset);
+        int typeInt = getInt(buffer, offset + 1, bigEndian);
+        int position = offset + getHeaderLength(typeInt);
+        int coordinateLength = getCoordinateLength(typeInt);
+        GeometryType geometryType = getGeometryType(typeInt);
+        switch (geometryType) {
+            case Point:
+                if (buffer.limit() - position < 16) {
+                    expand(bounds, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+                    return position + coordinateLength;
+                }
+                return expandBounds(buffer, position, 1, typeInt, bigEndian, bounds);
+            case LineString:
+            case CircularString:
+                return expandBounds(buffer, position + 4, getInt(buffer, position, bigEndian), typeInt, bigEndian, bounds);
+            case Polygon:
+            case Triangle:
+                int numberOfRings = getInt(buffer, position, bigEndian);
+                position += 4;
+                for (int i = 0; i < numberOfRings; i++) {
+                    position = expandBounds(buffer, position + 4, getInt(buffer, position, bigEndian), typeInt, bigEndian, bounds);
+                }
+                return position;
+            case Curve:
+            case Surface:
+                throw new IllegalArgumentException("Unsupported Geometry Type! " + geometryType);
+            default:
+                int numberOfGeometries = getInt(buffer, position, bigEndian);
+                position += 4;
+                for (int i = 0; i < numberOfGeometries; i++) {
+                    position = expandBounds(buffer, position, bounds);
+                }
+                return position;
+        }
+    }
+
+    /**
+     * Expand the bounds with a run of Coordinates
+     * @param buffer The ByteBuffer
+     * @param position The offset of the first Coordinate
+     * @param numberOfCoordinates The number of Coordinates
+     * @param typeInt The geometry type int
+     * @param bigEndian Whether the Coordinates are big endian
+     * @param bounds The bounds
+     * @return The offset of the first byte after the Coordinates
+     */
+    private static int expandBounds(ByteBuffer buffer, int position, int numberOfCoordinates, int typeInt, boolean bigEndian, double[] bounds) {
+        boolean hasZ = (typeInt & GeometryTypeFlag.Z.getValue()) != 0;
+        boolean hasM = (typeInt & GeometryTypeFlag.M.getValue()) != 0;
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            double x = getDouble(buffer, position, bigEndian);
+            double y = getDouble(buffer, position + 8, bigEndian);
+            position += 16;
+            double z = Double.NaN;
+            double m = Double.NaN;
+            if (hasZ) {
+                z = getDouble(buffer, position, bigEndian);
+                position += 8;
+            }
+            if (hasM) {
+                m = getDouble(buffer, position, bigEndian);
+                position += 8;
+            }
+            expand(bounds, x, y, z, m);
+        }
+        return position;
+    }
+
+    /**
+     * Expand the bounds with a single Coordinate the same way Geometry.getEnvelope() does
+     * @param bounds The bounds
+     * @param x The x
+     * @param y The y
+     * @param z The z
+     * @param m The m
+     */
+    private static void expand(double[] bounds, double x, double y, double z, double m) {
+        bounds[0] = Double.isNaN(bounds[0]) ? x : Math.min(x, bounds[0]);
+        bounds[1] = Double.isNaN(bounds[1]) ? y : Math.min(y, bounds[1]);
+        bounds[2] = Double.isNaN(bounds[2]) ? z : Math.min(z, bounds[2]);
+        bounds[3] = Double.isNaN(bounds[3]) ? m : Math.min(m, bounds[3]);
+        bounds[4] = Double.isNaN(bounds[4]) ? x : Math.max(x, bounds[4]);
+        bounds[5] = Double.isNaN(bounds[5]) ? y : Math.max(y, bounds[5]);
+        bounds[6] = Double.isNaN(bounds[6]) ? z : Math.max(z, bounds[6]);
+        bounds[7] = Double.isNaN(bounds[7]) ? m : Math.max(m, bounds[7]);
+    }
+
+    /**
+     * Determine whether a Point's Coordinate (x and y of NaN) is empty.
+     * A Point without any coordinate bytes is also considered empty.
+     * @param buffer The ByteBuffer
+     * @param position The offset of the Coordinate
+     * @param bigEndian Whether the Coordinate is big endian
+     * @return Whether the Point is empty
+     */
+    static boolean isEmptyPoint(ByteBuffer buffer, int position, boolean bigEndian) {
+        if (buffer.limit() - position < 16) {
+            return true;
+        }
+        return Double.isNaN(getDouble(buffer, position, bigEndian)) && Double.isNaN(getDouble(buffer, position + 8, bigEndian));
+    }
+
+    /**
+     * Determine whether the Geometry at the given offset is big endian
+     * @param buffer The ByteBuffer
+     * @param offset The offset of the Geometry
+     * @return Whether the Geometry is big endian
+     */
+    static boolean isBigEndian(ByteBuffer buffer, int offset) {
+        return buffer.get(offset) == WKB.Endian.Big.getValue();
+    }
+
+    /**
+     * Get the WKB.GeometryType from the geometry type int (which may contain flags)
+     * @param typeInt The geometry type int
+     * @return The WKB.GeometryType
+     */
+    static GeometryType getGeometryType(int typeInt) {
+        GeometryType geometryType = GeometryType.get(typeInt & TYPE_MASK);
+        if (geometryType == null) {
+            throw new IllegalArgumentException("Unknown Geometry Type! " + (typeInt & TYPE_MASK));
+        }
+        return geometryType;
+    }
+
+    /**
+     * Get the Dimension from the geometry type int
+     * @param typeInt The geometry type int
+     * @return The Dimension
+     */
+    static Dimension getDimension(int typeInt) {
+        boolean hasZ = (typeInt & GeometryTypeFlag.Z.getValue()) != 0;
+        boolean hasM = (typeInt & GeometryTypeFlag.M.getValue()) != 0;
+        if (hasZ && hasM) {
+            return Dimension.ThreeMeasured;
+        } else if (hasZ) {
+            return Dimension.Three;
+        } else if (hasM) {
+            return Dimension.TwoMeasured;
+        } else {
+            return Dimension.Two;
+        }
+    }
+
+    /**
+     * Determine whether the geometry type int has the SRID flag
+     * @param typeInt The geometry type int
+     * @return Whether an SRID follows the geometry type
+     */
+    static boolean hasSrid(int typeInt) {
+        return (typeInt & GeometryTypeFlag.SRID.getValue()) != 0;
+    }
+
+    /**
+     * Get the number of bytes of the header (byte order, geometry type, and optional SRID)
+     * @param typeInt The geometry type int
+     * @return The number of bytes of the header
+     */
+    static int getHeaderLength(int typeInt) {
+        return hasSrid(typeInt) ? 9 : 5;
+    }
+
+    /**
+     * Get the number of bytes of a single Coordinate
+     * @param typeInt The geometry type int
+     * @return The number of bytes of a single Coordinate
+     */
+    static int getCoordinateLength(int typeInt) {
+        int numberOfOrdinates = 2;
+        if ((typeInt & GeometryTypeFlag.Z.getValue()) != 0) {
+            numberOfOrdinates++;
+        }
+        if ((typeInt & GeometryTypeFlag.M.getValue()) != 0) {
+            numberOfOrdinates++;
+        }
+        return numberOfOrdinates * 8;
+    }
+
+    /**
+     * Read an int at an absolute position
+     * @param buffer The ByteBuffer
+     * @param position The position
+     * @param bigEndian Whether the int is big endian
+     * @return The int
+     */
+    static int getInt(ByteBuffer buffer, int position, boolean bigEndian) {
+        int value = buffer.getInt(position);
+        return (buffer.order() == ByteOrder.BIG_ENDIAN) == bigEndian ? value : Integer.reverseBytes(value);
+    }
+
+    /**
+     * Read a double at an absolute position
+     * @param buffer The ByteBuffer
+     * @param position The position
+     * @param bigEndian Whether the double is big endian
+     * @return The double
+     */
+    static double getDouble(ByteBuffer buffer, int position, boolean bigEndian) {
+        long value = buffer.getLong(position);
+        return Double.longBitsToDouble((buffer.order() == ByteOrder.BIG_ENDIAN) == bigEndian ? value : Long.reverseBytes(value));
+    }
+
+}
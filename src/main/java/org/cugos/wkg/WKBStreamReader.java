@@ -0,0 +1,270 @@
+package org.cugos.wkg;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read concatenated WKB or EWKB Geometries one after another from an InputStream or a ReadableByteChannel.
+ * <p>
+ * Bytes are pulled through a fixed size buffer that is refilled as Geometries are read, so memory use
+ * does not depend on the size of the input.  A single Geometry that is larger than the buffer is
+ * read into a temporary larger buffer and the reader goes back to the fixed size buffer afterwards.
+ * A Geometry that is larger than the maximum record size, for example because of a corrupt count,
+ * throws an IllegalStateException instead of growing the buffer without bound.
+ * </p>
+ * <p>
+ * A ReadableByteChannel must be in blocking mode.
+ * </p>
+ * @author Jared Erickson
+ */
+public class WKBStreamReader implements Iterator<Geometry>, Closeable {
+
+    /**
+     * The default buffer size
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The default maximum number of bytes of a single Geometry
+     */
+    public static final int DEFAULT_MAXIMUM_RECORD_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The ReadableByteChannel
+     */
+    private final ReadableByteChannel channel;
+
+    /**
+     * The size of the buffer
+     */
+    private final int bufferSize;
+
+    /**
+     * The maximum number of bytes of a single Geometry
+     */
+    private final int maximumRecordSize;
+
+    /**
+     * The WKBReader
+     */
+    private final WKBReader wkbReader = new WKBReader();
+
+    /**
+     * The buffer.  Unread bytes are between the position and the limit.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Whether the end of the channel has been reached
+     */
+    private boolean endOfInput = false;
+
+    /**
+     * Create a new WKBStreamReader
+     * @param inputStream The InputStream
+     */
+    public WKBStreamReader(InputStream inputStream) {
+        this(Channels.newChannel(inputStream), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a new WKBStreamReader
+     * @param inputStream The InputStream
+     * @param bufferSize The buffer size
+     */
+    public WKBStreamReader(InputStream inputStream, int bufferSize) {
+        this(Channels.newChannel(inputStream), bufferSize);
+    }
+
+    /**
+     * Create a new WKBStreamReader
+     * @param channel The ReadableByteChannel
+     */
+    public WKBStreamReader(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a new WKBStreamReader
+     * @param channel The ReadableByteChannel
+     * @param bufferSize The buffer size
+     */
+    public WKBStreamReader(ReadableByteChannel channel, int bufferSize) {
+        this(channel, bufferSize, DEFAULT_MAXIMUM_RECORD_SIZE);
+    }
+
+    /**
+     * Create a new WKBStreamReader
+     * @param inputStream The InputStream
+     * @param bufferSize The buffer size
+     * @param maximumRecordSize The maximum number of bytes of a single Geometry
+     */
+    public WKBStreamReader(InputStream inputStream, int bufferSize, int maximumRecordSize) {
+        this(Channels.newChannel(inputStream), bufferSize, maximumRecordSize);
+    }
+
+    /**
+     * Create a new WKBStreamReader
+     * @param channel The blocking ReadableByteChannel
+     * @param bufferSize The buffer size
+     * @param maximumRecordSize The maximum number of bytes of a single Geometry
+     */
+    public WKBStreamReader(ReadableByteChannel channel, int bufferSize, int maximumRecordSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The buffer size must be greater than 0! " + bufferSize);
+        }
+        if (maximumRecordSize < 1) {
+            throw new IllegalArgumentException("The maximum record size must be greater than 0! " + maximumRecordSize);
+        }
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalArgumentException("The channel must be in blocking mode!");
+        }
+        this.channel = channel;
+        this.bufferSize = bufferSize;
+        this.maximumRecordSize = maximumRecordSize;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.flip();
+    }
+
+    /**
+     * Whether there is another Geometry
+     * @return Whether there is another Geometry
+     */
+    @Override
+    public boolean hasNext() {
+        try {
+            if (!buffer.hasRemaining()) {
+                fill();
+            }
+            return buffer.hasRemaining();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read the next Geometry
+     * @return The next Geometry
+     */
+    @Override
+    public Geometry next() {
+        return wkbReader.read(nextBuffer());
+    }
+
+    /**
+     * Get a Stream of the remaining Geometries.  Closing the Stream closes this WKBStreamReader.
+     * @return A Stream of Geometries
+     */
+    public Stream<Geometry> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Get a ByteBuffer that contains exactly the bytes of the next Geometry.  The ByteBuffer is only valid
+     * until the next call to this WKBStreamReader.
+     * @return A ByteBuffer
+     */
+    ByteBuffer nextBuffer() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            int start = buffer.position();
+            int end;
+            while (true) {
+                try {
+                    end = WKBScanner.skip(buffer, start);
+                    if (end <= buffer.limit()) {
+                        break;
+                    }
+                } catch (BufferUnderflowException e) {
+                    // The Geometry continues past the bytes that have been read
+                }
+                if (endOfInput) {
+                    throw new IllegalStateException("Unexpected end of WKB input after " + buffer.remaining() + " bytes");
+                }
+                if (buffer.remaining() >= maximumRecordSize) {
+                    throw new IllegalStateException("The WKB Geometry is larger than the maximum record size of " + maximumRecordSize + " bytes!");
+                }
+                if (start == 0 && buffer.limit() == buffer.capacity()) {
+                    grow();
+                }
+                fill();
+                start = buffer.position();
+            }
+            if (end - start > maximumRecordSize) {
+                throw new IllegalStateException("The WKB Geometry is larger than the maximum record size of " + maximumRecordSize + " bytes!");
+            }
+            ByteBuffer geometryBuffer = buffer.duplicate();
+            geometryBuffer.limit(end);
+            buffer.position(end);
+            return geometryBuffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Move the unread bytes to the start of the buffer and read once from the channel, so that a Geometry
+     * that is already buffered is returned without waiting for more bytes.  The caller fills again while the
+     * next Geometry is incomplete.  An oversized buffer is replaced by a buffer of the original size once the
+     * unread bytes fit in half of it.  A channel that reads no bytes lets other threads run instead of spinning.
+     * @throws IOException if there is an error reading from the channel
+     */
+    private void fill() throws IOException {
+        if (buffer.capacity() > bufferSize && buffer.remaining() <= bufferSize / 2) {
+            ByteBuffer smaller = ByteBuffer.allocate(bufferSize);
+            smaller.put(buffer);
+            buffer = smaller;
+        } else {
+            buffer.compact();
+        }
+        while (!endOfInput && buffer.hasRemaining()) {
+            int numberOfBytes = channel.read(buffer);
+            if (numberOfBytes == -1) {
+                endOfInput = true;
+            } else if (numberOfBytes > 0) {
+                break;
+            } else {
+                Thread.yield();
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Double the size of the buffer, but not past the maximum record size, keeping the unread bytes
+     */
+    private void grow() {
+        ByteBuffer larger = ByteBuffer.allocate((int) Math.min((long) buffer.capacity() * 2, maximumRecordSize));
+        larger.put(buffer);
+        larger.flip();
+        buffer = larger;
+    }
+
+}
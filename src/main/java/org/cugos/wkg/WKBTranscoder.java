@@ -0,0 +1,406 @@
+package org.cugos.wkg;
+
+import org.cugos.wkg.WKB.Endian;
+import org.cugos.wkg.WKB.GeometryType;
+import org.cugos.wkg.WKB.GeometryTypeFlag;
+import org.cugos.wkg.WKB.Type;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Rewrite WKB or EWKB bytes without decoding them into Geometries.
+ * <p>
+ * A WKBTranscoder walks the bytes header by header and rewrites the byte order, the geometry type flags and
+ * the SRID, and drops Z or M ordinates, while copying everything else.  With only a Type and an Endian the result
+ * is the same as reading the bytes with a WKBReader and writing the Geometry with a WKBWriter of that Type and
+ * Endian.  That also means that Type.WKB writes no Z, M or SRID flags, so use {@link Builder#dropZ()} and
+ * {@link Builder#dropM()} to turn XYZM into plain XY WKB.
+ * </p>
+ * <p>
+ * Create a WKBTranscoder with a {@link Builder}.  A WKBTranscoder can be shared between threads.
+ * </p>
+ * @author Jared Erickson
+ */
+public class WKBTranscoder {
+
+    /**
+     * The number of bytes in the staging buffer used to write to streams and channels
+     */
+    private static final int STAGING_BUFFER_SIZE = 8192;
+
+    /**
+     * The WKB Type (WKB or EWKB)
+     */
+    private final Type wkbType;
+
+    /**
+     * The byte order or null to keep the byte order of each header
+     */
+    private final Endian endian;
+
+    /**
+     * The SRID of the top level Geometry or null to keep the SRIDs
+     */
+    private final Integer srid;
+
+    /**
+     * Whether to remove all SRIDs
+     */
+    private final boolean stripSrid;
+
+    /**
+     * Whether to drop Z values
+     */
+    private final boolean dropZ;
+
+    /**
+     * Whether to drop M values
+     */
+    private final boolean dropM;
+
+    /**
+     * Create a new WKBTranscoder from a Builder
+     * @param builder The Builder
+     */
+    private WKBTranscoder(Builder builder) {
+        this.wkbType = builder.wkbType;
+        this.endian = builder.endian;
+        this.srid = builder.srid;
+        this.stripSrid = builder.stripSrid;
+        this.dropZ = builder.dropZ;
+        this.dropM = builder.dropM;
+    }
+
+    /**
+     * Create a new Builder
+     * @return A Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Rewrite the first Geometry of an array of bytes
+     * @param wkb The WKB or EWKB bytes
+     * @return The rewritten bytes
+     */
+    public byte[] transcode(byte[] wkb) {
+        // Only the top level Geometry can gain an SRID so the output is at most 4 bytes longer
+        ByteBuffer buffer = ByteBuffer.allocate(wkb.length + 4);
+        transcode(new WKBInput.ArrayInput(wkb, 0, wkb.length), WKBOutput.of(buffer), true);
+        return buffer.position() == buffer.capacity() ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Rewrite a hex String of WKB or EWKB
+     * @param hex The hex String
+     * @return The rewritten hex String
+     */
+    public String transcode(String hex) {
+        return ByteCodec.encodeHex(transcode(ByteCodec.decodeHex(hex)));
+    }
+
+    /**
+     * Rewrite the Geometry at the position of one ByteBuffer into another ByteBuffer.  Both positions are moved
+     * past the Geometry and the byte order of the output ByteBuffer is left as it was.
+     * @param wkb The WKB or EWKB bytes
+     * @param buffer The output ByteBuffer
+     * @throws java.nio.BufferOverflowException if the Geometry does not fit.  The output position is not moved.
+     */
+    public void transcode(ByteBuffer wkb, ByteBuffer buffer) {
+        WKBInput input = WKBInput.of(wkb);
+        int start = input.position;
+        ByteOrder order = buffer.order();
+        int position = buffer.position();
+        try {
+            transcode(input, WKBOutput.of(buffer), true);
+        } catch (RuntimeException e) {
+            buffer.position(position);
+            throw e;
+        } finally {
+            buffer.order(order);
+        }
+        wkb.position(wkb.position() + input.position - start);
+    }
+
+    /**
+     * Rewrite every Geometry of an InputStream of concatenated WKB or EWKB records to an OutputStream.
+     * Neither stream is closed.
+     * @param inputStream The InputStream
+     * @param outputStream The OutputStream
+     * @return The number of Geometries
+     * @throws IOException if there is an error reading or writing
+     */
+    public long transcode(InputStream inputStream, OutputStream outputStream) throws IOException {
+        ByteBuffer staging = ByteBuffer.allocate(STAGING_BUFFER_SIZE);
+        return transcode(new WKBStreamReader(inputStream), new WKBOutput.StreamOutput(staging, outputStream));
+    }
+
+    /**
+     * Rewrite every Geometry of a ReadableByteChannel of concatenated WKB or EWKB records to a WritableByteChannel.
+     * Neither channel is closed.
+     * @param input The ReadableByteChannel
+     * @param output The WritableByteChannel
+     * @return The number of Geometries
+     * @throws IOException if there is an error reading or writing
+     */
+    public long transcode(ReadableByteChannel input, WritableByteChannel output) throws IOException {
+        ByteBuffer staging = ByteBuffer.allocateDirect(STAGING_BUFFER_SIZE);
+        return transcode(new WKBStreamReader(input), new WKBOutput.ChannelOutput(staging, output));
+    }
+
+    /**
+     * Rewrite every Geometry of a WKBStreamReader to a staging WKBOutput
+     * @param reader The WKBStreamReader
+     * @param output The WKBOutput
+     * @return The number of Geometries
+     * @throws IOException if there is an error reading or writing
+     */
+    private long transcode(WKBStreamReader reader, WKBOutput output) throws IOException {
+        long numberOfGeometries = 0;
+        try {
+            while (reader.hasNext()) {
+                ByteBuffer wkb = reader.nextBuffer();
+                transcode(WKBInput.of(wkb), output, true);
+                numberOfGeometries++;
+            }
+            output.drain();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return numberOfGeometries;
+    }
+
+    /**
+     * Rewrite a Geometry and its parts
+     * @param input The WKBInput positioned at the Geometry
+     * @param output The WKBOutput
+     * @param isRoot Whether this is the top level Geometry
+     */
+    private void transcode(WKBInput input, WKBOutput output, boolean isRoot) {
+
+        // Header
+        input.require(5);
+        Endian inputEndian = Endian.get(input.getByte(input.position));
+        if (inputEndian == null) {
+            throw new IllegalArgumentException("Invalid byte order " + input.getByte(input.position) + " at " + input.position);
+        }
+        boolean bigEndian = inputEndian == Endian.Big;
+        int geometryTypeInt = input.getInt(input.position + 1, bigEndian);
+        GeometryType geometryType = WKBScanner.getGeometryType(geometryTypeInt);
+        input.position += 5;
+        boolean hasSrid = WKBScanner.hasSrid(geometryTypeInt);
+        int inputSrid = 0;
+        if (hasSrid) {
+            input.require(4);
+            inputSrid = input.getInt(input.position, bigEndian);
+            input.position += 4;
+        }
+        boolean hasZ = (geometryTypeInt & GeometryTypeFlag.Z.getValue()) != 0;
+        boolean hasM = (geometryTypeInt & GeometryTypeFlag.M.getValue()) != 0;
+
+        Endian outputEndian = endian != null ? endian : inputEndian;
+        output.order(outputEndian == Endian.Big ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        output.putByte((byte) outputEndian.getValue());
+        int outputTypeInt = geometryType.getValue();
+        boolean writeSrid = false;
+        int outputSrid = inputSrid;
+        if (wkbType == Type.EWKB) {
+            if (hasZ && !dropZ) {
+                outputTypeInt |= GeometryTypeFlag.Z.getValue();
+            }
+            if (hasM && !dropM) {
+                outputTypeInt |= GeometryTypeFlag.M.getValue();
+            }
+            if (isRoot && srid != null) {
+                writeSrid = true;
+                outputSrid = srid;
+            } else {
+                writeSrid = hasSrid && !stripSrid;
+            }
+            if (writeSrid) {
+                outputTypeInt |= GeometryTypeFlag.SRID.getValue();
+            }
+        }
+        output.putInt(outputTypeInt);
+        if (writeSrid) {
+            output.putInt(outputSrid);
+        }
+
+        // Body
+        switch (geometryType) {
+            case Point:
+                // A top level empty Point may be written without a Coordinate
+                if (!isRoot || input.position < input.limit) {
+                    putCoordinates(input, output, 1, hasZ, hasM, bigEndian);
+                }
+                break;
+            case LineString:
+            case CircularString:
+                putCoordinates(input, output, putCount(input, output, bigEndian), hasZ, hasM, bigEndian);
+                break;
+            case Polygon:
+            case Triangle:
+                int numberOfRings = putCount(input, output, bigEndian);
+                for (int i = 0; i < numberOfRings; i++) {
+                    putCoordinates(input, output, putCount(input, output, bigEndian), hasZ, hasM, bigEndian);
+                }
+                break;
+            case Curve:
+            case Surface:
+                throw new IllegalArgumentException("Unsupported Geometry Type! " + geometryType);
+            default:
+                int numberOfGeometries = putCount(input, output, bigEndian);
+                for (int i = 0; i < numberOfGeometries; i++) {
+                    transcode(input, output, false);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Copy a count
+     * @param input The WKBInput
+     * @param output The WKBOutput
+     * @param bigEndian Whether the count is big endian
+     * @return The count
+     */
+    private static int putCount(WKBInput input, WKBOutput output, boolean bigEndian) {
+        input.require(4);
+        int count = input.getInt(input.position, bigEndian);
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid count! " + count);
+        }
+        input.position += 4;
+        output.putInt(count);
+        return count;
+    }
+
+    /**
+     * Copy Coordinates and drop Z or M values
+     * @param input The WKBInput
+     * @param output The WKBOutput
+     * @param numberOfCoordinates The number of Coordinates
+     * @param hasZ Whether the Coordinates have Z values
+     * @param hasM Whether the Coordinates have M values
+     * @param bigEndian Whether the Coordinates are big endian
+     */
+    private void putCoordinates(WKBInput input, WKBOutput output, int numberOfCoordinates, boolean hasZ, boolean hasM, boolean bigEndian) {
+        int stride = 2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0);
+        input.require((long) numberOfCoordinates * stride * 8);
+        boolean writeZ = hasZ && !dropZ;
+        boolean writeM = hasM && !dropM;
+        int position = input.position;
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            output.putDouble(input.getDouble(position, bigEndian));
+            output.putDouble(input.getDouble(position + 8, bigEndian));
+            position += 16;
+            if (hasZ) {
+                if (writeZ) {
+                    output.putDouble(input.getDouble(position, bigEndian));
+                }
+                position += 8;
+            }
+            if (hasM) {
+                if (writeM) {
+                    output.putDouble(input.getDouble(position, bigEndian));
+                }
+                position += 8;
+            }
+        }
+        input.position = position;
+    }
+
+    /**
+     * A Builder for WKBTranscoders.  By default the bytes are copied as EWKB, which keeps every flag and SRID,
+     * and each header keeps its byte order.
+     */
+    public static class Builder {
+
+        private Type wkbType = Type.EWKB;
+
+        private Endian endian;
+
+        private Integer srid;
+
+        private boolean stripSrid;
+
+        private boolean dropZ;
+
+        private boolean dropM;
+
+        /**
+         * Set the WKB Type.  Type.WKB removes all flags and SRIDs.
+         * @param wkbType The WKB.Type
+         * @return This Builder
+         */
+        public Builder type(Type wkbType) {
+            this.wkbType = wkbType;
+            return this;
+        }
+
+        /**
+         * Set the byte order of every header and value
+         * @param endian The WKB.Endian
+         * @return This Builder
+         */
+        public Builder endian(Endian endian) {
+            this.endian = endian;
+            return this;
+        }
+
+        /**
+         * Set the SRID of the top level Geometry
+         * @param srid The SRID
+         * @return This Builder
+         */
+        public Builder srid(int srid) {
+            this.srid = srid;
+            return this;
+        }
+
+        /**
+         * Remove all SRIDs except one set by {@link #srid(int)}
+         * @return This Builder
+         */
+        public Builder stripSrid() {
+            this.stripSrid = true;
+            return this;
+        }
+
+        /**
+         * Drop the Z values
+         * @return This Builder
+         */
+        public Builder dropZ() {
+            this.dropZ = true;
+            return this;
+        }
+
+        /**
+         * Drop the M values
+         * @return This Builder
+         */
+        public Builder dropM() {
+            this.dropM = true;
+            return this;
+        }
+
+        /**
+         * Build the WKBTranscoder
+         * @return A WKBTranscoder
+         */
+        public WKBTranscoder build() {
+            return new WKBTranscoder(this);
+        }
+    }
+
+}
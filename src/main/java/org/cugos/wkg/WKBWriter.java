@@ -5,9 +5,13 @@ import org.cugos.wkg.WKB.GeometryType;
 import org.cugos.wkg.WKB.GeometryTypeFlag;
 import org.cugos.wkg.WKB.Type;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.List;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * A Well Known Binary Writer.
@@ -15,6 +19,21 @@ import java.util.List;
  */
 public class WKBWriter implements Writer<byte[]> {
 
+    /**
+     * The number of bytes in the staging buffer used to write to streams and channels
+     */
+    private static final int STAGING_BUFFER_SIZE = 8192;
+
+    /**
+     * The staging buffer of each thread used to write to streams and channels
+     */
+    private static final ThreadLocal<ByteBuffer> STAGING_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(STAGING_BUFFER_SIZE));
+
+    /**
+     * The GeometryVisitor that calculates the number of bytes of a Geometry
+     */
+    private final GeometryVisitor<Integer> numberOfBytesVisitor = new NumberOfBytesVisitor();
+
     /**
      * The WKB Type (WKB or EWKB)
      */
@@ -48,7 +67,38 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A WKB hex String
      */
     public String writeToHex(Geometry geometry) {
-        return toHex(write(geometry));
+        return ByteCodec.encodeHex(write(geometry));
+    }
+
+    /**
+     * Write the Geometry as hex to an Appendable
+     * @param geometry The Geometry
+     * @param appendable The Appendable
+     * @throws IOException if there is an error appending
+     */
+    public void writeToHex(Geometry geometry, Appendable appendable) throws IOException {
+        byte[] bytes = write(geometry);
+        ByteCodec.encodeHex(bytes, 0, bytes.length, appendable);
+    }
+
+    /**
+     * Write the Geometry to a Base64 String
+     * @param geometry The Geometry
+     * @return A Base64 String
+     */
+    public String writeToBase64(Geometry geometry) {
+        return ByteCodec.encodeBase64(write(geometry));
+    }
+
+    /**
+     * Write the Geometry as Base64 to an Appendable
+     * @param geometry The Geometry
+     * @param appendable The Appendable
+     * @throws IOException if there is an error appending
+     */
+    public void writeToBase64(Geometry geometry, Appendable appendable) throws IOException {
+        byte[] bytes = write(geometry);
+        ByteCodec.encodeBase64(bytes, 0, bytes.length, appendable);
     }
 
     /**
@@ -58,40 +108,70 @@ public class WKBWriter implements Writer<byte[]> {
      */
     @Override
     public byte[] write(Geometry g) {
-        if (g instanceof Point) {
-            return write((Point) g);
-        } else if (g instanceof LineString) {
-            return write((LineString) g);
-        } else if (g instanceof LinearRing) {
-            return write((LinearRing) g);
-        } else if (g instanceof Triangle) {
-            return write((Triangle) g);
-        } else if (g instanceof Polygon) {
-            return write((Polygon) g);
-        } else if (g instanceof MultiPoint) {
-            return write((MultiPoint) g);
-        } else if (g instanceof MultiLineString) {
-            return write((MultiLineString) g);
-        } else if (g instanceof MultiPolygon) {
-            return write((MultiPolygon) g);
-        } else if (g instanceof GeometryCollection) {
-            return write((GeometryCollection) g);
-        } else if (g instanceof CircularString) {
-            return write((CircularString) g);
-        } else if (g instanceof CurvePolygon) {
-            return write((CurvePolygon) g);
-        } else if (g instanceof CompoundCurve) {
-            return write((CompoundCurve) g);
-        } else if (g instanceof MultiCurve) {
-            return write((MultiCurve) g);
-        } else if (g instanceof PolyHedralSurface) {
-            return write((PolyHedralSurface) g);
-        } else if (g instanceof MultiSurface) {
-            return write((MultiSurface) g);
-        } else if (g instanceof Tin) {
-            return write((Tin) g);
-        } else {
-            throw new IllegalArgumentException("Unsupported Geometry! " + g.getClass().getName());
+        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(g));
+        putGeometry(WKBOutput.of(buffer), g);
+        return buffer.array();
+    }
+
+    /**
+     * Write a Geometry into a ByteBuffer, which may be a direct ByteBuffer, in a single pass.  The bytes
+     * are written at the ByteBuffer's position which is moved past them, and the ByteBuffer's byte order
+     * is left as it was.
+     * @param g The Geometry
+     * @param buffer The ByteBuffer
+     * @throws BufferOverflowException if the Geometry does not fit.  The position is not moved when the
+     * Geometry does not fit or can not be written.
+     */
+    public void write(Geometry g, ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        int position = buffer.position();
+        try {
+            putGeometry(WKBOutput.of(buffer), g);
+        } catch (RuntimeException e) {
+            buffer.position(position);
+            throw e;
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    /**
+     * Write a Geometry to an OutputStream in a single pass through a small staging buffer that is reused
+     * by the thread.  The OutputStream is not flushed or closed.
+     * @param g The Geometry
+     * @param outputStream The OutputStream
+     * @throws IOException if there is an error writing
+     */
+    public void write(Geometry g, OutputStream outputStream) throws IOException {
+        write(g, new WKBOutput.StreamOutput(STAGING_BUFFER.get(), outputStream));
+    }
+
+    /**
+     * Write a Geometry to a WritableByteChannel in a single pass through a small staging buffer that is
+     * reused by the thread.  The WritableByteChannel is not closed.
+     * @param g The Geometry
+     * @param channel The WritableByteChannel
+     * @throws IOException if there is an error writing
+     */
+    public void write(Geometry g, WritableByteChannel channel) throws IOException {
+        write(g, new WKBOutput.ChannelOutput(STAGING_BUFFER.get(), channel));
+    }
+
+    /**
+     * Write a Geometry to a staging WKBOutput and drain whatever is left in the staging buffer
+     * @param g The Geometry
+     * @param output The WKBOutput
+     * @throws IOException if there is an error writing
+     */
+    private void write(Geometry g, WKBOutput output) throws IOException {
+        output.buffer.clear();
+        try {
+            putGeometry(output, g);
+            output.drain();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            output.buffer.clear();
         }
     }
 
@@ -106,41 +186,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return The number of bytes necessary for the given Geometry
      */
     protected int calculateNumberOfBytes(Geometry g) {
-        if (g instanceof Point) {
-            return calculateNumberOfBytes((Point) g);
-        } else if (g instanceof LineString) {
-            return calculateNumberOfBytes((LineString) g);
-        } else if (g instanceof LinearRing) {
-            return calculateNumberOfBytes((LinearRing) g);
-        } else if (g instanceof Triangle) {
-            return calculateNumberOfBytes((Triangle) g);
-        } else if (g instanceof Polygon) {
-            return calculateNumberOfBytes((Polygon) g);
-        } else if (g instanceof MultiPoint) {
-            return calculateNumberOfBytes((MultiPoint) g);
-        } else if (g instanceof MultiLineString) {
-            return calculateNumberOfBytes((MultiLineString) g);
-        } else if (g instanceof MultiPolygon) {
-            return calculateNumberOfBytes((MultiPolygon) g);
-        } else if (g instanceof GeometryCollection) {
-            return calculateNumberOfBytes((GeometryCollection) g);
-        } else if (g instanceof CircularString) {
-            return calculateNumberOfBytes((CircularString) g);
-        } else if (g instanceof CompoundCurve) {
-            return calculateNumberOfBytes((CompoundCurve) g);
-        }  else if (g instanceof CurvePolygon) {
-            return calculateNumberOfBytes((CurvePolygon) g);
-        } else if (g instanceof MultiCurve) {
-            return calculateNumberOfBytes((MultiCurve) g);
-        } else if (g instanceof PolyHedralSurface) {
-            return calculateNumberOfBytes((PolyHedralSurface) g);
-        } else if (g instanceof MultiSurface) {
-            return calculateNumberOfBytes((MultiSurface) g);
-        } else if (g instanceof Tin) {
-            return calculateNumberOfBytes((Tin) g);
-        } else {
-            throw new IllegalArgumentException("Unsupported Geometry! " + g.getClass().getName());
-        }
+        return g.accept(numberOfBytesVisitor);
     }
 
     /**
@@ -149,41 +195,19 @@ public class WKBWriter implements Writer<byte[]> {
      * @param g The Geometry
      */
     protected void putGeometry(ByteBuffer buffer, Geometry g) {
-        if (g instanceof Point) {
-            putPoint(buffer, (Point) g);
-        } else if (g instanceof LineString) {
-            putLineString(buffer, (LineString) g);
-        } else if (g instanceof LinearRing) {
-            putLinearRing(buffer, (LinearRing) g);
-        } else if (g instanceof Triangle) {
-            putTriangle(buffer, (Triangle) g);
-        } else if (g instanceof Polygon) {
-            putPolygon(buffer, (Polygon) g);
-        } else if (g instanceof MultiPoint) {
-            putMultiPoint(buffer, (MultiPoint) g);
-        } else if (g instanceof MultiLineString) {
-            putMultiLineString(buffer, (MultiLineString) g);
-        } else if (g instanceof MultiPolygon) {
-            putMultiPolygon(buffer, (MultiPolygon) g);
-        } else if (g instanceof GeometryCollection) {
-            putGeometryCollection(buffer, (GeometryCollection) g);
-        } else if (g instanceof CircularString) {
-            putCircularString(buffer, (CircularString) g);
-        } else if (g instanceof CompoundCurve) {
-            putCompoundCurve(buffer, (CompoundCurve) g);
-        }  else if (g instanceof CurvePolygon) {
-            putCurvePolygon(buffer, (CurvePolygon) g);
-        } else if (g instanceof MultiCurve) {
-           putMultiCurve(buffer, (MultiCurve) g);
-        } else if (g instanceof PolyHedralSurface) {
-            putPolyHedralSurface(buffer, (PolyHedralSurface) g);
-        } else if (g instanceof MultiSurface) {
-            putMultiSurface(buffer, (MultiSurface) g);
-        } else if (g instanceof Tin) {
-            putTin(buffer, (Tin) g);
-        } else {
-            throw new IllegalArgumentException("Unsupported Geometry! " + g.getClass().getName());
+        putGeometry(WKBOutput.of(buffer), g);
+    }
+
+    /**
+     * Write the Geometry into the WKBOutput
+     * @param output The WKBOutput
+     * @param g The Geometry
+     */
+    private void putGeometry(WKBOutput output, Geometry g) {
+        if (output.visitor == null) {
+            output.visitor = new PutVisitor(output);
         }
+        g.accept(output.visitor);
     }
 
     /**
@@ -229,26 +253,26 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the byte order into the ByteBuffer and order the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the byte order into the WKBOutput and order the values that follow
+     * @param output The WKBOutput
      */
-    private void putByteOrder(ByteBuffer buffer) {
+    private void putByteOrder(WKBOutput output) {
         if (endian == Endian.Big) {
-            buffer.order(ByteOrder.BIG_ENDIAN);
+            output.order(ByteOrder.BIG_ENDIAN);
         } else {
-            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            output.order(ByteOrder.LITTLE_ENDIAN);
         }
-        buffer.put((byte) endian.getValue());
+        output.putByte((byte) endian.getValue());
     }
 
     /**
-     * Write the geometry type into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the geometry type into the WKBOutput
+     * @param output The WKBOutput
      * @param geometryType The WKB.GeometryType
      * @param dimension The Dimension
      * @param srid The SRID
      */
-    private void putGeometryType(ByteBuffer buffer, GeometryType geometryType, Dimension dimension, String srid) {
+    private void putGeometryType(WKBOutput output, GeometryType geometryType, Dimension dimension, String srid) {
         int b = geometryType.getValue();
         if (wkbType == Type.EWKB) {
             if (dimension == Dimension.Three || dimension == Dimension.ThreeMeasured) {
@@ -261,46 +285,56 @@ public class WKBWriter implements Writer<byte[]> {
                 b = b | GeometryTypeFlag.SRID.getValue();
             }
         }
-        buffer.putInt(b);
+        output.putInt(b);
     }
 
     /**
-     * Write an SRID into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write an SRID into the WKBOutput
+     * @param output The WKBOutput
      * @param srid The SRID
      */
-    private void putSrid(ByteBuffer buffer, String srid) {
+    private void putSrid(WKBOutput output, String srid) {
         if (wkbType == Type.EWKB && srid != null) {
-            buffer.putInt(Integer.parseInt(srid));
+            output.putInt(Integer.parseInt(srid));
         }
     }
 
     /**
-     * Write a Coordinate into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write a Coordinate into the WKBOutput
+     * @param output The WKBOutput
      * @param coord The Coordinates
      */
-    private void putCoordinate(ByteBuffer buffer, Coordinate coord) {
+    private void putCoordinate(WKBOutput output, Coordinate coord) {
         Dimension dimension = coord.getDimension();
-        buffer.putDouble(coord.getX());
-        buffer.putDouble(coord.getY());
+        output.putDouble(coord.getX());
+        output.putDouble(coord.getY());
         if (dimension == Dimension.Three || dimension == Dimension.ThreeMeasured) {
-            buffer.putDouble(coord.getZ());
+            output.putDouble(coord.getZ());
         }
         if (dimension == Dimension.TwoMeasured || dimension == Dimension.ThreeMeasured) {
-            buffer.putDouble(coord.getM());
+            output.putDouble(coord.getM());
         }
     }
 
     /**
-     * Write a List of Coordinates into the ByteBuffer
-     * @param buffer The ByteBuffer
-     * @param coords The List of Coordinates
+     * Write the packed ordinates of a CoordinateSequence into the WKBOutput without creating Coordinates
+     * @param output The WKBOutput
+     * @param coords The CoordinateSequence
      */
-    private void putCoordinates(ByteBuffer buffer, List<Coordinate> coords) {
-        buffer.putInt(coords.size());
-        for(Coordinate coord : coords) {
-            putCoordinate(buffer, coord);
+    private void putCoordinates(WKBOutput output, CoordinateSequence coords) {
+        int size = coords.size();
+        output.putInt(size);
+        for (int i = 0; i < size; i++) {
+            output.putDouble(coords.getX(i));
+            output.putDouble(coords.getY(i));
+            double z = coords.getZ(i);
+            if (!Double.isNaN(z)) {
+                output.putDouble(z);
+            }
+            double m = coords.getM(i);
+            if (!Double.isNaN(m)) {
+                output.putDouble(m);
+            }
         }
     }
 
@@ -312,7 +346,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(Point point) {
-        return toHex(write(point));
+        return ByteCodec.encodeHex(write(point));
     }
 
     /**
@@ -322,7 +356,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(Point point) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(point));
-        putPoint(buffer, point);
+        putPoint(WKBOutput.of(buffer), point);
         return buffer.array();
     }
 
@@ -337,16 +371,16 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the Point into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the Point into the WKBOutput
+     * @param output The WKBOutput
      * @param point The Point
      */
-    private void putPoint(ByteBuffer buffer, Point point) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.Point, point.getDimension(), point.getSrid());
-        putSrid(buffer, point.getSrid());
+    private void putPoint(WKBOutput output, Point point) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.Point, point.getDimension(), point.getSrid());
+        putSrid(output, point.getSrid());
         if (!point.isEmpty()) {
-            putCoordinate(buffer, point.getCoordinate());
+            putCoordinate(output, point.getCoordinate());
         }
     }
 
@@ -358,7 +392,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(LinearRing linearRing) {
-        return toHex(write(linearRing));
+        return ByteCodec.encodeHex(write(linearRing));
     }
 
     /**
@@ -368,7 +402,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(LinearRing linearRing) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(linearRing));
-        putLineString(buffer, linearRing);
+        putLineString(WKBOutput.of(buffer), linearRing);
         return buffer.array();
     }
 
@@ -383,17 +417,15 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the LinearRing into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the LinearRing into the WKBOutput
+     * @param output The WKBOutput
      * @param linearRing The LinearRing
      */
-    private void putLinearRing(ByteBuffer buffer, LinearRing linearRing) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.LineString, linearRing.getDimension(), linearRing.getSrid());
-        putSrid(buffer, linearRing.getSrid());
-        if (!linearRing.isEmpty()) {
-            putCoordinates(buffer, linearRing.getCoordinates());
-        }
+    private void putLinearRing(WKBOutput output, LinearRing linearRing) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.LineString, linearRing.getDimension(), linearRing.getSrid());
+        putSrid(output, linearRing.getSrid());
+        putCoordinates(output, linearRing.getCoordinateSequence());
     }
 
     // LineString
@@ -404,7 +436,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(LineString lineString) {
-        return toHex(write(lineString));
+        return ByteCodec.encodeHex(write(lineString));
     }
 
     /**
@@ -414,7 +446,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(LineString lineString) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(lineString));
-        putLineString(buffer, lineString);
+        putLineString(WKBOutput.of(buffer), lineString);
         return buffer.array();
     }
 
@@ -429,17 +461,15 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the LineString into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the LineString into the WKBOutput
+     * @param output The WKBOutput
      * @param lineString The LineString
      */
-    private void putLineString(ByteBuffer buffer, LineString lineString) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.LineString, lineString.getDimension(), lineString.getSrid());
-        putSrid(buffer, lineString.getSrid());
-        if (!lineString.isEmpty()) {
-            putCoordinates(buffer, lineString.getCoordinates());
-        }
+    private void putLineString(WKBOutput output, LineString lineString) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.LineString, lineString.getDimension(), lineString.getSrid());
+        putSrid(output, lineString.getSrid());
+        putCoordinates(output, lineString.getCoordinateSequence());
     }
 
     // Polygon
@@ -450,7 +480,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(Polygon polygon) {
-        return toHex(write(polygon));
+        return ByteCodec.encodeHex(write(polygon));
     }
 
     /**
@@ -460,7 +490,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(Polygon polygon) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(polygon));
-        putPolygon(buffer, polygon);
+        putPolygon(WKBOutput.of(buffer), polygon);
         return buffer.array();
     }
 
@@ -481,25 +511,25 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the Polygon into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the Polygon into the WKBOutput
+     * @param output The WKBOutput
      * @param polygon The Polygon
      */
-    private void putPolygon(ByteBuffer buffer, Polygon polygon) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.Polygon, polygon.getDimension(), polygon.getSrid());
-        putSrid(buffer, polygon.getSrid());
+    private void putPolygon(WKBOutput output, Polygon polygon) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.Polygon, polygon.getDimension(), polygon.getSrid());
+        putSrid(output, polygon.getSrid());
         // Number of Rings
         int numberOfRings = 0;
         if (!polygon.isEmpty()) {
             numberOfRings = 1 + polygon.getInnerLinearRings().size();
         }
-        buffer.putInt(numberOfRings);
+        output.putInt(numberOfRings);
         // Rings
         if (!polygon.isEmpty()) {
-            putCoordinates(buffer, polygon.getOuterLinearRing().getCoordinates());
+            putCoordinates(output, polygon.getOuterLinearRing().getCoordinateSequence());
             for(LinearRing ring : polygon.getInnerLinearRings()) {
-                putCoordinates(buffer, ring.getCoordinates());
+                putCoordinates(output, ring.getCoordinateSequence());
             }
         }
     }
@@ -512,7 +542,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(MultiPoint multiPoint) {
-        return toHex(write(multiPoint));
+        return ByteCodec.encodeHex(write(multiPoint));
     }
 
     /**
@@ -522,7 +552,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(MultiPoint multiPoint) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(multiPoint));
-        putMultiPoint(buffer, multiPoint);
+        putMultiPoint(WKBOutput.of(buffer), multiPoint);
         return buffer.array();
     }
 
@@ -540,18 +570,18 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the MultiPoint into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the MultiPoint into the WKBOutput
+     * @param output The WKBOutput
      * @param multiPoint The MultiPoint
      */
-    private void putMultiPoint(ByteBuffer buffer, MultiPoint multiPoint) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.MultiPoint, multiPoint.getDimension(), multiPoint.getSrid());
-        putSrid(buffer, multiPoint.getSrid());
-        buffer.putInt(multiPoint.getNumberOfCoordinates());
+    private void putMultiPoint(WKBOutput output, MultiPoint multiPoint) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.MultiPoint, multiPoint.getDimension(), multiPoint.getSrid());
+        putSrid(output, multiPoint.getSrid());
+        output.putInt(multiPoint.getNumberOfCoordinates());
         if (!multiPoint.isEmpty()) {
             for (Point pt : multiPoint.getPoints()) {
-                putPoint(buffer, pt);
+                putPoint(output, pt);
             }
         }
     }
@@ -564,7 +594,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(MultiLineString multiLineString) {
-        return toHex(write(multiLineString));
+        return ByteCodec.encodeHex(write(multiLineString));
     }
 
     /**
@@ -574,7 +604,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(MultiLineString multiLineString) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(multiLineString));
-        putMultiLineString(buffer, multiLineString);
+        putMultiLineString(WKBOutput.of(buffer), multiLineString);
         return buffer.array();
     }
 
@@ -592,18 +622,18 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the MultiLineString into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the MultiLineString into the WKBOutput
+     * @param output The WKBOutput
      * @param multiLineString The MultiLineString
      */
-    private void putMultiLineString(ByteBuffer buffer, MultiLineString multiLineString) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.MultiLineString, multiLineString.getDimension(), multiLineString.getSrid());
-        putSrid(buffer, multiLineString.getSrid());
-        buffer.putInt(multiLineString.getLineStrings().size());
+    private void putMultiLineString(WKBOutput output, MultiLineString multiLineString) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.MultiLineString, multiLineString.getDimension(), multiLineString.getSrid());
+        putSrid(output, multiLineString.getSrid());
+        output.putInt(multiLineString.getLineStrings().size());
         if (!multiLineString.isEmpty()) {
             for (LineString lineString : multiLineString.getLineStrings()) {
-                putLineString(buffer, lineString);
+                putLineString(output, lineString);
             }
         }
     }
@@ -616,7 +646,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(MultiPolygon multiPolygon) {
-        return toHex(write(multiPolygon));
+        return ByteCodec.encodeHex(write(multiPolygon));
     }
 
     /**
@@ -626,7 +656,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(MultiPolygon multiPolygon) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(multiPolygon));
-        putMultiPolygon(buffer, multiPolygon);
+        putMultiPolygon(WKBOutput.of(buffer), multiPolygon);
         return buffer.array();
     }
 
@@ -644,18 +674,18 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the MultiPolygon into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the MultiPolygon into the WKBOutput
+     * @param output The WKBOutput
      * @param multiPolygon The MultiPolygon
      */
-    private void putMultiPolygon(ByteBuffer buffer, MultiPolygon multiPolygon) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.MultiPolygon, multiPolygon.getDimension(), multiPolygon.getSrid());
-        putSrid(buffer, multiPolygon.getSrid());
-        buffer.putInt(multiPolygon.getPolygons().size());
+    private void putMultiPolygon(WKBOutput output, MultiPolygon multiPolygon) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.MultiPolygon, multiPolygon.getDimension(), multiPolygon.getSrid());
+        putSrid(output, multiPolygon.getSrid());
+        output.putInt(multiPolygon.getPolygons().size());
         if (!multiPolygon.isEmpty()) {
             for (Polygon polygon: multiPolygon.getPolygons()) {
-                putPolygon(buffer, polygon);
+                putPolygon(output, polygon);
             }
         }
     }
@@ -668,7 +698,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(GeometryCollection geometryCollection) {
-        return toHex(write(geometryCollection));
+        return ByteCodec.encodeHex(write(geometryCollection));
     }
 
     /**
@@ -678,7 +708,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(GeometryCollection geometryCollection) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(geometryCollection));
-        putGeometryCollection(buffer, geometryCollection);
+        putGeometryCollection(WKBOutput.of(buffer), geometryCollection);
         return buffer.array();
     }
 
@@ -696,18 +726,18 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the GeometryCollection into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the GeometryCollection into the WKBOutput
+     * @param output The WKBOutput
      * @param geometryCollection The GeometryCollection
      */
-    private void putGeometryCollection(ByteBuffer buffer, GeometryCollection geometryCollection) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.GeometryCollection, geometryCollection.getDimension(), geometryCollection.getSrid());
-        putSrid(buffer, geometryCollection.getSrid());
-        buffer.putInt(geometryCollection.getGeometries().size());
+    private void putGeometryCollection(WKBOutput output, GeometryCollection geometryCollection) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.GeometryCollection, geometryCollection.getDimension(), geometryCollection.getSrid());
+        putSrid(output, geometryCollection.getSrid());
+        output.putInt(geometryCollection.getGeometries().size());
         if (!geometryCollection.isEmpty()) {
             for (Geometry geometry : geometryCollection.getGeometries()) {
-                putGeometry(buffer, geometry);
+                putGeometry(output, geometry);
             }
         }
     }
@@ -720,7 +750,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(CircularString circularString) {
-        return toHex(write(circularString));
+        return ByteCodec.encodeHex(write(circularString));
     }
 
     /**
@@ -730,7 +760,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(CircularString circularString) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(circularString));
-        putCircularString(buffer, circularString);
+        putCircularString(WKBOutput.of(buffer), circularString);
         return buffer.array();
     }
 
@@ -745,53 +775,15 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the CircularString into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the CircularString into the WKBOutput
+     * @param output The WKBOutput
      * @param circularString The CircularString
      */
-    private void putCircularString(ByteBuffer buffer, CircularString circularString) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.CircularString, circularString.getDimension(), circularString.getSrid());
-        putSrid(buffer, circularString.getSrid());
-        if (!circularString.isEmpty()) {
-            putCoordinates(buffer, circularString.getCoordinates());
-        }
-    }
-
-    // Curve
-
-    /**
-     * Calculate the number of bytes necessary for the Curve
-     * @param curve The GeometryCollection
-     * @return The number of bytes necessary for the Curve
-     */
-    private int calculateNumberOfBytes(Curve curve) {
-        if (curve instanceof LineString) {
-            return calculateNumberOfBytes((LineString) curve);
-        } else if (curve instanceof CircularString) {
-            return calculateNumberOfBytes((CircularString) curve);
-        } else if (curve instanceof CompoundCurve) {
-            return calculateNumberOfBytes((CompoundCurve) curve);
-        } else {
-            throw new IllegalArgumentException("Unsupported Curve! " + curve.getClass().getName());
-        }
-    }
-
-    /**
-     * Write the Curve into the ByteBuffer
-     * @param buffer The ByteBuffer
-     * @param curve The Curve
-     */
-    private void putCurve(ByteBuffer buffer, Curve curve) {
-        if (curve instanceof LineString) {
-            putLineString(buffer, (LineString) curve);
-        } else if (curve instanceof CircularString) {
-            putCircularString(buffer, (CircularString) curve);
-        } else if (curve instanceof CompoundCurve) {
-            putCompoundCurve(buffer, (CompoundCurve) curve);
-        } else {
-            throw new IllegalArgumentException("Unsupported Curve! " + curve.getClass().getName());
-        }
+    private void putCircularString(WKBOutput output, CircularString circularString) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.CircularString, circularString.getDimension(), circularString.getSrid());
+        putSrid(output, circularString.getSrid());
+        putCoordinates(output, circularString.getCoordinateSequence());
     }
 
     // CompoundCurve
@@ -802,7 +794,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(CompoundCurve compoundCurve) {
-        return toHex(write(compoundCurve));
+        return ByteCodec.encodeHex(write(compoundCurve));
     }
 
     /**
@@ -812,7 +804,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(CompoundCurve compoundCurve) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(compoundCurve));
-        putCompoundCurve(buffer, compoundCurve);
+        putCompoundCurve(WKBOutput.of(buffer), compoundCurve);
         return buffer.array();
     }
 
@@ -830,18 +822,18 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the CompoundCurve into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the CompoundCurve into the WKBOutput
+     * @param output The WKBOutput
      * @param compoundCurve The CompoundCurve
      */
-    private void putCompoundCurve(ByteBuffer buffer, CompoundCurve compoundCurve) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.CompoundCurve, compoundCurve.getDimension(), compoundCurve.getSrid());
-        putSrid(buffer, compoundCurve.getSrid());
-        buffer.putInt(compoundCurve.getCurves().size());
+    private void putCompoundCurve(WKBOutput output, CompoundCurve compoundCurve) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.CompoundCurve, compoundCurve.getDimension(), compoundCurve.getSrid());
+        putSrid(output, compoundCurve.getSrid());
+        output.putInt(compoundCurve.getCurves().size());
         if (!compoundCurve.isEmpty()) {
             for (Curve curve : compoundCurve.getCurves()) {
-                putCurve(buffer, curve);
+                putGeometry(output, curve);
             }
         }
     }
@@ -854,7 +846,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(CurvePolygon curvePolygon) {
-        return toHex(write(curvePolygon));
+        return ByteCodec.encodeHex(write(curvePolygon));
     }
 
     /**
@@ -864,7 +856,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(CurvePolygon curvePolygon) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(curvePolygon));
-        putCurvePolygon(buffer, curvePolygon);
+        putCurvePolygon(WKBOutput.of(buffer), curvePolygon);
         return buffer.array();
     }
 
@@ -883,23 +875,23 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the CurvePolygon into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the CurvePolygon into the WKBOutput
+     * @param output The WKBOutput
      * @param curvePolygon The CurvePolygon
      */
-    private void putCurvePolygon(ByteBuffer buffer, CurvePolygon curvePolygon) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.CurvePolygon, curvePolygon.getDimension(), curvePolygon.getSrid());
-        putSrid(buffer, curvePolygon.getSrid());
+    private void putCurvePolygon(WKBOutput output, CurvePolygon curvePolygon) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.CurvePolygon, curvePolygon.getDimension(), curvePolygon.getSrid());
+        putSrid(output, curvePolygon.getSrid());
         int numberOfCurves = 0;
         if (!curvePolygon.isEmpty()) {
             numberOfCurves += 1 + curvePolygon.getInnerCurves().size();
         }
-        buffer.putInt(numberOfCurves);
+        output.putInt(numberOfCurves);
         if (!curvePolygon.isEmpty()) {
-            putCurve(buffer, curvePolygon.getOuterCurve());
+            putGeometry(output, curvePolygon.getOuterCurve());
             for (Curve curve : curvePolygon.getInnerCurves()) {
-                putCurve(buffer, curve);
+                putGeometry(output, curve);
             }
         }
     }
@@ -912,7 +904,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(MultiCurve multiCurve) {
-        return toHex(write(multiCurve));
+        return ByteCodec.encodeHex(write(multiCurve));
     }
 
     /**
@@ -922,7 +914,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(MultiCurve multiCurve) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(multiCurve));
-        putMultiCurve(buffer, multiCurve);
+        putMultiCurve(WKBOutput.of(buffer), multiCurve);
         return buffer.array();
     }
 
@@ -940,66 +932,22 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the MultiCurve into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the MultiCurve into the WKBOutput
+     * @param output The WKBOutput
      * @param multiCurve The MultiCurve
      */
-    private void putMultiCurve(ByteBuffer buffer, MultiCurve multiCurve) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.MultiCurve, multiCurve.getDimension(), multiCurve.getSrid());
-        putSrid(buffer, multiCurve.getSrid());
-        buffer.putInt(multiCurve.getCurves().size());
+    private void putMultiCurve(WKBOutput output, MultiCurve multiCurve) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.MultiCurve, multiCurve.getDimension(), multiCurve.getSrid());
+        putSrid(output, multiCurve.getSrid());
+        output.putInt(multiCurve.getCurves().size());
         if (!multiCurve.isEmpty()) {
             for (Curve curve : multiCurve.getCurves()) {
-                putCurve(buffer, curve);
+                putGeometry(output, curve);
             }
         }
     }
 
-    // Surface
-
-    /**
-     * Calculate the number of bytes necessary for the Surface
-     * @param surface The Surface
-     * @return The number of bytes necessary for the Surface
-     */
-    private int calculateNumberOfBytes(Surface surface) {
-        if (surface instanceof Triangle) {
-            return calculateNumberOfBytes((Triangle) surface);
-        } else if (surface instanceof Polygon) {
-            return calculateNumberOfBytes((Polygon) surface);
-        } else if (surface instanceof PolyHedralSurface) {
-            return calculateNumberOfBytes((PolyHedralSurface) surface);
-        } else if (surface instanceof Tin) {
-            return calculateNumberOfBytes((Tin) surface);
-        } else if (surface instanceof CurvePolygon) {
-            return calculateNumberOfBytes((CurvePolygon) surface);
-        } else {
-            throw new IllegalArgumentException("Unknown Surface: " + surface.getClass().getName());
-        }
-    }
-
-    /**
-     * Write the Surface into the ByteBuffer
-     * @param buffer The ByteBuffer
-     * @param surface The Surface
-     */
-    private void putSurface(ByteBuffer buffer, Surface surface) {
-        if (surface instanceof Triangle) {
-            putTriangle(buffer, (Triangle) surface);
-        } else if (surface instanceof Polygon) {
-            putPolygon(buffer, (Polygon) surface);
-        } else if (surface instanceof PolyHedralSurface) {
-            putPolyHedralSurface(buffer, (PolyHedralSurface) surface);
-        } else if (surface instanceof Tin) {
-            putTin(buffer, (Tin) surface);
-        } else if (surface instanceof CurvePolygon) {
-            putCurvePolygon(buffer, (CurvePolygon) surface);
-        } else {
-            throw new IllegalArgumentException("Unknown Surface: " + surface.getClass().getName());
-        }
-    }
-
     // MultiSurface
 
     /**
@@ -1008,7 +956,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(MultiSurface multiSurface) {
-        return toHex(write(multiSurface));
+        return ByteCodec.encodeHex(write(multiSurface));
     }
 
     /**
@@ -1018,7 +966,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(MultiSurface multiSurface) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(multiSurface));
-        putMultiSurface(buffer, multiSurface);
+        putMultiSurface(WKBOutput.of(buffer), multiSurface);
         return buffer.array();
     }
 
@@ -1036,18 +984,18 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the MultiSurface into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the MultiSurface into the WKBOutput
+     * @param output The WKBOutput
      * @param multiSurface The MultiSurface
      */
-    private void putMultiSurface(ByteBuffer buffer, MultiSurface multiSurface) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.MultiSurface, multiSurface.getDimension(), multiSurface.getSrid());
-        putSrid(buffer, multiSurface.getSrid());
-        buffer.putInt(multiSurface.getSurfaces().size());
+    private void putMultiSurface(WKBOutput output, MultiSurface multiSurface) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.MultiSurface, multiSurface.getDimension(), multiSurface.getSrid());
+        putSrid(output, multiSurface.getSrid());
+        output.putInt(multiSurface.getSurfaces().size());
         if (!multiSurface.isEmpty()) {
             for (Surface surface : multiSurface.getSurfaces()) {
-                putSurface(buffer, surface);
+                putGeometry(output, surface);
             }
         }
     }
@@ -1060,7 +1008,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(Tin tin) {
-        return toHex(write(tin));
+        return ByteCodec.encodeHex(write(tin));
     }
 
     /**
@@ -1070,7 +1018,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(Tin tin) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(tin));
-        putTin(buffer, tin);
+        putTin(WKBOutput.of(buffer), tin);
         return buffer.array();
     }
 
@@ -1088,18 +1036,18 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the Tin into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the Tin into the WKBOutput
+     * @param output The WKBOutput
      * @param tin The Tin
      */
-    private void putTin(ByteBuffer buffer, Tin tin) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.Tin, tin.getDimension(), tin.getSrid());
-        putSrid(buffer, tin.getSrid());
-        buffer.putInt(tin.getTriangles().size());
+    private void putTin(WKBOutput output, Tin tin) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.Tin, tin.getDimension(), tin.getSrid());
+        putSrid(output, tin.getSrid());
+        output.putInt(tin.getTriangles().size());
         if (!tin.isEmpty()) {
             for(Triangle triangle : tin.getTriangles()) {
-                putTriangle(buffer, triangle);
+                putTriangle(output, triangle);
             }
         }
     }
@@ -1112,7 +1060,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(Triangle triangle) {
-        return toHex(write(triangle));
+        return ByteCodec.encodeHex(write(triangle));
     }
 
     /**
@@ -1122,7 +1070,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(Triangle triangle) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(triangle));
-        putTriangle(buffer, triangle);
+        putTriangle(WKBOutput.of(buffer), triangle);
         return buffer.array();
     }
 
@@ -1143,25 +1091,25 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the Triangle into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the Triangle into the WKBOutput
+     * @param output The WKBOutput
      * @param triangle The Triangle
      */
-    private void putTriangle(ByteBuffer buffer, Triangle triangle) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.Triangle, triangle.getDimension(), triangle.getSrid());
-        putSrid(buffer, triangle.getSrid());
+    private void putTriangle(WKBOutput output, Triangle triangle) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.Triangle, triangle.getDimension(), triangle.getSrid());
+        putSrid(output, triangle.getSrid());
         // Number of Rings
         int numberOfRings = 0;
         if (!triangle.isEmpty()) {
             numberOfRings = 1 + triangle.getInnerLinearRings().size();
         }
-        buffer.putInt(numberOfRings);
+        output.putInt(numberOfRings);
         // Rings
         if (!triangle.isEmpty()) {
-            putCoordinates(buffer, triangle.getOuterLinearRing().getCoordinates());
+            putCoordinates(output, triangle.getOuterLinearRing().getCoordinateSequence());
             for(LinearRing ring : triangle.getInnerLinearRings()) {
-                putCoordinates(buffer, ring.getCoordinates());
+                putCoordinates(output, ring.getCoordinateSequence());
             }
         }
     }
@@ -1174,7 +1122,7 @@ public class WKBWriter implements Writer<byte[]> {
      * @return A hex String
      */
     public String writeToHex(PolyHedralSurface polyHedralSurface) {
-        return toHex(write(polyHedralSurface));
+        return ByteCodec.encodeHex(write(polyHedralSurface));
     }
 
     /**
@@ -1184,7 +1132,7 @@ public class WKBWriter implements Writer<byte[]> {
      */
     public byte[] write(PolyHedralSurface polyHedralSurface) {
         ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(polyHedralSurface));
-        putPolyHedralSurface(buffer, polyHedralSurface);
+        putPolyHedralSurface(WKBOutput.of(buffer), polyHedralSurface);
         return buffer.array();
     }
 
@@ -1202,39 +1150,206 @@ public class WKBWriter implements Writer<byte[]> {
     }
 
     /**
-     * Write the PolyhedralSurface into the ByteBuffer
-     * @param buffer The ByteBuffer
+     * Write the PolyhedralSurface into the WKBOutput
+     * @param output The WKBOutput
      * @param polyHedralSurface The PolyhedralSurface
      */
-    private void putPolyHedralSurface(ByteBuffer buffer, PolyHedralSurface polyHedralSurface) {
-        putByteOrder(buffer);
-        putGeometryType(buffer, GeometryType.PolyHedralSurface, polyHedralSurface.getDimension(), polyHedralSurface.getSrid());
-        putSrid(buffer, polyHedralSurface.getSrid());
-        buffer.putInt(polyHedralSurface.getPolygons().size());
+    private void putPolyHedralSurface(WKBOutput output, PolyHedralSurface polyHedralSurface) {
+        putByteOrder(output);
+        putGeometryType(output, GeometryType.PolyHedralSurface, polyHedralSurface.getDimension(), polyHedralSurface.getSrid());
+        putSrid(output, polyHedralSurface.getSrid());
+        output.putInt(polyHedralSurface.getPolygons().size());
         if (!polyHedralSurface.isEmpty()) {
             for (Polygon polygon : polyHedralSurface.getPolygons()) {
-                putPolygon(buffer, polygon);
+                putPolygon(output, polygon);
             }
         }
     }
 
     /**
-     * The hex array
+     * A GeometryVisitor that calculates the number of bytes of a Geometry
      */
-    private final static char[] hexArray = "0123456789ABCDEF".toCharArray();
+    private final class NumberOfBytesVisitor implements GeometryVisitor<Integer> {
+
+        @Override
+        public Integer visit(Point point) {
+            return calculateNumberOfBytes(point);
+        }
+
+        @Override
+        public Integer visit(LineString lineString) {
+            return calculateNumberOfBytes(lineString);
+        }
+
+        @Override
+        public Integer visit(Triangle triangle) {
+            return calculateNumberOfBytes(triangle);
+        }
+
+        @Override
+        public Integer visit(Polygon polygon) {
+            return calculateNumberOfBytes(polygon);
+        }
+
+        @Override
+        public Integer visit(MultiPoint multiPoint) {
+            return calculateNumberOfBytes(multiPoint);
+        }
+
+        @Override
+        public Integer visit(MultiLineString multiLineString) {
+            return calculateNumberOfBytes(multiLineString);
+        }
+
+        @Override
+        public Integer visit(MultiPolygon multiPolygon) {
+            return calculateNumberOfBytes(multiPolygon);
+        }
+
+        @Override
+        public Integer visit(GeometryCollection geometryCollection) {
+            return calculateNumberOfBytes(geometryCollection);
+        }
+
+        @Override
+        public Integer visit(CircularString circularString) {
+            return calculateNumberOfBytes(circularString);
+        }
+
+        @Override
+        public Integer visit(CompoundCurve compoundCurve) {
+            return calculateNumberOfBytes(compoundCurve);
+        }
+
+        @Override
+        public Integer visit(CurvePolygon curvePolygon) {
+            return calculateNumberOfBytes(curvePolygon);
+        }
+
+        @Override
+        public Integer visit(MultiCurve multiCurve) {
+            return calculateNumberOfBytes(multiCurve);
+        }
+
+        @Override
+        public Integer visit(MultiSurface multiSurface) {
+            return calculateNumberOfBytes(multiSurface);
+        }
+
+        @Override
+        public Integer visit(PolyHedralSurface polyHedralSurface) {
+            return calculateNumberOfBytes(polyHedralSurface);
+        }
+
+        @Override
+        public Integer visit(Tin tin) {
+            return calculateNumberOfBytes(tin);
+        }
+    }
 
     /**
-     * Convert an array of bytes to a hex String.
-     * @param bytes The array of bytes
-     * @return The hex String
+     * A GeometryVisitor that writes a Geometry into a WKBOutput
      */
-    private static String toHex(byte[] bytes) {
-        char[] hexChars = new char[bytes.length * 2];
-        for (int j = 0; j < bytes.length; j++) {
-            int v = bytes[j] & 0xFF;
-            hexChars[j * 2] = hexArray[v >>> 4];
-            hexChars[j * 2 + 1] = hexArray[v & 0x0F];
+    private final class PutVisitor implements GeometryVisitor<Void> {
+
+        /**
+         * The WKBOutput
+         */
+        private final WKBOutput output;
+
+        PutVisitor(WKBOutput output) {
+            this.output = output;
+        }
+
+        @Override
+        public Void visit(Point point) {
+            putPoint(output, point);
+            return null;
+        }
+
+        @Override
+        public Void visit(LineString lineString) {
+            putLineString(output, lineString);
+            return null;
+        }
+
+        @Override
+        public Void visit(Triangle triangle) {
+            putTriangle(output, triangle);
+            return null;
+        }
+
+        @Override
+        public Void visit(Polygon polygon) {
+            putPolygon(output, polygon);
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiPoint multiPoint) {
+            putMultiPoint(output, multiPoint);
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiLineString multiLineString) {
+            putMultiLineString(output, multiLineString);
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiPolygon multiPolygon) {
+            putMultiPolygon(output, multiPolygon);
+            return null;
+        }
+
+        @Override
+        public Void visit(GeometryCollection geometryCollection) {
+            putGeometryCollection(output, geometryCollection);
+            return null;
+        }
+
+        @Override
+        public Void visit(CircularString circularString) {
+            putCircularString(output, circularString);
+            return null;
+        }
+
+        @Override
+        public Void visit(CompoundCurve compoundCurve) {
+            putCompoundCurve(output, compoundCurve);
+            return null;
+        }
+
+        @Override
+        public Void visit(CurvePolygon curvePolygon) {
+            putCurvePolygon(output, curvePolygon);
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiCurve multiCurve) {
+            putMultiCurve(output, multiCurve);
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiSurface multiSurface) {
+            putMultiSurface(output, multiSurface);
+            return null;
+        }
+
+        @Override
+        public Void visit(PolyHedralSurface polyHedralSurface) {
+            putPolyHedralSurface(output, polyHedralSurface);
+            return null;
+        }
+
+        @Override
+        public Void visit(Tin tin) {
+            putTin(output, tin);
+            return null;
         }
-        return new String(hexChars);
     }
+
 }
@@ -0,0 +1,461 @@
+package org.cugos.wkg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A hand written, single pass recursive descent parser for WKT and EWKT.
+ * <p>
+ * It accepts the same grammar as the ANTLR grammar in the tests (WKT.g4): keywords are upper case,
+ * white space is only spaces and tabs and only allowed where the grammar allows it, and anything after the
+ * Geometry is ignored.  Like the ANTLR listener it keeps one Dimension and one SRID for the whole text.
+ * A dimension or an SRID that appears in a nested Geometry changes them for every Geometry that is finished
+ * after it, and a Coordinate with three or four ordinates turns an XY Dimension into XYZ or XYZM.
+ * The LineStrings and Polygons of CompoundCurves, CurvePolygons, MultiCurves and MultiSurfaces are built
+ * when their parent is finished, after any nested Geometry.
+ * </p>
+ * <p>
+ * Errors are thrown as an IllegalStateException with a "failed to parse at line" message.
+ * A WKTScanner can be reused but is not thread safe.
+ * </p>
+ * @author Jared Erickson
+ */
+final class WKTScanner extends WKTTokenizer {
+
+    /**
+     * The X, Y, Z and M ordinates of the Coordinates of the current run
+     */
+    private double[] ordinates = new double[64];
+
+    /**
+     * The number of Coordinates of the current run
+     */
+    private int numberOfCoordinates;
+
+    /**
+     * Whether a Coordinate of the current run has a Z or an M value
+     */
+    private boolean hasZ, hasM;
+
+    /**
+     * Parse a WKT or EWKT String
+     * @param wkt The WKT
+     * @return The Geometry
+     */
+    Geometry read(String wkt) {
+        char[] chars = wkt.toCharArray();
+        return read(chars, 0, chars.length);
+    }
+
+    /**
+     * Parse a WKT or EWKT Geometry from a range of characters
+     * @param chars The characters
+     * @param offset The index of the first character
+     * @param length The number of characters
+     * @return The Geometry
+     */
+    Geometry read(char[] chars, int offset, int length) {
+        reset(chars, offset, length);
+        return geometry();
+    }
+
+    /**
+     * wkt: srid? keyword ...
+     */
+    private Geometry geometry() {
+        srid();
+        int keyword = keyword();
+        switch (keyword) {
+            case POINT:
+                return point();
+            case LINESTRING:
+                return lineString();
+            case POLYGON:
+                return polygon();
+            case TRIANGLE:
+                return triangle();
+            case MULTIPOINT:
+                return multiPoint();
+            case MULTILINESTRING:
+                return multiLineString();
+            case CIRCULARSTRING:
+                return circularString();
+            case TIN:
+                return tin();
+            case POLYHEDRALSURFACE:
+                return polyHedralSurface();
+            case MULTIPOLYGON:
+                return multiPolygon();
+            case CURVEPOLYGON:
+                return curvePolygon();
+            case COMPOUNDCURVE:
+                return compoundCurve();
+            case MULTICURVE:
+                return multiCurve();
+            case MULTISURFACE:
+                return multiSurface();
+            case GEOMETRYCOLLECTION:
+                return geometryCollection();
+            default:
+                throw error(EXPECTING_GEOMETRY);
+        }
+    }
+
+    private Point point() {
+        if (!header()) {
+            return Point.createEmpty();
+        }
+        coordinate(true);
+        expect(')', "{')', Number, WhiteSpace}");
+        return new Point(new Coordinate(x, y, z, m), dimension, srid);
+    }
+
+    private LineString lineString() {
+        if (!header()) {
+            return LineString.createEmpty();
+        }
+        CoordinateSequence coordinates = coordinates(true);
+        expect(')', "{')', ','}");
+        return new LineString(coordinates, dimension, srid);
+    }
+
+    private CircularString circularString() {
+        if (!header()) {
+            return CircularString.createEmpty();
+        }
+        CoordinateSequence coordinates = coordinates(true);
+        expect(')', "{')', ','}");
+        return new CircularString(coordinates, dimension, srid);
+    }
+
+    private Polygon polygon() {
+        if (!header()) {
+            return Polygon.createEmpty();
+        }
+        Polygon polygon = polygonCoordinates();
+        expect(')', "')'");
+        return polygon;
+    }
+
+    private Triangle triangle() {
+        if (!header()) {
+            return Triangle.createEmpty();
+        }
+        Triangle triangle = triangleCoordinates();
+        expect(')', "')'");
+        return triangle;
+    }
+
+    private MultiPoint multiPoint() {
+        if (!header()) {
+            return MultiPoint.createEmpty();
+        }
+        List<Point> points = new ArrayList<>();
+        if (peek() == '(') {
+            do {
+                expect('(', "'('");
+                points(points);
+                expect(')', "{')', ','}");
+            } while (nextItem(false));
+        } else {
+            points(points);
+        }
+        expect(')', "')'");
+        return new MultiPoint(points, dimension, srid);
+    }
+
+    private MultiLineString multiLineString() {
+        if (!header()) {
+            return MultiLineString.createEmpty();
+        }
+        List<LineString> lineStrings = new ArrayList<>();
+        do {
+            expect('(', "'('");
+            lineStrings.add(new LineString(coordinates(true), dimension, srid));
+            expect(')', "{')', ','}");
+        } while (nextItem(false));
+        expect(')', "')'");
+        return new MultiLineString(lineStrings, dimension, srid);
+    }
+
+    private Tin tin() {
+        if (!header()) {
+            return Tin.createEmpty();
+        }
+        List<Triangle> triangles = new ArrayList<>();
+        do {
+            expect('(', "'('");
+            skipWhiteSpace();
+            triangles.add(triangleCoordinates());
+            skipWhiteSpace();
+            expect(')', "{')', ',', WhiteSpace}");
+        } while (nextItem(false));
+        expect(')', "')'");
+        return new Tin(triangles, dimension, srid);
+    }
+
+    private PolyHedralSurface polyHedralSurface() {
+        if (!header()) {
+            return PolyHedralSurface.createEmpty();
+        }
+        List<Polygon> polygons = polygons();
+        return new PolyHedralSurface(polygons, dimension, srid);
+    }
+
+    private MultiPolygon multiPolygon() {
+        if (!header()) {
+            return MultiPolygon.createEmpty();
+        }
+        List<Polygon> polygons = polygons();
+        return new MultiPolygon(polygons, dimension, srid);
+    }
+
+    private CurvePolygon curvePolygon() {
+        if (!header()) {
+            return CurvePolygon.createEmpty();
+        }
+        List<Object> elements = new ArrayList<>();
+        do {
+            elements.add(curveElement(true));
+        } while (nextItem(false));
+        expect(')', "{')', ','}");
+        List<Curve> curves = curves(elements);
+        return new CurvePolygon(curves.get(0), new ArrayList<>(curves.subList(1, curves.size())), dimension, srid);
+    }
+
+    private CompoundCurve compoundCurve() {
+        if (!header()) {
+            return CompoundCurve.createEmpty();
+        }
+        List<Object> elements = new ArrayList<>();
+        do {
+            elements.add(curveElement(false));
+        } while (nextItem(elements.size() > 1));
+        expect(')', "{')', ',', WhiteSpace}");
+        return new CompoundCurve(curves(elements), dimension, srid);
+    }
+
+    private MultiCurve multiCurve() {
+        if (!header()) {
+            return MultiCurve.createEmpty();
+        }
+        List<Object> elements = new ArrayList<>();
+        do {
+            elements.add(curveElement(true));
+        } while (nextItem(elements.size() > 1));
+        expect(')', "{')', ',', WhiteSpace}");
+        return new MultiCurve(curves(elements), dimension, srid);
+    }
+
+    private MultiSurface multiSurface() {
+        if (!header()) {
+            return MultiSurface.createEmpty();
+        }
+        List<Object> elements = new ArrayList<>();
+        do {
+            if (peek() == '(') {
+                // polygonCoordinates is built when the MultiSurface is finished
+                elements.add(position);
+                position++;
+                skipWhiteSpace();
+                rings(false);
+                skipWhiteSpace();
+                expect(')', "{')', ',', WhiteSpace}");
+            } else {
+                srid();
+                int begin = position;
+                if (keyword() != CURVEPOLYGON) {
+                    position = begin;
+                    throw error("{'(', 'CURVEPOLYGON', 'SRID='}");
+                }
+                elements.add(curvePolygon());
+            }
+        } while (nextItem(elements.size() > 1));
+        expect(')', "{')', ',', WhiteSpace}");
+        List<Surface> surfaces = new ArrayList<>(elements.size());
+        for (Object element : elements) {
+            if (element instanceof Integer) {
+                int next = position;
+                position = (Integer) element + 1;
+                skipWhiteSpace();
+                surfaces.add(polygonCoordinates());
+                position = next;
+            } else {
+                surfaces.add((Surface) element);
+            }
+        }
+        return new MultiSurface(surfaces, dimension, srid);
+    }
+
+    private GeometryCollection geometryCollection() {
+        if (!header()) {
+            return GeometryCollection.createEmpty();
+        }
+        List<Geometry> geometries = new ArrayList<>();
+        do {
+            geometries.add(geometry());
+        } while (nextItem(geometries.size() > 1));
+        expect(')', "{')', ',', WhiteSpace}");
+        return new GeometryCollection(geometries, dimension, srid);
+    }
+
+    /**
+     * Parse an element of a CurvePolygon, CompoundCurve or MultiCurve.  A CircularString or CompoundCurve is
+     * returned as a Curve, and the LineString coordinates as the index of their opening parenthesis.
+     * @param allowCompoundCurve Whether the element can be a CompoundCurve
+     * @return The Curve or the index of the LineString coordinates
+     */
+    private Object curveElement(boolean allowCompoundCurve) {
+        if (peek() == '(') {
+            int index = position;
+            position++;
+            skipWhiteSpace();
+            coordinates(false);
+            expect(')', "{')', ',', WhiteSpace}");
+            return index;
+        }
+        srid();
+        int begin = position;
+        int keyword = keyword();
+        if (keyword == CIRCULARSTRING) {
+            return circularString();
+        } else if (keyword == COMPOUNDCURVE && allowCompoundCurve) {
+            return compoundCurve();
+        }
+        position = begin;
+        throw error(allowCompoundCurve ? "{'(', 'CIRCULARSTRING', 'COMPOUNDCURVE', 'SRID='}" : "{'(', 'CIRCULARSTRING', 'SRID='}");
+    }
+
+    /**
+     * Build the Curves of the parsed elements of a CurvePolygon, CompoundCurve or MultiCurve
+     * @param elements The Curves and the indexes of LineString coordinates
+     * @return The Curves
+     */
+    private List<Curve> curves(List<Object> elements) {
+        List<Curve> curves = new ArrayList<>(elements.size());
+        int next = position;
+        for (Object element : elements) {
+            if (element instanceof Integer) {
+                position = (Integer) element + 1;
+                curves.add(new LineString(coordinates(true), dimension, srid));
+            } else {
+                curves.add((Curve) element);
+            }
+        }
+        position = next;
+        return curves;
+    }
+
+    /**
+     * coordinatesetsset: a parenthesized list of Polygons followed by the closing parenthesis
+     * @return The Polygons
+     */
+    private List<Polygon> polygons() {
+        List<Polygon> polygons = new ArrayList<>();
+        do {
+            expect('(', "'('");
+            skipWhiteSpace();
+            polygons.add(polygonCoordinates());
+            skipWhiteSpace();
+            expect(')', "{')', ',', WhiteSpace}");
+        } while (nextItem(false));
+        expect(')', "')'");
+        return polygons;
+    }
+
+    private Polygon polygonCoordinates() {
+        List<LinearRing> rings = rings(true);
+        return new Polygon(rings.get(0), new ArrayList<>(rings.subList(1, rings.size())), dimension, srid);
+    }
+
+    private Triangle triangleCoordinates() {
+        List<LinearRing> rings = rings(true);
+        return new Triangle(rings.get(0), new ArrayList<>(rings.subList(1, rings.size())), dimension, srid);
+    }
+
+    /**
+     * coordinatesets: one or more parenthesized runs of Coordinates
+     * @param build Whether to build the LinearRings or only check the syntax
+     * @return The LinearRings or null
+     */
+    private List<LinearRing> rings(boolean build) {
+        List<LinearRing> rings = build ? new ArrayList<>() : null;
+        do {
+            expect('(', "'('");
+            CoordinateSequence coordinates = coordinates(build);
+            if (build) {
+                rings.add(new LinearRing(coordinates, dimension, srid));
+            }
+            expect(')', "{')', ','}");
+        } while (nextItem(false));
+        return rings;
+    }
+
+    /**
+     * Parse a run of Coordinates into Points.  Like the ANTLR listener, the Points get the Dimension
+     * after the last Coordinate of the run.
+     * @param points The List of Points to add to
+     */
+    private void points(List<Point> points) {
+        List<Coordinate> coordinates = new ArrayList<>();
+        do {
+            coordinate(true);
+            coordinates.add(new Coordinate(x, y, z, m));
+        } while (consume(','));
+        for (Coordinate coordinate : coordinates) {
+            points.add(new Point(coordinate, dimension, srid));
+        }
+    }
+
+    /**
+     * coordinates: coordinate (WhiteSpace* ',' WhiteSpace* coordinate)*
+     * @param build Whether to build the CoordinateSequence or only check the syntax
+     * @return The CoordinateSequence or null
+     */
+    private CoordinateSequence coordinates(boolean build) {
+        numberOfCoordinates = 0;
+        hasZ = false;
+        hasM = false;
+        do {
+            coordinate(build);
+            if (build) {
+                if (numberOfCoordinates * 4 == ordinates.length) {
+                    ordinates = Arrays.copyOf(ordinates, ordinates.length * 2);
+                }
+                int index = numberOfCoordinates * 4;
+                ordinates[index] = x;
+                ordinates[index + 1] = y;
+                ordinates[index + 2] = z;
+                ordinates[index + 3] = m;
+                numberOfCoordinates++;
+                hasZ |= !Double.isNaN(z);
+                hasM |= !Double.isNaN(m);
+            }
+        } while (consume(','));
+        if (!build) {
+            return null;
+        }
+        Dimension sequenceDimension = hasZ ? (hasM ? Dimension.ThreeMeasured : Dimension.Three) : (hasM ? Dimension.TwoMeasured : Dimension.Two);
+        int stride = CoordinateSequence.getStride(sequenceDimension);
+        double[] packed = new double[numberOfCoordinates * stride];
+        if (stride == 4) {
+            System.arraycopy(ordinates, 0, packed, 0, packed.length);
+        } else {
+            int index = 0;
+            for (int i = 0; i < numberOfCoordinates; i++) {
+                int source = i * 4;
+                packed[index++] = ordinates[source];
+                packed[index++] = ordinates[source + 1];
+                if (hasZ) {
+                    packed[index++] = ordinates[source + 2];
+                }
+                if (hasM) {
+                    packed[index++] = ordinates[source + 3];
+                }
+            }
+        }
+        return CoordinateSequence.wrap(packed, sequenceDimension);
+    }
+
+}
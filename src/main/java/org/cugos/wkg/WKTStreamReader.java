@@ -0,0 +1,646 @@
+package org.cugos.wkg;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read WKT or EWKT Geometries one after another from a java.io.Reader or a file, either one Geometry per line
+ * or from a column of a CSV file.
+ * <p>
+ * Characters are pulled through a fixed size buffer that is refilled as records are read, and each Geometry
+ * is parsed straight out of the buffer, so no String is created per record and memory use does not depend on
+ * the size of the input.  A single record that is larger than the buffer is read into a temporary larger buffer
+ * and the reader goes back to the fixed size buffer afterwards.
+ * </p>
+ * <p>
+ * Records end with \n, \r\n or \r.  Blank records are skipped.  In CSV mode, fields are separated by a delimiter
+ * and can be quoted, a quoted field can contain delimiters and line breaks, and a doubled quote inside a quoted
+ * field is a quote.  White space around the WKT is ignored.  A record that can not be read, because its WKT is
+ * invalid, the column is missing or a quote is not closed, throws an IllegalStateException unless the reader
+ * was built to skip malformed records.
+ * </p>
+ * <p>
+ * Create a WKTStreamReader for one Geometry per line with {@link #WKTStreamReader(java.io.Reader)} and
+ * any other WKTStreamReader with a {@link Builder}.
+ * </p>
+ * @author Jared Erickson
+ */
+public class WKTStreamReader implements Iterator<Geometry>, Closeable {
+
+    /**
+     * The default buffer size
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The java.io.Reader
+     */
+    private final java.io.Reader reader;
+
+    /**
+     * The size of the buffer
+     */
+    private final int bufferSize;
+
+    /**
+     * Whether the records are CSV
+     */
+    private final boolean csv;
+
+    /**
+     * The name of the WKT column or null
+     */
+    private final String columnName;
+
+    /**
+     * The field delimiter
+     */
+    private final char delimiter;
+
+    /**
+     * The quote character
+     */
+    private final char quote;
+
+    /**
+     * Whether malformed records are skipped
+     */
+    private final boolean skipMalformed;
+
+    /**
+     * The WKTScanner
+     */
+    private final WKTScanner scanner = new WKTScanner();
+
+    /**
+     * The index of the WKT column
+     */
+    private int column;
+
+    /**
+     * Whether the next record is a header
+     */
+    private boolean header;
+
+    /**
+     * The buffer.  Unread characters are between the position and the limit.
+     */
+    private char[] buffer;
+
+    /**
+     * The index of the next unread character
+     */
+    private int position;
+
+    /**
+     * The index after the last character that has been read
+     */
+    private int limit;
+
+    /**
+     * Whether the end of the java.io.Reader has been reached
+     */
+    private boolean endOfInput;
+
+    /**
+     * Whether the last record ended with \r, so a following \n belongs to it
+     */
+    private boolean skipLineFeed;
+
+    /**
+     * The buffer that quoted fields with doubled quotes are unescaped into
+     */
+    private char[] field = new char[256];
+
+    /**
+     * The start of the WKT field of the current record or -1 if it has no such column
+     */
+    private int fieldStart;
+
+    /**
+     * The end of the WKT field of the current record
+     */
+    private int fieldEnd;
+
+    /**
+     * The number of quotes in the WKT field of the current record
+     */
+    private int fieldQuotes;
+
+    /**
+     * Whether the current record has an unclosed quote
+     */
+    private boolean unclosedQuote;
+
+    /**
+     * The index after the end of the current record, including its line break
+     */
+    private int recordEnd;
+
+    /**
+     * The number of records that have been read
+     */
+    private long numberOfRecords;
+
+    /**
+     * The number of malformed records that have been skipped
+     */
+    private long numberOfSkippedRecords;
+
+    /**
+     * The next Geometry or null
+     */
+    private Geometry nextGeometry;
+
+    /**
+     * Create a new WKTStreamReader that reads one Geometry per line
+     * @param reader The java.io.Reader
+     */
+    public WKTStreamReader(java.io.Reader reader) {
+        this(new Builder(), reader);
+    }
+
+    /**
+     * Create a new WKTStreamReader from a Builder
+     * @param builder The Builder
+     * @param reader The java.io.Reader
+     */
+    private WKTStreamReader(Builder builder, java.io.Reader reader) {
+        this.reader = reader;
+        this.bufferSize = builder.bufferSize;
+        this.csv = builder.csv;
+        this.column = builder.column;
+        this.columnName = builder.columnName;
+        this.header = builder.header;
+        this.delimiter = builder.delimiter;
+        this.quote = builder.quote;
+        this.skipMalformed = builder.skipMalformed;
+        this.buffer = new char[bufferSize];
+    }
+
+    /**
+     * Create a new Builder
+     * @return A Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Whether there is another Geometry
+     * @return Whether there is another Geometry
+     */
+    @Override
+    public boolean hasNext() {
+        if (nextGeometry == null) {
+            try {
+                nextGeometry = readGeometry();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return nextGeometry != null;
+    }
+
+    /**
+     * Read the next Geometry
+     * @return The next Geometry
+     */
+    @Override
+    public Geometry next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Geometry geometry = nextGeometry;
+        nextGeometry = null;
+        return geometry;
+    }
+
+    /**
+     * Get a Stream of the remaining Geometries.  Closing the Stream closes this WKTStreamReader.
+     * @return A Stream of Geometries
+     */
+    public Stream<Geometry> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Get the number of records that have been read, including headers, blank and malformed records
+     * @return The number of records
+     */
+    public long getNumberOfRecords() {
+        return numberOfRecords;
+    }
+
+    /**
+     * Get the number of malformed records that have been skipped
+     * @return The number of skipped records
+     */
+    public long getNumberOfSkippedRecords() {
+        return numberOfSkippedRecords;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Read records until one contains a Geometry
+     * @return The Geometry or null at the end of the input
+     * @throws IOException if there is an error reading
+     */
+    private Geometry readGeometry() throws IOException {
+        while (nextRecord()) {
+            int recordStart = position;
+            position = recordEnd;
+            if (header) {
+                header = false;
+                if (columnName != null) {
+                    column = findColumn(recordStart);
+                }
+                continue;
+            }
+            String error = null;
+            char[] chars = buffer;
+            int start = fieldStart;
+            int end = fieldEnd;
+            if (unclosedQuote) {
+                error = "The quote is not closed";
+            } else if (start < 0) {
+                if (isBlank(recordStart)) {
+                    continue;
+                }
+                error = "There is no column " + column;
+            } else {
+                while (start < end && isWhiteSpace(buffer[start])) {
+                    start++;
+                }
+                while (end > start && isWhiteSpace(buffer[end - 1])) {
+                    end--;
+                }
+                if (start == end && isBlank(recordStart)) {
+                    continue;
+                }
+                if (csv && start < end && buffer[start] == quote) {
+                    if (end - start < 2 || buffer[end - 1] != quote) {
+                        error = "The quoted field is not closed";
+                    } else {
+                        start++;
+                        end--;
+                        if (fieldQuotes > 2) {
+                            end = unescape(start, end);
+                            start = 0;
+                            chars = field;
+                        }
+                    }
+                }
+            }
+            if (error == null) {
+                try {
+                    while (start < end && isWhiteSpace(chars[start])) {
+                        start++;
+                    }
+                    return scanner.read(chars, start, end - start);
+                } catch (IllegalStateException e) {
+                    if (!skipMalformed) {
+                        throw new IllegalStateException("Unable to read record " + numberOfRecords + "! " + e.getMessage(), e);
+                    }
+                }
+            } else if (!skipMalformed) {
+                throw new IllegalStateException("Unable to read record " + numberOfRecords + "! " + error);
+            }
+            numberOfSkippedRecords++;
+        }
+        return null;
+    }
+
+    /**
+     * Find the next complete record at the position, refilling and growing the buffer as needed
+     * @return false at the end of the input
+     * @throws IOException if there is an error reading
+     */
+    private boolean nextRecord() throws IOException {
+        while (true) {
+            if (position == limit) {
+                if (endOfInput) {
+                    return false;
+                }
+                fill();
+                continue;
+            }
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (buffer[position] == '\n') {
+                    position++;
+                    continue;
+                }
+            }
+            if (scan(position)) {
+                numberOfRecords++;
+                return true;
+            }
+            if (position == 0 && limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            fill();
+        }
+    }
+
+    /**
+     * Scan the record that starts at an index for its end and the bounds of its WKT field
+     * @param start The index of the first character of the record
+     * @return Whether the record is complete
+     */
+    private boolean scan(int start) {
+        int currentColumn = 0;
+        int currentFieldStart = start;
+        int quotes = 0;
+        boolean quoted = false;
+        fieldStart = -1;
+        for (int i = start; i < limit; i++) {
+            char c = buffer[i];
+            if (csv && c == quote) {
+                quoted = !quoted;
+                quotes++;
+            } else if (!quoted) {
+                if (csv && c == delimiter) {
+                    endField(currentColumn, currentFieldStart, i, quotes);
+                    currentColumn++;
+                    currentFieldStart = i + 1;
+                    quotes = 0;
+                } else if (c == '\n' || c == '\r') {
+                    endField(currentColumn, currentFieldStart, i, quotes);
+                    unclosedQuote = false;
+                    recordEnd = i + 1;
+                    skipLineFeed = c == '\r';
+                    return true;
+                }
+            }
+        }
+        if (!endOfInput) {
+            return false;
+        }
+        endField(currentColumn, currentFieldStart, limit, quotes);
+        unclosedQuote = quoted;
+        recordEnd = limit;
+        return true;
+    }
+
+    /**
+     * Remember the bounds of a field if it is the WKT field
+     * @param currentColumn The index of the field
+     * @param start The start of the field
+     * @param end The end of the field
+     * @param quotes The number of quotes in the field
+     */
+    private void endField(int currentColumn, int start, int end, int quotes) {
+        if (currentColumn == column) {
+            fieldStart = start;
+            fieldEnd = end;
+            fieldQuotes = quotes;
+        }
+    }
+
+    /**
+     * Copy the inside of a quoted field into the field buffer, turning doubled quotes into single quotes
+     * @param start The index after the opening quote
+     * @param end The index of the closing quote
+     * @return The number of characters in the field buffer
+     */
+    private int unescape(int start, int end) {
+        if (field.length < end - start) {
+            field = new char[Math.max(end - start, field.length * 2)];
+        }
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = buffer[i];
+            field[length++] = c;
+            if (c == quote && i + 1 < end && buffer[i + 1] == quote) {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Find the index of the column with the column name in the header record
+     * @param start The start of the header record
+     * @return The index of the column
+     */
+    private int findColumn(int start) {
+        int end = recordEnd;
+        while (end > start && (buffer[end - 1] == '\n' || buffer[end - 1] == '\r')) {
+            end--;
+        }
+        int index = 0;
+        StringBuilder name = new StringBuilder();
+        boolean quoted = false;
+        for (int i = start; i <= end; i++) {
+            if (i == end || (!quoted && buffer[i] == delimiter)) {
+                if (name.toString().trim().equals(columnName)) {
+                    return index;
+                }
+                name.setLength(0);
+                index++;
+            } else if (buffer[i] == quote) {
+                if (quoted && i + 1 < end && buffer[i + 1] == quote) {
+                    name.append(quote);
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else {
+                name.append(buffer[i]);
+            }
+        }
+        throw new IllegalArgumentException("Column not found! " + columnName);
+    }
+
+    /**
+     * Whether the record that starts at an index only contains white space
+     * @param start The start of the record
+     * @return Whether the record is blank
+     */
+    private boolean isBlank(int start) {
+        for (int i = start; i < recordEnd; i++) {
+            char c = buffer[i];
+            if (!isWhiteSpace(c) && c != '\n' && c != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWhiteSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * Move the unread characters to the start of the buffer and read as many characters as fit.
+     * An oversized buffer is replaced by a buffer of the original size once the unread characters fit in half of it.
+     * @throws IOException if there is an error reading
+     */
+    private void fill() throws IOException {
+        int remaining = limit - position;
+        if (buffer.length > bufferSize && remaining <= bufferSize / 2) {
+            char[] smaller = new char[bufferSize];
+            System.arraycopy(buffer, position, smaller, 0, remaining);
+            buffer = smaller;
+        } else {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        }
+        position = 0;
+        limit = remaining;
+        while (!endOfInput && limit < buffer.length) {
+            int numberOfChars = reader.read(buffer, limit, buffer.length - limit);
+            if (numberOfChars == -1) {
+                endOfInput = true;
+            } else if (numberOfChars == 0) {
+                break;
+            } else {
+                limit += numberOfChars;
+            }
+        }
+    }
+
+    /**
+     * A Builder for WKTStreamReaders.  By default every line is a WKT record and malformed records throw an
+     * IllegalStateException.
+     */
+    public static class Builder {
+
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+        private boolean csv;
+
+        private int column;
+
+        private String columnName;
+
+        private boolean header;
+
+        private char delimiter = ',';
+
+        private char quote = '"';
+
+        private boolean skipMalformed;
+
+        /**
+         * Read the WKT from a column of CSV records
+         * @param column The index of the column, starting at 0
+         * @return This Builder
+         */
+        public Builder csv(int column) {
+            if (column < 0) {
+                throw new IllegalArgumentException("The column must not be negative! " + column);
+            }
+            this.csv = true;
+            this.column = column;
+            this.columnName = null;
+            return this;
+        }
+
+        /**
+         * Read the WKT from the column of CSV records whose name is in the header record
+         * @param columnName The name of the column
+         * @return This Builder
+         */
+        public Builder csv(String columnName) {
+            this.csv = true;
+            this.columnName = columnName;
+            this.header = true;
+            return this;
+        }
+
+        /**
+         * Set the CSV field delimiter.  The default is a comma.
+         * @param delimiter The delimiter
+         * @return This Builder
+         */
+        public Builder delimiter(char delimiter) {
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        /**
+         * Set the CSV quote character.  The default is a double quote.
+         * @param quote The quote character
+         * @return This Builder
+         */
+        public Builder quote(char quote) {
+            this.quote = quote;
+            return this;
+        }
+
+        /**
+         * Skip the first record
+         * @return This Builder
+         */
+        public Builder skipHeader() {
+            this.header = true;
+            return this;
+        }
+
+        /**
+         * Skip malformed records instead of throwing an IllegalStateException
+         * @return This Builder
+         */
+        public Builder skipMalformed() {
+            this.skipMalformed = true;
+            return this;
+        }
+
+        /**
+         * Set the buffer size
+         * @param bufferSize The buffer size
+         * @return This Builder
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize < 1) {
+                throw new IllegalArgumentException("The buffer size must be greater than 0! " + bufferSize);
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Build a WKTStreamReader that reads from a java.io.Reader
+         * @param reader The java.io.Reader
+         * @return A WKTStreamReader
+         */
+        public WKTStreamReader build(java.io.Reader reader) {
+            return new WKTStreamReader(this, reader);
+        }
+
+        /**
+         * Build a WKTStreamReader that reads from a UTF-8 file
+         * @param path The Path of the file
+         * @return A WKTStreamReader
+         * @throws IOException if the file can not be opened
+         */
+        public WKTStreamReader build(Path path) throws IOException {
+            return new WKTStreamReader(this, new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8));
+        }
+    }
+
+}
@@ -0,0 +1,428 @@
+package org.cugos.wkg;
+
+/**
+ * The tokens of WKT and EWKT, shared by the WKTScanner, which builds Geometries, and the WKTTranscoder,
+ * which writes WKB.
+ * <p>
+ * It follows the ANTLR grammar in the tests (WKT.g4): keywords are upper case, white space is only spaces and
+ * tabs, and errors are thrown as an IllegalStateException with the message ANTLR would report.  It also keeps
+ * the one Dimension and the one SRID of the whole text, which the Coordinates and headers change.
+ * </p>
+ * @author Jared Erickson
+ */
+abstract class WKTTokenizer {
+
+    /**
+     * The keywords, indexed by their keyword constants.  The Geometry keywords come first.
+     */
+    private static final String[] KEYWORDS = {
+        "POINT", "LINESTRING", "POLYGON", "TRIANGLE", "MULTIPOINT", "MULTILINESTRING", "CIRCULARSTRING", "TIN",
+        "POLYHEDRALSURFACE", "MULTIPOLYGON", "CURVEPOLYGON", "COMPOUNDCURVE", "MULTICURVE", "MULTISURFACE",
+        "GEOMETRYCOLLECTION", "EMPTY", "SRID=", "M", "Z", "ZM"
+    };
+
+    static final int POINT = 0;
+    static final int LINESTRING = 1;
+    static final int POLYGON = 2;
+    static final int TRIANGLE = 3;
+    static final int MULTIPOINT = 4;
+    static final int MULTILINESTRING = 5;
+    static final int CIRCULARSTRING = 6;
+    static final int TIN = 7;
+    static final int POLYHEDRALSURFACE = 8;
+    static final int MULTIPOLYGON = 9;
+    static final int CURVEPOLYGON = 10;
+    static final int COMPOUNDCURVE = 11;
+    static final int MULTICURVE = 12;
+    static final int MULTISURFACE = 13;
+    static final int GEOMETRYCOLLECTION = 14;
+    static final int EMPTY = 15;
+    static final int SRID = 16;
+    static final int M = 17;
+    static final int Z = 18;
+    static final int ZM = 19;
+
+    /**
+     * The tokens that can start a Geometry
+     */
+    static final String EXPECTING_GEOMETRY = "{'POINT', 'LINESTRING', 'POLYGON', 'TRIANGLE', 'MULTIPOINT', "
+        + "'MULTILINESTRING', 'CIRCULARSTRING', 'TIN', 'POLYHEDRALSURFACE', 'MULTIPOLYGON', 'CURVEPOLYGON', "
+        + "'COMPOUNDCURVE', 'MULTICURVE', 'MULTISURFACE', 'GEOMETRYCOLLECTION', 'SRID='}";
+
+    /**
+     * The characters
+     */
+    char[] chars;
+
+    /**
+     * The index of the first character
+     */
+    int start;
+
+    /**
+     * The index after the last character
+     */
+    int end;
+
+    /**
+     * The index of the next character
+     */
+    int position;
+
+    /**
+     * The Dimension of the Geometries that are finished next
+     */
+    Dimension dimension;
+
+    /**
+     * The SRID of the Geometries that are finished next
+     */
+    String srid;
+
+    /**
+     * The ordinates of the last Coordinate
+     */
+    double x, y, z, m;
+
+    /**
+     * Start reading a range of characters
+     * @param chars The characters
+     * @param offset The index of the first character
+     * @param length The number of characters
+     */
+    void reset(char[] chars, int offset, int length) {
+        this.chars = chars;
+        this.start = offset;
+        this.end = offset + length;
+        this.position = offset;
+        this.dimension = Dimension.Two;
+        this.srid = null;
+    }
+
+    /**
+     * coordinate: WhiteSpace* Number WhiteSpace* Number WhiteSpace* (Number WhiteSpace*)? (Number WhiteSpace*)?
+     * <p>
+     * Three or four Numbers turn an XY Dimension into XYZ or XYZM, and the Coordinate takes as many ordinates
+     * as the Dimension has.
+     * </p>
+     * @param build Whether to convert the Numbers into the x, y, z and m fields or only check the syntax
+     */
+    void coordinate(boolean build) {
+        skipWhiteSpace();
+        double x = number(build);
+        skipWhiteSpace();
+        double y = number(build);
+        skipWhiteSpace();
+        int count = 2;
+        double third = Double.NaN;
+        double fourth = Double.NaN;
+        if (isNumber()) {
+            third = number(build);
+            skipWhiteSpace();
+            count++;
+            if (isNumber()) {
+                fourth = number(build);
+                skipWhiteSpace();
+                count++;
+            }
+        }
+        if (!build) {
+            return;
+        }
+        if (dimension == Dimension.Two && count == 3) {
+            dimension = Dimension.Three;
+        } else if (dimension == Dimension.Two && count == 4) {
+            dimension = Dimension.ThreeMeasured;
+        }
+        this.x = x;
+        this.y = y;
+        if (dimension == Dimension.TwoMeasured) {
+            requireOrdinates(count, 3);
+            this.z = Double.NaN;
+            this.m = third;
+        } else if (dimension == Dimension.Three) {
+            requireOrdinates(count, 3);
+            this.z = third;
+            this.m = Double.NaN;
+        } else if (dimension == Dimension.ThreeMeasured) {
+            requireOrdinates(count, 4);
+            this.z = third;
+            this.m = fourth;
+        } else {
+            this.z = Double.NaN;
+            this.m = Double.NaN;
+        }
+    }
+
+    private void requireOrdinates(int count, int required) {
+        if (count < required) {
+            throw error("Number");
+        }
+    }
+
+    /**
+     * Number: ('+' | '-')? ('0'..'9')+ ('.' ('0'..'9')+)?
+     * <p>
+     * The DoubleParser converts the characters in place.
+     * </p>
+     * @param build Whether to convert the Number or only check the syntax
+     * @return The value or 0
+     */
+    private double number(boolean build) {
+        int begin = position;
+        if (position < end && (chars[position] == '-' || chars[position] == '+')) {
+            position++;
+        }
+        if (!isDigit(position)) {
+            position = begin;
+            throw error("{Number, WhiteSpace}");
+        }
+        while (isDigit(position)) {
+            position++;
+        }
+        if (position + 1 < end && chars[position] == '.' && isDigit(position + 1)) {
+            position++;
+            while (isDigit(position)) {
+                position++;
+            }
+        }
+        return build ? DoubleParser.parse(chars, begin, position) : 0;
+    }
+
+    /**
+     * Parse the optional SRID=Number; prefix
+     */
+    void srid() {
+        if (matches(SRID)) {
+            position += KEYWORDS[SRID].length();
+            int begin = position;
+            number(false);
+            srid = new String(chars, begin, position - begin);
+            expect(';', "';'");
+        }
+    }
+
+    /**
+     * Parse the optional dimension and the opening parenthesis or EMPTY after a Geometry keyword
+     * @return true if the Geometry has coordinates, false if it is EMPTY
+     */
+    boolean header() {
+        skipWhiteSpace();
+        String expecting = "{'(', 'EMPTY', 'M', 'Z', 'ZM', WhiteSpace}";
+        int begin = position;
+        int keyword = keyword();
+        if (keyword == M || keyword == Z || keyword == ZM) {
+            dimension = keyword == M ? Dimension.TwoMeasured : keyword == Z ? Dimension.Three : Dimension.ThreeMeasured;
+            skipWhiteSpace();
+            expecting = "{'(', 'EMPTY', WhiteSpace}";
+            begin = position;
+            keyword = keyword();
+        }
+        if (keyword == EMPTY) {
+            return false;
+        }
+        position = begin;
+        expect('(', expecting);
+        return true;
+    }
+
+    /**
+     * Move past a comma between two items of a list, and the white space around it.  The position is
+     * not changed if there is no comma.
+     * @param skipTrailingWhiteSpace Whether white space after the previous item is consumed even without a comma
+     * @return Whether there is another item
+     */
+    boolean nextItem(boolean skipTrailingWhiteSpace) {
+        int begin = position;
+        skipWhiteSpace();
+        if (position < end && chars[position] == ',') {
+            position++;
+            skipWhiteSpace();
+            return true;
+        }
+        if (!skipTrailingWhiteSpace) {
+            position = begin;
+        }
+        return false;
+    }
+
+    /**
+     * Move past white space and a character.  The position is not changed if the character is not found.
+     * @param c The character
+     * @return Whether the character was found
+     */
+    boolean consume(char c) {
+        int begin = position;
+        skipWhiteSpace();
+        if (position < end && chars[position] == c) {
+            position++;
+            return true;
+        }
+        position = begin;
+        return false;
+    }
+
+    /**
+     * Move past a character or throw an error.  Like ANTLR, a single unexpected token before the character
+     * is reported as extraneous and a missing closing parenthesis at the end as missing.
+     * @param c The character
+     * @param expecting What the grammar expects at the position
+     */
+    void expect(char c, String expecting) {
+        if (position < end && chars[position] == c) {
+            position++;
+            return;
+        }
+        if (position >= end && c == ')') {
+            throw failure("missing ')' at '<EOF>'");
+        }
+        String token = token();
+        int next = position + token.length();
+        if (position < end && next < end && chars[next] == c) {
+            throw failure("extraneous input '" + escape(token) + "' expecting " + expecting);
+        }
+        throw error(expecting);
+    }
+
+    char peek() {
+        return position < end ? chars[position] : 0;
+    }
+
+    void skipWhiteSpace() {
+        while (position < end && (chars[position] == ' ' || chars[position] == '\t')) {
+            position++;
+        }
+    }
+
+    private boolean isDigit(int index) {
+        return index < end && chars[index] >= '0' && chars[index] <= '9';
+    }
+
+    private boolean isNumber() {
+        if (position < end && (chars[position] == '-' || chars[position] == '+')) {
+            return isDigit(position + 1);
+        }
+        return isDigit(position);
+    }
+
+    private boolean matches(int keyword) {
+        String text = KEYWORDS[keyword];
+        int length = text.length();
+        if (end - position < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars[position + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Match the longest keyword at the position and move past it
+     * @return The keyword or -1
+     */
+    int keyword() {
+        int keyword = -1;
+        switch (peek()) {
+            case 'P':
+                keyword = matches(POINT) ? POINT : matches(POLYGON) ? POLYGON : matches(POLYHEDRALSURFACE) ? POLYHEDRALSURFACE : -1;
+                break;
+            case 'L':
+                keyword = matches(LINESTRING) ? LINESTRING : -1;
+                break;
+            case 'T':
+                keyword = matches(TRIANGLE) ? TRIANGLE : matches(TIN) ? TIN : -1;
+                break;
+            case 'M':
+                keyword = matches(MULTIPOINT) ? MULTIPOINT : matches(MULTILINESTRING) ? MULTILINESTRING
+                    : matches(MULTIPOLYGON) ? MULTIPOLYGON : matches(MULTICURVE) ? MULTICURVE
+                    : matches(MULTISURFACE) ? MULTISURFACE : M;
+                break;
+            case 'C':
+                keyword = matches(CIRCULARSTRING) ? CIRCULARSTRING : matches(CURVEPOLYGON) ? CURVEPOLYGON
+                    : matches(COMPOUNDCURVE) ? COMPOUNDCURVE : -1;
+                break;
+            case 'G':
+                keyword = matches(GEOMETRYCOLLECTION) ? GEOMETRYCOLLECTION : -1;
+                break;
+            case 'E':
+                keyword = matches(EMPTY) ? EMPTY : -1;
+                break;
+            case 'S':
+                keyword = matches(SRID) ? SRID : -1;
+                break;
+            case 'Z':
+                keyword = matches(ZM) ? ZM : Z;
+                break;
+            default:
+                break;
+        }
+        if (keyword >= 0) {
+            position += KEYWORDS[keyword].length();
+        }
+        return keyword;
+    }
+
+    /**
+     * Create the exception for the token at the position
+     * @param expecting What the grammar expects at the position
+     * @return The IllegalStateException
+     */
+    IllegalStateException error(String expecting) {
+        return failure("mismatched input '" + escape(token()) + "' expecting " + expecting);
+    }
+
+    /**
+     * Create the exception for a message about the token at the position
+     * @param message The message
+     * @return The IllegalStateException
+     */
+    private IllegalStateException failure(String message) {
+        int line = 1;
+        for (int i = start; i < position && i < end; i++) {
+            if (chars[i] == '\n') {
+                line++;
+            }
+        }
+        return new IllegalStateException("failed to parse at line " + line + " due to " + message);
+    }
+
+    /**
+     * Get the text of the token at the position
+     * @return The text of the token
+     */
+    private String token() {
+        if (position >= end) {
+            return "<EOF>";
+        }
+        int begin = position;
+        int tokenEnd;
+        if (keyword() >= 0) {
+            tokenEnd = position;
+        } else if (isNumber()) {
+            number(false);
+            tokenEnd = position;
+        } else if (chars[position] == ' ' || chars[position] == '\t') {
+            skipWhiteSpace();
+            tokenEnd = position;
+        } else if (chars[position] == '\r' && position + 1 < end && chars[position + 1] == '\n') {
+            tokenEnd = position + 2;
+        } else {
+            tokenEnd = position + 1;
+        }
+        position = begin;
+        return new String(chars, begin, tokenEnd - begin);
+    }
+
+    /**
+     * Escape the text of a token the way ANTLR displays it
+     * @param token The text of the token
+     * @return The escaped text
+     */
+    private static String escape(String token) {
+        return token.replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t");
+    }
+
+}
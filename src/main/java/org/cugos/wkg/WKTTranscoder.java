@@ -0,0 +1,712 @@
+package org.cugos.wkg;
+
+import org.cugos.wkg.WKB.Endian;
+import org.cugos.wkg.WKB.GeometryType;
+import org.cugos.wkg.WKB.GeometryTypeFlag;
+import org.cugos.wkg.WKB.Type;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Convert WKT or EWKT directly into WKB or EWKB without building Geometries.
+ * <p>
+ * A WKTTranscoder parses the text once and writes each header, count and Coordinate as soon as it is read.
+ * The counts of rings, points and parts, and the geometry type flags, are filled in when a Geometry is finished.
+ * The bytes are the same as reading the text with a WKTReader and writing the Geometry into a ByteBuffer with a
+ * WKBWriter of the same Type and Endian.  The few texts where the WKTReader would change a Geometry that was already
+ * written, a nested SRID, a Dimension that changes inside a curved Geometry or a CurvePolygon with an empty outer
+ * Curve, and invalid texts, are read with a WKTReader and written with a WKBWriter instead.
+ * </p>
+ * <p>
+ * A WKTTranscoder can be shared between threads.
+ * </p>
+ * @author Jared Erickson
+ */
+public class WKTTranscoder {
+
+    /**
+     * The WKB GeometryTypes indexed by their WKT keyword constants
+     */
+    private static final GeometryType[] GEOMETRY_TYPES = {
+        GeometryType.Point, GeometryType.LineString, GeometryType.Polygon, GeometryType.Triangle,
+        GeometryType.MultiPoint, GeometryType.MultiLineString, GeometryType.CircularString, GeometryType.Tin,
+        GeometryType.PolyHedralSurface, GeometryType.MultiPolygon, GeometryType.CurvePolygon,
+        GeometryType.CompoundCurve, GeometryType.MultiCurve, GeometryType.MultiSurface, GeometryType.GeometryCollection
+    };
+
+    /**
+     * Thrown when the text has to be read with a WKTReader and written with a WKBWriter
+     */
+    private static final Fallback FALLBACK = new Fallback();
+
+    /**
+     * The WKB Type (WKB or EWKB)
+     */
+    private final Type wkbType;
+
+    /**
+     * The byte order
+     */
+    private final Endian endian;
+
+    /**
+     * The WKBWriter for empty Geometries and for the texts that are not transcoded directly
+     */
+    private final WKBWriter writer;
+
+    /**
+     * The bytes of the empty Geometries, indexed by their WKT keyword constants.  They are written by the
+     * constructor and only read afterwards, so they can be shared between threads.
+     */
+    private final byte[][] empties = new byte[GEOMETRY_TYPES.length][];
+
+    /**
+     * Create a new WKTTranscoder that writes big endian WKB
+     */
+    public WKTTranscoder() {
+        this(Type.WKB, Endian.Big);
+    }
+
+    /**
+     * Create a new WKTTranscoder
+     * @param wkbType The WKB.Type standard
+     * @param endian The WKB.Endian byte order
+     */
+    public WKTTranscoder(Type wkbType, Endian endian) {
+        this.wkbType = wkbType;
+        this.endian = endian;
+        this.writer = new WKBWriter(wkbType, endian);
+        for (int keyword = 0; keyword < empties.length; keyword++) {
+            ByteBuffer buffer = ByteBuffer.allocate(32);
+            writer.write(createEmpty(keyword), buffer);
+            empties[keyword] = Arrays.copyOf(buffer.array(), buffer.position());
+        }
+    }
+
+    /**
+     * Convert WKT or EWKT into an array of bytes
+     * @param wkt The WKT
+     * @return The WKB bytes
+     */
+    public byte[] transcode(String wkt) {
+        char[] chars = wkt.toCharArray();
+        return transcode(chars, 0, chars.length);
+    }
+
+    /**
+     * Convert WKT or EWKT in a range of characters into an array of bytes
+     * @param chars The characters
+     * @param offset The index of the first character
+     * @param length The number of characters
+     * @return The WKB bytes
+     */
+    public byte[] transcode(char[] chars, int offset, int length) {
+        ByteBuffer bytes = new Emitter().transcode(chars, offset, length);
+        return Arrays.copyOf(bytes.array(), bytes.position());
+    }
+
+    /**
+     * Convert WKT or EWKT into a hex String
+     * @param wkt The WKT
+     * @return The WKB hex String
+     */
+    public String transcodeToHex(String wkt) {
+        return ByteCodec.encodeHex(transcode(wkt));
+    }
+
+    /**
+     * Convert WKT or EWKT into a ByteBuffer.  The bytes are written at the ByteBuffer's position which is
+     * moved past them, and the ByteBuffer's byte order is left as it was.
+     * @param wkt The WKT
+     * @param buffer The ByteBuffer
+     * @throws java.nio.BufferOverflowException if the Geometry does not fit.  The position is not moved.
+     */
+    public void transcode(String wkt, ByteBuffer buffer) {
+        char[] chars = wkt.toCharArray();
+        ByteBuffer bytes = new Emitter().transcode(chars, 0, chars.length);
+        bytes.flip();
+        buffer.put(bytes);
+    }
+
+    /**
+     * Create the empty Geometry for a WKT keyword like the WKTReader does
+     * @param keyword The WKT keyword constant
+     * @return The empty Geometry
+     */
+    private static Geometry createEmpty(int keyword) {
+        switch (keyword) {
+            case WKTTokenizer.POINT:
+                return Point.createEmpty();
+            case WKTTokenizer.LINESTRING:
+                return LineString.createEmpty();
+            case WKTTokenizer.POLYGON:
+                return Polygon.createEmpty();
+            case WKTTokenizer.TRIANGLE:
+                return Triangle.createEmpty();
+            case WKTTokenizer.MULTIPOINT:
+                return MultiPoint.createEmpty();
+            case WKTTokenizer.MULTILINESTRING:
+                return MultiLineString.createEmpty();
+            case WKTTokenizer.CIRCULARSTRING:
+                return CircularString.createEmpty();
+            case WKTTokenizer.TIN:
+                return Tin.createEmpty();
+            case WKTTokenizer.POLYHEDRALSURFACE:
+                return PolyHedralSurface.createEmpty();
+            case WKTTokenizer.MULTIPOLYGON:
+                return MultiPolygon.createEmpty();
+            case WKTTokenizer.CURVEPOLYGON:
+                return CurvePolygon.createEmpty();
+            case WKTTokenizer.COMPOUNDCURVE:
+                return CompoundCurve.createEmpty();
+            case WKTTokenizer.MULTICURVE:
+                return MultiCurve.createEmpty();
+            case WKTTokenizer.MULTISURFACE:
+                return MultiSurface.createEmpty();
+            default:
+                return GeometryCollection.createEmpty();
+        }
+    }
+
+    /**
+     * Parses one text and writes its WKB.  It follows the grammar of the WKTScanner.
+     */
+    private final class Emitter extends WKTTokenizer {
+
+        /**
+         * The bytes
+         */
+        private ByteBuffer out;
+
+        /**
+         * The SRID as a number, parsed by the first header that writes it
+         */
+        private Integer sridValue;
+
+        /**
+         * The number of open CompoundCurves, CurvePolygons, MultiCurves and MultiSurfaces
+         */
+        private int curveDepth;
+
+        /**
+         * The offsets of the Points of the current MultiPoint run
+         */
+        private int[] points = new int[16];
+
+        /**
+         * Convert a range of characters
+         * @param chars The characters
+         * @param offset The index of the first character
+         * @param length The number of characters
+         * @return The ByteBuffer with the bytes before its position
+         */
+        ByteBuffer transcode(char[] chars, int offset, int length) {
+            reset(chars, offset, length);
+            out = ByteBuffer.allocate(32 + length * 2);
+            out.order(endian == Endian.Big ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+            try {
+                srid();
+                geometry(keyword());
+            } catch (Fallback | IllegalStateException e) {
+                // Let the WKTReader and WKBWriter throw their errors or write what was not transcoded
+                Geometry geometry = new WKTScanner().read(chars, offset, length);
+                out.clear();
+                while (true) {
+                    try {
+                        writer.write(geometry, out);
+                        break;
+                    } catch (BufferOverflowException overflow) {
+                        ensure(out.capacity() + 1);
+                    } catch (NumberFormatException nfe) {
+                        throw new IllegalStateException("The SRID is not an integer! " + geometry.getSrid(), nfe);
+                    }
+                }
+            }
+            return out;
+        }
+
+        private void geometry() {
+            nestedSrid();
+            geometry(keyword());
+        }
+
+        private void geometry(int keyword) {
+            switch (keyword) {
+                case POINT:
+                    point();
+                    break;
+                case LINESTRING:
+                case CIRCULARSTRING:
+                    lineString(keyword);
+                    break;
+                case POLYGON:
+                case TRIANGLE:
+                    polygon(keyword);
+                    break;
+                case MULTIPOINT:
+                    multiPoint();
+                    break;
+                case MULTILINESTRING:
+                    multiLineString();
+                    break;
+                case TIN:
+                case POLYHEDRALSURFACE:
+                case MULTIPOLYGON:
+                    polygons(keyword);
+                    break;
+                case CURVEPOLYGON:
+                    curvePolygon();
+                    break;
+                case COMPOUNDCURVE:
+                case MULTICURVE:
+                    curves(keyword);
+                    break;
+                case MULTISURFACE:
+                    multiSurface();
+                    break;
+                case GEOMETRYCOLLECTION:
+                    geometryCollection();
+                    break;
+                default:
+                    throw error(EXPECTING_GEOMETRY);
+            }
+        }
+
+        private void point() {
+            if (!open()) {
+                putEmpty(POINT);
+                return;
+            }
+            int header = putHeader();
+            putCoordinate();
+            expect(')', "{')', Number, WhiteSpace}");
+            finish(header, POINT);
+        }
+
+        /**
+         * Write a LineString or a CircularString
+         * @param keyword The WKT keyword constant
+         * @return Whether it is not empty
+         */
+        private boolean lineString(int keyword) {
+            if (!open()) {
+                putEmpty(keyword);
+                return false;
+            }
+            int header = putHeader();
+            int count = putCount();
+            setCount(count, putCoordinates());
+            expect(')', "{')', ','}");
+            finish(header, keyword);
+            return true;
+        }
+
+        /**
+         * Write a Polygon or a Triangle
+         * @param keyword The WKT keyword constant
+         */
+        private void polygon(int keyword) {
+            if (!open()) {
+                putEmpty(keyword);
+                return;
+            }
+            polygonCoordinates(keyword);
+            expect(')', "')'");
+        }
+
+        private void multiPoint() {
+            if (!open()) {
+                putEmpty(MULTIPOINT);
+                return;
+            }
+            int header = putHeader();
+            int count = putCount();
+            int numberOfPoints = 0;
+            if (peek() == '(') {
+                do {
+                    expect('(', "'('");
+                    numberOfPoints += putPoints();
+                    expect(')', "{')', ','}");
+                } while (nextItem(false));
+            } else {
+                numberOfPoints = putPoints();
+            }
+            expect(')', "')'");
+            setCount(count, numberOfPoints);
+            finish(header, MULTIPOINT);
+        }
+
+        private void multiLineString() {
+            if (!open()) {
+                putEmpty(MULTILINESTRING);
+                return;
+            }
+            int header = putHeader();
+            int count = putCount();
+            int numberOfLineStrings = 0;
+            do {
+                expect('(', "'('");
+                int lineString = putHeader();
+                int numberOfCoordinates = putCount();
+                setCount(numberOfCoordinates, putCoordinates());
+                finish(lineString, LINESTRING);
+                expect(')', "{')', ','}");
+                numberOfLineStrings++;
+            } while (nextItem(false));
+            expect(')', "')'");
+            setCount(count, numberOfLineStrings);
+            finish(header, MULTILINESTRING);
+        }
+
+        /**
+         * Write a Tin, a PolyHedralSurface or a MultiPolygon
+         * @param keyword The WKT keyword constant
+         */
+        private void polygons(int keyword) {
+            if (!open()) {
+                putEmpty(keyword);
+                return;
+            }
+            int header = putHeader();
+            int count = putCount();
+            int numberOfPolygons = 0;
+            do {
+                expect('(', "'('");
+                skipWhiteSpace();
+                polygonCoordinates(keyword == TIN ? TRIANGLE : POLYGON);
+                skipWhiteSpace();
+                expect(')', "{')', ',', WhiteSpace}");
+                numberOfPolygons++;
+            } while (nextItem(false));
+            expect(')', "')'");
+            setCount(count, numberOfPolygons);
+            finish(header, keyword);
+        }
+
+        private void curvePolygon() {
+            if (!open()) {
+                putEmpty(CURVEPOLYGON);
+                return;
+            }
+            int header = putHeader();
+            int count = putCount();
+            int numberOfCurves = 0;
+            curveDepth++;
+            do {
+                // The WKBWriter writes a CurvePolygon with an empty outer Curve without its Curves
+                if (!curveElement(true) && numberOfCurves == 0) {
+                    throw FALLBACK;
+                }
+                numberOfCurves++;
+            } while (nextItem(false));
+            expect(')', "{')', ','}");
+            curveDepth--;
+            setCount(count, numberOfCurves);
+            finish(header, CURVEPOLYGON);
+        }
+
+        /**
+         * Write a CompoundCurve or a MultiCurve
+         * @param keyword The WKT keyword constant
+         * @return Whether it is not empty
+         */
+        private boolean curves(int keyword) {
+            if (!open()) {
+                putEmpty(keyword);
+                return false;
+            }
+            int header = putHeader();
+            int count = putCount();
+            int numberOfCurves = 0;
+            curveDepth++;
+            do {
+                curveElement(keyword == MULTICURVE);
+                numberOfCurves++;
+            } while (nextItem(numberOfCurves > 1));
+            expect(')', "{')', ',', WhiteSpace}");
+            curveDepth--;
+            setCount(count, numberOfCurves);
+            finish(header, keyword);
+            return true;
+        }
+
+        private void multiSurface() {
+            if (!open()) {
+                putEmpty(MULTISURFACE);
+                return;
+            }
+            int header = putHeader();
+            int count = putCount();
+            int numberOfSurfaces = 0;
+            curveDepth++;
+            do {
+                if (peek() == '(') {
+                    position++;
+                    skipWhiteSpace();
+                    polygonCoordinates(POLYGON);
+                    skipWhiteSpace();
+                    expect(')', "{')', ',', WhiteSpace}");
+                } else {
+                    nestedSrid();
+                    int begin = position;
+                    if (keyword() != CURVEPOLYGON) {
+                        position = begin;
+                        throw error("{'(', 'CURVEPOLYGON', 'SRID='}");
+                    }
+                    curvePolygon();
+                }
+                numberOfSurfaces++;
+            } while (nextItem(numberOfSurfaces > 1));
+            expect(')', "{')', ',', WhiteSpace}");
+            curveDepth--;
+            setCount(count, numberOfSurfaces);
+            finish(header, MULTISURFACE);
+        }
+
+        private void geometryCollection() {
+            if (!open()) {
+                putEmpty(GEOMETRYCOLLECTION);
+                return;
+            }
+            int header = putHeader();
+            int count = putCount();
+            int numberOfGeometries = 0;
+            do {
+                geometry();
+                numberOfGeometries++;
+            } while (nextItem(numberOfGeometries > 1));
+            expect(')', "{')', ',', WhiteSpace}");
+            setCount(count, numberOfGeometries);
+            finish(header, GEOMETRYCOLLECTION);
+        }
+
+        /**
+         * Write an element of a CurvePolygon, CompoundCurve or MultiCurve
+         * @param allowCompoundCurve Whether the element can be a CompoundCurve
+         * @return Whether the element is not empty
+         */
+        private boolean curveElement(boolean allowCompoundCurve) {
+            if (peek() == '(') {
+                position++;
+                skipWhiteSpace();
+                int header = putHeader();
+                int count = putCount();
+                setCount(count, putCoordinates());
+                expect(')', "{')', ',', WhiteSpace}");
+                finish(header, LINESTRING);
+                return true;
+            }
+            nestedSrid();
+            int begin = position;
+            int keyword = keyword();
+            if (keyword == CIRCULARSTRING) {
+                return lineString(CIRCULARSTRING);
+            } else if (keyword == COMPOUNDCURVE && allowCompoundCurve) {
+                return curves(COMPOUNDCURVE);
+            }
+            position = begin;
+            throw error(allowCompoundCurve ? "{'(', 'CIRCULARSTRING', 'COMPOUNDCURVE', 'SRID='}" : "{'(', 'CIRCULARSTRING', 'SRID='}");
+        }
+
+        /**
+         * Write the rings of a Polygon or a Triangle with its header
+         * @param keyword The WKT keyword constant
+         */
+        private void polygonCoordinates(int keyword) {
+            int header = putHeader();
+            int count = putCount();
+            int numberOfRings = 0;
+            do {
+                expect('(', "'('");
+                int numberOfCoordinates = putCount();
+                setCount(numberOfCoordinates, putCoordinates());
+                expect(')', "{')', ','}");
+                numberOfRings++;
+            } while (nextItem(false));
+            setCount(count, numberOfRings);
+            finish(header, keyword);
+        }
+
+        /**
+         * Write a run of Coordinates as Points.  Like the WKTReader, the Points get the Dimension after the last
+         * Coordinate of the run.
+         * @return The number of Points
+         */
+        private int putPoints() {
+            int numberOfPoints = 0;
+            do {
+                if (numberOfPoints == points.length) {
+                    points = Arrays.copyOf(points, points.length * 2);
+                }
+                points[numberOfPoints++] = putHeader();
+                putCoordinate();
+            } while (consume(','));
+            for (int i = 0; i < numberOfPoints; i++) {
+                finish(points[i], POINT);
+            }
+            return numberOfPoints;
+        }
+
+        /**
+         * Write a run of Coordinates
+         * @return The number of Coordinates
+         */
+        private int putCoordinates() {
+            int numberOfCoordinates = 0;
+            do {
+                putCoordinate();
+                numberOfCoordinates++;
+            } while (consume(','));
+            return numberOfCoordinates;
+        }
+
+        /**
+         * Write a Coordinate with the ordinates it has, like the WKBWriter
+         */
+        private void putCoordinate() {
+            Dimension previous = dimension;
+            coordinate(true);
+            checkDimension(previous);
+            ensure(32);
+            out.putDouble(x);
+            out.putDouble(y);
+            if (!Double.isNaN(z)) {
+                out.putDouble(z);
+            }
+            if (!Double.isNaN(m)) {
+                out.putDouble(m);
+            }
+        }
+
+        /**
+         * Parse the dimension and the opening parenthesis or EMPTY after a Geometry keyword
+         * @return true if the Geometry has coordinates, false if it is EMPTY
+         */
+        private boolean open() {
+            Dimension previous = dimension;
+            boolean hasCoordinates = header();
+            checkDimension(previous);
+            return hasCoordinates;
+        }
+
+        /**
+         * Give up when the Dimension changes inside a curved Geometry, whose LineStrings and Polygons the
+         * WKTReader builds after any nested Geometry
+         * @param previous The Dimension before
+         */
+        private void checkDimension(Dimension previous) {
+            if (curveDepth > 0 && dimension != previous) {
+                throw FALLBACK;
+            }
+        }
+
+        /**
+         * Parse the SRID prefix of a nested Geometry, and give up if it changes the SRID of the headers
+         * that are already written
+         */
+        private void nestedSrid() {
+            String previous = srid;
+            srid();
+            if (!Objects.equals(previous, srid)) {
+                throw FALLBACK;
+            }
+        }
+
+        /**
+         * Write the byte order, a geometry type that is set when the Geometry is finished, and the SRID
+         * @return The offset of the header
+         */
+        private int putHeader() {
+            ensure(9);
+            int offset = out.position();
+            out.put((byte) endian.getValue());
+            out.putInt(0);
+            if (wkbType == Type.EWKB && srid != null) {
+                if (sridValue == null) {
+                    try {
+                        sridValue = Integer.parseInt(srid);
+                    } catch (NumberFormatException e) {
+                        throw FALLBACK;
+                    }
+                }
+                out.putInt(sridValue);
+            }
+            return offset;
+        }
+
+        /**
+         * Set the geometry type of a finished Geometry with the current Dimension and SRID
+         * @param header The offset of the header
+         * @param keyword The WKT keyword constant
+         */
+        private void finish(int header, int keyword) {
+            int type = GEOMETRY_TYPES[keyword].getValue();
+            if (wkbType == Type.EWKB) {
+                if (dimension == Dimension.Three || dimension == Dimension.ThreeMeasured) {
+                    type = type | GeometryTypeFlag.Z.getValue();
+                }
+                if (dimension == Dimension.TwoMeasured || dimension == Dimension.ThreeMeasured) {
+                    type = type | GeometryTypeFlag.M.getValue();
+                }
+                if (srid != null) {
+                    type = type | GeometryTypeFlag.SRID.getValue();
+                }
+            }
+            out.putInt(header + 1, type);
+        }
+
+        /**
+         * Write a count that is set later
+         * @return The offset of the count
+         */
+        private int putCount() {
+            ensure(4);
+            int offset = out.position();
+            out.putInt(0);
+            return offset;
+        }
+
+        private void setCount(int offset, int count) {
+            out.putInt(offset, count);
+        }
+
+        private void putEmpty(int keyword) {
+            byte[] bytes = empties[keyword];
+            ensure(bytes.length);
+            out.put(bytes);
+        }
+
+        /**
+         * Grow the ByteBuffer if it has less room than a number of bytes
+         * @param numberOfBytes The number of bytes
+         */
+        private void ensure(int numberOfBytes) {
+            if (out.remaining() < numberOfBytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + numberOfBytes));
+                larger.order(out.order());
+                out.flip();
+                larger.put(out);
+                out = larger;
+            }
+        }
+
+    }
+
+    /**
+     * Thrown when a text is not transcoded directly.  It has no stack trace.
+     */
+    private static final class Fallback extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private Fallback() {
+            super(null, null, false, false);
+        }
+
+    }
+
+}
@@ -1,10 +1,16 @@
 package org.cugos.wkg;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 /**
  * Write a Geometry to a WKT String.
+ * <p>
+ * The whole Geometry is written into one StringBuilder, or streamed into any Appendable, like a java.io.Writer,
+ * without building a String for each part.  Wrap an unbuffered java.io.Writer in a BufferedWriter, because
+ * the text is appended in small pieces.
+ * </p>
  * @author Jared Erickson
  */
 public class WKTWriter implements Writer<String> {
@@ -14,6 +20,11 @@ public class WKTWriter implements Writer<String> {
      */
     private final boolean useInnerParensForMultiPoints;
 
+    /**
+     * The DoubleFormatter for the ordinates.  The default writes the shortest decimal that reads back to the same double.
+     */
+    private final DoubleFormatter formatter;
+
     /**
      * Create a new WKTWriter
      */
@@ -26,7 +37,17 @@ public class WKTWriter implements Writer<String> {
      * @param useInnerParensForMultiPoints The flag to determine is we should use inner parens for MultiPoint WKT.
      */
     public WKTWriter(boolean useInnerParensForMultiPoints) {
+        this(useInnerParensForMultiPoints, DoubleFormatter.shortest());
+    }
+
+    /**
+     * Create a WKTWriter
+     * @param useInnerParensForMultiPoints The flag to determine is we should use inner parens for MultiPoint WKT.
+     * @param formatter The DoubleFormatter for the ordinates, for example DoubleFormatter.maximumDecimals(6)
+     */
+    public WKTWriter(boolean useInnerParensForMultiPoints, DoubleFormatter formatter) {
         this.useInnerParensForMultiPoints = useInnerParensForMultiPoints;
+        this.formatter = formatter;
     }
 
     /**
@@ -52,41 +73,39 @@ public class WKTWriter implements Writer<String> {
      * @return A WKT String
      */
     public String write(Geometry g, boolean includeSrid, boolean includeDimension) {
-        if (g instanceof Point) {
-            return write((Point) g, includeSrid, includeDimension);
-        } else if (g instanceof LineString) {
-            return write((LineString) g, includeSrid, includeDimension);
-        } else if (g instanceof LinearRing) {
-            return write((LinearRing) g, includeSrid, includeDimension);
-        } else if (g instanceof Triangle) {
-            return write((Triangle) g, includeSrid, includeDimension);
-        } else if (g instanceof Polygon) {
-            return write((Polygon) g, includeSrid, includeDimension);
-        } else if (g instanceof MultiPoint) {
-            return write((MultiPoint) g, includeSrid, includeDimension);
-        } else if (g instanceof MultiLineString) {
-            return write((MultiLineString) g, includeSrid, includeDimension);
-        } else if (g instanceof MultiPolygon) {
-            return write((MultiPolygon) g, includeSrid, includeDimension);
-        } else if (g instanceof GeometryCollection) {
-            return write((GeometryCollection) g, includeSrid, includeDimension);
-        } else if (g instanceof CircularString) {
-            return write((CircularString) g, includeSrid, includeDimension);
-        } else if (g instanceof CurvePolygon) {
-            return write((CurvePolygon) g, includeSrid, includeDimension);
-        } else if (g instanceof MultiCurve) {
-            return write((MultiCurve) g, includeSrid, includeDimension);
-        } else if (g instanceof PolyHedralSurface) {
-            return write((PolyHedralSurface) g, includeSrid, includeDimension);
-        } else if (g instanceof MultiSurface) {
-            return write((MultiSurface) g, includeSrid, includeDimension);
-        } else if (g instanceof CompoundCurve) {
-            return write((CompoundCurve) g, includeSrid, includeDimension);
-        } else if (g instanceof Tin) {
-            return write((Tin) g, includeSrid, includeDimension);
-        }
-        else {
-            throw new IllegalArgumentException("Unknown Geometry! " + g.getClass().getName());
+        StringBuilder builder = new StringBuilder();
+        try {
+            write(g, builder, includeSrid, includeDimension);
+        } catch (IOException e) {
+            // A StringBuilder does not throw IOExceptions
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Write a Geometry as WKT to an Appendable, like a StringBuilder or a java.io.Writer
+     * @param g The Geometry
+     * @param appendable The Appendable
+     * @throws IOException if there is an error appending
+     */
+    public void write(Geometry g, Appendable appendable) throws IOException {
+        write(g, appendable, true, true);
+    }
+
+    /**
+     * Write a Geometry as WKT to an Appendable, like a StringBuilder or a java.io.Writer
+     * @param g The Geometry
+     * @param appendable The Appendable
+     * @param includeSrid Whether to include the SRID prefix (SRID=4326;) or not
+     * @param includeDimension Whether to include the dimension (M, Z, or ZM) before the Geometry type
+     * @throws IOException if there is an error appending
+     */
+    public void write(Geometry g, Appendable appendable, boolean includeSrid, boolean includeDimension) throws IOException {
+        try {
+            g.accept(new WriteVisitor(appendable, includeSrid, includeDimension));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
     }
 
@@ -95,23 +114,25 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(Point p, boolean includeSrid, boolean includeDimension) {
+        return write((Geometry) p, includeSrid, includeDimension);
+    }
+
+    private void writePoint(Point p, Appendable builder, boolean includeSrid, boolean includeDimension) throws IOException {
         Coordinate coordinate = p.getCoordinate();
-        StringBuilder builder = new StringBuilder();
         if (includeSrid) {
-            addSrid(p, builder);
+            appendSrid(p, builder);
         }
         builder.append("POINT");
         if (coordinate.isEmpty()) {
             builder.append(" EMPTY");
         } else {
             if (includeDimension) {
-                addDimension(p, builder);
+                appendDimension(p, builder);
             }
             builder.append(" (");
-            addCoordinate(coordinate, builder);
+            appendCoordinate(coordinate, builder);
             builder.append(")");
         }
-        return builder.toString();
     }
 
     public String write(LineString lineString) {
@@ -119,23 +140,25 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(LineString lineString, boolean includeSrid, boolean includeDimension) {
-        List coordinates = lineString.getCoordinates();
-        StringBuilder builder = new StringBuilder();
+        return write((Geometry) lineString, includeSrid, includeDimension);
+    }
+
+    private void writeLineString(String type, LineString lineString, Appendable builder, boolean includeSrid, boolean includeDimension) throws IOException {
+        CoordinateSequence coordinates = lineString.getCoordinateSequence();
         if (includeSrid) {
-            addSrid(lineString, builder);
+            appendSrid(lineString, builder);
         }
-        builder.append("LINESTRING");
+        builder.append(type);
         if (coordinates.isEmpty()) {
             builder.append(" EMPTY");
         } else {
             if (includeDimension) {
-                addDimension(lineString, builder);
+                appendDimension(lineString, builder);
             }
             builder.append(" (");
-            addCoordinates(coordinates, builder);
+            appendCoordinateSequence(coordinates, builder);
             builder.append(")");
         }
-        return builder.toString();
     }
 
     public String write(LinearRing ring) {
@@ -143,21 +166,12 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(LinearRing lineString, boolean includeSrid, boolean includeDimension) {
-        List coordinates = lineString.getCoordinates();
         StringBuilder builder = new StringBuilder();
-        if (includeSrid) {
-            addSrid(lineString, builder);
-        }
-        builder.append("LINEARRING");
-        if (coordinates.isEmpty()) {
-            builder.append(" EMPTY");
-        } else {
-            if (includeDimension) {
-                addDimension(lineString, builder);
-            }
-            builder.append(" (");
-            addCoordinates(coordinates, builder);
-            builder.append(")");
+        try {
+            writeLineString("LINEARRING", lineString, builder, includeSrid, includeDimension);
+        } catch (IOException e) {
+            // A StringBuilder does not throw IOExceptions
+            throw new UncheckedIOException(e);
         }
         return builder.toString();
     }
@@ -167,27 +181,39 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(MultiPoint mp, boolean includeSrid, boolean includeDimension) {
+        return write((Geometry) mp, includeSrid, includeDimension);
+    }
+
+    private void writeMultiPoint(MultiPoint mp, Appendable builder, boolean includeSrid, boolean includeDimension) throws IOException {
         List<Point> points = mp.getPoints();
-        List<Coordinate> coords = new ArrayList<Coordinate>();
-        for(Point pt : points) {
-            coords.add(pt.getCoordinate());
-        }
-        StringBuilder builder = new StringBuilder();
         if (includeSrid) {
-            addSrid(mp, builder);
+            appendSrid(mp, builder);
         }
         builder.append("MULTIPOINT");
         if (points.isEmpty()) {
             builder.append(" EMPTY");
         } else {
             if (includeDimension) {
-                addDimension(mp, builder);
+                appendDimension(mp, builder);
             }
             builder.append(" (");
-            addCoordinates(coords, useInnerParensForMultiPoints, builder);
+            boolean first = true;
+            for (Point point : points) {
+                if (!first) {
+                    builder.append(", ");
+                } else {
+                    first = false;
+                }
+                if (useInnerParensForMultiPoints) {
+                    builder.append("(");
+                }
+                appendCoordinate(point.getCoordinate(), builder);
+                if (useInnerParensForMultiPoints) {
+                    builder.append(")");
+                }
+            }
             builder.append(")");
         }
-        return builder.toString();
     }
 
     public String write(Polygon p) {
@@ -195,30 +221,23 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(Polygon p, boolean includeSrid, boolean includeDimension) {
-        StringBuilder builder = new StringBuilder();
+        return write((Geometry) p, includeSrid, includeDimension);
+    }
+
+    private void writePolygon(String type, Polygon p, Appendable builder, boolean includeSrid, boolean includeDimension) throws IOException {
         if (includeSrid) {
-            addSrid(p, builder);
+            appendSrid(p, builder);
         }
-        builder.append("POLYGON");
-        if (p.getOuterLinearRing() == null || p.getOuterLinearRing().getCoordinates().isEmpty()) {
+        builder.append(type);
+        if (p.getOuterLinearRing() == null || p.getOuterLinearRing().getCoordinateSequence().isEmpty()) {
             builder.append(" EMPTY");
         } else {
             if (includeDimension) {
-                addDimension(p, builder);
+                appendDimension(p, builder);
             }
-            builder.append(" ((");
-            // Outer ring
-            addCoordinates(p.getOuterLinearRing().getCoordinates(), builder);
-            builder.append(")");
-            // Inner rings
-            for (LinearRing ring : p.getInnerLinearRings()) {
-                builder.append(", (");
-                addCoordinates(ring.getCoordinates(), builder);
-                builder.append(")");
-            }
-            builder.append(")");
+            builder.append(" ");
+            appendPolygonText(p, builder);
         }
-        return builder.toString();
     }
 
     public String write(MultiPolygon mp) {
@@ -226,40 +245,33 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(MultiPolygon mp, boolean includeSrid, boolean includeDimension) {
-        StringBuilder builder = new StringBuilder();
+        return write((Geometry) mp, includeSrid, includeDimension);
+    }
+
+    private void writePolygons(String type, Geometry g, List<? extends Polygon> polygons, Appendable builder,
+                               boolean includeSrid, boolean includeDimension) throws IOException {
         if (includeSrid) {
-            addSrid(mp, builder);
+            appendSrid(g, builder);
         }
-        builder.append("MULTIPOLYGON");
-        if (mp.getPolygons().isEmpty()) {
+        builder.append(type);
+        if (polygons.isEmpty()) {
             builder.append(" EMPTY");
         } else {
             if (includeDimension) {
-                addDimension(mp, builder);
+                appendDimension(g, builder);
             }
             builder.append(" (");
             boolean firstPoly = true;
-            for (Polygon polygon : mp.getPolygons()) {
+            for (Polygon polygon : polygons) {
                 if (!firstPoly) {
                     builder.append(", ");
                 } else {
                     firstPoly = false;
                 }
-                builder.append("((");
-                // Outer ring
-                addCoordinates(polygon.getOuterLinearRing().getCoordinates(), builder);
-                builder.append(")");
-                // Inner rings
-                for (LinearRing ring : polygon.getInnerLinearRings()) {
-                    builder.append(", (");
-                    addCoordinates(ring.getCoordinates(), builder);
-                    builder.append(")");
-                }
-                builder.append(")");
+                appendPolygonText(polygon, builder);
             }
             builder.append(")");
         }
-        return builder.toString();
     }
 
     public String write(MultiLineString ml) {
@@ -267,16 +279,19 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(MultiLineString ml, boolean includeSrid, boolean includeDimension) {
-        StringBuilder builder = new StringBuilder();
+        return write((Geometry) ml, includeSrid, includeDimension);
+    }
+
+    private void writeMultiLineString(MultiLineString ml, Appendable builder, boolean includeSrid, boolean includeDimension) throws IOException {
         if (includeSrid) {
-            addSrid(ml, builder);
+            appendSrid(ml, builder);
         }
         builder.append("MULTILINESTRING");
         if (ml.getLineStrings().isEmpty()) {
             builder.append(" EMPTY");
         } else {
             if (includeDimension) {
-                addDimension(ml, builder);
+                appendDimension(ml, builder);
             }
             builder.append(" (");
             boolean firstLine = true;
@@ -287,12 +302,11 @@ public class WKTWriter implements Writer<String> {
                     firstLine = false;
                 }
                 builder.append("(");
-                addCoordinates(line.getCoordinates(), builder);
+                appendCoordinateSequence(line.getCoordinateSequence(), builder);
                 builder.append(")");
             }
             builder.append(")");
         }
-        return builder.toString();
     }
 
     public String write(GeometryCollection gc) {
@@ -300,16 +314,19 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(GeometryCollection gc, boolean includeSrid, boolean includeDimension) {
-        StringBuilder builder = new StringBuilder();
+        return write((Geometry) gc, includeSrid, includeDimension);
+    }
+
+    private void writeGeometryCollection(GeometryCollection gc, Appendable builder, boolean includeSrid, boolean includeDimension) throws IOException {
         if (includeSrid) {
-            addSrid(gc, builder);
+            appendSrid(gc, builder);
         }
         builder.append("GEOMETRYCOLLECTION");
         if (gc.getGeometries().isEmpty()) {
             builder.append(" EMPTY");
         } else {
             if (includeDimension) {
-                addDimension(gc, builder);
+                appendDimension(gc, builder);
             }
             builder.append(" (");
             boolean first = true;
@@ -319,11 +336,10 @@ public class WKTWriter implements Writer<String> {
                 } else {
                     first = false;
                 }
-                builder.append(write(g, false, false));
+                write(g, builder, false, false);
             }
             builder.append(")");
         }
-        return builder.toString();
     }
 
     public String write(Triangle t) {
@@ -331,30 +347,7 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(Triangle t, boolean includeSrid, boolean includeDimension) {
-        StringBuilder builder = new StringBuilder();
-        if (includeSrid) {
-            addSrid(t, builder);
-        }
-        builder.append("TRIANGLE");
-        if (t.getOuterLinearRing().getCoordinates().isEmpty()) {
-            builder.append(" EMPTY");
-        } else {
-            if (includeDimension) {
-                addDimension(t, builder);
-            }
-            builder.append(" ((");
-            // Outer ring
-            addCoordinates(t.getOuterLinearRing().getCoordinates(), builder);
-            builder.append(")");
-            // Inner rings
-            for (LinearRing ring : t.getInnerLinearRings()) {
-                builder.append(", (");
-                addCoordinates(ring.getCoordinates(), builder);
-                builder.append(")");
-            }
-            builder.append(")");
-        }
-        return builder.toString();
+        return write((Geometry) t, includeSrid, includeDimension);
     }
 
     public String write(CircularString circularString) {
@@ -362,23 +355,25 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(CircularString circularString, boolean includeSrid, boolean includeDimension) {
-        List coordinates = circularString.getCoordinates();
-        StringBuilder builder = new StringBuilder();
+        return write((Geometry) circularString, includeSrid, includeDimension);
+    }
+
+    private void writeCircularString(CircularString circularString, Appendable builder, boolean includeSrid, boolean includeDimension) throws IOException {
+        CoordinateSequence coordinates = circularString.getCoordinateSequence();
         if (includeSrid) {
-            addSrid(circularString, builder);
+            appendSrid(circularString, builder);
         }
         builder.append("CIRCULARSTRING");
         if (coordinates.isEmpty()) {
             builder.append(" EMPTY");
         } else {
             if (includeDimension) {
-                addDimension(circularString, builder);
+                appendDimension(circularString, builder);
             }
             builder.append(" (");
-            addCoordinates(coordinates, builder);
+            appendCoordinateSequence(coordinates, builder);
             builder.append(")");
         }
-        return builder.toString();
     }
 
     public String write(Tin tin) {
@@ -386,40 +381,7 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(Tin tin, boolean includeSrid, boolean includeDimension) {
-        StringBuilder builder = new StringBuilder();
-        if (includeSrid) {
-            addSrid(tin, builder);
-        }
-        builder.append("TIN");
-        if (tin.getTriangles().isEmpty()) {
-            builder.append(" EMPTY");
-        } else {
-            if (includeDimension) {
-                addDimension(tin, builder);
-            }
-            builder.append(" (");
-            boolean first = true;
-            for (Triangle t : tin.getTriangles()) {
-                if (!first) {
-                    builder.append(", ");
-                } else {
-                    first = false;
-                }
-                builder.append("((");
-                // Outer ring
-                addCoordinates(t.getOuterLinearRing().getCoordinates(), builder);
-                builder.append(")");
-                // Inner rings
-                for (LinearRing ring : t.getInnerLinearRings()) {
-                    builder.append(", (");
-                    addCoordinates(ring.getCoordinates(), builder);
-                    builder.append(")");
-                }
-                builder.append(")");
-            }
-            builder.append(")");
-        }
-        return builder.toString();
+        return write((Geometry) tin, includeSrid, includeDimension);
     }
 
     public String write(CompoundCurve compoundCurve) {
@@ -427,18 +389,22 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(CompoundCurve compoundCurve, boolean includeSrid, boolean includeDimension) {
-        StringBuilder builder = new StringBuilder();
+        return write((Geometry) compoundCurve, includeSrid, includeDimension);
+    }
+
+    private void writeCompoundCurve(CompoundCurve compoundCurve, Appendable builder, boolean includeSrid, boolean includeDimension) throws IOException {
         if (includeSrid) {
-            addSrid(compoundCurve, builder);
+            appendSrid(compoundCurve, builder);
         }
         builder.append("COMPOUNDCURVE");
         if (compoundCurve.getCurves().isEmpty()) {
             builder.append(" EMPTY");
         } else {
             if (includeDimension) {
-                addDimension(compoundCurve, builder);
+                appendDimension(compoundCurve, builder);
             }
             builder.append(" (");
+            PartVisitor parts = new PartVisitor(builder);
             boolean first = true;
             for (Curve curve : compoundCurve.getCurves()) {
                 if (!first) {
@@ -446,17 +412,10 @@ public class WKTWriter implements Writer<String> {
                 } else {
                     first = false;
                 }
-                if (curve instanceof LineString) {
-                    builder.append("(");
-                    addCoordinates(((LineString) curve).getCoordinates(), builder);
-                    builder.append(")");
-                } else if (curve instanceof CircularString) {
-                    builder.append(write((CircularString) curve, false, false));
-                }
+                curve.accept(parts);
             }
             builder.append(")");
         }
-        return builder.toString();
     }
 
     public String write(CurvePolygon p) {
@@ -464,47 +423,31 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(CurvePolygon p, boolean includeSrid, boolean includeDimension) {
-        StringBuilder builder = new StringBuilder();
+        return write((Geometry) p, includeSrid, includeDimension);
+    }
+
+    private void writeCurvePolygon(CurvePolygon p, Appendable builder, boolean includeSrid, boolean includeDimension) throws IOException {
         if (includeSrid) {
-            addSrid(p, builder);
+            appendSrid(p, builder);
         }
         builder.append("CURVEPOLYGON");
         if (p.getOuterCurve() == null || p.getOuterCurve().isEmpty()) {
             builder.append(" EMPTY");
         } else {
             if (includeDimension) {
-                addDimension(p, builder);
+                appendDimension(p, builder);
             }
             builder.append(" (");
+            PartVisitor parts = new PartVisitor(builder);
             // Outer ring
-            Curve outerCurve = p.getOuterCurve();
-            if (outerCurve instanceof LineString) {
-                LineString line = (LineString) outerCurve;
-                builder.append("(");
-                addCoordinates(line.getCoordinates(), builder);
-                builder.append(")");
-            } else if (outerCurve instanceof CircularString) {
-                builder.append(write((CircularString) outerCurve, false, false));
-            } else if (outerCurve instanceof CompoundCurve) {
-                builder.append(write((CompoundCurve) outerCurve, false, false));
-            }
+            p.getOuterCurve().accept(parts);
             // Inner rings
             for (Curve curve : p.getInnerCurves()) {
                 builder.append(", ");
-                if (curve instanceof LineString) {
-                    LineString line = (LineString) curve;
-                    builder.append("(");
-                    addCoordinates(line.getCoordinates(), builder);
-                    builder.append(")");
-                } else if (curve instanceof CircularString) {
-                    builder.append(write((CircularString) curve, false, false));
-                } else if (curve instanceof CompoundCurve) {
-                    builder.append(write((CompoundCurve) curve, false, false));
-                }
+                curve.accept(parts);
             }
             builder.append(")");
         }
-        return builder.toString();
     }
 
     public String write(MultiCurve mc) {
@@ -512,18 +455,22 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(MultiCurve mc, boolean includeSrid, boolean includeDimension) {
-        StringBuilder builder = new StringBuilder();
+        return write((Geometry) mc, includeSrid, includeDimension);
+    }
+
+    private void writeMultiCurve(MultiCurve mc, Appendable builder, boolean includeSrid, boolean includeDimension) throws IOException {
         if (includeSrid) {
-            addSrid(mc, builder);
+            appendSrid(mc, builder);
         }
         builder.append("MULTICURVE");
         if (mc.isEmpty()) {
             builder.append(" EMPTY");
         } else {
             if (includeDimension) {
-                addDimension(mc, builder);
+                appendDimension(mc, builder);
             }
             builder.append(" (");
+            PartVisitor parts = new PartVisitor(builder);
             boolean first = true;
             for (Curve c : mc.getCurves()) {
                 if (first) {
@@ -531,20 +478,10 @@ public class WKTWriter implements Writer<String> {
                 } else {
                     builder.append(", ");
                 }
-                if (c instanceof LineString) {
-                    LineString line = (LineString) c;
-                    builder.append("(");
-                    addCoordinates(line.getCoordinates(), builder);
-                    builder.append(")");
-                } else if (c instanceof CircularString) {
-                    builder.append(write((CircularString) c, false, false));
-                } else if (c instanceof CompoundCurve) {
-                    builder.append(write((CompoundCurve) c, false, false));
-                }
+                c.accept(parts);
             }
             builder.append(")");
         }
-        return builder.toString();
     }
 
     public String write(PolyHedralSurface phs) {
@@ -552,40 +489,7 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(PolyHedralSurface phs, boolean includeSrid, boolean includeDimension) {
-        StringBuilder builder = new StringBuilder();
-        if (includeSrid) {
-            addSrid(phs, builder);
-        }
-        builder.append("POLYHEDRALSURFACE");
-        if (phs.getPolygons().isEmpty()) {
-            builder.append(" EMPTY");
-        } else {
-            if (includeDimension) {
-                addDimension(phs, builder);
-            }
-            builder.append(" (");
-            boolean firstPoly = true;
-            for (Polygon polygon : phs.getPolygons()) {
-                if (!firstPoly) {
-                    builder.append(", ");
-                } else {
-                    firstPoly = false;
-                }
-                builder.append("((");
-                // Outer ring
-                addCoordinates(polygon.getOuterLinearRing().getCoordinates(), builder);
-                builder.append(")");
-                // Inner rings
-                for (LinearRing ring : polygon.getInnerLinearRings()) {
-                    builder.append(", (");
-                    addCoordinates(ring.getCoordinates(), builder);
-                    builder.append(")");
-                }
-                builder.append(")");
-            }
-            builder.append(")");
-        }
-        return builder.toString();
+        return write((Geometry) phs, includeSrid, includeDimension);
     }
 
     public String write(MultiSurface ms) {
@@ -593,18 +497,22 @@ public class WKTWriter implements Writer<String> {
     }
 
     public String write(MultiSurface ms, boolean includeSrid, boolean includeDimension) {
-        StringBuilder builder = new StringBuilder();
+        return write((Geometry) ms, includeSrid, includeDimension);
+    }
+
+    private void writeMultiSurface(MultiSurface ms, Appendable builder, boolean includeSrid, boolean includeDimension) throws IOException {
         if (includeSrid) {
-            addSrid(ms, builder);
+            appendSrid(ms, builder);
         }
         builder.append("MULTISURFACE");
         if (ms.isEmpty()) {
             builder.append(" EMPTY");
         } else {
             if (includeDimension) {
-                addDimension(ms, builder);
+                appendDimension(ms, builder);
             }
             builder.append(" (");
+            PartVisitor parts = new PartVisitor(builder);
             boolean first = true;
             for (Surface s : ms.getSurfaces()) {
                 if (first) {
@@ -612,75 +520,85 @@ public class WKTWriter implements Writer<String> {
                 } else {
                     builder.append(", ");
                 }
-                if (s instanceof Polygon) {
-                    addPolygonText((Polygon) s, builder);
-                } else if (s instanceof CurvePolygon) {
-                    builder.append(write((CurvePolygon) s, false, false));
-                }
+                s.accept(parts);
             }
             builder.append(")");
         }
-        return builder.toString();
     }
 
-    protected void addCoordinates(List<Coordinate> coordinates, StringBuilder builder) {
-        addCoordinates(coordinates, false, builder);
-    }
-
-    protected void addCoordinates(List<Coordinate> coordinates, boolean innerParens, StringBuilder builder) {
-        boolean first = true;
-        for (Coordinate coordinate : coordinates) {
-            if (!first) {
+    /**
+     * Add the packed ordinates of a CoordinateSequence to the Appendable without creating Coordinates.  It writes
+     * the Coordinates of LineStrings, LinearRings, CircularStrings and Polygon rings, while
+     * {@link #appendCoordinate(Coordinate, Appendable)} writes the Coordinates of Points and MultiPoints.
+     * The Z and M values that are not NaN are written.
+     * @param coordinates The CoordinateSequence
+     * @param builder The Appendable
+     * @throws IOException if there is an error appending
+     */
+    protected void appendCoordinateSequence(CoordinateSequence coordinates, Appendable builder) throws IOException {
+        for (int i = 0; i < coordinates.size(); i++) {
+            if (i > 0) {
                 builder.append(", ");
-            } else {
-                first = false;
             }
-            if (innerParens) {
-                builder.append("(");
+            formatter.format(coordinates.getX(i), builder);
+            builder.append(' ');
+            formatter.format(coordinates.getY(i), builder);
+            double z = coordinates.getZ(i);
+            if (!Double.isNaN(z)) {
+                builder.append(' ');
+                formatter.format(z, builder);
             }
-            addCoordinate(coordinate, builder);
-            if (innerParens) {
-                builder.append(")");
+            double m = coordinates.getM(i);
+            if (!Double.isNaN(m)) {
+                builder.append(' ');
+                formatter.format(m, builder);
             }
         }
     }
 
     /**
-     * Add a Coordinate to the StringBuilder
+     * Add a Coordinate to the Appendable
      * @param coordinate The Coordinate
-     * @param builder The StringBuilder
+     * @param builder The Appendable
+     * @throws IOException if there is an error appending
      */
-    protected void addCoordinate(Coordinate coordinate, StringBuilder builder) {
-        builder.append(coordinate.getX());
-        builder.append(" ");
-        builder.append(coordinate.getY());
+    protected void appendCoordinate(Coordinate coordinate, Appendable builder) throws IOException {
+        formatter.format(coordinate.getX(), builder);
+        builder.append(' ');
+        formatter.format(coordinate.getY(), builder);
         if (coordinate.getDimension() == Dimension.TwoMeasured) {
-            builder.append(" ").append(coordinate.getM());
+            builder.append(' ');
+            formatter.format(coordinate.getM(), builder);
         } else if (coordinate.getDimension() == Dimension.Three) {
-            builder.append(" ").append(coordinate.getZ());
+            builder.append(' ');
+            formatter.format(coordinate.getZ(), builder);
         } else if (coordinate.getDimension() == Dimension.ThreeMeasured) {
-            builder.append(" ").append(coordinate.getZ());
-            builder.append(" ").append(coordinate.getM());
+            builder.append(' ');
+            formatter.format(coordinate.getZ(), builder);
+            builder.append(' ');
+            formatter.format(coordinate.getM(), builder);
         }
     }
 
     /**
-     * Add the SRID to the StringBuilder
+     * Add the SRID to the Appendable
      * @param g The Geometry
-     * @param builder The StringBuilder
+     * @param builder The Appendable
+     * @throws IOException if there is an error appending
      */
-    protected void addSrid(Geometry g, StringBuilder builder) {
+    protected void appendSrid(Geometry g, Appendable builder) throws IOException {
         if (g.getSrid() != null) {
             builder.append("SRID=").append(g.getSrid()).append(";");
         }
     }
 
     /**
-     * Add the Dimension (Z, M, or ZM) to the StringBuilder
+     * Add the Dimension (Z, M, or ZM) to the Appendable
      * @param g The Geometry
-     * @param builder The StringBuilder
+     * @param builder The Appendable
+     * @throws IOException if there is an error appending
      */
-    protected void addDimension(Geometry g, StringBuilder builder) {
+    protected void appendDimension(Geometry g, Appendable builder) throws IOException {
         if (g.getDimension() == Dimension.TwoMeasured) {
             builder.append(" M");
         } else if (g.getDimension() == Dimension.Three) {
@@ -691,21 +609,316 @@ public class WKTWriter implements Writer<String> {
     }
 
     /**
-     * Add Polygon outer ring and inner rings to the StringBuilder
+     * Add Polygon outer ring and inner rings to the Appendable
      * @param polygon The Polygon
-     * @param builder The StringBuilder
+     * @param builder The Appendable
+     * @throws IOException if there is an error appending
      */
-    protected void addPolygonText(Polygon polygon, StringBuilder builder) {
+    protected void appendPolygonText(Polygon polygon, Appendable builder) throws IOException {
         builder.append("((");
         // Outer ring
-        addCoordinates(polygon.getOuterLinearRing().getCoordinates(), builder);
+        appendCoordinateSequence(polygon.getOuterLinearRing().getCoordinateSequence(), builder);
         builder.append(")");
         // Inner rings
         for (LinearRing ring : polygon.getInnerLinearRings()) {
             builder.append(", (");
-            addCoordinates(ring.getCoordinates(), builder);
+            appendCoordinateSequence(ring.getCoordinateSequence(), builder);
             builder.append(")");
         }
         builder.append(")");
     }
+
+    /**
+     * A GeometryVisitor that writes a Geometry as WKT to an Appendable.  IOExceptions are thrown as
+     * UncheckedIOExceptions because a GeometryVisitor can not throw checked exceptions.
+     */
+    private final class WriteVisitor implements GeometryVisitor<Void> {
+
+        /**
+         * The Appendable
+         */
+        private final Appendable builder;
+
+        /**
+         * Whether to include the SRID prefix
+         */
+        private final boolean includeSrid;
+
+        /**
+         * Whether to include the dimension
+         */
+        private final boolean includeDimension;
+
+        WriteVisitor(Appendable builder, boolean includeSrid, boolean includeDimension) {
+            this.builder = builder;
+            this.includeSrid = includeSrid;
+            this.includeDimension = includeDimension;
+        }
+
+        @Override
+        public Void visit(Point point) {
+            try {
+                writePoint(point, builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(LineString lineString) {
+            try {
+                writeLineString("LINESTRING", lineString, builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Triangle triangle) {
+            try {
+                writePolygon("TRIANGLE", triangle, builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Polygon polygon) {
+            try {
+                writePolygon("POLYGON", polygon, builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiPoint multiPoint) {
+            try {
+                writeMultiPoint(multiPoint, builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiLineString multiLineString) {
+            try {
+                writeMultiLineString(multiLineString, builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiPolygon multiPolygon) {
+            try {
+                writePolygons("MULTIPOLYGON", multiPolygon, multiPolygon.getPolygons(), builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(GeometryCollection geometryCollection) {
+            try {
+                writeGeometryCollection(geometryCollection, builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(CircularString circularString) {
+            try {
+                writeCircularString(circularString, builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(CompoundCurve compoundCurve) {
+            try {
+                writeCompoundCurve(compoundCurve, builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(CurvePolygon curvePolygon) {
+            try {
+                writeCurvePolygon(curvePolygon, builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiCurve multiCurve) {
+            try {
+                writeMultiCurve(multiCurve, builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiSurface multiSurface) {
+            try {
+                writeMultiSurface(multiSurface, builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(PolyHedralSurface polyHedralSurface) {
+            try {
+                writePolygons("POLYHEDRALSURFACE", polyHedralSurface, polyHedralSurface.getPolygons(), builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Tin tin) {
+            try {
+                writePolygons("TIN", tin, tin.getTriangles(), builder, includeSrid, includeDimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A GeometryVisitor that writes the Curves and Surfaces that are parts of a CompoundCurve, a CurvePolygon,
+     * a MultiCurve or a MultiSurface.  LineStrings are written as coordinates in parens and Polygons as Polygon
+     * text, while CircularStrings, CompoundCurves and CurvePolygons are written with their type.  Other
+     * Geometries can not be parts and are not written.  IOExceptions are thrown as UncheckedIOExceptions.
+     */
+    private final class PartVisitor implements GeometryVisitor<Void> {
+
+        /**
+         * The Appendable
+         */
+        private final Appendable builder;
+
+        PartVisitor(Appendable builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public Void visit(LineString lineString) {
+            try {
+                builder.append("(");
+                appendCoordinateSequence(lineString.getCoordinateSequence(), builder);
+                builder.append(")");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Polygon polygon) {
+            try {
+                appendPolygonText(polygon, builder);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(CircularString circularString) {
+            try {
+                writeCircularString(circularString, builder, false, false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(CompoundCurve compoundCurve) {
+            try {
+                writeCompoundCurve(compoundCurve, builder, false, false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(CurvePolygon curvePolygon) {
+            try {
+                writeCurvePolygon(curvePolygon, builder, false, false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Point point) {
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiPoint multiPoint) {
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiLineString multiLineString) {
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiPolygon multiPolygon) {
+            return null;
+        }
+
+        @Override
+        public Void visit(GeometryCollection geometryCollection) {
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiCurve multiCurve) {
+            return null;
+        }
+
+        @Override
+        public Void visit(MultiSurface multiSurface) {
+            return null;
+        }
+
+        @Override
+        public Void visit(PolyHedralSurface polyHedralSurface) {
+            return null;
+        }
+
+        @Override
+        public Void visit(Tin tin) {
+            return null;
+        }
+    }
+
 }
@@ -0,0 +1,79 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteCodecTest {
+
+    @Test
+    public void hex() throws IOException {
+        byte[] bytes = {0, 1, 127, -128, -1, 16, -85};
+        assertEquals("00017F80FF10AB", ByteCodec.encodeHex(bytes));
+        assertArrayEquals(bytes, ByteCodec.decodeHex("00017F80FF10AB"));
+        assertArrayEquals(bytes, ByteCodec.decodeHex(new StringBuilder("00017f80ff10ab")));
+        StringWriter writer = new StringWriter();
+        ByteCodec.encodeHex(bytes, 2, 3, writer);
+        assertEquals("7F80FF", writer.toString());
+        assertEquals("", ByteCodec.encodeHex(new byte[0]));
+        assertEquals(0, ByteCodec.decodeHex("").length);
+    }
+
+    @Test
+    public void invalidHex() {
+        assertThrows(IllegalArgumentException.class, () -> ByteCodec.decodeHex("ABC"));
+        assertThrows(IllegalArgumentException.class, () -> ByteCodec.decodeHex("0G"));
+        assertThrows(IllegalArgumentException.class, () -> ByteCodec.decodeHex("0\u00e9"));
+    }
+
+    @Test
+    public void base64() throws IOException {
+        Random random = new Random(42);
+        for (int length = 0; length < 3000; length += 1 + length / 10) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            String expected = Base64.getEncoder().encodeToString(bytes);
+            assertEquals(expected, ByteCodec.encodeBase64(bytes));
+            StringWriter writer = new StringWriter();
+            ByteCodec.encodeBase64(bytes, 0, bytes.length, writer);
+            assertEquals(expected, writer.toString());
+            assertArrayEquals(bytes, ByteCodec.decodeBase64(expected));
+            assertArrayEquals(bytes, ByteCodec.decodeBase64(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes)));
+            assertArrayEquals(bytes, ByteCodec.decodeBase64(Base64.getMimeEncoder().encodeToString(bytes)));
+        }
+    }
+
+    @Test
+    public void invalidBase64() {
+        assertThrows(IllegalArgumentException.class, () -> ByteCodec.decodeBase64("AAAAA"));
+        assertThrows(IllegalArgumentException.class, () -> ByteCodec.decodeBase64("AA==AA"));
+        assertThrows(IllegalArgumentException.class, () -> ByteCodec.decodeBase64("AA="));
+        assertThrows(IllegalArgumentException.class, () -> ByteCodec.decodeBase64("AA*A"));
+    }
+
+    @Test
+    public void readAndWriteGeometry() throws IOException {
+        Geometry geometry = new WKTReader().read("SRID=4326;LINESTRING (101 234,345 567)");
+        WKBWriter wkbWriter = new WKBWriter(WKB.Type.EWKB, WKB.Endian.Little);
+        StringBuilder builder = new StringBuilder();
+        wkbWriter.writeToHex(geometry, builder);
+        assertEquals(wkbWriter.writeToHex(geometry), builder.toString());
+        String base64 = wkbWriter.writeToBase64(geometry);
+        assertEquals(Base64.getEncoder().encodeToString(wkbWriter.write(geometry)), base64);
+        assertEquals(geometry.toString(), new WKBReader().readBase64(base64).toString());
+
+        GeoPackageWriter geoPackageWriter = new GeoPackageWriter();
+        GeoPackageReader geoPackageReader = new GeoPackageReader();
+        builder = new StringBuilder();
+        geoPackageWriter.writeToBase64(geometry, builder);
+        assertEquals(geoPackageWriter.writeToBase64(geometry), builder.toString());
+        assertEquals(geometry.toString(), geoPackageReader.readBase64(builder).toString());
+        assertEquals(geometry.toString(), geoPackageReader.read(geoPackageWriter.writeToHex(geometry)).toString());
+    }
+
+}
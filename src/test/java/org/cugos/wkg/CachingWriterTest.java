@@ -0,0 +1,102 @@
+package org.cugos.wkg;
+
+import org.cugos.wkg.WKB.Endian;
+import org.cugos.wkg.WKB.Type;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CachingWriterTest {
+
+    private final WKTReader wkt = new WKTReader();
+
+    @Test
+    public void cacheStrings() {
+        CountingWriter counter = new CountingWriter(new WKTWriter());
+        CachingWriter<String> writer = new CachingWriter<>(counter);
+        assertEquals("WKT", writer.getName());
+        assertSame(counter, writer.getWriter());
+        Geometry geometry = wkt.read("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))");
+        String first = writer.write(geometry);
+        assertEquals("POLYGON ((0.0 0.0, 10.0 0.0, 10.0 10.0, 0.0 10.0, 0.0 0.0))", first);
+        assertSame(first, writer.write(geometry));
+        assertEquals(1, counter.count.get());
+        assertEquals(1, writer.size());
+
+        // A different Geometry with the same coordinates is cached separately
+        writer.write(wkt.read("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))"));
+        assertEquals(2, counter.count.get());
+
+        // Setting the SRID invalidates the cached encoding
+        geometry.setSrid("4326");
+        assertEquals("SRID=4326;POLYGON ((0.0 0.0, 10.0 0.0, 10.0 10.0, 0.0 10.0, 0.0 0.0))", writer.write(geometry));
+        assertEquals(3, counter.count.get());
+
+        writer.invalidate(geometry);
+        writer.write(geometry);
+        assertEquals(4, counter.count.get());
+
+        writer.clear();
+        assertEquals(0, writer.size());
+    }
+
+    @Test
+    public void countConcurrentModifications() throws InterruptedException {
+        Geometry geometry = wkt.read("POINT (1 2)");
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            String srid = String.valueOf(i);
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    geometry.setSrid(srid);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(threads.length * 10000, geometry.modifications);
+    }
+
+    @Test
+    public void cacheBytes() {
+        WKBWriter wkbWriter = new WKBWriter(Type.EWKB, Endian.Little);
+        CachingWriter<byte[]> writer = new CachingWriter<>(wkbWriter);
+        Geometry geometry = wkt.read("SRID=4326;POINT (1 2)");
+        byte[] first = writer.write(geometry);
+        assertArrayEquals(wkbWriter.write(geometry), first);
+        first[0] = 9;
+        byte[] second = writer.write(geometry);
+        assertNotSame(first, second);
+        assertArrayEquals(wkbWriter.write(geometry), second);
+    }
+
+    private static class CountingWriter implements Writer<String> {
+
+        private final Writer<String> writer;
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        CountingWriter(Writer<String> writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public String getName() {
+            return writer.getName();
+        }
+
+        @Override
+        public String write(Geometry g) {
+            count.incrementAndGet();
+            return writer.write(g);
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoordinateBufferTest {
+
+    private final WKTReader wktReader = new WKTReader();
+
+    private final WKBReader wkbReader = new WKBReader();
+
+    private byte[] write(String wkt, WKB.Endian endian) {
+        return new WKBWriter(WKB.Type.EWKB, endian).write(wktReader.read(wkt));
+    }
+
+    private void assertCoordinates(Geometry geometry, CoordinateBuffer buffer) {
+        List<Coordinate> coordinates = geometry.getCoordinates();
+        assertEquals(coordinates.size(), buffer.getNumberOfCoordinates());
+        for (int i = 0; i < coordinates.size(); i++) {
+            assertEquals(coordinates.get(i), new Coordinate(buffer.getX(i), buffer.getY(i), buffer.getZ(i), buffer.getM(i)));
+        }
+    }
+
+    @Test
+    public void point() {
+        CoordinateBuffer buffer = wkbReader.readInto(write("SRID=4326;POINT ZM (1 2 3 4)", WKB.Endian.Little), new CoordinateBuffer());
+        assertEquals(WKB.GeometryType.Point, buffer.getGeometryType());
+        assertEquals(Dimension.ThreeMeasured, buffer.getDimension());
+        assertEquals(4, buffer.getStride());
+        assertTrue(buffer.hasSrid());
+        assertEquals(4326, buffer.getSrid());
+        assertEquals(1, buffer.getNumberOfParts());
+        assertEquals(1, buffer.getNumberOfRings());
+        assertEquals(1, buffer.getNumberOfCoordinates());
+        assertArrayEquals(new double[]{1, 2, 3, 4}, Arrays.copyOf(buffer.getCoordinates(), 4));
+    }
+
+    @Test
+    public void multiPolygon() {
+        String wkt = "MULTIPOLYGON (((40 40, 20 45, 45 30, 40 40)), ((20 35, 10 30, 10 10, 30 5, 45 20, 20 35),(30 20, 20 15, 20 25, 30 20)))";
+        CoordinateBuffer buffer = wkbReader.readInto(write(wkt, WKB.Endian.Big), new CoordinateBuffer(1));
+        assertEquals(WKB.GeometryType.MultiPolygon, buffer.getGeometryType());
+        assertEquals(Dimension.Two, buffer.getDimension());
+        assertFalse(buffer.hasSrid());
+        assertEquals(2, buffer.getNumberOfParts());
+        assertEquals(WKB.GeometryType.Polygon, buffer.getPartType(0));
+        assertEquals(WKB.GeometryType.Polygon, buffer.getPartType(1));
+        assertArrayEquals(new int[]{0, 1, 3}, Arrays.copyOf(buffer.getPartOffsets(), 3));
+        assertEquals(3, buffer.getNumberOfRings());
+        assertArrayEquals(new int[]{0, 4, 10, 14}, Arrays.copyOf(buffer.getRingOffsets(), 4));
+        assertCoordinates(wktReader.read(wkt), buffer);
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.getPartType(2));
+    }
+
+    @Test
+    public void mixedDimensions() {
+        Geometry geometry = new GeometryCollection(Arrays.asList(
+                new Point(Coordinate.create3D(1, 2, 3), Dimension.Three),
+                new LineString(Arrays.asList(Coordinate.create2D(4, 5), Coordinate.create2D(6, 7)), Dimension.Two),
+                new Point(Coordinate.create3DM(8, 9, 10, 11), Dimension.ThreeMeasured)
+        ), Dimension.Three);
+        CoordinateBuffer buffer = wkbReader.readInto(new WKBWriter(WKB.Type.EWKB, WKB.Endian.Little).write(geometry), new CoordinateBuffer());
+        assertEquals(3, buffer.getStride());
+        assertEquals(4, buffer.getNumberOfCoordinates());
+        assertArrayEquals(new double[]{1, 2, 3, 4, 5, Double.NaN, 6, 7, Double.NaN, 8, 9, 10}, Arrays.copyOf(buffer.getCoordinates(), 12));
+        assertEquals(WKB.GeometryType.LineString, buffer.getPartType(1));
+    }
+
+    @Test
+    public void reuse() {
+        CoordinateBuffer buffer = new CoordinateBuffer(2);
+        String[] wkts = {
+            "LINESTRING (1 2, 3 4, 5 6, 7 8, 9 10)",
+            "POLYGON ((35 10, 45 45, 15 40, 10 20, 35 10),(20 30, 35 35, 30 20, 20 30))",
+            "CURVEPOLYGON(CIRCULARSTRING(0 0, 4 0, 4 4, 0 4, 0 0),(1 1, 3 3, 3 1, 1 1))",
+            "POINT (1 2)"
+        };
+        for (String wkt : wkts) {
+            wkbReader.readInto(write(wkt, WKB.Endian.Little), buffer);
+            assertCoordinates(wktReader.read(wkt), buffer);
+        }
+        double[] coordinates = buffer.getCoordinates();
+        ByteBuffer bytes = ByteBuffer.wrap(write(wkts[0], WKB.Endian.Big));
+        wkbReader.readInto(bytes, buffer);
+        assertFalse(bytes.hasRemaining());
+        assertSame(coordinates, buffer.getCoordinates());
+        assertEquals(5, buffer.getNumberOfCoordinates());
+        assertEquals(0, buffer.clear().getNumberOfCoordinates());
+        assertNull(buffer.getGeometryType());
+    }
+
+    @Test
+    public void readDirectAndReadOnlyBuffers() {
+        CoordinateBuffer buffer = new CoordinateBuffer();
+        String wkt = "SRID=4326;POLYGON Z ((35 10 1, 45 45 2, 15 40 3, 10 20 4, 35 10 1))";
+        for (WKB.Endian endian : WKB.Endian.values()) {
+            byte[] bytes = write(wkt, endian);
+            for (ByteOrder order : new ByteOrder[] {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+                ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 2);
+                direct.position(2);
+                direct.put(bytes).position(2);
+                direct.order(order);
+                ByteBuffer readOnly = ByteBuffer.wrap(bytes).asReadOnlyBuffer().order(order);
+                for (ByteBuffer bytesBuffer : new ByteBuffer[] {direct, readOnly}) {
+                    wkbReader.readInto(bytesBuffer, buffer);
+                    assertCoordinates(wktReader.read(wkt), buffer);
+                    assertEquals(4326, buffer.getSrid());
+                    assertFalse(bytesBuffer.hasRemaining());
+                    assertEquals(order, bytesBuffer.order());
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoordinateSequenceTest {
+
+    @Test
+    public void createFromList() {
+        List<Coordinate> coordinates = Arrays.asList(Coordinate.create2D(1, 2), Coordinate.create3D(3, 4, 5), Coordinate.create2D(6, 7));
+        CoordinateSequence sequence = CoordinateSequence.create(coordinates);
+        assertEquals(3, sequence.size());
+        assertEquals(3, sequence.getStride());
+        assertEquals(Dimension.Three, sequence.getDimension());
+        assertArrayEquals(new double[]{1, 2, Double.NaN, 3, 4, 5, 6, 7, Double.NaN}, sequence.toArray());
+        assertEquals(coordinates, sequence.asList());
+        assertEquals(Dimension.Two, sequence.getCoordinate(0).getDimension());
+        assertTrue(Double.isNaN(sequence.getM(1)));
+        assertSame(sequence, CoordinateSequence.create(sequence.asList()));
+        assertTrue(CoordinateSequence.create(Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void createFromOrdinates() {
+        double[] ordinates = {1, 2, 3, 4, 5, 6};
+        CoordinateSequence sequence = new CoordinateSequence(ordinates, Dimension.TwoMeasured);
+        ordinates[0] = 100;
+        assertEquals(2, sequence.size());
+        assertEquals(Coordinate.create2DM(1, 2, 3), sequence.getCoordinate(0));
+        assertEquals(6, sequence.getM(1), 0.0);
+        assertTrue(Double.isNaN(sequence.getZ(1)));
+        assertEquals(new CoordinateSequence(new double[]{1, 2, 3, 4, 5, 6}, Dimension.TwoMeasured), sequence);
+        assertThrows(IllegalArgumentException.class, () -> new CoordinateSequence(new double[]{1, 2, 3}, Dimension.Two));
+        assertThrows(IndexOutOfBoundsException.class, () -> sequence.getCoordinate(2));
+    }
+
+    @Test
+    public void view() {
+        LineString line = new LineString(new CoordinateSequence(new double[]{1, 2, 3, 4}, Dimension.Two), Dimension.Two);
+        List<Coordinate> coordinates = line.getCoordinates();
+        assertEquals(Arrays.asList(Coordinate.create2D(1, 2), Coordinate.create2D(3, 4)), coordinates);
+        assertThrows(UnsupportedOperationException.class, () -> coordinates.add(Coordinate.create2D(5, 6)));
+        assertEquals("LINESTRING (1.0 2.0, 3.0 4.0)", line.toString());
+        assertEquals(2, line.getNumberOfCoordinates());
+        assertEquals(Envelope.create2D(1, 2, 3, 4), line.getEnvelope());
+    }
+
+    @Test
+    public void geometries() {
+        CoordinateSequence sequence = new CoordinateSequence(new double[]{0, 0, 1, 1, 1, 0, 0, 0}, Dimension.Two);
+        assertSame(sequence, new LinearRing(sequence, Dimension.Two).getCoordinateSequence());
+        assertSame(sequence, new CircularString(sequence, Dimension.Two, "4326").getCoordinateSequence());
+        LineString line = (LineString) new WKTReader().read("LINESTRING ZM (1 2 3 4, 5 6 7 8)");
+        assertEquals(4, line.getCoordinateSequence().getStride());
+        byte[] bytes = new WKBWriter(WKB.Type.EWKB, WKB.Endian.Little).write(line);
+        LineString decoded = (LineString) new WKBReader().read(bytes);
+        assertEquals(line.getCoordinateSequence(), decoded.getCoordinateSequence());
+    }
+
+}
@@ -0,0 +1,101 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The DoubleFormatter Unit Test
+ * @author Jared Erickson
+ */
+public class DoubleFormatterTest {
+
+    @Test
+    public void shortest() {
+        DoubleFormatter formatter = DoubleFormatter.shortest();
+        assertSame(formatter, DoubleFormatter.shortest());
+        assertEquals("0.0", formatter.format(0.0));
+        assertEquals("-0.0", formatter.format(-0.0));
+        assertEquals("1.0", formatter.format(1.0));
+        assertEquals("-122.3456", formatter.format(-122.3456));
+        assertEquals("0.30000000000000004", formatter.format(0.1 + 0.2));
+        assertEquals("0.00001", formatter.format(1.0E-5));
+        assertEquals("-0.00000000015", formatter.format(-1.5E-10));
+        assertEquals("10000000.0", formatter.format(1.0E7));
+        assertEquals("9007199254740992.0", formatter.format(9007199254740992.0));
+        assertEquals("10000000000000000000000.0", formatter.format(1.0E22));
+        assertEquals("NaN", formatter.format(Double.NaN));
+        assertEquals("-Infinity", formatter.format(Double.NEGATIVE_INFINITY));
+        assertEquals(Double.MIN_VALUE, Double.parseDouble(formatter.format(Double.MIN_VALUE)));
+        assertTrue(formatter.format(Double.MIN_VALUE).endsWith("49"));
+        assertEquals(Double.MAX_VALUE, Double.parseDouble(formatter.format(Double.MAX_VALUE)));
+    }
+
+    @Test
+    public void sameDigitsAsDoubleToString() {
+        DoubleFormatter formatter = DoubleFormatter.shortest();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            double value = i % 2 == 0 ? Double.longBitsToDouble(random.nextLong()) : (random.nextDouble() - 0.5) * 360;
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            String text = formatter.format(value);
+            assertFalse(text.contains("E"), text);
+            assertEquals(value, Double.parseDouble(text), text);
+            String expected = Double.toString(value);
+            if (!expected.contains("E")) {
+                assertEquals(expected, text);
+            }
+        }
+    }
+
+    @Test
+    public void maximumDecimals() {
+        DoubleFormatter formatter = DoubleFormatter.maximumDecimals(2);
+        assertEquals("123.46", formatter.format(123.456));
+        assertEquals("123.4", formatter.format(123.4));
+        assertEquals("2.0", formatter.format(1.999));
+        assertEquals("0.01", formatter.format(0.005));
+        assertEquals("0.0", formatter.format(0.004));
+        assertEquals("0.0", formatter.format(-0.001));
+        assertEquals("-1.5", formatter.format(-1.5));
+        assertEquals("10000000.0", formatter.format(1.0E7));
+        assertEquals("3.0", DoubleFormatter.maximumDecimals(0).format(2.5));
+    }
+
+    @Test
+    public void fixedDecimals() {
+        assertEquals("1.500", DoubleFormatter.fixedDecimals(3).format(1.5));
+        assertEquals("0.000", DoubleFormatter.fixedDecimals(3).format(0.0001));
+        assertEquals("-0.001", DoubleFormatter.fixedDecimals(3).format(-0.0005));
+        assertEquals("3", DoubleFormatter.fixedDecimals(0).format(2.5));
+        assertEquals("10000000", DoubleFormatter.fixedDecimals(0).format(1.0E7));
+        assertEquals("0.0000000000000000000001", DoubleFormatter.fixedDecimals(22).format(1.0E-22));
+    }
+
+    @Test
+    public void invalidDecimals() {
+        assertThrows(IllegalArgumentException.class, () -> DoubleFormatter.maximumDecimals(-1));
+        assertThrows(IllegalArgumentException.class, () -> DoubleFormatter.fixedDecimals(DoubleFormatter.MAXIMUM_DECIMALS + 1));
+    }
+
+    @Test
+    public void appendable() throws IOException {
+        StringBuilder builder = new StringBuilder("x=");
+        DoubleFormatter.shortest().format(1.25, builder);
+        assertEquals("x=1.25", builder.toString());
+        StringWriter writer = new StringWriter();
+        DoubleFormatter.maximumDecimals(1).format(1.25, writer);
+        assertEquals("1.3", writer.toString());
+    }
+
+}
@@ -0,0 +1,69 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The DoubleParser Unit Test.  Double.parseDouble is the reference.
+ * @author Jared Erickson
+ */
+public class DoubleParserTest {
+
+    private void assertParse(String text) {
+        char[] chars = ("[" + text + "]").toCharArray();
+        double expected = Double.parseDouble(text);
+        double actual = DoubleParser.parse(chars, 1, chars.length - 1);
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual), text);
+        byte[] bytes = ("[" + text + "]").getBytes(StandardCharsets.US_ASCII);
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(DoubleParser.parse(bytes, 1, bytes.length - 1)), text);
+    }
+
+    @Test
+    public void parse() {
+        for (String text : new String[] {
+            "0", "-0", "0.0", "+5", "7.", "1", "-122.3456789", "00001.25000", "1E5", "1e+05", "1.5e-3",
+            "9007199254740993", "9007199254740992.5", "1e22", "1e23", "0.1000000000000000055511151231257827",
+            "3.0000000000000000000000000000001", "123456789012345678901234567890", "9999999999999999999",
+            "18446744073709551615", "18446744073709551616", "1.7976931348623157e308", "1.7976931348623159e308",
+            "1e309", "2.2250738585072011e-308", "2.2250738585072014e-308", "4.9e-324", "2.4703282292062327e-324",
+            "2.4703282292062328e-324", "1e-400", "0e999999999"
+        }) {
+            assertParse(text);
+        }
+    }
+
+    @Test
+    public void parseRandom() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            double value = i % 2 == 0 ? Double.longBitsToDouble(random.nextLong()) : (random.nextDouble() - 0.5) * 360;
+            if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+                assertParse(Double.toString(value));
+                assertParse(DoubleFormatter.shortest().format(value));
+            }
+            StringBuilder digits = new StringBuilder();
+            int length = 1 + random.nextInt(25);
+            for (int j = 0; j < length; j++) {
+                digits.append((char) ('0' + random.nextInt(10)));
+            }
+            digits.insert(random.nextInt(length), '.').append('e').append(random.nextInt(700) - 350);
+            assertParse("0" + digits);
+        }
+    }
+
+    @Test
+    public void invalid() {
+        for (String text : new String[] {"", "-", ".", "1e", "1e+", "1x", "--1", "e5", "1.5.", "NaN"}) {
+            char[] chars = text.toCharArray();
+            assertThrows(NumberFormatException.class, () -> DoubleParser.parse(chars, 0, chars.length), text);
+            byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+            assertThrows(NumberFormatException.class, () -> DoubleParser.parse(bytes, 0, bytes.length), text);
+        }
+    }
+
+}
@@ -100,4 +100,17 @@ public class EnvelopeTest {
         assertNotEquals(envelope2.hashCode(), envelope3.hashCode());
     }
 
+    @Test
+    public void intersects() {
+        Envelope envelope = Envelope.create2D(0, 0, 10, 10);
+        assertTrue(envelope.intersects(Envelope.create2D(5, 5, 15, 15)));
+        assertTrue(envelope.intersects(Envelope.create2D(10, 10, 20, 20)));
+        assertTrue(envelope.intersects(Envelope.create2D(2, 2, 3, 3)));
+        assertTrue(envelope.intersects(Envelope.create3D(-5, 2, 100, 20, 3, 200)));
+        assertFalse(envelope.intersects(Envelope.create2D(11, 0, 20, 10)));
+        assertFalse(envelope.intersects(Envelope.create2D(0, -10, 10, -1)));
+        assertFalse(envelope.intersects(Envelope.createEmpty()));
+        assertFalse(Envelope.createEmpty().intersects(envelope));
+    }
+
 }
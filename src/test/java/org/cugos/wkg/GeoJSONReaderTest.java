@@ -2,6 +2,8 @@ package org.cugos.wkg;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -9,6 +11,8 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class GeoJSONReaderTest {
 
@@ -298,4 +302,102 @@ public class GeoJSONReaderTest {
         assertEquals(expectedGeometry.toString(), actualGeometry.toString());
     }
 
+    @Test
+    public void readNumbers() {
+        GeoJSONReader reader = new GeoJSONReader();
+        String json = "{\"type\": \"Feature\", \"properties\": {\"id\": 12, \"area\": 1.5e3, \"count\": 12345678901}, "
+            + "\"geometry\": {\"type\": \"Point\", \"coordinates\": [-1.22345678901234567E2, 4.75E-1, 1E2]}}";
+        Geometry geometry = reader.read(json);
+        assertEquals(Coordinate.create3D(-122.34567890123457, 0.475, 100.0).toString(), ((Point) geometry).getCoordinate().toString());
+        Map data = (Map) geometry.getData();
+        assertEquals(12, data.get("id"));
+        assertEquals(1500.0, data.get("area"));
+        assertEquals(12345678901.0, data.get("count"));
+    }
+
+    @Test
+    public void readBytes() {
+        GeoJSONReader reader = new GeoJSONReader();
+        byte[] bytes = "{\"type\": \"Feature\", \"properties\": {\"name\": \"S\u00e3o Paulo\"}, \"geometry\": {\"type\": \"LineString\", \"coordinates\": [[1, 2], [3, 4]]}}"
+            .getBytes(StandardCharsets.UTF_8);
+        Geometry geometry = reader.read(bytes);
+        assertEquals("SRID=4326;LINESTRING (1.0 2.0, 3.0 4.0)", new WKTWriter().write(geometry));
+        assertEquals("S\u00e3o Paulo", ((Map) geometry.getData()).get("name"));
+
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 4).put(new byte[2]).put(bytes).put(new byte[2]);
+        buffer.position(2).limit(2 + bytes.length);
+        assertEquals("SRID=4326;LINESTRING (1.0 2.0, 3.0 4.0)", new WKTWriter().write(reader.read(buffer.slice())));
+        assertEquals("SRID=4326;LINESTRING (1.0 2.0, 3.0 4.0)", new WKTWriter().write(reader.read(buffer)));
+        assertEquals(2, buffer.position());
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        assertEquals("SRID=4326;LINESTRING (1.0 2.0, 3.0 4.0)", new WKTWriter().write(reader.read(direct)));
+        assertEquals(0, direct.position());
+    }
+
+    @Test
+    public void readMixedDimensions() {
+        GeoJSONReader reader = new GeoJSONReader();
+        String json = "{\"type\": \"LineString\", \"coordinates\": [[1, 2], [3, 4, 5], [6, 7, 8, 9], []]}";
+        LineString lineString = (LineString) reader.read(json);
+        assertEquals(Dimension.Two, lineString.getDimension());
+        assertEquals(Arrays.asList(Coordinate.create2D(1, 2), Coordinate.create3D(3, 4, 5), Coordinate.create3D(6, 7, 8), Coordinate.createEmpty()),
+            lineString.getCoordinates());
+    }
+
+    @Test
+    public void readLargeGeometry() {
+        StringBuilder json = new StringBuilder("{\"type\": \"MultiLineString\", \"coordinates\": [");
+        for (int i = 0; i < 100; i++) {
+            json.append(i == 0 ? "[" : ", [");
+            for (int j = 0; j < 1000; j++) {
+                json.append(j == 0 ? "[" : ", [").append(i).append(", ").append(j * 0.5).append(']');
+            }
+            json.append(']');
+        }
+        json.append("]}");
+        MultiLineString multiLineString = (MultiLineString) new GeoJSONReader().read(json.toString());
+        assertEquals(100, multiLineString.getLineStrings().size());
+        assertEquals(Coordinate.create2D(99, 499.5), multiLineString.getLineStrings().get(99).getCoordinates().get(999));
+    }
+
+    @Test
+    public void readInvalid() {
+        GeoJSONReader reader = new GeoJSONReader();
+        assertNull(reader.read("{\"type\": \"Feature\", \"geometry\": null, \"properties\": {}}"));
+        assertNull(reader.read("{\"type\": \"Unknown\"}"));
+        for (String json : Arrays.asList("", "[1, 2]", "{\"type\": \"Point\", \"coordinates\": [1, 2]",
+            "{\"type\": \"Point\", \"coordinates\": [1, 2]}}", "{\"type\": \"LineString\", \"coordinates\": [1, 2]}")) {
+            assertThrows(IllegalStateException.class, () -> reader.read(json), json);
+        }
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> reader.read("{\"type\": \"Point\" \"coordinates\": [1, 2]}"));
+        assertEquals("Unable to parse GeoJSON at byte 17! Expecting '}'", e.getMessage());
+    }
+
+    @Test
+    public void readWithFilter() {
+        GeoJSONReader reader = new GeoJSONReader(Envelope.create2D(0, 0, 10, 10));
+        String json = "{\"type\": \"FeatureCollection\", \"features\": ["
+            + "{\"type\": \"Feature\", \"properties\": {\"id\": 1}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [1, 1]}}, "
+            + "{\"type\": \"Feature\", \"bbox\": [20, 20, 30, 30], \"properties\": {\"id\": 2}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [20, 20]}}, "
+            + "{\"type\": \"Feature\", \"properties\": {\"id\": 3}, \"geometry\": {\"type\": \"Polygon\", \"coordinates\": [[[-10, -10], [-10, 20], [20, 20], [-10, -10]]]}}]}";
+        GeometryCollection collection = (GeometryCollection) reader.read(json);
+        assertEquals(2, collection.getGeometries().size());
+        assertEquals(3, ((Map) collection.getGeometries().get(1).getData()).get("id"));
+        assertNull(reader.read("{\"type\": \"Feature\", \"properties\": {}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [11, 1]}}"));
+        assertNull(reader.read("{\"type\": \"Point\", \"bbox\": [11, 1, 11, 1], \"coordinates\": [1, 1]}"));
+        assertNotNull(reader.read("{\"type\": \"Point\", \"coordinates\": [10, 10]}"));
+    }
+
+    @Test
+    public void readWithFilterDropsBeforeBuilding() {
+        // A Point with an array of positions can not be built, so a dropped Feature must not build its Geometry
+        String geometry = "{\"type\": \"GeometryCollection\", \"geometries\": [{\"type\": \"Point\", \"coordinates\": [[20, 20], [30, 30]]}]}";
+        String dropped = "{\"type\": \"Feature\", \"properties\": {}, \"geometry\": " + geometry + "}";
+        String droppedByBbox = "{\"type\": \"Feature\", \"properties\": {}, \"geometry\": " + geometry + ", \"bbox\": [20, 20, 30, 30]}";
+        GeoJSONReader reader = new GeoJSONReader(Envelope.create2D(0, 0, 10, 10));
+        assertNull(reader.read(dropped));
+        assertNull(reader.read(droppedByBbox));
+        assertThrows(IllegalStateException.class, () -> new GeoJSONReader(Envelope.create2D(0, 0, 25, 25)).read(dropped));
+    }
+
 }
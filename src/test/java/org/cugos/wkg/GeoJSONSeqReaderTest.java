@@ -0,0 +1,160 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeoJSONSeqReaderTest {
+
+    private final WKTWriter wktWriter = new WKTWriter();
+
+    private final List<String> texts = Arrays.asList(
+        "{\"type\": \"Feature\", \"properties\": {\"id\": 1}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [1, 2]}}",
+        "{\"type\": \"LineString\", \"coordinates\": [[1, 2], [3, 4]]}",
+        "{\"type\": \"Feature\", \"properties\": {\"id\": 3}, \"geometry\": null}",
+        "{\"type\": \"Feature\", \"properties\": {\"id\": 4}, \"geometry\": {\"type\": \"Polygon\", \"coordinates\": [[[0, 0], [1, 1], [1, 0], [0, 0]]]}}"
+    );
+
+    private final List<String> wkts = Arrays.asList(
+        "SRID=4326;POINT (1.0 2.0)",
+        "SRID=4326;LINESTRING (1.0 2.0, 3.0 4.0)",
+        "SRID=4326;POLYGON ((0.0 0.0, 1.0 1.0, 1.0 0.0, 0.0 0.0))"
+    );
+
+    private InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<String> read(GeoJSONSeqReader reader) {
+        List<String> values = new ArrayList<>();
+        while (reader.hasNext()) {
+            values.add(wktWriter.write(reader.next()));
+        }
+        assertThrows(NoSuchElementException.class, reader::next);
+        return values;
+    }
+
+    @Test
+    public void readNDJSON() {
+        for (String lineBreak : new String[] {"\n", "\r\n"}) {
+            String text = "\n" + String.join(lineBreak, texts) + lineBreak + "  " + lineBreak;
+            for (int bufferSize : new int[] {1, 7, GeoJSONSeqReader.DEFAULT_BUFFER_SIZE}) {
+                for (int batchSize : new int[] {1, 2, GeoJSONSeqReader.DEFAULT_BATCH_SIZE}) {
+                    GeoJSONSeqReader reader = GeoJSONSeqReader.builder().bufferSize(bufferSize).batchSize(batchSize).build(input(text));
+                    assertEquals(wkts, read(reader));
+                }
+            }
+        }
+        assertEquals(wkts, read(new GeoJSONSeqReader(input(String.join("\n", texts)))));
+        assertTrue(read(new GeoJSONSeqReader(input(""))).isEmpty());
+    }
+
+    @Test
+    public void readGeoJSONSeq() {
+        // Texts of a GeoJSON Text Sequence can span several lines
+        StringBuilder text = new StringBuilder();
+        for (String json : texts) {
+            text.append('\u001E').append(json.replace(", ", ",\n  ")).append('\n');
+        }
+        for (int bufferSize : new int[] {1, 7, GeoJSONSeqReader.DEFAULT_BUFFER_SIZE}) {
+            assertEquals(wkts, read(GeoJSONSeqReader.builder().bufferSize(bufferSize).batchSize(3).build(input(text.toString()))));
+        }
+    }
+
+    @Test
+    public void readInParallel() {
+        int numberOfTexts = 10_000;
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < numberOfTexts; i++) {
+            text.append("{\"type\": \"Feature\", \"properties\": {\"id\": ").append(i)
+                .append("}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [").append(i).append(", ").append(-i).append("]}}\n");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int batchSize : new int[] {1, 7, 100}) {
+                GeoJSONSeqReader reader = GeoJSONSeqReader.builder().executor(executor).batchSize(batchSize).build(input(text.toString()));
+                int i = 0;
+                while (reader.hasNext()) {
+                    Geometry geometry = reader.next();
+                    assertEquals(i, ((Map) geometry.getData()).get("id"));
+                    assertEquals(Coordinate.create2D(i, -i), ((Point) geometry).getCoordinate());
+                    i++;
+                }
+                assertEquals(numberOfTexts, i);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void malformed() {
+        String text = texts.get(0) + "\n{\"type\": \"Point\", \"coordinates\": [1, 2]\n\n" + texts.get(1) + "\n";
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (GeoJSONSeqReader.Builder builder : Arrays.asList(GeoJSONSeqReader.builder(), GeoJSONSeqReader.builder().executor(executor, 2).batchSize(1))) {
+                GeoJSONSeqReader reader = builder.build(input(text));
+                IllegalStateException e = assertThrows(IllegalStateException.class, () -> read(reader));
+                assertTrue(e.getMessage().startsWith("Unable to read record 2! Unable to parse GeoJSON at byte 39!"), e.getMessage());
+
+                GeoJSONSeqReader skippingReader = builder.skipMalformed().build(input(text));
+                assertEquals(wkts.subList(0, 2), read(skippingReader));
+                assertEquals(1, skippingReader.getNumberOfSkippedRecords());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> GeoJSONSeqReader.builder().batchSize(0));
+        assertThrows(IllegalArgumentException.class, () -> GeoJSONSeqReader.builder().executor(Runnable::run, 0));
+    }
+
+    @Test
+    public void readAfterMalformed() {
+        String text = texts.get(0) + "\n{bad\n" + texts.get(1) + "\n{\"type\": \"Point\"\n" + texts.get(3) + "\n";
+        for (int batchSize : new int[] {1, 2, GeoJSONSeqReader.DEFAULT_BATCH_SIZE}) {
+            GeoJSONSeqReader reader = GeoJSONSeqReader.builder().batchSize(batchSize).build(input(text));
+            assertEquals(wkts.get(0), wktWriter.write(reader.next()));
+            IllegalStateException e = assertThrows(IllegalStateException.class, reader::hasNext);
+            assertTrue(e.getMessage().startsWith("Unable to read record 2!"), e.getMessage());
+            assertEquals(wkts.get(1), wktWriter.write(reader.next()));
+            e = assertThrows(IllegalStateException.class, reader::next);
+            assertTrue(e.getMessage().startsWith("Unable to read record 4!"), e.getMessage());
+            assertEquals(wkts.get(2), wktWriter.write(reader.next()));
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void readFile(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("features.geojsonl");
+        Files.write(path, texts, StandardCharsets.UTF_8);
+        try (Stream<Geometry> stream = GeoJSONSeqReader.builder().build(path).stream()) {
+            assertEquals(wkts, stream.map(wktWriter::write).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void readWithFilter() {
+        String text = String.join("\n", texts);
+        GeoJSONSeqReader reader = GeoJSONSeqReader.builder().batchSize(2).filter(Envelope.create2D(2, 3, 5, 5)).build(input(text));
+        assertEquals(Arrays.asList("SRID=4326;LINESTRING (1.0 2.0, 3.0 4.0)"), read(reader));
+    }
+
+}
@@ -0,0 +1,61 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeoJSONSeqWriterTest {
+
+    private final List<Geometry> geometries = Arrays.asList(
+        new Point(Coordinate.create2D(1, 2), Dimension.Two).setData(Collections.singletonMap("name", "first")),
+        new LineString(Arrays.asList(Coordinate.create2D(1, 2), Coordinate.create2D(3.5, 4)), Dimension.Two)
+    );
+
+    @Test
+    public void writeNDJSON() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GeoJSONSeqWriter writer = new GeoJSONSeqWriter(out)) {
+            writer.write(geometries);
+        }
+        assertEquals("{\"type\": \"Feature\", \"properties\": {\"name\": \"first\"}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [1.0, 2.0]}}\n"
+            + "{\"type\": \"Feature\", \"properties\": {}, \"geometry\": {\"type\": \"LineString\", \"coordinates\": [[1.0, 2.0], [3.5, 4.0]]}}\n",
+            out.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    @Test
+    public void writeGeoJSONSeq() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GeoJSONSeqWriter writer = GeoJSONSeqWriter.builder().format(GeoJSONSeqWriter.Format.GeoJSONSeq).geometries()
+            .geoJSONWriter(new GeoJSONWriter(DoubleFormatter.fixedDecimals(1))).bufferSize(8).build(out);
+        for (Geometry geometry : geometries) {
+            writer.write(geometry);
+        }
+        writer.flush();
+        assertEquals("\u001E{\"type\": \"Point\", \"coordinates\": [1.0, 2.0]}\n"
+            + "\u001E{\"type\": \"LineString\", \"coordinates\": [[1.0, 2.0], [3.5, 4.0]]}\n",
+            out.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        for (GeoJSONSeqWriter.Format format : GeoJSONSeqWriter.Format.values()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (GeoJSONSeqWriter writer = GeoJSONSeqWriter.builder().format(format).build(out)) {
+                writer.write(geometries);
+            }
+            List<String> wkts = new ArrayList<>();
+            new GeoJSONSeqReader(new ByteArrayInputStream(out.toByteArray())).forEachRemaining(geometry -> wkts.add(new WKTWriter().write(geometry)));
+            assertEquals(Arrays.asList("SRID=4326;POINT (1.0 2.0)", "SRID=4326;LINESTRING (1.0 2.0, 3.5 4.0)"), wkts);
+        }
+    }
+
+}
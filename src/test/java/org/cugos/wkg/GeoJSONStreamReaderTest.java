@@ -0,0 +1,195 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeoJSONStreamReaderTest {
+
+    private final WKTWriter wktWriter = new WKTWriter();
+
+    private final String json = "{\"type\": \"FeatureCollection\", \"name\": {\"ignored\": [1, \"]\", {}]}, \"features\": [\n"
+        + "  {\"type\": \"Feature\", \"properties\": {\"id\": 1, \"name\": \"Tacoma\"}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [122.34, -43.56]}},\n"
+        + "  {\"type\": \"Feature\", \"geometry\": null, \"properties\": {\"id\": 2}},\n"
+        + "  {\"geometry\": {\"coordinates\": [[1, 2, 3], [4, 5, 6]], \"type\": \"LineString\"}, \"type\": \"Feature\", "
+        + "\"properties\": {\"id\": 3, \"area\": 1.5e3, \"tags\": [\"a\", true, false, null], \"nested\": {\"x\": -0.25}}},\n"
+        + "  {\"type\": \"Feature\", \"id\": \"four\", \"properties\": {}, \"geometry\": {\"type\": \"Polygon\", "
+        + "\"coordinates\": [[[30, 10], [40, 40], [20, 40], [10, 20], [30, 10]], [[20, 30], [35, 35], [30, 20], [20, 30]]]}},\n"
+        + "  {\"type\": \"Feature\", \"properties\": {\"id\": 5}, \"geometry\": {\"type\": \"GeometryCollection\", \"geometries\": ["
+        + "{\"type\": \"MultiPoint\", \"coordinates\": [[1, 2], [3, 4]]}, {\"type\": \"MultiLineString\", \"coordinates\": [[[1, 2], [3, 4]]]}, "
+        + "{\"type\": \"MultiPolygon\", \"coordinates\": [[[[1, 1], [5, 1], [5, 5], [1, 1]]]]}]}}\n"
+        + "], \"crs\": null}";
+
+    private final List<String> wkts = Arrays.asList(
+        "SRID=4326;POINT (122.34 -43.56)",
+        "SRID=4326;LINESTRING Z (1.0 2.0 3.0, 4.0 5.0 6.0)",
+        "SRID=4326;POLYGON ((30.0 10.0, 40.0 40.0, 20.0 40.0, 10.0 20.0, 30.0 10.0), (20.0 30.0, 35.0 35.0, 30.0 20.0, 20.0 30.0))",
+        "SRID=4326;GEOMETRYCOLLECTION (MULTIPOINT (1.0 2.0, 3.0 4.0), MULTILINESTRING ((1.0 2.0, 3.0 4.0)), "
+            + "MULTIPOLYGON (((1.0 1.0, 5.0 1.0, 5.0 5.0, 1.0 1.0))))"
+    );
+
+    private List<Geometry> read(GeoJSONStreamReader reader) {
+        List<Geometry> geometries = new ArrayList<>();
+        while (reader.hasNext()) {
+            geometries.add(reader.next());
+        }
+        assertThrows(NoSuchElementException.class, reader::next);
+        return geometries;
+    }
+
+    private List<String> write(List<Geometry> geometries) {
+        List<String> values = new ArrayList<>();
+        for (Geometry geometry : geometries) {
+            values.add(wktWriter.write(geometry));
+        }
+        return values;
+    }
+
+    private InputStream input(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void readFeatureCollection() {
+        for (int bufferSize : new int[] {1, 7, 64, GeoJSONStreamReader.DEFAULT_BUFFER_SIZE}) {
+            List<Geometry> geometries = read(new GeoJSONStreamReader(input(json), bufferSize));
+            assertEquals(wkts, write(geometries));
+            Map data = (Map) geometries.get(0).getData();
+            assertEquals(1, data.get("id"));
+            assertEquals("Tacoma", data.get("name"));
+            data = (Map) geometries.get(1).getData();
+            assertEquals(3, data.get("id"));
+            assertEquals(1500.0, data.get("area"));
+            assertEquals(Arrays.asList("a", true, false, null), data.get("tags"));
+            assertEquals(Collections.singletonMap("x", -0.25), data.get("nested"));
+            assertEquals(Collections.emptyMap(), geometries.get(2).getData());
+            assertEquals(wkts, write(read(new GeoJSONStreamReader(new StringReader(json), bufferSize))));
+        }
+    }
+
+    @Test
+    public void readStrings() {
+        String json = "\uFEFF{\"type\":\"FeatureCollection\",\"features\":[{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[1,2]},"
+            + "\"properties\":{\"name\":\"S\u00e3o Paulo \u6771\u4eac \uD83C\uDF0D\",\"escaped\":\"\\\"q\\\" \\\\ \\/ \\n\\t \\u00e9 \\uD83C\\uDF0D\","
+            + "\"\\u0074ype\":\"key\"}}]}";
+        for (int bufferSize : new int[] {1, 3, GeoJSONStreamReader.DEFAULT_BUFFER_SIZE}) {
+            for (GeoJSONStreamReader reader : Arrays.asList(new GeoJSONStreamReader(input(json), bufferSize), new GeoJSONStreamReader(new StringReader(json), bufferSize))) {
+                List<Geometry> geometries = read(reader);
+                assertEquals(1, geometries.size());
+                Map data = (Map) geometries.get(0).getData();
+                assertEquals("S\u00e3o Paulo \u6771\u4eac \uD83C\uDF0D", data.get("name"));
+                assertEquals("\"q\" \\ / \n\t \u00e9 \uD83C\uDF0D", data.get("escaped"));
+                assertEquals("key", data.get("type"));
+            }
+        }
+    }
+
+    @Test
+    public void readSingleFeatureOrGeometry() {
+        String feature = "{\"type\": \"Feature\", \"properties\": {\"id\": 1}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [122.34, -43.56]}}";
+        List<Geometry> geometries = read(new GeoJSONStreamReader(input(feature)));
+        assertEquals(Collections.singletonList("SRID=4326;POINT (122.34 -43.56)"), write(geometries));
+        assertEquals(Collections.singletonMap("id", 1), geometries.get(0).getData());
+
+        String point = " {\"type\": \"point\", \"coordinates\": [1, 2, 3, 4]} \n";
+        assertEquals(Collections.singletonList("SRID=4326;POINT Z (1.0 2.0 3.0)"), write(read(new GeoJSONStreamReader(input(point)))));
+
+        assertTrue(read(new GeoJSONStreamReader(input("{\"type\": \"FeatureCollection\", \"features\": []}"))).isEmpty());
+        assertTrue(read(new GeoJSONStreamReader(input("{\"type\": \"Feature\", \"geometry\": null}"))).isEmpty());
+    }
+
+    @Test
+    public void sameAsGeoJSONReader() {
+        GeoJSONReader geoJSONReader = new GeoJSONReader();
+        List<Geometry> expected = ((GeometryCollection) geoJSONReader.read(json.replace("{\"type\": \"Feature\", \"geometry\": null, \"properties\": {\"id\": 2}},", ""))).getGeometries();
+        assertEquals(write(expected), write(read(new GeoJSONStreamReader(input(json)))));
+    }
+
+    @Test
+    public void malformed() {
+        for (String json : Arrays.asList(
+            "",
+            "[]",
+            "{\"type\": \"FeatureCollection\", \"features\": [",
+            "{\"type\": \"FeatureCollection\", \"features\": [{\"type\": \"Feature\", \"geometry\": {\"type\": \"Point\", \"coordinates\": [1, 2]}} {}]}",
+            "{\"type\": \"Point\", \"coordinates\": [1, 2]} {}",
+            "{\"type\": \"Point\", \"coordinates\": [1, 2}",
+            "{\"type\": \"Point\", \"coordinates\": [1, --2]}",
+            "{\"type\": \"Point\", \"coordinates\": [[1, 2]]}",
+            "{\"type\": \"Point\", \"name\": \"unclosed}",
+            "{\"type\": \"Point\", \"name\": tru}"
+        )) {
+            GeoJSONStreamReader reader = new GeoJSONStreamReader(input(json), 4);
+            assertThrows(IllegalStateException.class, () -> {
+                while (reader.hasNext()) {
+                    reader.next();
+                }
+            }, json);
+        }
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new GeoJSONStreamReader(input("{\"type\": \"Point\", \"coordinates\": [1, x]}")).hasNext());
+        assertEquals("Unable to parse GeoJSON at byte 37! Expecting a Number", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new GeoJSONStreamReader(input(json), 0));
+    }
+
+    @Test
+    public void streamLargeFeatureCollection() throws IOException {
+        int numberOfFeatures = 20_000;
+        StringBuilder builder = new StringBuilder("{\"type\": \"FeatureCollection\", \"features\": [");
+        for (int i = 0; i < numberOfFeatures; i++) {
+            builder.append(i == 0 ? "" : ",").append("{\"type\": \"Feature\", \"properties\": {\"id\": ").append(i)
+                .append("}, \"geometry\": {\"type\": \"LineString\", \"coordinates\": [[").append(i).append(", ").append(i + 0.5)
+                .append("], [").append(-i).append(", ").append(i * 2).append("]]}}");
+        }
+        builder.append("]}");
+        try (GeoJSONStreamReader reader = new GeoJSONStreamReader(input(builder.toString()), 256)) {
+            try (Stream<Geometry> stream = reader.stream()) {
+                int[] count = {0};
+                stream.forEach(geometry -> {
+                    int i = count[0]++;
+                    assertEquals(i, ((Map) geometry.getData()).get("id"));
+                    assertEquals(Coordinate.create2D(-i, i * 2), ((LineString) geometry).getCoordinates().get(1));
+                });
+                assertEquals(numberOfFeatures, count[0]);
+            }
+        }
+    }
+
+    @Test
+    public void filter() {
+        String json = "{\"type\": \"FeatureCollection\", \"bbox\": [0, 0, 100, 100], \"features\": [\n"
+            + "{\"type\": \"Feature\", \"bbox\": [1, 1, 2, 2], \"properties\": {\"id\": 1}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [1, 1]}},\n"
+            // The coordinates of a Feature whose bbox does not intersect are skipped, so they are not checked
+            + "{\"type\": \"Feature\", \"bbox\": [50, 50, 60, 60], \"geometry\": {\"type\": \"Point\", \"coordinates\": [[\"x\"]]}, \"properties\": {\"id\": 2}},\n"
+            + "{\"type\": \"Feature\", \"properties\": {\"id\": 3}, \"geometry\": {\"type\": \"LineString\", \"coordinates\": [[-5, -5], [5, 5]]}},\n"
+            + "{\"type\": \"Feature\", \"properties\": {\"id\": 4}, \"geometry\": {\"type\": \"LineString\", \"coordinates\": [[20, 20], [30, 30]]}},\n"
+            + "{\"type\": \"Feature\", \"properties\": {\"id\": 5}, \"geometry\": {\"type\": \"GeometryCollection\", \"geometries\": ["
+            + "{\"type\": \"Point\", \"coordinates\": [40, 40]}, {\"type\": \"Point\", \"coordinates\": [9, 40]}]}},\n"
+            // A bbox that crosses the antimeridian
+            + "{\"type\": \"Feature\", \"bbox\": [170, 0, 6, 10], \"properties\": {\"id\": 6}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [0, 5]}},\n"
+            + "{\"type\": \"Feature\", \"properties\": {\"id\": 7}, \"geometry\": {\"type\": \"Point\", \"coordinates\": []}}\n"
+            + "]}";
+        Envelope filter = Envelope.create2D(0, 0, 10, 10);
+        for (int bufferSize : new int[] {1, 16, GeoJSONStreamReader.DEFAULT_BUFFER_SIZE}) {
+            List<Object> ids = new ArrayList<>();
+            new GeoJSONStreamReader(input(json), bufferSize, filter).forEachRemaining(geometry -> ids.add(((Map) geometry.getData()).get("id")));
+            assertEquals(Arrays.asList(1, 3, 6), ids);
+        }
+        assertEquals(0, read(new GeoJSONStreamReader(input(json), 64, Envelope.create2D(200, 200, 300, 300))).size());
+        assertEquals(0, read(new GeoJSONStreamReader(new StringReader("{\"type\": \"Point\", \"coordinates\": [20, 20]}"), 64, filter)).size());
+        assertEquals(1, read(new GeoJSONStreamReader(new StringReader("{\"type\": \"Point\", \"coordinates\": [2, 2]}"), 64, filter)).size());
+    }
+
+}
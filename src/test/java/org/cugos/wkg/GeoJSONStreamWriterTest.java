@@ -0,0 +1,81 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeoJSONStreamWriterTest {
+
+    private Point point(int id) {
+        Point point = new Point(Coordinate.create2D(id, id + 0.5), Dimension.Two);
+        point.setData(Collections.singletonMap("id", id));
+        return point;
+    }
+
+    @Test
+    public void write() throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        try (GeoJSONStreamWriter writer = new GeoJSONStreamWriter(stringWriter)) {
+            writer.write(point(1));
+            writer.write(Arrays.asList(point(2), point(3)));
+            assertEquals(3, writer.getCount());
+        }
+        assertEquals("{\"type\": \"FeatureCollection\", \"features\": [\n"
+            + "{\"type\": \"Feature\", \"properties\": {\"id\": 1}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [1.0, 1.5]}},\n"
+            + "{\"type\": \"Feature\", \"properties\": {\"id\": 2}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [2.0, 2.5]}},\n"
+            + "{\"type\": \"Feature\", \"properties\": {\"id\": 3}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [3.0, 3.5]}}\n"
+            + "]}", stringWriter.toString());
+    }
+
+    @Test
+    public void writeEmpty() throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        new GeoJSONStreamWriter(stringWriter).close();
+        GeometryCollection collection = (GeometryCollection) new GeoJSONReader().read(stringWriter.toString());
+        assertTrue(collection.getGeometries().isEmpty());
+    }
+
+    @Test
+    public void writeStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GeoJSONStreamWriter writer = new GeoJSONStreamWriter(out, new GeoJSONWriter(DoubleFormatter.fixedDecimals(1)))) {
+            writer.write(IntStream.range(0, 1000).mapToObj(this::point));
+        }
+        List<Object> ids = new ArrayList<>();
+        new GeoJSONStreamReader(new ByteArrayInputStream(out.toByteArray())).forEachRemaining(geometry -> ids.add(((Map) geometry.getData()).get("id")));
+        assertEquals(IntStream.range(0, 1000).boxed().collect(Collectors.toList()), ids);
+    }
+
+    @Test
+    public void writeIsBuffered() throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        GeoJSONStreamWriter writer = new GeoJSONStreamWriter(stringWriter, new GeoJSONWriter(), 1024);
+        writer.write(point(1));
+        assertEquals("", stringWriter.toString());
+        writer.flush();
+        assertTrue(stringWriter.toString().startsWith("{\"type\": \"FeatureCollection\", \"features\": [\n{\"type\": \"Feature\""));
+        for (int i = 2; i <= 100; i++) {
+            writer.write(point(i));
+        }
+        // Full buffers are written before the FeatureCollection ends
+        assertTrue(stringWriter.toString().length() > 1024);
+        writer.close();
+        writer.close();
+        assertTrue(stringWriter.toString().endsWith("\n]}"));
+        assertThrows(IllegalStateException.class, () -> writer.write(point(101)));
+        assertThrows(IllegalArgumentException.class, () -> new GeoJSONStreamWriter(stringWriter, new GeoJSONWriter(), 0));
+    }
+
+}
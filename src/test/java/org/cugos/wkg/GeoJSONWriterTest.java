@@ -17,7 +17,7 @@ public class GeoJSONWriterTest {
         properties.put("name", "Seattle");
         point.setData(properties);
         String json = writer.writeFeature(point);
-        assertEquals("{\"type\": \"Feature\", \"properties\": {\"id\": \"1\", \"name\": \"Seattle\"}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [122.34, -43.56]}}", json);
+        assertEquals("{\"type\": \"Feature\", \"properties\": {\"id\": 1, \"name\": \"Seattle\"}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [122.34, -43.56]}}", json);
     }
 
     @Test
@@ -45,7 +45,7 @@ public class GeoJSONWriterTest {
         properties.put("name", "Seattle");
         point.setData(properties);
         String json = writer.writeFeatureCollection(point);
-        assertEquals("{\"type\": \"FeatureCollection\", \"features\": [{\"type\": \"Feature\", \"properties\": {\"id\": \"1\", \"name\": \"Seattle\"}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [122.34, -43.56]}}]}", json);
+        assertEquals("{\"type\": \"FeatureCollection\", \"features\": [{\"type\": \"Feature\", \"properties\": {\"id\": 1, \"name\": \"Seattle\"}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [122.34, -43.56]}}]}", json);
     }
 
     @Test
@@ -293,6 +293,76 @@ public class GeoJSONWriterTest {
             "{\"type\": \"LineString\", \"coordinates\": [[10.0, 10.0], [20.0, 20.0]]}]}", json);
     }
 
+    @Test
+    public void writeWithFormatter() {
+        Point point = new Point(Coordinate.create3D(-122.123456789, 47.5, 1.0E-7), Dimension.Three);
+        assertEquals("{\"type\": \"Point\", \"coordinates\": [-122.123456789, 47.5, 0.0000001]}", new GeoJSONWriter().write(point));
+        assertEquals("{\"type\": \"Point\", \"coordinates\": [-122.1235, 47.5, 0.0]}", new GeoJSONWriter(DoubleFormatter.maximumDecimals(4)).write(point));
+    }
+
+    @Test
+    public void writeWithBbox() {
+        GeoJSONWriter writer = new GeoJSONWriter(DoubleFormatter.fixedDecimals(1), true);
+        LineString lineString = new LineString(Arrays.asList(Coordinate.create2D(1.26, 2), Coordinate.create2D(-3, 4.04)), Dimension.Two);
+        assertEquals("{\"type\": \"LineString\", \"bbox\": [-3.0, 2.0, 1.3, 4.0], \"coordinates\": [[1.3, 2.0], [-3.0, 4.0]]}", writer.write(lineString));
+        assertEquals("{\"type\": \"Point\", \"bbox\": [1.0, 2.0, 3.0, 1.0, 2.0, 3.0], \"coordinates\": [1.0, 2.0, 3.0]}",
+                writer.write(new Point(Coordinate.create3D(1, 2, 3), Dimension.Three)));
+        assertEquals("{\"type\": \"Point\", \"coordinates\": []}", writer.write(Point.createEmpty()));
+        String feature = writer.writeFeature(lineString);
+        assertTrue(feature.startsWith("{\"type\": \"Feature\", \"bbox\": [-3.0, 2.0, 1.3, 4.0], \"properties\": {}, \"geometry\": {\"type\": \"LineString\", \"bbox\""), feature);
+        // The written vertex 1.3 intersects the window, so the Feature must not be dropped
+        assertNotNull(new GeoJSONReader(Envelope.create2D(1.27, 0, 2, 2)).read(feature));
+        assertNotNull(new GeoJSONReader(Envelope.create2D(1.3, 0, 2, 2)).read(feature));
+        assertNull(new GeoJSONReader(Envelope.create2D(1.31, 0, 2, 2)).read(feature));
+    }
 
+    @Test
+    public void writeFeatureWithPropertyTypes() {
+        GeoJSONWriter writer = new GeoJSONWriter();
+        Point point = new Point(Coordinate.create2D(1, 2), Dimension.Two);
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("int", 1);
+        properties.put("long", 12345678901L);
+        properties.put("double", 0.1);
+        properties.put("nan", Double.NaN);
+        properties.put("boolean", true);
+        properties.put("null", null);
+        properties.put("string", "a \"quoted\"\\path\n\u0001");
+        properties.put("list", Arrays.asList(1, "two", false));
+        properties.put("array", new int[] {3, 4});
+        properties.put("map", Collections.singletonMap("key", 2.5));
+        point.setData(properties);
+        String json = writer.writeFeature(point);
+        assertEquals("{\"type\": \"Feature\", \"properties\": {\"int\": 1, \"long\": 12345678901, \"double\": 0.1, \"nan\": null, "
+                + "\"boolean\": true, \"null\": null, \"string\": \"a \\\"quoted\\\"\\\\path\\n\\u0001\", \"list\": [1, \"two\", false], "
+                + "\"array\": [3, 4], \"map\": {\"key\": 2.5}}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [1.0, 2.0]}}", json);
+        Map<String, Object> data = (Map<String, Object>) new GeoJSONReader().read(json).getData();
+        assertEquals(1, data.get("int"));
+        assertEquals(0.1, data.get("double"));
+        assertEquals(true, data.get("boolean"));
+        assertEquals("a \"quoted\"\\path\n\u0001", data.get("string"));
+        assertEquals(Arrays.asList(1, "two", false), data.get("list"));
+    }
+
+    @Test
+    public void writeCoordinateSequences() {
+        GeoJSONWriter writer = new GeoJSONWriter();
+        LineString lineString = new LineString(new CoordinateSequence(new double[] {1, 2, 3, 4, 5, 6}, Dimension.Three), Dimension.Three);
+        assertEquals("{\"type\": \"LineString\", \"coordinates\": [[1.0, 2.0, 3.0], [4.0, 5.0, 6.0]]}", writer.write(lineString));
+        LineString measured = new LineString(new CoordinateSequence(new double[] {1, 2, 3, 4, 5, 6}, Dimension.TwoMeasured), Dimension.TwoMeasured);
+        assertEquals("{\"type\": \"LineString\", \"coordinates\": [[1.0, 2.0], [4.0, 5.0]]}", writer.write(measured));
+    }
+
+    @Test
+    public void overrideWriteCoordinates() {
+        GeoJSONWriter writer = new GeoJSONWriter() {
+            @Override
+            protected void writeCoordinates(StringBuilder str, CoordinateSequence coordinates) {
+                str.append(coordinates.size());
+            }
+        };
+        assertEquals("{\"type\": \"LineString\", \"coordinates\": [2]}", writer.write(new WKTReader().read("LINESTRING (1 2, 3 4)")));
+        assertEquals("{\"type\": \"Polygon\", \"coordinates\": [[4]]}", writer.write(new WKTReader().read("POLYGON ((0 0, 1 0, 1 1, 0 0))")));
+    }
 
 }
@@ -36,4 +36,45 @@ public class GeoPackageReadWriteTest {
         }
     }
 
+    @Test
+    public void wrapAndUnwrapWKB() {
+        WKTReader wktReader = new WKTReader();
+        String[] wkts = {
+            "SRID=4326;POINT (31.19999710971274 -26.466667461352472)",
+            "SRID=4326;LINESTRING Z (1 2 3, 4 5 6)",
+            "SRID=3857;POLYGON M ((0 0 1, 10 0 2, 10 10 3, 0 10 4, 0 0 5))",
+            "SRID=4326;MULTIPOLYGON ZM (((1 1 1 1, 5 1 2 2, 5 5 3 3, 1 1 4 4)), ((6 3 5 5, 9 2 6 6, 9 4 7 7, 6 3 8 8)))",
+            "SRID=4326;GEOMETRYCOLLECTION (POINT (4 6), LINESTRING (4 6, 7 10))"
+        };
+        GeoPackageReader reader = new GeoPackageReader();
+        for (String wkt : wkts) {
+            Geometry geometry = wktReader.read(wkt);
+            int srsId = Integer.parseInt(geometry.getSrid());
+            for (WKB.Endian endian : WKB.Endian.values()) {
+                for (GeoPackage.EnvelopeType envelopeType : GeoPackage.EnvelopeType.values()) {
+                    GeoPackageWriter writer = new GeoPackageWriter(endian, envelopeType);
+                    byte[] expected = writer.write(geometry);
+                    for (WKB.Endian wkbEndian : WKB.Endian.values()) {
+                        byte[] wkb = new WKBWriter(WKB.Type.EWKB, wkbEndian).write(geometry);
+                        byte[] actual = writer.write(wkb, srsId);
+                        assertArrayEquals(expected, actual, wkt);
+                        byte[] unwrapped = reader.readWKB(actual);
+                        assertArrayEquals(new WKBWriter(WKB.Type.EWKB, endian).write(geometry), unwrapped, wkt);
+                    }
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> reader.readWKB(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9}));
+        // Envelope indicators 5 to 7 are invalid
+        for (int indicator = 5; indicator <= 7; indicator++) {
+            byte[] bytes = {'G', 'P', 0, (byte) (indicator << 1), 0, 0, 0x10, (byte) 0xE6, 0, 0, 0, 0, 1};
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> reader.readWKB(bytes));
+            assertTrue(e.getMessage().startsWith("Not a GeoPackage Geometry!"), e.getMessage());
+        }
+        // An Envelope indicator of 1 needs a header of 40 bytes
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> reader.readWKB(new byte[]{'G', 'P', 0, 1 << 1, 0, 0, 0x10, (byte) 0xE6, 0, 0, 0, 0}));
+        assertTrue(e.getMessage().startsWith("Not a GeoPackage Geometry!"), e.getMessage());
+    }
+
 }
@@ -0,0 +1,119 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GeometryVisitorTest {
+
+    private final WKTReader wkt = new WKTReader();
+
+    private final GeometryVisitor<String> visitor = new GeometryVisitor<String>() {
+        @Override
+        public String visit(Point point) {
+            return "Point";
+        }
+
+        @Override
+        public String visit(LineString lineString) {
+            return "LineString";
+        }
+
+        @Override
+        public String visit(Polygon polygon) {
+            return "Polygon";
+        }
+
+        @Override
+        public String visit(MultiPoint multiPoint) {
+            return "MultiPoint";
+        }
+
+        @Override
+        public String visit(MultiLineString multiLineString) {
+            return "MultiLineString";
+        }
+
+        @Override
+        public String visit(MultiPolygon multiPolygon) {
+            return "MultiPolygon";
+        }
+
+        @Override
+        public String visit(GeometryCollection geometryCollection) {
+            return "GeometryCollection";
+        }
+
+        @Override
+        public String visit(CircularString circularString) {
+            return "CircularString";
+        }
+
+        @Override
+        public String visit(CompoundCurve compoundCurve) {
+            return "CompoundCurve";
+        }
+
+        @Override
+        public String visit(CurvePolygon curvePolygon) {
+            return "CurvePolygon";
+        }
+
+        @Override
+        public String visit(MultiCurve multiCurve) {
+            return "MultiCurve";
+        }
+
+        @Override
+        public String visit(MultiSurface multiSurface) {
+            return "MultiSurface";
+        }
+
+        @Override
+        public String visit(PolyHedralSurface polyHedralSurface) {
+            return "PolyHedralSurface";
+        }
+
+        @Override
+        public String visit(Tin tin) {
+            return "Tin";
+        }
+    };
+
+    @Test
+    public void accept() {
+        assertEquals("Point", wkt.read("POINT (1 2)").accept(visitor));
+        assertEquals("LineString", wkt.read("LINESTRING (1 2, 3 4)").accept(visitor));
+        assertEquals("Polygon", wkt.read("POLYGON ((0 0, 1 0, 1 1, 0 0))").accept(visitor));
+        assertEquals("MultiPoint", wkt.read("MULTIPOINT (1 2, 3 4)").accept(visitor));
+        assertEquals("MultiLineString", wkt.read("MULTILINESTRING ((1 2, 3 4))").accept(visitor));
+        assertEquals("MultiPolygon", wkt.read("MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)))").accept(visitor));
+        assertEquals("GeometryCollection", wkt.read("GEOMETRYCOLLECTION (POINT (1 2))").accept(visitor));
+        assertEquals("CircularString", wkt.read("CIRCULARSTRING (0 0, 1 1, 1 0)").accept(visitor));
+        assertEquals("CompoundCurve", wkt.read("COMPOUNDCURVE (CIRCULARSTRING (0 0, 1 1, 1 0), (1 0, 0 1))").accept(visitor));
+        assertEquals("CurvePolygon", wkt.read("CURVEPOLYGON (CIRCULARSTRING (0 0, 4 0, 4 4, 0 4, 0 0))").accept(visitor));
+        assertEquals("MultiCurve", wkt.read("MULTICURVE ((0 0, 5 5), CIRCULARSTRING (4 0, 4 4, 8 4))").accept(visitor));
+        assertEquals("MultiSurface", wkt.read("MULTISURFACE (((0 0, 1 0, 1 1, 0 0)))").accept(visitor));
+        assertEquals("PolyHedralSurface", wkt.read("POLYHEDRALSURFACE (((0 0, 1 0, 1 1, 0 0)))").accept(visitor));
+        assertEquals("Tin", wkt.read("TIN (((0 0, 1 0, 0 1, 0 0)))").accept(visitor));
+    }
+
+    @Test
+    public void defaults() {
+        LinearRing linearRing = new LinearRing(Arrays.asList(
+            Coordinate.create2D(0, 0), Coordinate.create2D(1, 0), Coordinate.create2D(1, 1), Coordinate.create2D(0, 0)
+        ), Dimension.Two);
+        assertEquals("LineString", linearRing.accept(visitor));
+        assertEquals("Polygon", wkt.read("TRIANGLE ((0 0, 1 0, 0 1, 0 0))").accept(visitor));
+    }
+
+    @Test
+    public void acceptWKBGeometry() {
+        WKBGeometry geometry = new WKBReader().readLazy(new WKBWriter().write(wkt.read("MULTIPOINT (1 2, 3 4)")));
+        assertEquals("MultiPoint", geometry.accept(visitor));
+        assertEquals("MULTIPOINT (1.0 2.0, 3.0 4.0)", new WKTWriter().write(geometry));
+    }
+
+}
@@ -0,0 +1,141 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WKBFileReaderTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<String> wkts = Arrays.asList(
+        "POINT (1.0 2.0)",
+        "LINESTRING (101.0 234.0, 345.0 567.0)",
+        "POLYGON ((35.0 10.0, 45.0 45.0, 15.0 40.0, 10.0 20.0, 35.0 10.0), (20.0 30.0, 35.0 35.0, 30.0 20.0, 20.0 30.0))",
+        "SRID=4326;MULTIPOLYGON (((40.0 40.0, 20.0 45.0, 45.0 30.0, 40.0 40.0)), ((20.0 35.0, 10.0 30.0, 10.0 10.0, 30.0 5.0, 45.0 20.0, 20.0 35.0), (30.0 20.0, 20.0 15.0, 20.0 25.0, 30.0 20.0)))",
+        "POINT ZM (1.0 2.0 3.0 4.0)",
+        "GEOMETRYCOLLECTION (POINT (4.0 6.0), LINESTRING (4.0 6.0, 7.0 10.0))"
+    );
+
+    private Path write(String name, WKB.Endian endian) throws IOException {
+        WKTReader wktReader = new WKTReader();
+        WKBWriter writer = new WKBWriter(WKB.Type.EWKB, endian);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String wkt : wkts) {
+            out.write(writer.write(wktReader.read(wkt)));
+        }
+        Path file = directory.resolve(name);
+        Files.write(file, out.toByteArray());
+        return file;
+    }
+
+    private void assertGeometries(WKBFileReader reader) {
+        assertEquals(wkts.size(), reader.getNumberOfGeometries());
+        for (int i = wkts.size() - 1; i >= 0; i--) {
+            assertEquals(wkts.get(i), reader.read(i).toString());
+            assertEquals(wkts.get(i), reader.readLazy(i).toString());
+        }
+    }
+
+    @Test
+    public void read() throws IOException {
+        try (WKBFileReader reader = new WKBFileReader(write("geometries.wkb", WKB.Endian.Little))) {
+            assertGeometries(reader);
+            assertEquals(0, reader.getOffset(0));
+            assertEquals(21, reader.getOffset(1));
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.read(wkts.size()));
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.read(-1));
+        }
+    }
+
+    @Test
+    public void readSegments() throws IOException {
+        Path file = write("geometries.wkb", WKB.Endian.Big);
+        for (int maxSegmentSize : new int[]{300, 400, 1000}) {
+            try (WKBFileReader reader = new WKBFileReader(file, null, maxSegmentSize)) {
+                assertGeometries(reader);
+            }
+        }
+        assertThrows(IllegalStateException.class, () -> new WKBFileReader(file, null, 100));
+    }
+
+    @Test
+    public void index() throws IOException {
+        Path file = write("geometries.wkb", WKB.Endian.Big);
+        Path index = directory.resolve("geometries.idx");
+        try (WKBFileReader reader = new WKBFileReader(file)) {
+            reader.writeIndex(index);
+        }
+        try (WKBFileReader reader = new WKBFileReader(file, index)) {
+            assertGeometries(reader);
+        }
+        Path other = write("other.wkb", WKB.Endian.Big);
+        Files.write(other, new byte[]{0}, StandardOpenOption.APPEND);
+        assertThrows(IllegalArgumentException.class, () -> new WKBFileReader(other, index));
+        assertThrows(IllegalArgumentException.class, () -> new WKBFileReader(file, file));
+    }
+
+    @Test
+    public void corruptIndex() throws IOException {
+        Path file = write("geometries.wkb", WKB.Endian.Big);
+        long size = Files.size(file);
+        long[][] corruptOffsets = {
+            {},
+            {0, 21, 10, size},
+            {0, -1, size},
+            {0, size + 1, size},
+            {0, 21, 21, size}
+        };
+        for (long[] offsets : corruptOffsets) {
+            Path index = writeIndex(offsets.length, offsets);
+            assertThrows(IllegalArgumentException.class, () -> new WKBFileReader(file, index));
+        }
+        Path negativeCount = writeIndex(-1, new long[0]);
+        assertThrows(IllegalArgumentException.class, () -> new WKBFileReader(file, negativeCount));
+        Path hugeCount = writeIndex(Integer.MAX_VALUE, new long[] {0});
+        assertThrows(IllegalArgumentException.class, () -> new WKBFileReader(file, hugeCount));
+    }
+
+    private Path writeIndex(int count, long[] offsets) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0x574B4249);
+            out.writeInt(count);
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+        }
+        Path index = Files.createTempFile(directory, "corrupt", ".idx");
+        Files.write(index, bytes.toByteArray());
+        return index;
+    }
+
+    @Test
+    public void emptyFile() throws IOException {
+        Path file = directory.resolve("empty.wkb");
+        Files.write(file, new byte[0]);
+        try (WKBFileReader reader = new WKBFileReader(file)) {
+            assertEquals(0, reader.getNumberOfGeometries());
+        }
+    }
+
+    @Test
+    public void truncated() throws IOException {
+        Path file = write("geometries.wkb", WKB.Endian.Big);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IllegalStateException.class, () -> new WKBFileReader(file));
+    }
+
+}
@@ -0,0 +1,132 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WKBGeometryTest {
+
+    private final WKTReader wktReader = new WKTReader();
+
+    private final WKBReader wkbReader = new WKBReader();
+
+    private WKBGeometry read(String wkt, WKB.Type type, WKB.Endian endian) {
+        byte[] bytes = new WKBWriter(type, endian).write(wktReader.read(wkt));
+        return wkbReader.readLazy(bytes);
+    }
+
+    @Test
+    public void point() {
+        WKBGeometry geometry = read("SRID=4326;POINT ZM (1 2 3 4)", WKB.Type.EWKB, WKB.Endian.Little);
+        assertEquals(WKB.GeometryType.Point, geometry.getGeometryType());
+        assertEquals(WKB.Endian.Little, geometry.getEndian());
+        assertEquals(Dimension.ThreeMeasured, geometry.getDimension());
+        assertEquals("4326", geometry.getSrid());
+        assertFalse(geometry.isEmpty());
+        assertEquals(1, geometry.getNumberOfCoordinates());
+        assertEquals(Coordinate.create3DM(1, 2, 3, 4), geometry.getCoordinate());
+        assertEquals("SRID=4326;POINT ZM (1.0 2.0 3.0 4.0)", geometry.toString());
+    }
+
+    @Test
+    public void lineString() {
+        WKBGeometry geometry = read("LINESTRING (101 234,345 567)", WKB.Type.WKB, WKB.Endian.Big);
+        assertEquals(WKB.GeometryType.LineString, geometry.getGeometryType());
+        assertEquals(Dimension.Two, geometry.getDimension());
+        assertNull(geometry.getSrid());
+        assertEquals(2, geometry.getNumberOfCoordinates());
+        assertEquals(0, geometry.getNumberOfGeometries());
+        assertEquals(0, geometry.getNumberOfLinearRings());
+        assertEquals(Arrays.asList(Coordinate.create2D(101, 234), Coordinate.create2D(345, 567)), geometry.getCoordinates());
+        assertTrue(geometry.toGeometry() instanceof LineString);
+        assertSame(geometry.toGeometry(), geometry.toGeometry());
+    }
+
+    @Test
+    public void polygon() {
+        WKBGeometry geometry = read("POLYGON ((35 10, 45 45, 15 40, 10 20, 35 10),(20 30, 35 35, 30 20, 20 30))",
+                WKB.Type.WKB, WKB.Endian.Little);
+        assertFalse(geometry.isEmpty());
+        assertEquals(9, geometry.getNumberOfCoordinates());
+        assertEquals(2, geometry.getNumberOfLinearRings());
+        assertEquals("LINESTRING (20.0 30.0, 35.0 35.0, 30.0 20.0, 20.0 30.0)", geometry.getLinearRing(1).toString());
+        assertEquals("LINESTRING (35.0 10.0, 45.0 45.0, 15.0 40.0, 10.0 20.0, 35.0 10.0)", geometry.getLinearRing(0).toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> geometry.getLinearRing(2));
+    }
+
+    @Test
+    public void multiPolygon() {
+        String wkt = "MULTIPOLYGON (((40 40, 20 45, 45 30, 40 40)), ((20 35, 10 30, 10 10, 30 5, 45 20, 20 35),(30 20, 20 15, 20 25, 30 20)))";
+        WKBGeometry geometry = read(wkt, WKB.Type.WKB, WKB.Endian.Big);
+        assertEquals(WKB.GeometryType.MultiPolygon, geometry.getGeometryType());
+        assertEquals(14, geometry.getNumberOfCoordinates());
+        assertEquals(2, geometry.getNumberOfGeometries());
+        WKBGeometry second = geometry.getGeometry(1);
+        assertEquals(WKB.GeometryType.Polygon, second.getGeometryType());
+        assertEquals(10, second.getNumberOfCoordinates());
+        assertEquals(2, second.getNumberOfLinearRings());
+        List<WKBGeometry> geometries = geometry.getGeometries();
+        assertEquals(2, geometries.size());
+        assertEquals(4, geometries.get(0).getNumberOfCoordinates());
+        assertEquals(wktReader.read(wkt).toString(), geometry.toString());
+    }
+
+    @Test
+    public void geometryCollection() {
+        String wkt = "GEOMETRYCOLLECTION (POINT (4 6), LINESTRING (4 6, 7 10), CIRCULARSTRING (0 0, 1 1, 1 0))";
+        WKBGeometry geometry = read(wkt, WKB.Type.EWKB, WKB.Endian.Little);
+        assertEquals(3, geometry.getNumberOfGeometries());
+        assertEquals(6, geometry.getNumberOfCoordinates());
+        assertEquals(WKB.GeometryType.CircularString, geometry.getGeometry(2).getGeometryType());
+        assertEquals("CIRCULARSTRING (0.0 0.0, 1.0 1.0, 1.0 0.0)", geometry.getGeometry(2).toString());
+        assertEquals(Coordinate.create2D(4, 6), geometry.getGeometry(0).getCoordinate());
+    }
+
+    @Test
+    public void curves() {
+        WKBGeometry curvePolygon = read("CURVEPOLYGON(CIRCULARSTRING(0 0, 4 0, 4 4, 0 4, 0 0),(1 1, 3 3, 3 1, 1 1))", WKB.Type.WKB, WKB.Endian.Big);
+        assertFalse(curvePolygon.isEmpty());
+        assertEquals(9, curvePolygon.getNumberOfCoordinates());
+        assertEquals(2, curvePolygon.getNumberOfGeometries());
+        WKBGeometry compoundCurve = read("COMPOUNDCURVE(CIRCULARSTRING(1 0, 0 1, -1 0), (-1 0, 2 0))", WKB.Type.WKB, WKB.Endian.Big);
+        assertEquals(5, compoundCurve.getNumberOfCoordinates());
+        assertEquals(WKB.GeometryType.LineString, compoundCurve.getGeometry(1).getGeometryType());
+    }
+
+    @Test
+    public void empty() {
+        assertTrue(read("LINESTRING EMPTY", WKB.Type.WKB, WKB.Endian.Big).isEmpty());
+        assertTrue(read("MULTIPOLYGON EMPTY", WKB.Type.WKB, WKB.Endian.Big).isEmpty());
+        assertTrue(read("GEOMETRYCOLLECTION EMPTY", WKB.Type.WKB, WKB.Endian.Big).isEmpty());
+        assertEquals(0, read("MULTIPOINT EMPTY", WKB.Type.WKB, WKB.Endian.Big).getNumberOfCoordinates());
+    }
+
+    @Test
+    public void buffer() {
+        byte[] point = new WKBWriter().write(wktReader.read("POINT (1 2)"));
+        byte[] line = new WKBWriter().write(wktReader.read("LINESTRING (1 2, 3 4)"));
+        ByteBuffer buffer = ByteBuffer.allocate(point.length + line.length);
+        buffer.put(point).put(line);
+        buffer.position(point.length);
+        WKBGeometry geometry = wkbReader.readLazy(buffer);
+        assertEquals(point.length, buffer.position());
+        assertEquals(WKB.GeometryType.LineString, geometry.getGeometryType());
+        assertArrayEquals(line, geometry.getBytes());
+        assertEquals(line.length, geometry.getBuffer().remaining());
+        assertTrue(geometry.getBuffer().isReadOnly());
+    }
+
+    @Test
+    public void setSrid() {
+        WKBGeometry geometry = read("SRID=4326;POINT (1 2)", WKB.Type.EWKB, WKB.Endian.Big);
+        assertEquals("SRID=4326;POINT (1.0 2.0)", geometry.toString());
+        geometry.setSrid("2927");
+        assertEquals("2927", geometry.getSrid());
+        assertEquals("SRID=2927;POINT (1.0 2.0)", geometry.toString());
+    }
+
+}
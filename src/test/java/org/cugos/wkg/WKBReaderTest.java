@@ -1,6 +1,13 @@
 package org.cugos.wkg;
 
 import org.junit.jupiter.api.Test;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class WKBReaderTest {
@@ -137,4 +144,51 @@ public class WKBReaderTest {
         assertGeometryEquals(wkt, wkb);
     }
 
+    @Test
+    public void readEnvelope() {
+        String[] wkts = {
+            "POINT (2.0 4)",
+            "POINT ZM (1 2 3 4)",
+            "LINESTRING (101 234,345 567)",
+            "LINESTRING M (1 2 3, 4 5 6)",
+            "POLYGON ((35 10, 45 45, 15 40, 10 20, 35 10),(20 30, 35 35, 30 20, 20 30))",
+            "MULTIPOINT Z ((10 40 1), (40 30 2), (20 20 3), (30 10 4))",
+            "SRID=4326;MULTIPOLYGON (((40 40, 20 45, 45 30, 40 40)), ((20 35, 10 30, 10 10, 30 5, 45 20, 20 35),(30 20, 20 15, 20 25, 30 20)))",
+            "GEOMETRYCOLLECTION (POINT (4 6), LINESTRING (4 6, 7 10))",
+            "CURVEPOLYGON(CIRCULARSTRING(0 0, 4 0, 4 4, 0 4, 0 0),(1 1, 3 3, 3 1, 1 1))",
+            "LINESTRING EMPTY"
+        };
+        for (String wkt : wkts) {
+            Geometry geometry = wktReader.read(wkt);
+            for (WKB.Endian endian : WKB.Endian.values()) {
+                byte[] bytes = new WKBWriter(WKB.Type.EWKB, endian).write(geometry);
+                assertEquals(wkbReader.read(bytes).getEnvelope(), wkbReader.readEnvelope(bytes), wkt);
+                assertEquals(wkbReader.read(bytes).getEnvelope(), wkbReader.readLazy(bytes).getEnvelope(), wkt);
+            }
+        }
+        assertEquals(Envelope.create2D(10, 10, 45, 45), wkbReader.readEnvelope(
+                "000000000300000001000000054041800000000000402400000000000040468000000000004046800000000000402E00000000000040440000000000004024000000000000403400000000000040418000000000004024000000000000"));
+    }
+
+    @Test
+    public void readBuffers() {
+        String wkt = "SRID=4326;GEOMETRYCOLLECTION (POINT (1.0 2.0), LINESTRING (1.0 2.0, 4.0 5.0), " +
+                "POLYGON ((1.0 1.0, 2.0 1.0, 2.0 2.0, 1.0 1.0)))";
+        for (WKB.Endian endian : WKB.Endian.values()) {
+            byte[] bytes = new WKBWriter(WKB.Type.EWKB, endian).write(wktReader.read(wkt));
+            String expected = wkbReader.read(bytes).toString();
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 2);
+            direct.put((byte) 7).put(bytes).put((byte) 7);
+            direct.position(1);
+            assertEquals(expected, wkbReader.read(direct).toString());
+            assertEquals(bytes.length + 1, direct.position());
+            ByteBuffer heap = ByteBuffer.wrap(new byte[bytes.length + 2], 1, bytes.length).slice();
+            heap.put(bytes).flip();
+            assertEquals(expected, wkbReader.read(heap.asReadOnlyBuffer()).toString());
+            assertEquals(expected, wkbReader.read(heap).toString());
+            assertEquals(bytes.length, heap.position());
+            assertThrows(BufferUnderflowException.class, () -> wkbReader.read(Arrays.copyOf(bytes, bytes.length - 1)));
+        }
+    }
+
 }
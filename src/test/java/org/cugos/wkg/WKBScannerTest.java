@@ -0,0 +1,95 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WKBScannerTest {
+
+    private final WKTReader wktReader = new WKTReader();
+
+    private final String[] wkts = {
+        "POINT (2.0 4)",
+        "SRID=4326;POINT ZM (1 2 3 4)",
+        "LINESTRING (101 234,345 567)",
+        "POLYGON ((35 10, 45 45, 15 40, 10 20, 35 10),(20 30, 35 35, 30 20, 20 30))",
+        "MULTIPOINT (10 40, 40 30, 20 20, 30 10)",
+        "MULTILINESTRING ((10 10, 20 20, 10 40),(40 40, 30 30, 40 20, 30 10))",
+        "MULTIPOLYGON (((40 40, 20 45, 45 30, 40 40)), ((20 35, 10 30, 10 10, 30 5, 45 20, 20 35),(30 20, 20 15, 20 25, 30 20)))",
+        "GEOMETRYCOLLECTION (POINT (4 6), LINESTRING (4 6, 7 10))",
+        "CIRCULARSTRING (0 0, 1 1, 1 0)",
+        "TRIANGLE ((0 0, 0 9, 9 0, 0 0))",
+        "TIN (((0 0 0, 0 0 1, 0 1 0, 0 0 0)), ((0 0 0, 0 1 0, 1 1 0, 0 0 0)))",
+        "COMPOUNDCURVE(CIRCULARSTRING(1 0, 0 1, -1 0), (-1 0, 2 0))",
+        "CURVEPOLYGON(CIRCULARSTRING(0 0, 4 0, 4 4, 0 4, 0 0),(1 1, 3 3, 3 1, 1 1))",
+        "MULTICURVE((5 5,3 5,3 3,0 3),CIRCULARSTRING(0 0,2 1,2 2))",
+        "MULTISURFACE(CURVEPOLYGON(CIRCULARSTRING(0 0, 4 0, 4 4, 0 4, 0 0),(1 1, 3 3, 3 1, 1 1)),((10 10, 14 12, 11 10, 10 10),(11 11, 11.5 11, 11 11.5, 11 11)))",
+        "POLYHEDRALSURFACE (((40 40, 20 45, 45 30, 40 40)),((20 35, 10 30, 10 10, 30 5, 45 20, 20 35),(30 20, 20 15, 20 25, 30 20)))"
+    };
+
+    @Test
+    public void length() {
+        for (String wkt : wkts) {
+            Geometry geometry = wktReader.read(wkt);
+            for (WKB.Type type : WKB.Type.values()) {
+                // Plain WKB does not flag Z and M
+                if (type == WKB.Type.WKB && geometry.getDimension() != Dimension.Two) {
+                    continue;
+                }
+                for (WKB.Endian endian : WKB.Endian.values()) {
+                    byte[] bytes = new WKBWriter(type, endian).write(geometry);
+                    assertEquals(bytes.length, WKBScanner.length(bytes), wkt);
+                    byte[] padded = new byte[bytes.length + 3];
+                    System.arraycopy(bytes, 0, padded, 1, bytes.length);
+                    assertEquals(bytes.length, WKBScanner.length(padded, 1), wkt);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void skip() {
+        byte[] point = new WKBWriter().write(wktReader.read(wkts[0]));
+        byte[] polygon = new WKBWriter(WKB.Type.EWKB, WKB.Endian.Little).write(wktReader.read(wkts[3]));
+        ByteBuffer buffer = ByteBuffer.allocate(4 + point.length + polygon.length + 4);
+        buffer.putInt(42).put(point).put(polygon).putInt(24).flip();
+        buffer.position(4);
+        assertEquals(point.length, WKBScanner.length(buffer));
+        assertEquals(4, buffer.position());
+        assertEquals(point.length, WKBScanner.skip(buffer));
+        assertEquals(polygon.length, WKBScanner.skip(buffer));
+        assertEquals(24, buffer.getInt());
+    }
+
+    @Test
+    public void invalid() {
+        byte[] bytes = new WKBWriter().write(wktReader.read(wkts[6]));
+        // Byte order
+        byte[] invalidByteOrder = bytes.clone();
+        invalidByteOrder[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> WKBScanner.length(invalidByteOrder));
+        // Geometry type
+        byte[] unknownType = bytes.clone();
+        unknownType[4] = 99;
+        assertThrows(IllegalArgumentException.class, () -> WKBScanner.length(unknownType));
+        // Sub Geometry type
+        byte[] wrongMember = bytes.clone();
+        wrongMember[13] = 2;
+        assertThrows(IllegalArgumentException.class, () -> WKBScanner.length(wrongMember));
+        // Count
+        byte[] negativeCount = bytes.clone();
+        negativeCount[5] = (byte) 0xFF;
+        assertThrows(IllegalArgumentException.class, () -> WKBScanner.length(negativeCount));
+        // Truncated
+        assertThrows(BufferUnderflowException.class, () -> WKBScanner.length(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThrows(BufferUnderflowException.class, () -> WKBScanner.length(Arrays.copyOf(bytes, 3)));
+        byte[] hugeCount = new WKBWriter().write(wktReader.read(wkts[2]));
+        hugeCount[5] = 0x7F;
+        assertThrows(BufferUnderflowException.class, () -> WKBScanner.length(hugeCount));
+    }
+
+}
@@ -0,0 +1,167 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WKBStreamReaderTest {
+
+    private final WKTReader wktReader = new WKTReader();
+
+    private final List<String> wkts = Arrays.asList(
+        "POINT (1.0 2.0)",
+        "LINESTRING (101.0 234.0, 345.0 567.0)",
+        "POLYGON ((35.0 10.0, 45.0 45.0, 15.0 40.0, 10.0 20.0, 35.0 10.0), (20.0 30.0, 35.0 35.0, 30.0 20.0, 20.0 30.0))",
+        "SRID=4326;MULTIPOLYGON (((40.0 40.0, 20.0 45.0, 45.0 30.0, 40.0 40.0)), ((20.0 35.0, 10.0 30.0, 10.0 10.0, 30.0 5.0, 45.0 20.0, 20.0 35.0), (30.0 20.0, 20.0 15.0, 20.0 25.0, 30.0 20.0)))",
+        "POINT ZM (1.0 2.0 3.0 4.0)",
+        "GEOMETRYCOLLECTION (POINT (4.0 6.0), LINESTRING (4.0 6.0, 7.0 10.0))"
+    );
+
+    private byte[] write(WKB.Endian endian) throws IOException {
+        WKBWriter writer = new WKBWriter(WKB.Type.EWKB, endian);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String wkt : wkts) {
+            out.write(writer.write(wktReader.read(wkt)));
+        }
+        return out.toByteArray();
+    }
+
+    private List<String> read(WKBStreamReader reader) {
+        List<String> geometries = new ArrayList<>();
+        while (reader.hasNext()) {
+            geometries.add(reader.next().toString());
+        }
+        return geometries;
+    }
+
+    @Test
+    public void readInputStream() throws IOException {
+        try (WKBStreamReader reader = new WKBStreamReader(new ByteArrayInputStream(write(WKB.Endian.Big)))) {
+            assertEquals(wkts, read(reader));
+            assertFalse(reader.hasNext());
+            assertThrows(NoSuchElementException.class, reader::next);
+        }
+    }
+
+    @Test
+    public void readChannelWithSmallBuffer() throws IOException {
+        byte[] bytes = write(WKB.Endian.Little);
+        for (int bufferSize : new int[]{1, 7, 16, 33, 100}) {
+            try (WKBStreamReader reader = new WKBStreamReader(Channels.newChannel(new ByteArrayInputStream(bytes)), bufferSize)) {
+                assertEquals(wkts, read(reader));
+            }
+        }
+    }
+
+    @Test
+    public void stream() throws IOException {
+        try (Stream<Geometry> stream = new WKBStreamReader(new ByteArrayInputStream(write(WKB.Endian.Big)), 32).stream()) {
+            assertEquals(wkts, stream.map(Geometry::toString).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void empty() throws IOException {
+        try (WKBStreamReader reader = new WKBStreamReader(new ByteArrayInputStream(new byte[0]))) {
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void truncated() throws IOException {
+        byte[] bytes = write(WKB.Endian.Big);
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        try (WKBStreamReader reader = new WKBStreamReader(new ByteArrayInputStream(truncated), 16)) {
+            for (int i = 0; i < wkts.size() - 1; i++) {
+                reader.next();
+            }
+            assertThrows(IllegalStateException.class, reader::next);
+        }
+    }
+
+    @Test
+    public void maximumRecordSize() throws IOException {
+        // A LineString header that claims 100 million coordinates, followed by fewer bytes than that
+        ByteBuffer corrupt = ByteBuffer.allocate(9 + 4096);
+        corrupt.put((byte) 0).putInt(2).putInt(100_000_000);
+        WKBStreamReader reader = new WKBStreamReader(new ByteArrayInputStream(corrupt.array()), 16, 1024);
+        IllegalStateException e = assertThrows(IllegalStateException.class, reader::next);
+        assertEquals("The WKB Geometry is larger than the maximum record size of 1024 bytes!", e.getMessage());
+
+        byte[] bytes = write(WKB.Endian.Big);
+        assertEquals(wkts, read(new WKBStreamReader(new ByteArrayInputStream(bytes), 16, 1024)));
+        assertThrows(IllegalStateException.class, () -> read(new WKBStreamReader(new ByteArrayInputStream(bytes), 1024, 100)));
+        assertThrows(IllegalArgumentException.class, () -> new WKBStreamReader(new ByteArrayInputStream(bytes), 16, 0));
+    }
+
+    @Test
+    public void channelThatReadsNoBytes() throws IOException {
+        byte[] bytes = write(WKB.Endian.Little);
+        ReadableByteChannel source = Channels.newChannel(new ByteArrayInputStream(bytes));
+        ReadableByteChannel slow = new ReadableByteChannel() {
+            private int calls;
+
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                return calls++ % 3 == 0 ? 0 : source.read(dst);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return source.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                source.close();
+            }
+        };
+        assertEquals(wkts, read(new WKBStreamReader(slow, 8)));
+    }
+
+    @Test
+    public void readBufferedGeometryWithoutWaiting() throws IOException {
+        WKBWriter writer = new WKBWriter(WKB.Type.EWKB, WKB.Endian.Big);
+        Pipe pipe = Pipe.open();
+        try (WKBStreamReader reader = new WKBStreamReader(pipe.source())) {
+            // Nothing more is written until the first Geometry has been read
+            pipe.sink().write(ByteBuffer.wrap(writer.write(wktReader.read(wkts.get(0)))));
+            assertEquals(wkts.get(0), assertTimeoutPreemptively(Duration.ofSeconds(10), () -> reader.next().toString()));
+            for (String wkt : wkts.subList(1, wkts.size())) {
+                pipe.sink().write(ByteBuffer.wrap(writer.write(wktReader.read(wkt))));
+            }
+            pipe.sink().close();
+            assertEquals(wkts.subList(1, wkts.size()), read(reader));
+        } finally {
+            pipe.sink().close();
+        }
+    }
+
+    @Test
+    public void nonBlockingChannel() throws IOException {
+        Pipe pipe = Pipe.open();
+        try {
+            pipe.source().configureBlocking(false);
+            assertThrows(IllegalArgumentException.class, () -> new WKBStreamReader(pipe.source()));
+        } finally {
+            pipe.source().close();
+            pipe.sink().close();
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package org.cugos.wkg;
+
+import org.cugos.wkg.WKB.Endian;
+import org.cugos.wkg.WKB.Type;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WKBTranscoderTest {
+
+    private final WKTReader wkt = new WKTReader();
+
+    private final String[] wkts = {
+        "SRID=4326;POINT (1 2)",
+        "POINT ZM (1 2 3 4)",
+        "SRID=3857;LINESTRING Z (1 2 3, 4 5 6, 7 8 9)",
+        "POLYGON M ((0 0 1, 10 0 2, 10 10 3, 0 10 4, 0 0 5), (2 2 6, 3 2 7, 3 3 8, 2 2 9))",
+        "SRID=4326;MULTIPOINT (1 2, 3 4)",
+        "MULTILINESTRING ZM ((1 2 3 4, 5 6 7 8), (9 10 11 12, 13 14 15 16))",
+        "MULTIPOLYGON (((1 1, 5 1, 5 5, 1 5, 1 1)), ((6 3, 9 2, 9 4, 6 3)))",
+        "SRID=4326;GEOMETRYCOLLECTION (POINT (4 6), LINESTRING (4 6, 7 10))",
+        "CIRCULARSTRING (0 0, 1 1, 1 0)",
+        "COMPOUNDCURVE (CIRCULARSTRING (0 0, 1 1, 1 0), (1 0, 0 1))",
+        "CURVEPOLYGON (CIRCULARSTRING (0 0, 4 0, 4 4, 0 4, 0 0), (1 1, 3 3, 3 1, 1 1))",
+        "MULTICURVE ((0 0, 5 5), CIRCULARSTRING (4 0, 4 4, 8 4))",
+        "MULTISURFACE (CURVEPOLYGON (CIRCULARSTRING (0 0, 4 0, 4 4, 0 4, 0 0)), ((10 10, 14 12, 11 10, 10 10)))",
+        "POLYHEDRALSURFACE Z (((0 0 0, 0 1 0, 1 1 0, 0 0 0)))",
+        "TIN (((0 0, 1 0, 0 1, 0 0)), ((0 0, 0 1, 1 1, 0 0)))",
+        "TRIANGLE ((0 0, 0 1, 1 1, 0 0))"
+    };
+
+    @Test
+    public void sameAsReadingAndWriting() {
+        WKBReader reader = new WKBReader();
+        for (String text : wkts) {
+            byte[] ewkb = new WKBWriter(Type.EWKB, Endian.Little).write(wkt.read(text));
+            Geometry geometry = reader.read(ewkb);
+            for (Type type : Type.values()) {
+                for (Endian endian : Endian.values()) {
+                    WKBTranscoder transcoder = WKBTranscoder.builder().type(type).endian(endian).build();
+                    assertArrayEquals(new WKBWriter(type, endian).write(geometry), transcoder.transcode(ewkb), text);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void keepByDefault() {
+        WKBTranscoder transcoder = WKBTranscoder.builder().build();
+        for (String text : wkts) {
+            byte[] ewkb = new WKBWriter(Type.EWKB, Endian.Big).write(wkt.read(text));
+            assertArrayEquals(ewkb, transcoder.transcode(ewkb), text);
+        }
+    }
+
+    @Test
+    public void srid() {
+        WKBWriter writer = new WKBWriter(Type.EWKB, Endian.Big);
+        String hex = writer.writeToHex(wkt.read("SRID=4326;POINT (1 2)"));
+        assertEquals(writer.writeToHex(wkt.read("SRID=3857;POINT (1 2)")), WKBTranscoder.builder().srid(3857).build().transcode(hex));
+        assertEquals(writer.writeToHex(wkt.read("POINT (1 2)")), WKBTranscoder.builder().stripSrid().build().transcode(hex));
+        hex = writer.writeToHex(wkt.read("LINESTRING (1 2, 3 4)"));
+        assertEquals(writer.writeToHex(wkt.read("SRID=2927;LINESTRING (1 2, 3 4)")), WKBTranscoder.builder().srid(2927).build().transcode(hex));
+    }
+
+    @Test
+    public void dropZAndM() {
+        WKBWriter writer = new WKBWriter(Type.EWKB, Endian.Little);
+        byte[] wkb = writer.write(wkt.read("MULTILINESTRING ZM ((1 2 3 4, 5 6 7 8), (9 10 11 12, 13 14 15 16))"));
+        assertArrayEquals(writer.write(wkt.read("MULTILINESTRING ((1 2, 5 6), (9 10, 13 14))")),
+            WKBTranscoder.builder().dropZ().dropM().build().transcode(wkb));
+        assertArrayEquals(writer.write(wkt.read("MULTILINESTRING M ((1 2 4, 5 6 8), (9 10 12, 13 14 16))")),
+            WKBTranscoder.builder().dropZ().build().transcode(wkb));
+        assertArrayEquals(writer.write(wkt.read("MULTILINESTRING Z ((1 2 3, 5 6 7), (9 10 11, 13 14 15))")),
+            WKBTranscoder.builder().dropM().build().transcode(wkb));
+        assertArrayEquals(new WKBWriter(Type.WKB, Endian.Big).write(wkt.read("MULTILINESTRING ((1 2, 5 6), (9 10, 13 14))")),
+            WKBTranscoder.builder().type(Type.WKB).endian(Endian.Big).dropZ().dropM().build().transcode(wkb));
+    }
+
+    @Test
+    public void buffers() {
+        WKBTranscoder transcoder = WKBTranscoder.builder().endian(Endian.Big).build();
+        byte[] wkb = new WKBWriter(Type.EWKB, Endian.Little).write(wkt.read("SRID=4326;LINESTRING (1 2, 3 4)"));
+        byte[] expected = transcoder.transcode(wkb);
+        ByteBuffer input = ByteBuffer.allocateDirect(wkb.length + 2);
+        input.put(wkb).put((byte) 7).put((byte) 7).flip();
+        ByteBuffer output = ByteBuffer.allocateDirect(expected.length);
+        transcoder.transcode(input, output);
+        assertEquals(wkb.length, input.position());
+        assertEquals(expected.length, output.position());
+        byte[] actual = new byte[expected.length];
+        output.flip().get(actual);
+        assertArrayEquals(expected, actual);
+
+        input.position(0);
+        ByteBuffer small = ByteBuffer.allocate(expected.length - 1);
+        assertThrows(BufferOverflowException.class, () -> transcoder.transcode(input, small));
+        assertEquals(0, small.position());
+    }
+
+    @Test
+    public void streams() throws IOException {
+        WKBWriter writer = new WKBWriter(Type.EWKB, Endian.Little);
+        WKBTranscoder transcoder = WKBTranscoder.builder().type(Type.EWKB).endian(Endian.Big).stripSrid().build();
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < 500; i++) {
+            String text = wkts[i % wkts.length];
+            byte[] bytes = writer.write(wkt.read(text));
+            input.write(bytes);
+            expected.write(transcoder.transcode(bytes));
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(500, transcoder.transcode(new ByteArrayInputStream(input.toByteArray()), output));
+        assertArrayEquals(expected.toByteArray(), output.toByteArray());
+
+        output = new ByteArrayOutputStream();
+        assertEquals(500, transcoder.transcode(Channels.newChannel(new ByteArrayInputStream(input.toByteArray())), Channels.newChannel(output)));
+        assertArrayEquals(expected.toByteArray(), output.toByteArray());
+    }
+
+    @Test
+    public void invalid() {
+        WKBTranscoder transcoder = WKBTranscoder.builder().build();
+        assertThrows(IllegalArgumentException.class, () -> transcoder.transcode(new byte[]{5, 0, 0, 0, 1}));
+        byte[] wkb = new WKBWriter().write(wkt.read("LINESTRING (1 2, 3 4)"));
+        assertThrows(BufferUnderflowException.class, () -> transcoder.transcode(Arrays.copyOf(wkb, wkb.length - 1)));
+    }
+
+}
@@ -3,7 +3,18 @@ package org.cugos.wkg;
 import org.cugos.wkg.WKB.Endian;
 import org.cugos.wkg.WKB.Type;
 import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class WKBWriterTest {
 
@@ -170,5 +181,107 @@ public class WKBWriterTest {
     }
 
 
-}
+    @Test
+    public void readEmptyCurvesWrittenToStreams() throws IOException {
+        String[] texts = {
+            "LINESTRING EMPTY",
+            "CIRCULARSTRING EMPTY",
+            "GEOMETRYCOLLECTION (LINESTRING EMPTY, POINT (1 2))",
+            "GEOMETRYCOLLECTION (POINT (1 2), CIRCULARSTRING EMPTY, LINESTRING (3 4, 5 6))"
+        };
+        for (Type type : Type.values()) {
+            for (Endian endian : Endian.values()) {
+                WKBWriter writer = new WKBWriter(type, endian);
+                for (String text : texts) {
+                    Geometry geometry = wkt.read(text);
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    writer.write(geometry, out);
+                    assertEquals(geometry.toString(), new WKBReader().read(out.toByteArray()).toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void writeToBuffersStreamsAndChannels() throws IOException {
+        StringBuilder bigLineString = new StringBuilder("LINESTRING (");
+        for (int i = 0; i < 2000; i++) {
+            bigLineString.append(i > 0 ? ", " : "").append(i).append(" ").append(i * 2);
+        }
+        bigLineString.append(")");
+        Geometry[] geometries = {
+            wkt.read("POINT EMPTY"),
+            wkt.read("LINESTRING EMPTY"),
+            wkt.read("CIRCULARSTRING EMPTY"),
+            wkt.read("GEOMETRYCOLLECTION (LINESTRING EMPTY, POINT (1 2))"),
+            wkt.read("SRID=4326;POINT ZM (1 2 3 4)"),
+            wkt.read("MULTIPOLYGON (((1 1, 5 1, 5 5, 1 5, 1 1), (2 2, 3 2, 3 3, 2 3, 2 2)), ((6 3, 9 2, 9 4, 6 3)))"),
+            wkt.read("GEOMETRYCOLLECTION (POINT (4 6), LINESTRING (4 6, 7 10), CIRCULARSTRING (0 0, 1 1, 1 0))"),
+            wkt.read(bigLineString.toString())
+        };
+        for (Type type : Type.values()) {
+            for (Endian endian : Endian.values()) {
+                WKBWriter writer = new WKBWriter(type, endian);
+                for (Geometry geometry : geometries) {
+                    byte[] expected = writer.write(geometry);
+
+                    for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(expected.length + 3), ByteBuffer.allocateDirect(expected.length + 3)}) {
+                        buffer.order(ByteOrder.LITTLE_ENDIAN).position(3);
+                        writer.write(geometry, buffer);
+                        assertEquals(expected.length + 3, buffer.position());
+                        assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+                        byte[] actual = new byte[expected.length];
+                        buffer.position(3);
+                        buffer.get(actual);
+                        assertArrayEquals(expected, actual);
+                    }
+
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    out.write(7);
+                    writer.write(geometry, out);
+                    assertArrayEquals(expected, Arrays.copyOfRange(out.toByteArray(), 1, out.size()));
+
+                    out = new ByteArrayOutputStream();
+                    writer.write(geometry, Channels.newChannel(out));
+                    assertArrayEquals(expected, out.toByteArray());
+                }
+            }
+        }
+    }
 
+    @Test
+    public void writeToBufferThatIsTooSmall() {
+        WKBWriter writer = new WKBWriter(Type.WKB, Endian.Little);
+        ByteBuffer buffer = ByteBuffer.allocate(20).position(2);
+        assertThrows(BufferOverflowException.class, () -> writer.write(wkt.read("POINT (2 4)"), buffer));
+        assertEquals(2, buffer.position());
+        assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+    }
+
+    @Test
+    public void writeCoordinateSequences() {
+        WKBWriter writer = new WKBWriter(Type.EWKB, Endian.Big);
+        WKBReader reader = new WKBReader();
+        WKTWriter wktWriter = new WKTWriter();
+        for (String text : new String[] {
+            "LINESTRING (1.0 2.0, 3.0 4.0)",
+            "LINESTRING M (1.0 2.0 5.0, 3.0 4.0 6.0)",
+            "LINESTRING ZM (1.0 2.0 3.0 5.0, 3.0 4.0 5.0 6.0)",
+            "POLYGON Z ((0.0 0.0 1.0, 0.0 1.0 1.0, 1.0 1.0 1.0, 0.0 0.0 1.0))",
+            "CIRCULARSTRING (0.0 0.0, 1.0 1.0, 2.0 0.0)"
+        }) {
+            assertEquals(text, wktWriter.write(reader.read(writer.write(wkt.read(text)))));
+        }
+    }
+
+    @Test
+    public void writeToByteBufferKeepsPositionOnError() {
+        WKBWriter writer = new WKBWriter(Type.EWKB, Endian.Big);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.position(3);
+        Point point = new Point(Coordinate.create2D(1, 2), Dimension.Two, "EPSG:4326");
+        assertThrows(NumberFormatException.class, () -> writer.write(point, buffer));
+        assertEquals(3, buffer.position());
+    }
+
+}
@@ -0,0 +1,160 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The WKTScanner Unit Test.  The ANTLR based AntlrWKTReader is the reference.
+ * @author Jared Erickson
+ */
+public class WKTScannerTest {
+
+    private final AntlrWKTReader reference = new AntlrWKTReader();
+
+    private final WKTScanner scanner = new WKTScanner();
+
+    private final WKTWriter wktWriter = new WKTWriter();
+
+    private final WKBWriter wkbWriter = new WKBWriter(WKB.Type.EWKB, WKB.Endian.Big);
+
+    private final String[] valid = {
+        "POINT (1 2)",
+        "POINTZ(1 2 3)",
+        "POINT EMPTY",
+        "POINTEMPTY",
+        "SRID=4326;POINT M(1 2 3)",
+        "SRID=-1;POINT (1 2)",
+        "POINT (1-2)",
+        "POINT (+1.5 -2.25)",
+        "POINT (0.1 123456789012345678901234567890)",
+        "POINT (-0 0.000000000000000000000001)",
+        "POINT (0.30000000000000004 9007199254740993)",
+        "POINT ZM (1 2 3 4)",
+        "POINT M (1 2 3 4)",
+        "POINT Z (1 2 3 4)",
+        "POINT (1 2 3 4)",
+        "POINT\t(1\t2)",
+        "POINT (1 2) ignored",
+        "LINESTRING (1 2 , 3 4 )",
+        "LINESTRING ( 1 2,3 4)",
+        "LINESTRING (1 2, 3 4 5, 6 7 8)",
+        "LINESTRING EMPTY",
+        "POLYGON ((0 0, 1 1, 0 0), (2 2, 3 3, 2 2))",
+        "POLYGON (( 0 0, 1 1, 0 0 ) , ( 2 2, 3 3, 2 2 ))",
+        "POLYGON Z EMPTY",
+        "TRIANGLE ((0 0, 1 0, 0 1, 0 0))",
+        "MULTIPOINT (1 2, 3 4)",
+        "MULTIPOINT ((1 2), (3 4))",
+        "MULTIPOINT ((1 2, 5 6), (3 4 7))",
+        "MULTIPOINT (1 2, 3 4 5)",
+        "MULTIPOINT EMPTY",
+        "MULTILINESTRING ((1 2, 3 4), (5 6 7, 8 9 10))",
+        "MULTIPOLYGON (((1 1, 5 1, 5 5, 1 1)), ((6 3, 9 2, 9 4, 6 3)))",
+        "MULTIPOLYGON (( (1 1, 5 1, 5 5, 1 1) ) , ( (6 3, 9 2, 9 4, 6 3) ))",
+        "TIN (((0 0, 1 0, 0 1, 0 0)), ((0 0, 0 1, 1 1, 0 0)))",
+        "POLYHEDRALSURFACE Z (((0 0 0, 0 1 0, 1 1 0, 0 0 0)))",
+        "CIRCULARSTRING (0 0, 1 1, 1 0)",
+        "COMPOUNDCURVE (CIRCULARSTRING (0 0, 1 1, 1 0), (1 0, 0 1))",
+        "COMPOUNDCURVE ((0 0, 1 1), (1 1, 2 2) )",
+        "COMPOUNDCURVE ((0 0, 1 1), SRID=4326;CIRCULARSTRING (1 1, 2 2, 3 3))",
+        "CURVEPOLYGON (CIRCULARSTRING (0 0, 4 0, 4 4, 0 4, 0 0), (1 1, 3 3, 3 1, 1 1))",
+        "CURVEPOLYGON ((1 1, 3 3, 3 1, 1 1), COMPOUNDCURVE (CIRCULARSTRING (0 0, 1 1, 1 0), (1 0, 0 0)))",
+        "CURVEPOLYGON M ((1 1 1, 3 3 1, 3 1 1, 1 1 1))",
+        "MULTICURVE ((0 0, 5 5), CIRCULARSTRING (4 0, 4 4, 8 4))",
+        "MULTICURVE ((0 0, 5 5), COMPOUNDCURVE ((4 0, 4 4), (4 4, 8 4)))",
+        "MULTISURFACE (CURVEPOLYGON (CIRCULARSTRING (0 0, 4 0, 4 4, 0 4, 0 0)), ((10 10, 14 12, 11 10, 10 10)))",
+        "MULTISURFACE (( (10 10, 14 12, 11 10, 10 10) ), CURVEPOLYGON ((0 0, 1 1, 0 0)))",
+        "GEOMETRYCOLLECTION (POINT (1 2), SRID=4326;POINT Z (3 4 5), LINESTRING (1 2 3, 4 5 6))",
+        "GEOMETRYCOLLECTION (POINT (1 2) , LINESTRING (1 2, 3 4) )",
+        "GEOMETRYCOLLECTION (GEOMETRYCOLLECTION (POINT (1 2)), MULTIPOINT EMPTY)",
+        "GEOMETRYCOLLECTION EMPTY"
+    };
+
+    private final String[] invalid = {
+        "",
+        " POINT (1 2)",
+        "point (1 2)",
+        "POINT (1 2",
+        "POINT (1 2,",
+        "POINT (1 2 3 4 5)",
+        "POLYGON ( (0 0, 1 1, 0 0))",
+        "POLYGON ((0 0, 1 1, 0 0) )",
+        "POLYGON ((0 0, 1 1, 0 0)",
+        "MULTIPOLYGON ( ((0 0, 1 1, 0 0)))",
+        "MULTIPOLYGON (((0 0, 1 1, 0 0)) )",
+        "COMPOUNDCURVE ((0 0, 1 1) )",
+        "GEOMETRYCOLLECTION (POINT (1 2) )",
+        "LINESTRING (1 2, 3 4 ",
+        "SRID=4326; POINT (1 2)",
+        "SRID=4326POINT (1 2)",
+        "MULTIPOINT (1 2, (3 4))"
+    };
+
+    @Test
+    public void sameGeometriesAsAntlr() {
+        for (String wkt : valid) {
+            assertEquals(describe(reference.read(wkt)), describe(scanner.read(wkt)), wkt);
+        }
+    }
+
+    @Test
+    public void sameErrorsAsAntlr() {
+        for (String wkt : invalid) {
+            IllegalStateException expected = assertThrows(IllegalStateException.class, () -> reference.read(wkt), wkt);
+            IllegalStateException actual = assertThrows(IllegalStateException.class, () -> scanner.read(wkt), wkt);
+            assertTrue(expected.getMessage().startsWith("failed to parse at line 1 due to "), expected.getMessage());
+            assertTrue(actual.getMessage().startsWith("failed to parse at line 1 due to "), actual.getMessage());
+        }
+        assertEquals("failed to parse at line 1 due to missing ')' at '<EOF>'",
+            assertThrows(IllegalStateException.class, () -> scanner.read("POINT (1 2")).getMessage());
+        assertEquals("failed to parse at line 1 due to extraneous input ' ' expecting '('",
+            assertThrows(IllegalStateException.class, () -> scanner.read("POLYGON ( (0 0, 1 1, 0 0))")).getMessage());
+    }
+
+    @Test
+    public void missingOrdinatesAreErrors() {
+        // The ANTLR listener threw a NullPointerException for these
+        assertEquals("failed to parse at line 1 due to mismatched input ')' expecting Number",
+            assertThrows(IllegalStateException.class, () -> scanner.read("POINT ZM (1 2 3)")).getMessage());
+        assertThrows(IllegalStateException.class, () -> scanner.read("LINESTRING (1 2 3, 4 5)"));
+        assertThrows(IllegalStateException.class, () -> scanner.read("POINT ()"));
+    }
+
+    @Test
+    public void curvesKeepTheirOrder() {
+        String wkt = "COMPOUNDCURVE (CIRCULARSTRING (1.0 1.0, 2.0 2.0, 3.0 3.0), (3.0 3.0, 6.0 6.0), CIRCULARSTRING (6.0 6.0, 8.0 8.0, 9.0 9.0))";
+        assertEquals(wkt, wktWriter.write(scanner.read(wkt)));
+        wkt = "MULTICURVE (CIRCULARSTRING (1.0 1.0, 2.0 2.0, 3.0 3.0), (5.0 5.0, 6.0 6.0), COMPOUNDCURVE (CIRCULARSTRING (9.0 9.0, 8.0 8.0, 9.0 9.0)))";
+        assertEquals(wkt, wktWriter.write(scanner.read(wkt)));
+    }
+
+    @Test
+    public void readRange() {
+        char[] chars = "xxPOINT (1 2)POINT (3 4)".toCharArray();
+        assertEquals("POINT (1.0 2.0)", wktWriter.write(scanner.read(chars, 2, 11)));
+        assertEquals("POINT (3.0 4.0)", wktWriter.write(scanner.read(chars, 13, 11)));
+    }
+
+    @Test
+    public void matchesReference() {
+        String[] wkts = {
+            "SRID=4326;LINESTRING (-122.31234567 47.61234567, -122.32345678 47.62345678, -122.33456789 47.63456789, -122.34567891 47.64567891)",
+            "POLYGON ((35.1 10.2, 45.3 45.4, 15.5 40.6, 10.7 20.8, 35.1 10.2), (20.1 30.2, 35.3 35.4, 30.5 20.6, 20.1 30.2))",
+            "MULTIPOINT Z (1.5 2.5 3.5, 4.5 5.5 6.5, 7.5 8.5 9.5)",
+            "GEOMETRYCOLLECTION (POINT (4 6), LINESTRING (4 6, 7 10))"
+        };
+        WKTReader reader = new WKTReader();
+        for (String wkt : wkts) {
+            assertEquals(describe(reference.read(wkt)), describe(reader.read(wkt)));
+        }
+    }
+
+    private String describe(Geometry geometry) {
+        return geometry.getClass().getSimpleName() + " " + geometry.getSrid() + " " + geometry.getDimension() + " "
+            + wktWriter.write(geometry) + " " + wkbWriter.writeToHex(geometry);
+    }
+
+}
@@ -0,0 +1,136 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WKTStreamReaderTest {
+
+    private final WKTWriter wktWriter = new WKTWriter();
+
+    private final List<String> wkts = Arrays.asList(
+        "POINT (1.0 2.0)",
+        "LINESTRING (101.0 234.0, 345.0 567.0)",
+        "POLYGON ((35.0 10.0, 45.0 45.0, 15.0 40.0, 10.0 20.0, 35.0 10.0), (20.0 30.0, 35.0 35.0, 30.0 20.0, 20.0 30.0))",
+        "SRID=4326;MULTIPOLYGON (((40.0 40.0, 20.0 45.0, 45.0 30.0, 40.0 40.0)), ((20.0 35.0, 10.0 30.0, 10.0 10.0, 30.0 5.0, 45.0 20.0, 20.0 35.0), (30.0 20.0, 20.0 15.0, 20.0 25.0, 30.0 20.0)))",
+        "POINT ZM (1.0 2.0 3.0 4.0)",
+        "GEOMETRYCOLLECTION (POINT (4.0 6.0), LINESTRING (4.0 6.0, 7.0 10.0))"
+    );
+
+    private List<String> read(WKTStreamReader reader) {
+        List<String> values = new ArrayList<>();
+        while (reader.hasNext()) {
+            values.add(wktWriter.write(reader.next()));
+        }
+        return values;
+    }
+
+    @Test
+    public void readLines() {
+        for (String lineBreak : new String[] {"\n", "\r\n", "\r"}) {
+            String text = String.join(lineBreak, wkts) + lineBreak;
+            for (int bufferSize : new int[] {1, 7, 64, WKTStreamReader.DEFAULT_BUFFER_SIZE}) {
+                WKTStreamReader reader = WKTStreamReader.builder().bufferSize(bufferSize).build(new StringReader(text));
+                assertEquals(wkts, read(reader));
+                assertEquals(wkts.size(), reader.getNumberOfRecords());
+            }
+        }
+    }
+
+    @Test
+    public void blankLinesAndWhiteSpace() {
+        String text = "\n  POINT (1 2)\t\n\n   \nLINESTRING (1 2, 3 4)";
+        assertEquals(Arrays.asList("POINT (1.0 2.0)", "LINESTRING (1.0 2.0, 3.0 4.0)"), read(new WKTStreamReader(new StringReader(text))));
+    }
+
+    @Test
+    public void readCsv() {
+        String text = "id,geom,name\r\n"
+            + "1,\"POINT (1 2)\",first\r\n"
+            + "2,\"LINESTRING (1 2, 3 4)\",\"second, with a comma\"\r\n"
+            + "3,POINT Z (1 2 3),third\r\n"
+            + "4,\"GEOMETRYCOLLECTION (POINT (4 6),\nLINESTRING (4 6, 7 10))\",\"multi\nline\"\r\n"
+            + "5,\" POINT (5 6) \"\"ignored\"\"\",\"quoted \"\"name\"\"\"\r\n";
+        List<String> expected = Arrays.asList(
+            "POINT (1.0 2.0)",
+            "LINESTRING (1.0 2.0, 3.0 4.0)",
+            "POINT Z (1.0 2.0 3.0)",
+            "POINT (5.0 6.0)"
+        );
+        for (int bufferSize : new int[] {1, 16, WKTStreamReader.DEFAULT_BUFFER_SIZE}) {
+            // The line break inside the collection is not valid WKT
+            WKTStreamReader reader = WKTStreamReader.builder().csv(1).skipHeader().skipMalformed().bufferSize(bufferSize).build(new StringReader(text));
+            assertEquals(expected, read(reader));
+            assertEquals(6, reader.getNumberOfRecords());
+            assertEquals(1, reader.getNumberOfSkippedRecords());
+            assertEquals(expected, read(WKTStreamReader.builder().csv("geom").skipMalformed().bufferSize(bufferSize).build(new StringReader(text))));
+        }
+    }
+
+    @Test
+    public void readCsvWithBlankLines() {
+        String text = "id,wkt\n1,POINT (1 2)\n\n  \r\n2,POINT (3 4)\n";
+        List<String> expected = Arrays.asList("POINT (1.0 2.0)", "POINT (3.0 4.0)");
+        assertEquals(expected, read(WKTStreamReader.builder().csv(1).skipHeader().build(new StringReader(text))));
+        assertEquals(expected, read(WKTStreamReader.builder().csv("wkt").build(new StringReader(text))));
+    }
+
+    @Test
+    public void readCsvWithDelimiterAndQuote() {
+        String text = "wkt;name\n'POINT (1 2)';'a;b'\nPOINT (3 4);c\n";
+        WKTStreamReader reader = WKTStreamReader.builder().csv("wkt").delimiter(';').quote('\'').build(new StringReader(text));
+        assertEquals(Arrays.asList("POINT (1.0 2.0)", "POINT (3.0 4.0)"), read(reader));
+    }
+
+    @Test
+    public void malformed() {
+        String text = "POINT (1 2)\nPOINT (1\nLINESTRING (1 2, 3 4)\n";
+        WKTStreamReader reader = new WKTStreamReader(new StringReader(text));
+        assertEquals("POINT (1.0 2.0)", wktWriter.write(reader.next()));
+        IllegalStateException e = assertThrows(IllegalStateException.class, reader::next);
+        assertTrue(e.getMessage().startsWith("Unable to read record 2! failed to parse at line 1"), e.getMessage());
+        assertEquals("LINESTRING (1.0 2.0, 3.0 4.0)", wktWriter.write(reader.next()));
+        assertFalse(reader.hasNext());
+        assertThrows(NoSuchElementException.class, reader::next);
+
+        reader = WKTStreamReader.builder().skipMalformed().build(new StringReader(text));
+        assertEquals(Arrays.asList("POINT (1.0 2.0)", "LINESTRING (1.0 2.0, 3.0 4.0)"), read(reader));
+        assertEquals(1, reader.getNumberOfSkippedRecords());
+
+        assertThrows(IllegalStateException.class, () -> read(WKTStreamReader.builder().csv(2).build(new StringReader("1,POINT (1 2)\n"))));
+        assertThrows(IllegalStateException.class, () -> read(WKTStreamReader.builder().csv(0).build(new StringReader("\"POINT (1 2)\n"))));
+        assertThrows(IllegalArgumentException.class, () -> read(WKTStreamReader.builder().csv("wkt").build(new StringReader("a,b\n"))));
+        assertThrows(IllegalArgumentException.class, () -> WKTStreamReader.builder().bufferSize(0));
+    }
+
+    @Test
+    public void readFile(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("geometries.wkt");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append(wkts.get(i % wkts.size())).append('\n');
+        }
+        Files.write(path, text.toString().getBytes(StandardCharsets.UTF_8));
+        try (Stream<Geometry> stream = WKTStreamReader.builder().build(path).stream()) {
+            List<String> values = stream.map(wktWriter::write).collect(Collectors.toList());
+            assertEquals(10000, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                assertEquals(wkts.get(i % wkts.size()), values.get(i));
+            }
+        }
+    }
+
+}
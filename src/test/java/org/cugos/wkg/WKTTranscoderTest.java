@@ -0,0 +1,186 @@
+package org.cugos.wkg;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The WKTTranscoder Unit Test.  The WKTReader and WKBWriter are the reference.
+ * @author Jared Erickson
+ */
+public class WKTTranscoderTest {
+
+    private final WKTReader wktReader = new WKTReader();
+
+    private final String[] wkts = {
+        "POINT (1 2)",
+        "POINTZ(1 2 3)",
+        "POINT EMPTY",
+        "SRID=4326;POINT M(1 2 3)",
+        "SRID=4326;POINT EMPTY",
+        "POINT ZM (1 2 3 4)",
+        "POINT (1 2 3 4)",
+        "POINT (0.30000000000000004 -9007199254740993)",
+        "LINESTRING (1 2, 3 4)",
+        "LINESTRING (1 2, 3 4 5, 6 7 8)",
+        "SRID=4326;LINESTRING Z (1 2 3, 4 5 6)",
+        "LINESTRING EMPTY",
+        "POLYGON ((0 0, 1 1, 0 0), (2 2, 3 3, 2 2))",
+        "POLYGON Z EMPTY",
+        "TRIANGLE ((0 0, 1 0, 0 1, 0 0))",
+        "MULTIPOINT (1 2, 3 4)",
+        "MULTIPOINT ((1 2), (3 4))",
+        "MULTIPOINT ((1 2, 5 6), (3 4 7))",
+        "MULTIPOINT (1 2, 3 4 5)",
+        "SRID=3857;MULTIPOINT M (1 2 3, 3 4 5)",
+        "MULTIPOINT EMPTY",
+        "MULTILINESTRING ((1 2, 3 4), (5 6 7, 8 9 10))",
+        "MULTIPOLYGON (((1 1, 5 1, 5 5, 1 1)), ((6 3, 9 2, 9 4, 6 3)))",
+        "SRID=4326;MULTIPOLYGON ZM (( (1 1 1 1, 5 1 1 1, 5 5 1 1, 1 1 1 1) ) , ( (6 3 1 1, 9 2 1 1, 9 4 1 1, 6 3 1 1) ))",
+        "TIN (((0 0, 1 0, 0 1, 0 0)), ((0 0, 0 1, 1 1, 0 0)))",
+        "POLYHEDRALSURFACE Z (((0 0 0, 0 1 0, 1 1 0, 0 0 0)))",
+        "CIRCULARSTRING (0 0, 1 1, 1 0)",
+        "CIRCULARSTRING EMPTY",
+        "COMPOUNDCURVE (CIRCULARSTRING (0 0, 1 1, 1 0), (1 0, 0 1))",
+        "COMPOUNDCURVE ((0 0, 1 1), SRID=4326;CIRCULARSTRING (1 1, 2 2, 3 3))",
+        "CURVEPOLYGON (CIRCULARSTRING (0 0, 4 0, 4 4, 0 4, 0 0), (1 1, 3 3, 3 1, 1 1))",
+        "CURVEPOLYGON ((1 1, 3 3, 3 1, 1 1), COMPOUNDCURVE (CIRCULARSTRING (0 0, 1 1, 1 0), (1 0, 0 0)))",
+        "SRID=4326;CURVEPOLYGON M ((1 1 1, 3 3 1, 3 1 1, 1 1 1))",
+        "CURVEPOLYGON (CIRCULARSTRING EMPTY, (1 1, 3 3, 3 1, 1 1))",
+        "MULTICURVE ((0 0, 5 5), CIRCULARSTRING (4 0, 4 4, 8 4))",
+        "MULTICURVE ((0 0, 5 5), COMPOUNDCURVE ((4 0, 4 4), (4 4, 8 4)))",
+        "MULTISURFACE (CURVEPOLYGON (CIRCULARSTRING (0 0, 4 0, 4 4, 0 4, 0 0)), ((10 10, 14 12, 11 10, 10 10)))",
+        "MULTISURFACE (( (10 10, 14 12, 11 10, 10 10) ), CURVEPOLYGON ((0 0, 1 1, 0 0)))",
+        "GEOMETRYCOLLECTION (POINT (1 2), LINESTRING (1 2, 3 4 5))",
+        "GEOMETRYCOLLECTION (POINT (1 2), POINT Z (3 4 5), LINESTRING (1 2 3, 4 5 6))",
+        "GEOMETRYCOLLECTION (POINT (1 2), SRID=4326;POINT Z (3 4 5), LINESTRING (1 2 3, 4 5 6))",
+        "SRID=4326;GEOMETRYCOLLECTION (POINT (1 2), SRID=4326;POINT (3 4))",
+        "GEOMETRYCOLLECTION (GEOMETRYCOLLECTION (POINT (1 2)), MULTIPOINT EMPTY, POINT EMPTY)",
+        "GEOMETRYCOLLECTION (CURVEPOLYGON EMPTY, COMPOUNDCURVE EMPTY, MULTISURFACE EMPTY, TIN EMPTY)",
+        "GEOMETRYCOLLECTION EMPTY"
+    };
+
+    @Test
+    public void sameBytesAsWKBWriter() {
+        for (WKB.Type type : WKB.Type.values()) {
+            for (WKB.Endian endian : WKB.Endian.values()) {
+                WKTTranscoder transcoder = new WKTTranscoder(type, endian);
+                WKBWriter writer = new WKBWriter(type, endian);
+                for (String wkt : wkts) {
+                    assertEquals(ByteCodec.encodeHex(write(writer, wkt)), transcoder.transcodeToHex(wkt), type + " " + endian + " " + wkt);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sameErrorsAsWKTReader() {
+        WKTTranscoder transcoder = new WKTTranscoder(WKB.Type.EWKB, WKB.Endian.Little);
+        for (String wkt : Arrays.asList("", "POINT (1 2", "POINT ZM (1 2 3)", "LINESTRING (1 2 3, 4 5)",
+            "GEOMETRYCOLLECTION (POINT (1 2) )", "COMPOUNDCURVE ((0 0, 1 1), CIRCULARSTRING (1 1, 2 2, 3 3) ",
+            // The WKTReader reads the LineString after the CircularString changed the Dimension
+            "COMPOUNDCURVE ((0 0, 1 1), CIRCULARSTRING Z (1 1 1, 2 2 2, 3 3 3))")) {
+            IllegalStateException expected = assertThrows(IllegalStateException.class, () -> wktReader.read(wkt));
+            IllegalStateException actual = assertThrows(IllegalStateException.class, () -> transcoder.transcode(wkt));
+            assertEquals(expected.getMessage(), actual.getMessage());
+        }
+    }
+
+    @Test
+    public void readEmptyGeometries() {
+        // An empty Point is written without Coordinates, which the WKBReader can not read
+        String[] keywords = {"LINESTRING", "POLYGON", "TRIANGLE", "MULTIPOINT", "MULTILINESTRING", "CIRCULARSTRING",
+            "TIN", "POLYHEDRALSURFACE", "MULTIPOLYGON", "CURVEPOLYGON", "COMPOUNDCURVE", "MULTICURVE", "MULTISURFACE",
+            "GEOMETRYCOLLECTION"};
+        WKBReader wkbReader = new WKBReader();
+        for (WKB.Type type : WKB.Type.values()) {
+            for (WKB.Endian endian : WKB.Endian.values()) {
+                WKTTranscoder transcoder = new WKTTranscoder(type, endian);
+                for (String keyword : keywords) {
+                    String wkt = keyword + " EMPTY";
+                    assertEquals(wktReader.read(wkt).toString(), wkbReader.read(transcoder.transcode(wkt)).toString(), type + " " + endian + " " + wkt);
+                }
+                String wkt = "GEOMETRYCOLLECTION (LINESTRING EMPTY, POINT (1 2))";
+                assertEquals(wktReader.read(wkt).toString(), wkbReader.read(transcoder.transcode(wkt)).toString(), type + " " + endian + " " + wkt);
+            }
+        }
+    }
+
+    @Test
+    public void decimalSrid() {
+        WKTTranscoder transcoder = new WKTTranscoder(WKB.Type.EWKB, WKB.Endian.Big);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> transcoder.transcode("SRID=4326.5;POINT(1 2)"));
+        assertEquals("The SRID is not an integer! 4326.5", e.getMessage());
+        assertEquals("0000000001" + "3FF0000000000000" + "4000000000000000",
+            new WKTTranscoder(WKB.Type.WKB, WKB.Endian.Big).transcodeToHex("SRID=4326.5;POINT(1 2)"));
+    }
+
+    @Test
+    public void transcodeRange() {
+        WKTTranscoder transcoder = new WKTTranscoder();
+        char[] chars = "xxPOINT (1 2)POINT (3 4)".toCharArray();
+        assertEquals("000000000140080000000000004010000000000000", ByteCodec.encodeHex(transcoder.transcode(chars, 13, 11)));
+    }
+
+    @Test
+    public void transcodeToByteBuffer() {
+        WKTTranscoder transcoder = new WKTTranscoder(WKB.Type.EWKB, WKB.Endian.Little);
+        String wkt = "SRID=4326;LINESTRING (1 2, 3 4)";
+        byte[] expected = write(new WKBWriter(WKB.Type.EWKB, WKB.Endian.Little), wkt);
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length + 2);
+        buffer.position(2);
+        transcoder.transcode(wkt, buffer);
+        assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+        assertEquals(buffer.capacity(), buffer.position());
+        assertArrayEquals(expected, Arrays.copyOfRange(buffer.array(), 2, buffer.capacity()));
+
+        ByteBuffer small = ByteBuffer.allocate(8);
+        assertThrows(BufferOverflowException.class, () -> transcoder.transcode(wkt, small));
+        assertEquals(0, small.position());
+    }
+
+    @Test
+    public void largeGeometry() {
+        StringBuilder wkt = new StringBuilder("MULTILINESTRING Z (");
+        for (int i = 0; i < 100; i++) {
+            wkt.append(i == 0 ? "(" : ", (");
+            for (int j = 0; j < 100; j++) {
+                wkt.append(j == 0 ? "" : ", ").append(i).append(' ').append(j).append(' ').append(i * j);
+            }
+            wkt.append(')');
+        }
+        wkt.append(')');
+        WKTTranscoder transcoder = new WKTTranscoder(WKB.Type.EWKB, WKB.Endian.Big);
+        assertArrayEquals(new WKBWriter(WKB.Type.EWKB, WKB.Endian.Big).write(wktReader.read(wkt.toString())),
+            transcoder.transcode(wkt.toString()));
+    }
+
+    @Test
+    public void matchesWKBWriter() {
+        String[] wkts = {
+            "SRID=4326;LINESTRING (-122.31234567 47.61234567, -122.32345678 47.62345678, -122.33456789 47.63456789, -122.34567891 47.64567891)",
+            "POLYGON ((35.1 10.2, 45.3 45.4, 15.5 40.6, 10.7 20.8, 35.1 10.2), (20.1 30.2, 35.3 35.4, 30.5 20.6, 20.1 30.2))",
+            "MULTIPOINT Z (1.5 2.5 3.5, 4.5 5.5 6.5, 7.5 8.5 9.5)",
+            "GEOMETRYCOLLECTION (POINT (4 6), LINESTRING (4 6, 7 10))"
+        };
+        WKBWriter writer = new WKBWriter(WKB.Type.EWKB, WKB.Endian.Little);
+        WKTTranscoder transcoder = new WKTTranscoder(WKB.Type.EWKB, WKB.Endian.Little);
+        for (String wkt : wkts) {
+            assertArrayEquals(write(writer, wkt), transcoder.transcode(wkt));
+        }
+    }
+
+    private byte[] write(WKBWriter writer, String wkt) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024 * 1024);
+        writer.write(wktReader.read(wkt), buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+}
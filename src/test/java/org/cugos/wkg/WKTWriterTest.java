@@ -2,10 +2,13 @@ package org.cugos.wkg;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * The WKTWriter Unit Test
@@ -70,4 +73,84 @@ public class WKTWriterTest {
         assertEquals("CIRCULARSTRING (1.0 1.0, 5.0 5.0, 2.0 2.0)", writer.write(cs));
     }
 
+    @Test
+    public void formatter() {
+        Point point = new Point(Coordinate.create3D(-122.123456789, 0.00001, 1.0E7), Dimension.Three);
+        assertEquals("POINT Z (-122.123456789 0.00001 10000000.0)", new WKTWriter().write(point));
+        assertEquals("POINT Z (-122.123457 0.00001 10000000.0)", new WKTWriter(false, DoubleFormatter.maximumDecimals(6)).write(point));
+        assertEquals("POINT Z (-122.12 0.00 10000000.00)", new WKTWriter(false, DoubleFormatter.fixedDecimals(2)).write(point));
+    }
+
+    @Test
+    public void writeToAppendable() throws IOException {
+        WKTReader reader = new WKTReader();
+        Geometry geometry = reader.read("SRID=4326;GEOMETRYCOLLECTION Z (POINT Z (1 2 3), MULTIPOINT Z ((1 2 3), (4 5 6)), "
+            + "CURVEPOLYGON Z (COMPOUNDCURVE Z (CIRCULARSTRING Z (0 0 1, 1 1 1, 1 0 1), (1 0 1, 0 0 1))))");
+
+        StringWriter writer = new StringWriter();
+        new WKTWriter().write(geometry, writer);
+        assertEquals("SRID=4326;GEOMETRYCOLLECTION Z (POINT (1.0 2.0 3.0), MULTIPOINT (1.0 2.0 3.0, 4.0 5.0 6.0), "
+            + "CURVEPOLYGON (COMPOUNDCURVE (CIRCULARSTRING (0.0 0.0 1.0, 1.0 1.0 1.0, 1.0 0.0 1.0), (1.0 0.0 1.0, 0.0 0.0 1.0))))", writer.toString());
+
+        WKTWriter innerParens = new WKTWriter(true);
+        StringBuilder builder = new StringBuilder("geometry: ");
+        innerParens.write(geometry, builder, false, false);
+        assertEquals("geometry: " + innerParens.write(geometry, false, false), builder.toString());
+        assertEquals("geometry: GEOMETRYCOLLECTION (POINT (1.0 2.0 3.0), MULTIPOINT ((1.0 2.0 3.0), (4.0 5.0 6.0)), "
+            + "CURVEPOLYGON (COMPOUNDCURVE (CIRCULARSTRING (0.0 0.0 1.0, 1.0 1.0 1.0, 1.0 0.0 1.0), (1.0 0.0 1.0, 0.0 0.0 1.0))))", builder.toString());
+    }
+
+    @Test
+    public void writeToFailingAppendable() {
+        Appendable closed = new java.io.Writer() {
+            @Override
+            public void write(char[] chars, int offset, int length) throws IOException {
+                throw new IOException("closed");
+            }
+            @Override
+            public void flush() {
+            }
+            @Override
+            public void close() {
+            }
+        };
+        Point point = new Point(Coordinate.create2D(1, 2), Dimension.Two);
+        IOException e = assertThrows(IOException.class, () -> new WKTWriter().write(new GeometryCollection(Arrays.asList(point), Dimension.Two), closed));
+        assertEquals("closed", e.getMessage());
+    }
+
+    @Test
+    public void writeNestedCurvesAndSurfaces() {
+        String[] wkts = {
+            "MULTISURFACE (CURVEPOLYGON (COMPOUNDCURVE (CIRCULARSTRING (0.0 0.0, 2.0 0.0, 2.0 1.0), (2.0 1.0, 0.0 0.0)), (0.5 0.5, 1.0 0.5, 0.5 0.5)), ((10.0 10.0, 10.0 12.0, 12.0 12.0, 10.0 10.0)))",
+            "MULTICURVE ((1.0 1.0, 10.0 10.0), CIRCULARSTRING (0.0 0.0, 1.0 1.0, 2.0 0.0), COMPOUNDCURVE ((0.0 0.0, 1.0 1.0), CIRCULARSTRING (1.0 1.0, 2.0 2.0, 3.0 1.0)))"
+        };
+        WKTReader reader = new WKTReader();
+        WKTWriter writer = new WKTWriter();
+        for (String wkt : wkts) {
+            assertEquals(wkt, writer.write(reader.read(wkt)));
+        }
+    }
+
+    @Test
+    public void overrideAppendMethods() {
+        WKTWriter writer = new WKTWriter() {
+            @Override
+            protected void appendSrid(Geometry g, Appendable builder) throws IOException {
+                builder.append("<").append(g.getSrid()).append(">");
+            }
+        };
+        Point point = new Point(Coordinate.create2D(1, 2), Dimension.Two, "4326");
+        assertEquals("<4326>POINT (1.0 2.0)", writer.write(point));
+
+        writer = new WKTWriter() {
+            @Override
+            protected void appendCoordinateSequence(CoordinateSequence coordinates, Appendable builder) throws IOException {
+                builder.append(coordinates.size() + " coordinates");
+            }
+        };
+        assertEquals("LINESTRING (2 coordinates)", writer.write(new WKTReader().read("LINESTRING (1 2, 3 4)")));
+        assertEquals("POLYGON ((4 coordinates))", writer.write(new WKTReader().read("POLYGON ((0 0, 1 0, 1 1, 0 0))")));
+    }
+
 }